@@ -9,7 +9,7 @@ import org.apache.commons.cli.Options;
  * @author matthew.hillier
  */
 public class CLIConstants {
-    public static final String CLI_USAGE = "java -jar XIVStats-Gatherer-Java.jar [-i] -s startid [-f finishid] [-a autostop-id] [-g autostop-gap] [-d database-name] [-u database-user] [-p database-user-password] [-U database-url] [-t threads]";
+    public static final String CLI_USAGE = "java -jar XIVStats-Gatherer-Java.jar [-i] -s startid [-f finishid] [-a autostop-id] [-g autostop-gap] [-d database-name] [-u database-user] [-p database-user-password] [-U database-url] [-t threads] [-V] [-A] [-m max-in-flight] [-L] [-c connections] [-r requests-per-second] [-b request-burst] [-P] [-R] [-E dom|streaming] [-C edb-store-file] [-N inline|background] [-K catalog-file] [-F] [-w write-batch-size] [-X] [-M status-map-file] [-S] [-D db-pool-size]";
 
     /**
      * Private constructor as this should never me initiated.
@@ -46,6 +46,48 @@ public class CLIConstants {
                                    .desc("database user password").build();
         Option optThreads = Option.builder("t").longOpt("threads").argName("no-threads").hasArg().numberOfArgs(1)
                                   .desc("number of gatherer threads to run").build();
+        Option optVirtual = Option.builder("V").longOpt("virtual")
+                                  .desc("gather each character on a virtual thread, up to the least of max-in-flight, "
+                                        + "connections and db-pool (unless writes are batched) at once (Java 21+)").build();
+        Option optAsync = Option.builder("A").longOpt("async")
+                                .desc("fetch pages using the non-blocking page loader").build();
+        Option optMaxInFlight = Option.builder("m").longOpt("max-in-flight").argName("max-in-flight").hasArg().numberOfArgs(1)
+                                      .desc("maximum number of characters in flight when using the non-blocking page loader, "
+                                            + "staged pipeline or virtual threads").build();
+        Option optAdaptive = Option.builder("L").longOpt("adaptive")
+                                   .desc("adapt the number of characters gathered at once to the Lodestone's response").build();
+        Option optConnections = Option.builder("c").longOpt("connections").argName("connections").hasArg().numberOfArgs(1)
+                                      .desc("maximum number of pooled HTTP connections to each Lodestone host").build();
+        Option optRate = Option.builder("r").longOpt("rate").argName("requests-per-second").hasArg().numberOfArgs(1)
+                               .desc("maximum number of requests per second to send to the Lodestone").build();
+        Option optBurst = Option.builder("b").longOpt("burst").argName("request-burst").hasArg().numberOfArgs(1)
+                                .desc("maximum number of requests to send back-to-back when rate limited").build();
+        Option optParallel = Option.builder("P").longOpt("parallel")
+                                   .desc("fetch each character's class/job, mount and minion pages in parallel").build();
+        Option optRefresh = Option.builder("R").longOpt("refresh")
+                                  .desc("only re-fetch previously gathered characters where they have changed").build();
+        Option optExtractor = Option.builder("E").longOpt("extractor").argName("dom|streaming").hasArg().numberOfArgs(1)
+                                    .desc("how to extract character details from their pages, by DOM or streaming").build();
+        Option optEdbStore = Option.builder("C").longOpt("edb-store").argName("edb-store-file").hasArg().numberOfArgs(1)
+                                   .desc("file in which to keep Eorzea Database names between runs").build();
+        Option optNameLookups = Option.builder("N").longOpt("name-lookups").argName("inline|background").hasArg().numberOfArgs(1)
+                                      .desc("look up unknown mount & minion names while gathering each character, or in the background")
+                                      .build();
+        Option optCatalog = Option.builder("K").longOpt("catalog").argName("catalog-file").hasArg().numberOfArgs(1)
+                                  .desc("catalog file of mount & minion names to import before gathering").build();
+        Option optRefreshCatalog = Option.builder("F").longOpt("refresh-catalog")
+                                         .desc("add the mounts & minions missing from the catalog file to it, rather than gather characters")
+                                         .build();
+        Option optWriteBatch = Option.builder("w").longOpt("write-batch").argName("write-batch-size").hasArg().numberOfArgs(1)
+                                     .desc("number of characters to write to the database in each batch").build();
+        Option optUpsert = Option.builder("X").longOpt("upsert")
+                                 .desc("write characters with the database's native upsert, rather than through JPA").build();
+        Option optStatusMap = Option.builder("M").longOpt("status-map").argName("status-map-file").hasArg().numberOfArgs(1)
+                                    .desc("file in which to keep the status of every character ID between runs").build();
+        Option optStaged = Option.builder("S").longOpt("staged")
+                                 .desc("gather through a pipeline of separately sized fetch, parse, resolve & persist stages").build();
+        Option optDbPool = Option.builder("D").longOpt("db-pool").argName("db-pool-size").hasArg().numberOfArgs(1)
+                                 .desc("maximum number of pooled database connections, one per thread by default").build();
         Option optIgnoreSSLVerify = Option.builder("i").longOpt("ignore-ssl-verification")
                                           .desc("Supress/ignore MySQL SSL verification warnings").build();
 
@@ -58,9 +100,28 @@ public class CLIConstants {
         options.addOption(optUser);
         options.addOption(optPassword);
         options.addOption(optThreads);
+        options.addOption(optVirtual);
         options.addOption(optURL);
         options.addOption(optHelp);
         options.addOption(optIgnoreSSLVerify);
+        options.addOption(optAsync);
+        options.addOption(optMaxInFlight);
+        options.addOption(optAdaptive);
+        options.addOption(optConnections);
+        options.addOption(optRate);
+        options.addOption(optBurst);
+        options.addOption(optParallel);
+        options.addOption(optRefresh);
+        options.addOption(optExtractor);
+        options.addOption(optEdbStore);
+        options.addOption(optNameLookups);
+        options.addOption(optCatalog);
+        options.addOption(optRefreshCatalog);
+        options.addOption(optWriteBatch);
+        options.addOption(optUpsert);
+        options.addOption(optStatusMap);
+        options.addOption(optStaged);
+        options.addOption(optDbPool);
 
         return options;
     }
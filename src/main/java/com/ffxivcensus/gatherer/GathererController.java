@@ -1,6 +1,10 @@
 package com.ffxivcensus.gatherer;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -13,14 +17,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.ffxivcensus.gatherer.config.ApplicationConfig;
+import com.ffxivcensus.gatherer.edb.CollectibleCatalogRefresher;
+import com.ffxivcensus.gatherer.edb.EorzeaDatabaseCache;
+import com.ffxivcensus.gatherer.lodestone.LodestoneHttpClient;
 import com.ffxivcensus.gatherer.player.CharacterStatus;
+import com.ffxivcensus.gatherer.player.CharacterStatusMap;
 import com.ffxivcensus.gatherer.player.PlayerBean;
 import com.ffxivcensus.gatherer.player.PlayerBeanRepository;
+import com.ffxivcensus.gatherer.player.PlayerBeanWriter;
 import com.ffxivcensus.gatherer.player.PlayerBuilder;
+import com.ffxivcensus.gatherer.task.CollectionMigrationTask;
 import com.ffxivcensus.gatherer.task.GathererTask;
 import com.ffxivcensus.gatherer.task.GatheringLimiterTask;
+import com.ffxivcensus.gatherer.task.GatheringPipeline;
+import com.ffxivcensus.gatherer.task.HttpPoolMonitorTask;
+import com.ffxivcensus.gatherer.task.InFlightLimiter;
 import com.ffxivcensus.gatherer.task.LevemeteTask;
+import com.ffxivcensus.gatherer.task.OwnershipRefreshTask;
+import com.ffxivcensus.gatherer.task.PipelineMonitorTask;
 import com.ffxivcensus.gatherer.task.TaskFactory;
+import com.ffxivcensus.gatherer.task.TopEndCleanupTask;
+import com.ffxivcensus.gatherer.task.VirtualThreads;
 
 /**
  * GathererController class of character gathering program. This class makes calls to fetch records from the lodestone, and then
@@ -34,10 +51,22 @@ import com.ffxivcensus.gatherer.task.TaskFactory;
 @Service
 public class GathererController {
     private static final Logger LOG = LoggerFactory.getLogger(GathererController.class);
+    /** Number of characters to reload at once when refreshing their flags. */
+    private static final int OWNERSHIP_REFRESH_BLOCK_SIZE = 500;
+    /** Longest time to wait for the names still being looked up once gathering has finished. */
+    private static final long OWNERSHIP_REFRESH_LOOKUP_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
     private ApplicationConfig appConfig;
     private final TaskFactory taskFactory;
     private final GatheringStatus gatheringStatus;
     private final PlayerBeanRepository playerRepository;
+    private final InFlightLimiter inFlightLimiter;
+    private final LodestoneHttpClient httpClient;
+    private CollectibleCatalogRefresher catalogRefresher;
+    private PlayerBeanWriter playerWriter;
+    private GatheringPipeline gatheringPipeline;
+    private PlayerBuilder playerBuilder;
+    private EorzeaDatabaseCache edbCache;
+    private CollectionMigrationTask collectionMigration;
 
     /**
      * Constructs a new {@link GathererController} and configures with the provided {@link ApplicationConfig}.
@@ -45,11 +74,14 @@ public class GathererController {
      * @param config Configuration Bean
      */
     public GathererController(@Autowired final ApplicationConfig config, @Autowired final TaskFactory taskFactory,
-                              @Autowired final PlayerBeanRepository playerRepository, @Autowired GatheringStatus gatheringStatus) {
+                              @Autowired final PlayerBeanRepository playerRepository, @Autowired GatheringStatus gatheringStatus,
+                              @Autowired final InFlightLimiter inFlightLimiter, @Autowired final LodestoneHttpClient httpClient) {
         this.appConfig = config;
         this.taskFactory = taskFactory;
         this.gatheringStatus = gatheringStatus;
         this.playerRepository = playerRepository;
+        this.inFlightLimiter = inFlightLimiter;
+        this.httpClient = httpClient;
     }
 
     /**
@@ -59,6 +91,16 @@ public class GathererController {
      * @throws Exception Exception thrown if system is incorrectly configured.
      */
     public void run() throws ParseException {
+        if(appConfig.isRefreshCatalog()) {
+            refreshCatalog();
+            return;
+        }
+
+        // Characters gathered before their mounts & minions were kept as sets need converting before they can be gathered again
+        if(collectionMigration != null) {
+            collectionMigration.run();
+        }
+
         // Store start time
         long startTime = System.currentTimeMillis();
 
@@ -67,11 +109,22 @@ public class GathererController {
             appConfig.setThreadLimit(ApplicationConfig.MAX_THREADS);
         }
 
+        // Virtual threads need Java 21 onwards, otherwise fall back to the thread pool
+        if(appConfig.isVirtualThreads() && !VirtualThreads.isSupported()) {
+            LOG.warn("Virtual threads are not supported by Java {}, falling back to {} threads", System.getProperty("java.version"),
+                     appConfig.getThreadLimit());
+            appConfig.setVirtualThreads(false);
+        } else if(appConfig.isVirtualThreads() && appConfig.getVirtualThreadsInFlight() <= appConfig.getThreadLimit()) {
+            LOG.warn("Virtual threads are capped by the connection pools at {} characters in flight, no more than {} threads would gather;"
+                     + " raise the connections and db-pool, or batch writes, to gather more at once",
+                     appConfig.getVirtualThreadsInFlight(), appConfig.getThreadLimit());
+        }
+
         if(!isConfigured()) { // If not configured
             throw new ParseException("Gathering ranges not (correctly) configured");
         } else { // Else configured correctly
-            LOG.info("Starting parse of range " + appConfig.getStartId() + " to " + appConfig.getEndId() + " using "
-                     + appConfig.getThreadLimit() + " threads");
+            LOG.info("Starting parse of range " + appConfig.getStartId() + " to " + appConfig.getEndId() + " using " + describeConcurrency()
+                     + (appConfig.isAdaptiveConcurrency() ? " (adaptive, starting from " + inFlightLimiter.getLimit() + ")" : ""));
             gatherCharacters(appConfig.getStartId(), appConfig.getEndId());
             // Get current time
             long endTime = System.currentTimeMillis();
@@ -82,14 +135,109 @@ public class GathererController {
             PlayerBean highestGathered = playerRepository.findTopByOrderByIdDesc();
             int finalId = appConfig.getEndId() == Integer.MAX_VALUE && highestGathered != null ? highestGathered.getId()
                                                                                                : appConfig.getEndId();
-            LOG.info("Run completed, gathered from Character #{} to Character #{} in {} Days, {} Hours, {} Minutes, {} Seconds (using {} threads)",
+            LOG.info("Run completed, gathered from Character #{} to Character #{} in {} Days, {} Hours, {} Minutes, {} Seconds (using {})",
                      appConfig.getStartId(),
                      finalId,
                      days, hours % 24, minutes % 60, seconds % 60,
-                     appConfig.getThreadLimit());
+                     describeConcurrency());
+        }
+    }
+
+    /**
+     * Describes how many characters are gathered at once, for reporting at the start and end of the run.
+     *
+     * @return the threads used, along with the most characters in flight where not bounded by the threads alone.
+     */
+    private String describeConcurrency() {
+        if(appConfig.isVirtualThreads()) {
+            return "virtual threads and up to " + appConfig.getVirtualThreadsInFlight() + " characters in flight";
+        }
+        return appConfig.getThreadLimit() + " threads"
+               + (appConfig.isAsyncPageLoading() || appConfig.isStagedPipeline()
+                  ? " and up to " + appConfig.getMaxInFlight() + " characters in flight" : "");
+    }
+
+    /**
+     * Adds the mounts & minions missing from the configured catalog file to it, rather than gathering characters.
+     *
+     * @throws ParseException if no catalog file has been configured.
+     */
+    private void refreshCatalog() throws ParseException {
+        if(appConfig.getCatalogFile() == null) {
+            throw new ParseException("A catalog file must be configured to refresh");
+        }
+        try {
+            catalogRefresher.refresh(Paths.get(appConfig.getCatalogFile()));
+        } catch(IOException ioe) {
+            LOG.error("Unable to refresh catalog " + appConfig.getCatalogFile(), ioe);
+        } catch(InterruptedException ie) {
+            LOG.warn("Interrupted while refreshing catalog " + appConfig.getCatalogFile() + ", which has been left unchanged");
+            Thread.currentThread().interrupt();
         }
     }
 
+    /**
+     * Sets the refresher used to bring the catalog of mounts & minions up to date, where requested instead of gathering.
+     *
+     * @param catalogRefresher
+     */
+    @Autowired
+    public void setCatalogRefresher(final CollectibleCatalogRefresher catalogRefresher) {
+        this.catalogRefresher = catalogRefresher;
+    }
+
+    /**
+     * Sets the writer used to save characters in batches, so that every character queued is written before the run completes.
+     *
+     * @param playerWriter
+     */
+    @Autowired
+    public void setPlayerWriter(final PlayerBeanWriter playerWriter) {
+        this.playerWriter = playerWriter;
+    }
+
+    /**
+     * Sets the pipeline through which characters are gathered, where enabled, so that each of its stages can be reported on.
+     *
+     * @param gatheringPipeline
+     */
+    @Autowired
+    public void setGatheringPipeline(final GatheringPipeline gatheringPipeline) {
+        this.gatheringPipeline = gatheringPipeline;
+    }
+
+    /**
+     * Sets the builder of characters, so that the flags of any built before the names of their mounts & minions were known can be
+     * refreshed once gathering has finished.
+     *
+     * @param playerBuilder
+     */
+    @Autowired
+    public void setPlayerBuilder(final PlayerBuilder playerBuilder) {
+        this.playerBuilder = playerBuilder;
+    }
+
+    /**
+     * Sets the cache looking up the names of mounts & minions, so that any lookups still under way can be waited on once gathering
+     * has finished.
+     *
+     * @param edbCache
+     */
+    @Autowired
+    public void setEorzeaDatabaseCache(final EorzeaDatabaseCache edbCache) {
+        this.edbCache = edbCache;
+    }
+
+    /**
+     * Sets the task converting the mounts & minions of characters gathered before they were kept as sets, to be run before gathering.
+     *
+     * @param collectionMigration
+     */
+    @Autowired
+    public void setCollectionMigrationTask(final CollectionMigrationTask collectionMigration) {
+        this.collectionMigration = collectionMigration;
+    }
+
     /**
      * Determine whether the instance is correctly configured.
      *
@@ -116,39 +264,114 @@ public class GathererController {
      * Method to gather data for characters in specified range.
      */
     private void gatherCharacters(final int startId, final int finishId) {
+        CharacterStatusMap statusMap = openStatusMap();
+        try {
+            gatherCharacters(startId, finishId, statusMap);
+        } finally {
+            if(statusMap != null) {
+                try {
+                    statusMap.close();
+                } catch(IOException ioe) {
+                    LOG.warn("Unable to close character status map: " + ioe.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens the configured character status map, seeding it from the database where newly created.
+     *
+     * @return the map, or null if none has been configured.
+     */
+    private CharacterStatusMap openStatusMap() {
+        if(appConfig.getStatusMapFile() == null) {
+            return null;
+        }
+        try {
+            CharacterStatusMap statusMap = new CharacterStatusMap(Paths.get(appConfig.getStatusMapFile()));
+            if(statusMap.isCreated()) {
+                statusMap.seed(playerRepository);
+            }
+            return statusMap;
+        } catch(IOException ioe) {
+            throw new UncheckedIOException("Unable to open character status map " + appConfig.getStatusMapFile(), ioe);
+        }
+    }
+
+    private void gatherCharacters(final int startId, final int finishId, final CharacterStatusMap statusMap) {
         // Firstly, clean the top-end of the database
         LOG.debug("Cleaning top-end characters from the database");
-        PlayerBean highestValid = playerRepository.findTopByCharacterStatusNotOrderByIdDesc(CharacterStatus.DELETED);
-        // Delete everything higher than last known good player
-        playerRepository.deleteByIdGreaterThan(highestValid != null ? highestValid.getId() : 0);
+        int highestValidId;
+        int highestId;
+        if(statusMap != null) {
+            highestValidId = statusMap.getHighestValidId();
+            highestId = statusMap.getHighestKnownId();
+        } else {
+            PlayerBean highestValid = playerRepository.findTopByCharacterStatusNotOrderByIdDesc(CharacterStatus.DELETED);
+            highestValidId = highestValid != null ? highestValid.getId() : -1;
+            PlayerBean highest = playerRepository.findTopByOrderByIdDesc();
+            highestId = highest != null ? highest.getId() : -1;
+        }
+        // Delete everything higher than last known good player, in the background while gathering starts below it
+        TopEndCleanupTask topEndCleanup = new TopEndCleanupTask(playerRepository, statusMap, Math.max(0, highestValidId), highestId,
+                                                                appConfig.getCleanupChunkSize(), appConfig.getCleanupPauseMillis());
+        Thread cleanupThread = new Thread(topEndCleanup, "top-end-cleanup");
+        cleanupThread.start();
 
         // Setup the gathering parameters
         gatheringStatus.setStartId(startId);
         gatheringStatus.setFinishId(finishId);
+        // Having trimmed the top-end, the last known good player is also the highest gathered
+        // From here on, both are tracked in memory as each character is saved
+        gatheringStatus.seedWatermarks(highestValidId, highestValidId);
 
         // Now setup the ExecutorServices
         // gatheringExecutor runs only the gathering tasks
-        ThreadPoolExecutor gathererExecutor = new ThreadPoolExecutor(appConfig.getThreadLimit(),
-                                                                     appConfig.getThreadLimit(),
-                                                                     60,
-                                                                     TimeUnit.SECONDS,
-                                                                     new ArrayBlockingQueue<>(1000));
+        int dispatchLimit;
+        ExecutorService gathererExecutor;
+        if(appConfig.isVirtualThreads()) {
+            // Each character runs on a virtual thread of its own, so only the dispatch limit bounds how many are gathered at once
+            dispatchLimit = appConfig.getVirtualThreadsInFlight();
+            gathererExecutor = VirtualThreads.newThreadPerTaskExecutor("gatherer-");
+        } else {
+            // Each thread has a character queued behind it, so that it can move straight on to the next once done
+            dispatchLimit = appConfig.getThreadLimit() * 2;
+            gathererExecutor = new ThreadPoolExecutor(appConfig.getThreadLimit(),
+                                                      appConfig.getThreadLimit(),
+                                                      60,
+                                                      TimeUnit.SECONDS,
+                                                      new ArrayBlockingQueue<>(dispatchLimit));
+        }
         // managementExecutor runs all life-cycle management tasks
         ScheduledExecutorService managementExecutor = Executors.newScheduledThreadPool(1);
-        // Executes the levemete task once every 10 seconds, starting immediately.
-        managementExecutor.scheduleAtFixedRate(new LevemeteTask(gathererExecutor,
-                                                                taskFactory,
-                                                                gatheringStatus),
-                                               0,
-                                               5,
-                                               TimeUnit.SECONDS);
+        // The levemete task dispatches characters as the gatherers take them, for the whole of the gathering
+        LevemeteTask levemete = new LevemeteTask(gathererExecutor, taskFactory, gatheringStatus, dispatchLimit);
+        levemete.setInFlightLimiter(inFlightLimiter);
+        levemete.setLodestoneHttpClient(httpClient);
+        levemete.setPlayerRepository(playerRepository);
+        levemete.setStatusMap(statusMap);
+        levemete.setTopEndCleanup(topEndCleanup);
+        Thread levemeteThread = new Thread(levemete, "levemete");
+        levemeteThread.start();
         // Executes the limiter tasks once every 30 seconds, starting in 30 seconds time.
         managementExecutor.scheduleAtFixedRate(new GatheringLimiterTask(appConfig,
                                                                         gathererExecutor,
-                                                                        playerRepository),
+                                                                        gatheringStatus),
                                                30,
                                                30,
                                                TimeUnit.SECONDS);
+        // Reports on HTTP connection pool utilisation once every minute
+        managementExecutor.scheduleAtFixedRate(new HttpPoolMonitorTask(httpClient),
+                                               60,
+                                               60,
+                                               TimeUnit.SECONDS);
+        // Reports on how busy each stage of the pipeline is once every minute, where enabled
+        if(appConfig.isStagedPipeline()) {
+            managementExecutor.scheduleAtFixedRate(new PipelineMonitorTask(gatheringPipeline),
+                                                   60,
+                                                   60,
+                                                   TimeUnit.SECONDS);
+        }
 
         // This is the main idle loop of the application and will continue until the gathering has finished.
         while(!gathererExecutor.isTerminated()) {
@@ -161,6 +384,43 @@ public class GathererController {
             }
         }
 
+        // Characters fetched via the non-blocking page loader may still be in flight once the gatherers have finished
+        try {
+            while(!Thread.currentThread().isInterrupted() && !inFlightLimiter.awaitIdle(5, TimeUnit.SECONDS)) {
+                LOG.debug("Waiting for {} characters still in flight", inFlightLimiter.getInFlight());
+            }
+        } catch(InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Characters saved in batches may still be queued once the last has been gathered
+        if(playerWriter != null && !Thread.currentThread().isInterrupted()) {
+            try {
+                playerWriter.flush();
+            } catch(InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Characters built while names were looked up in the background need their flags re-deriving now the names are known
+        if(playerBuilder != null && appConfig.isBackgroundNameLookups()
+           && !Thread.currentThread().isInterrupted()) {
+            new OwnershipRefreshTask(playerBuilder, edbCache, playerRepository, OWNERSHIP_REFRESH_BLOCK_SIZE,
+                                     OWNERSHIP_REFRESH_LOOKUP_TIMEOUT_MILLIS).run();
+        }
+
         managementExecutor.shutdownNow();
+        levemeteThread.interrupt();
+
+        // Gathering may finish below the top-end, before the cleanup has
+        try {
+            if(cleanupThread.isAlive()) {
+                LOG.info("Waiting for the top-end cleanup to finish");
+            }
+            cleanupThread.join();
+        } catch(InterruptedException ie) {
+            cleanupThread.interrupt();
+            Thread.currentThread().interrupt();
+        }
     }
 }
@@ -1,5 +1,9 @@
 package com.ffxivcensus.gatherer;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ffxivcensus.gatherer.player.CharacterStatus;
+
 public class GatheringStatus {
 
     /** Initial starting ID number. */
@@ -8,6 +12,10 @@ public class GatheringStatus {
     private int finishId = Integer.MAX_VALUE;
     /** Current ID number. */
     private int currentId;
+    /** Highest ID number gathered, or -1 if none have been. */
+    private final AtomicInteger highestGatheredId = new AtomicInteger(-1);
+    /** Highest ID number gathered that has not been deleted, or -1 if none have been. */
+    private final AtomicInteger highestValidId = new AtomicInteger(-1);
 
     /**
      * Fetches the Starting ID number.
@@ -69,4 +77,47 @@ public class GatheringStatus {
         return nextId;
     }
 
+    /**
+     * Sets the highest gathered & valid ID numbers, as found in the database before gathering starts.
+     * 
+     * @param highestGatheredId Highest ID number gathered, or -1 if none have been.
+     * @param highestValidId Highest ID number gathered that has not been deleted, or -1 if none have been.
+     */
+    public void seedWatermarks(final int highestGatheredId, final int highestValidId) {
+        this.highestGatheredId.set(highestGatheredId);
+        this.highestValidId.set(highestValidId);
+    }
+
+    /**
+     * Records a gathered character against the highest gathered & valid ID numbers.
+     * This method is lock-free, so that it can be called as each character is saved without the gatherers contending on it.
+     * 
+     * @param id ID number of the character gathered.
+     * @param characterStatus Status of the character gathered.
+     */
+    public void recordGathered(final int id, final CharacterStatus characterStatus) {
+        highestGatheredId.accumulateAndGet(id, Math::max);
+        if(!CharacterStatus.DELETED.equals(characterStatus)) {
+            highestValidId.accumulateAndGet(id, Math::max);
+        }
+    }
+
+    /**
+     * Fetches the highest ID number gathered.
+     * 
+     * @return the highest ID number gathered, or -1 if none have been.
+     */
+    public int getHighestGatheredId() {
+        return highestGatheredId.get();
+    }
+
+    /**
+     * Fetches the highest ID number gathered that has not been deleted.
+     * 
+     * @return the highest valid ID number, or -1 if none have been gathered.
+     */
+    public int getHighestValidId() {
+        return highestValidId.get();
+    }
+
 }
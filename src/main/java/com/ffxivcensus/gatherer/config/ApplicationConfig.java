@@ -23,6 +23,24 @@ public class ApplicationConfig {
     public static final String DEFAULT_DATABASE_NAME = "dbplayers";
     public static final String DEFAULT_TABLE_NAME = "tblplayers";
     public static final int DEFAULT_AUTOSTOP_GAP = 50000;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 512;
+    public static final int DEFAULT_REQUEST_BURST = 10;
+    public static final int DEFAULT_MIN_CONCURRENCY = 4;
+    public static final int DEFAULT_HTTP_MAX_CONNECTIONS = 128;
+    public static final int DEFAULT_HTTP_MAX_CONNECTIONS_PER_ROUTE = 64;
+    public static final int DEFAULT_HTTP_KEEP_ALIVE_SECONDS = 30;
+    public static final int DEFAULT_HTTP_IDLE_TIMEOUT_SECONDS = 10;
+    public static final String PAGE_EXTRACTOR_DOM = "dom";
+    public static final String PAGE_EXTRACTOR_STREAMING = "streaming";
+    public static final String DEFAULT_EDB_STORE_VERSION = "1";
+    public static final String NAME_LOOKUPS_INLINE = "inline";
+    public static final String NAME_LOOKUPS_BACKGROUND = "background";
+    public static final long DEFAULT_WRITE_BATCH_INTERVAL_MILLIS = 1000;
+    public static final int DEFAULT_CLEANUP_CHUNK_SIZE = 10000;
+    public static final long DEFAULT_CLEANUP_PAUSE_MILLIS = 100;
+    public static final int DEFAULT_RESOLVE_THREADS = 2;
+    public static final int DEFAULT_PERSIST_THREADS = 2;
+    public static final int DEFAULT_STAGE_QUEUE_SIZE = 100;
 
     /**
      * Safety limit for thread count - user cannot exceed this limit.
@@ -53,6 +71,10 @@ public class ApplicationConfig {
      * Whether to ignore database SSL verification warnings
      */
     private boolean dbIgnoreSSLWarn = true;
+    /**
+     * The maximum number of pooled database connections, or zero to hold one per thread.
+     */
+    private int dbPoolSize = 0;
 
     ////////////////////////
     // Process Configuration
@@ -63,6 +85,174 @@ public class ApplicationConfig {
      */
     private int threadLimit = MAX_THREADS;
 
+    /**
+     * Whether to gather each character on a virtual thread of its own, bounded by the maximum in flight and the connection pools
+     * (see {@link #getVirtualThreadsInFlight()}) rather than the thread limit.
+     * Requires Java 21 onwards, otherwise the thread limit applies as usual.
+     */
+    private boolean virtualThreads = false;
+
+    /**
+     * Whether to fetch pages with the non-blocking page loader.
+     */
+    private boolean asyncPageLoading = false;
+
+    /**
+     * The maximum number of characters that may be in flight at once when using non-blocking page loading.
+     */
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+
+    /**
+     * Whether to adapt the number of characters gathered concurrently to how the Lodestone is responding.
+     * When enabled, the thread limit (or maximum in flight) becomes an upper bound.
+     */
+    private boolean adaptiveConcurrency = false;
+
+    /**
+     * The maximum sustained rate of requests per second to send to the Lodestone, or zero for no limit.
+     */
+    private double requestRate = 0;
+
+    /**
+     * The maximum number of requests that may be sent back-to-back when the request rate is limited.
+     */
+    private int requestBurst = DEFAULT_REQUEST_BURST;
+
+    /**
+     * Whether to fetch each character's class/job, mount and minion pages in parallel once their profile page has been loaded.
+     */
+    private boolean parallelFetch = false;
+
+    /**
+     * Whether to refresh characters that have been gathered before, only re-fetching their pages where they have changed.
+     */
+    private boolean refreshMode = false;
+
+    /**
+     * How character details are extracted from their pages, either {@link #PAGE_EXTRACTOR_DOM} or {@link #PAGE_EXTRACTOR_STREAMING}.
+     */
+    private String pageExtractor = PAGE_EXTRACTOR_DOM;
+
+    /**
+     * The game patch whose Class/Job page layout should be used, or null for the default layout.
+     */
+    private String jobLayout;
+
+    /**
+     * File holding the rules for the flags derived from each character's mounts & minions, or null to use the bundled rules.
+     */
+    private String ownershipRulesFile;
+
+    /**
+     * File in which to keep the names looked up from the Eorzea Database between runs, or null to hold them in memory only.
+     */
+    private String edbStoreFile;
+
+    /**
+     * Version of the names kept in the Eorzea Database store. Names kept under any other version are expired.
+     */
+    private String edbStoreVersion = DEFAULT_EDB_STORE_VERSION;
+
+    /**
+     * How the names of mounts & minions not yet known are looked up, either {@link #NAME_LOOKUPS_INLINE} while each character is being
+     * built, or {@link #NAME_LOOKUPS_BACKGROUND}.
+     */
+    private String nameLookups = NAME_LOOKUPS_INLINE;
+
+    /**
+     * Catalog file of collectible names to import before gathering, or null to look every name up from the Lodestone.
+     */
+    private String catalogFile;
+
+    /**
+     * Whether to refresh the catalog file with the collectibles missing from it, rather than gather characters.
+     */
+    private boolean refreshCatalog = false;
+
+    /**
+     * The number of characters to write to the database in each batch, or zero to save each character as it is gathered.
+     */
+    private int writeBatchSize = 0;
+
+    /**
+     * The longest a gathered character may wait for its batch to fill before being written, in milliseconds.
+     */
+    private long writeBatchIntervalMillis = DEFAULT_WRITE_BATCH_INTERVAL_MILLIS;
+
+    /**
+     * Whether to write characters with the database's native upsert, rather than saving them through JPA.
+     */
+    private boolean nativeUpsert = false;
+
+    /**
+     * File in which to keep the status of every character ID gathered between runs, or null to check each status in the database.
+     */
+    private String statusMapFile;
+
+    /**
+     * The number of IDs to delete at once when trimming the top-end of the database.
+     */
+    private int cleanupChunkSize = DEFAULT_CLEANUP_CHUNK_SIZE;
+
+    /**
+     * The time to pause between each range of IDs deleted when trimming the top-end of the database, in milliseconds.
+     */
+    private long cleanupPauseMillis = DEFAULT_CLEANUP_PAUSE_MILLIS;
+
+    /**
+     * Whether to gather each character through a pipeline of separately sized stages, rather than wholly on one thread.
+     */
+    private boolean stagedPipeline = false;
+
+    /**
+     * The number of threads fetching pages in the staged pipeline, or zero for one per thread.
+     */
+    private int fetchThreads = 0;
+
+    /**
+     * The number of threads parsing pages in the staged pipeline, or zero for one per available processor.
+     */
+    private int parseThreads = 0;
+
+    /**
+     * The number of threads resolving collectibles in the staged pipeline.
+     */
+    private int resolveThreads = DEFAULT_RESOLVE_THREADS;
+
+    /**
+     * The number of threads saving characters in the staged pipeline.
+     */
+    private int persistThreads = DEFAULT_PERSIST_THREADS;
+
+    /**
+     * The number of characters that may wait for each stage of the staged pipeline.
+     */
+    private int stageQueueSize = DEFAULT_STAGE_QUEUE_SIZE;
+
+    /////////////////////
+    // HTTP Configuration
+    /////////////////////
+
+    /**
+     * The maximum number of pooled connections to hold open, across all hosts.
+     */
+    private int httpMaxConnections = DEFAULT_HTTP_MAX_CONNECTIONS;
+
+    /**
+     * The maximum number of pooled connections to hold open to any single host.
+     */
+    private int httpMaxConnectionsPerRoute = DEFAULT_HTTP_MAX_CONNECTIONS_PER_ROUTE;
+
+    /**
+     * How long, in seconds, to keep connections alive for where the server does not specify.
+     */
+    private int httpKeepAliveSeconds = DEFAULT_HTTP_KEEP_ALIVE_SECONDS;
+
+    /**
+     * How long, in seconds, a connection may be idle before it is evicted from the pool.
+     */
+    private int httpIdleTimeoutSeconds = DEFAULT_HTTP_IDLE_TIMEOUT_SECONDS;
+
     //////////////////////////
     // Gathering Configuration
     //////////////////////////
@@ -130,6 +320,14 @@ public class ApplicationConfig {
         this.dbIgnoreSSLWarn = dbIgnoreSSLWarn;
     }
 
+    public int getDbPoolSize() {
+        return dbPoolSize;
+    }
+
+    public void setDbPoolSize(int dbPoolSize) {
+        this.dbPoolSize = dbPoolSize;
+    }
+
     ////////////////////////
     // Process Configuration
     ////////////////////////
@@ -142,6 +340,296 @@ public class ApplicationConfig {
         this.threadLimit = threadLimit;
     }
 
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Gets the most characters that may be gathered at once on virtual threads.
+     * Where each virtual thread blocks on its pages and writes, rather than handing them to the non-blocking page loader or the
+     * pipeline, this is the maximum in flight capped at the pooled HTTP connections to each Lodestone host and, unless writes are
+     * batched onto the writer's own connection, the pooled database connections, so that the surplus is held back by the dispatcher
+     * rather than timing out waiting on either pool.
+     *
+     * @return the most characters to gather at once on virtual threads.
+     */
+    public int getVirtualThreadsInFlight() {
+        if(asyncPageLoading || stagedPipeline) {
+            return maxInFlight;
+        }
+        int inFlight = Math.min(maxInFlight, httpMaxConnectionsPerRoute);
+        if(writeBatchSize <= 0) {
+            inFlight = Math.min(inFlight, dbPoolSize > 0 ? dbPoolSize : threadLimit);
+        }
+        return inFlight;
+    }
+
+    public boolean isAsyncPageLoading() {
+        return asyncPageLoading;
+    }
+
+    public void setAsyncPageLoading(boolean asyncPageLoading) {
+        this.asyncPageLoading = asyncPageLoading;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public boolean isAdaptiveConcurrency() {
+        return adaptiveConcurrency;
+    }
+
+    public void setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+        this.adaptiveConcurrency = adaptiveConcurrency;
+    }
+
+    public double getRequestRate() {
+        return requestRate;
+    }
+
+    public void setRequestRate(double requestRate) {
+        this.requestRate = requestRate;
+    }
+
+    public int getRequestBurst() {
+        return requestBurst;
+    }
+
+    public void setRequestBurst(int requestBurst) {
+        this.requestBurst = requestBurst;
+    }
+
+    public boolean isParallelFetch() {
+        return parallelFetch;
+    }
+
+    public void setParallelFetch(boolean parallelFetch) {
+        this.parallelFetch = parallelFetch;
+    }
+
+    public boolean isRefreshMode() {
+        return refreshMode;
+    }
+
+    public void setRefreshMode(boolean refreshMode) {
+        this.refreshMode = refreshMode;
+    }
+
+    public String getPageExtractor() {
+        return pageExtractor;
+    }
+
+    public void setPageExtractor(String pageExtractor) {
+        this.pageExtractor = pageExtractor;
+    }
+
+    public String getJobLayout() {
+        return jobLayout;
+    }
+
+    public void setJobLayout(String jobLayout) {
+        this.jobLayout = jobLayout;
+    }
+
+    public String getOwnershipRulesFile() {
+        return ownershipRulesFile;
+    }
+
+    public void setOwnershipRulesFile(String ownershipRulesFile) {
+        this.ownershipRulesFile = ownershipRulesFile;
+    }
+
+    public String getEdbStoreFile() {
+        return edbStoreFile;
+    }
+
+    public void setEdbStoreFile(String edbStoreFile) {
+        this.edbStoreFile = edbStoreFile;
+    }
+
+    public String getEdbStoreVersion() {
+        return edbStoreVersion;
+    }
+
+    public void setEdbStoreVersion(String edbStoreVersion) {
+        this.edbStoreVersion = edbStoreVersion;
+    }
+
+    public String getNameLookups() {
+        return nameLookups;
+    }
+
+    public void setNameLookups(String nameLookups) {
+        this.nameLookups = nameLookups;
+    }
+
+    /**
+     * Determines whether the names of mounts & minions not yet known are to be looked up in the background.
+     * As nothing may block while pages are being loaded asynchronously, names are always looked up in the background where they are.
+     *
+     * @return true if names are looked up in the background, rather than while each character is being built.
+     */
+    public boolean isBackgroundNameLookups() {
+        return asyncPageLoading || NAME_LOOKUPS_BACKGROUND.equals(nameLookups);
+    }
+
+    public String getCatalogFile() {
+        return catalogFile;
+    }
+
+    public void setCatalogFile(String catalogFile) {
+        this.catalogFile = catalogFile;
+    }
+
+    public boolean isRefreshCatalog() {
+        return refreshCatalog;
+    }
+
+    public void setRefreshCatalog(boolean refreshCatalog) {
+        this.refreshCatalog = refreshCatalog;
+    }
+
+    public int getWriteBatchSize() {
+        return writeBatchSize;
+    }
+
+    public void setWriteBatchSize(int writeBatchSize) {
+        this.writeBatchSize = writeBatchSize;
+    }
+
+    public long getWriteBatchIntervalMillis() {
+        return writeBatchIntervalMillis;
+    }
+
+    public void setWriteBatchIntervalMillis(long writeBatchIntervalMillis) {
+        this.writeBatchIntervalMillis = writeBatchIntervalMillis;
+    }
+
+    public boolean isNativeUpsert() {
+        return nativeUpsert;
+    }
+
+    public void setNativeUpsert(boolean nativeUpsert) {
+        this.nativeUpsert = nativeUpsert;
+    }
+
+    public String getStatusMapFile() {
+        return statusMapFile;
+    }
+
+    public void setStatusMapFile(String statusMapFile) {
+        this.statusMapFile = statusMapFile;
+    }
+
+    public int getCleanupChunkSize() {
+        return cleanupChunkSize;
+    }
+
+    public void setCleanupChunkSize(int cleanupChunkSize) {
+        this.cleanupChunkSize = cleanupChunkSize;
+    }
+
+    public long getCleanupPauseMillis() {
+        return cleanupPauseMillis;
+    }
+
+    public void setCleanupPauseMillis(long cleanupPauseMillis) {
+        this.cleanupPauseMillis = cleanupPauseMillis;
+    }
+
+    public boolean isStagedPipeline() {
+        return stagedPipeline;
+    }
+
+    public void setStagedPipeline(boolean stagedPipeline) {
+        this.stagedPipeline = stagedPipeline;
+    }
+
+    public int getFetchThreads() {
+        return fetchThreads;
+    }
+
+    public void setFetchThreads(int fetchThreads) {
+        this.fetchThreads = fetchThreads;
+    }
+
+    public int getParseThreads() {
+        return parseThreads;
+    }
+
+    public void setParseThreads(int parseThreads) {
+        this.parseThreads = parseThreads;
+    }
+
+    public int getResolveThreads() {
+        return resolveThreads;
+    }
+
+    public void setResolveThreads(int resolveThreads) {
+        this.resolveThreads = resolveThreads;
+    }
+
+    public int getPersistThreads() {
+        return persistThreads;
+    }
+
+    public void setPersistThreads(int persistThreads) {
+        this.persistThreads = persistThreads;
+    }
+
+    public int getStageQueueSize() {
+        return stageQueueSize;
+    }
+
+    public void setStageQueueSize(int stageQueueSize) {
+        this.stageQueueSize = stageQueueSize;
+    }
+
+    /////////////////////
+    // HTTP Configuration
+    /////////////////////
+
+    public int getHttpMaxConnections() {
+        return httpMaxConnections;
+    }
+
+    public void setHttpMaxConnections(int httpMaxConnections) {
+        this.httpMaxConnections = httpMaxConnections;
+    }
+
+    public int getHttpMaxConnectionsPerRoute() {
+        return httpMaxConnectionsPerRoute;
+    }
+
+    public void setHttpMaxConnectionsPerRoute(int httpMaxConnectionsPerRoute) {
+        this.httpMaxConnectionsPerRoute = httpMaxConnectionsPerRoute;
+    }
+
+    public int getHttpKeepAliveSeconds() {
+        return httpKeepAliveSeconds;
+    }
+
+    public void setHttpKeepAliveSeconds(int httpKeepAliveSeconds) {
+        this.httpKeepAliveSeconds = httpKeepAliveSeconds;
+    }
+
+    public int getHttpIdleTimeoutSeconds() {
+        return httpIdleTimeoutSeconds;
+    }
+
+    public void setHttpIdleTimeoutSeconds(int httpIdleTimeoutSeconds) {
+        this.httpIdleTimeoutSeconds = httpIdleTimeoutSeconds;
+    }
+
     //////////////////////////
     // Gathering Configuration
     //////////////////////////
@@ -38,6 +38,8 @@ import com.ffxivcensus.gatherer.GathererController;
  */
 public class ConfigurationBuilder {
     private static final Logger LOG = LoggerFactory.getLogger(ConfigurationBuilder.class);
+    private static final String[] PAGE_EXTRACTORS = {ApplicationConfig.PAGE_EXTRACTOR_DOM, ApplicationConfig.PAGE_EXTRACTOR_STREAMING};
+    private static final String[] NAME_LOOKUPS = {ApplicationConfig.NAME_LOOKUPS_INLINE, ApplicationConfig.NAME_LOOKUPS_BACKGROUND};
     private ApplicationConfig configuration;
 
     /**
@@ -106,6 +108,10 @@ public class ConfigurationBuilder {
             configuration.setDbName(elementJDBC.getElementsByTagName("database").item(0).getTextContent());
             configuration.setDbUser(elementJDBC.getElementsByTagName("username").item(0).getTextContent());
             configuration.setDbPassword(elementJDBC.getElementsByTagName("password").item(0).getTextContent());
+            String poolSize = getOptionalText(elementJDBC, "poolSize");
+            if(poolSize != null) {
+                configuration.setDbPoolSize(Integer.parseInt(poolSize));
+            }
 
             // Read out execution config
             NodeList nodesExecConf = doc.getElementsByTagName("execution");
@@ -115,6 +121,136 @@ public class ConfigurationBuilder {
                 configuration.setAutoStopLowerLimitId(Integer.parseInt(elementExecConf.getElementsByTagName("autoStopLowerLimit").item(0)
                                                                                       .getTextContent()));
             }
+            String asyncLoading = getOptionalText(elementExecConf, "asyncLoading");
+            if(asyncLoading != null) {
+                configuration.setAsyncPageLoading(Boolean.parseBoolean(asyncLoading));
+            }
+            String virtualThreads = getOptionalText(elementExecConf, "virtualThreads");
+            if(virtualThreads != null) {
+                configuration.setVirtualThreads(Boolean.parseBoolean(virtualThreads));
+            }
+            String maxInFlight = getOptionalText(elementExecConf, "maxInFlight");
+            if(maxInFlight != null) {
+                configuration.setMaxInFlight(Integer.parseInt(maxInFlight));
+            }
+            String adaptiveConcurrency = getOptionalText(elementExecConf, "adaptiveConcurrency");
+            if(adaptiveConcurrency != null) {
+                configuration.setAdaptiveConcurrency(Boolean.parseBoolean(adaptiveConcurrency));
+            }
+            String requestRate = getOptionalText(elementExecConf, "requestRate");
+            if(requestRate != null) {
+                configuration.setRequestRate(Double.parseDouble(requestRate));
+            }
+            String requestBurst = getOptionalText(elementExecConf, "requestBurst");
+            if(requestBurst != null) {
+                configuration.setRequestBurst(Integer.parseInt(requestBurst));
+            }
+            String parallelFetch = getOptionalText(elementExecConf, "parallelFetch");
+            if(parallelFetch != null) {
+                configuration.setParallelFetch(Boolean.parseBoolean(parallelFetch));
+            }
+            String refresh = getOptionalText(elementExecConf, "refresh");
+            if(refresh != null) {
+                configuration.setRefreshMode(Boolean.parseBoolean(refresh));
+            }
+            String pageExtractor = getOptionalText(elementExecConf, "pageExtractor");
+            if(pageExtractor != null) {
+                configuration.setPageExtractor(getChoice("pageExtractor", pageExtractor, PAGE_EXTRACTORS));
+            }
+            String jobLayout = getOptionalText(elementExecConf, "jobLayout");
+            if(jobLayout != null) {
+                configuration.setJobLayout(jobLayout);
+            }
+            String ownershipRulesFile = getOptionalText(elementExecConf, "ownershipRules");
+            if(ownershipRulesFile != null) {
+                configuration.setOwnershipRulesFile(ownershipRulesFile);
+            }
+            String edbStoreFile = getOptionalText(elementExecConf, "edbStore");
+            if(edbStoreFile != null) {
+                configuration.setEdbStoreFile(edbStoreFile);
+            }
+            String edbStoreVersion = getOptionalText(elementExecConf, "edbStoreVersion");
+            if(edbStoreVersion != null) {
+                configuration.setEdbStoreVersion(edbStoreVersion);
+            }
+            String nameLookups = getOptionalText(elementExecConf, "nameLookups");
+            if(nameLookups != null) {
+                configuration.setNameLookups(getChoice("nameLookups", nameLookups, NAME_LOOKUPS));
+            }
+            String catalogFile = getOptionalText(elementExecConf, "catalog");
+            if(catalogFile != null) {
+                configuration.setCatalogFile(catalogFile);
+            }
+            String writeBatchSize = getOptionalText(elementExecConf, "writeBatchSize");
+            if(writeBatchSize != null) {
+                configuration.setWriteBatchSize(Integer.parseInt(writeBatchSize));
+            }
+            String writeBatchInterval = getOptionalText(elementExecConf, "writeBatchInterval");
+            if(writeBatchInterval != null) {
+                configuration.setWriteBatchIntervalMillis(Long.parseLong(writeBatchInterval));
+            }
+            String nativeUpsert = getOptionalText(elementExecConf, "nativeUpsert");
+            if(nativeUpsert != null) {
+                configuration.setNativeUpsert(Boolean.parseBoolean(nativeUpsert));
+            }
+            String statusMapFile = getOptionalText(elementExecConf, "statusMap");
+            if(statusMapFile != null) {
+                configuration.setStatusMapFile(statusMapFile);
+            }
+            String cleanupChunkSize = getOptionalText(elementExecConf, "cleanupChunkSize");
+            if(cleanupChunkSize != null) {
+                configuration.setCleanupChunkSize(Integer.parseInt(cleanupChunkSize));
+            }
+            String cleanupPause = getOptionalText(elementExecConf, "cleanupPause");
+            if(cleanupPause != null) {
+                configuration.setCleanupPauseMillis(Long.parseLong(cleanupPause));
+            }
+            String stagedPipeline = getOptionalText(elementExecConf, "stagedPipeline");
+            if(stagedPipeline != null) {
+                configuration.setStagedPipeline(Boolean.parseBoolean(stagedPipeline));
+            }
+            String fetchThreads = getOptionalText(elementExecConf, "fetchThreads");
+            if(fetchThreads != null) {
+                configuration.setFetchThreads(Integer.parseInt(fetchThreads));
+            }
+            String parseThreads = getOptionalText(elementExecConf, "parseThreads");
+            if(parseThreads != null) {
+                configuration.setParseThreads(Integer.parseInt(parseThreads));
+            }
+            String resolveThreads = getOptionalText(elementExecConf, "resolveThreads");
+            if(resolveThreads != null) {
+                configuration.setResolveThreads(Integer.parseInt(resolveThreads));
+            }
+            String persistThreads = getOptionalText(elementExecConf, "persistThreads");
+            if(persistThreads != null) {
+                configuration.setPersistThreads(Integer.parseInt(persistThreads));
+            }
+            String stageQueueSize = getOptionalText(elementExecConf, "stageQueueSize");
+            if(stageQueueSize != null) {
+                configuration.setStageQueueSize(Integer.parseInt(stageQueueSize));
+            }
+
+            // Read out HTTP config, if present
+            NodeList nodesHttpConf = doc.getElementsByTagName("http");
+            if(nodesHttpConf.getLength() > 0) {
+                Element elementHttpConf = (Element) nodesHttpConf.item(0);
+                String maxConnections = getOptionalText(elementHttpConf, "maxConnections");
+                if(maxConnections != null) {
+                    configuration.setHttpMaxConnections(Integer.parseInt(maxConnections));
+                }
+                String maxConnectionsPerRoute = getOptionalText(elementHttpConf, "maxConnectionsPerRoute");
+                if(maxConnectionsPerRoute != null) {
+                    configuration.setHttpMaxConnectionsPerRoute(Integer.parseInt(maxConnectionsPerRoute));
+                }
+                String keepAlive = getOptionalText(elementHttpConf, "keepAlive");
+                if(keepAlive != null) {
+                    configuration.setHttpKeepAliveSeconds(Integer.parseInt(keepAlive));
+                }
+                String idleTimeout = getOptionalText(elementHttpConf, "idleTimeout");
+                if(idleTimeout != null) {
+                    configuration.setHttpIdleTimeoutSeconds(Integer.parseInt(idleTimeout));
+                }
+            }
         } else {
             LOG.error("Configuration: No config.xml file found. Failing over to defaults.");
         }
@@ -172,16 +308,141 @@ public class ConfigurationBuilder {
                 configuration.setDbPassword(cmd.getOptionValue("p"));
             }
 
+            // Database connection pool size
+            if(cmd.hasOption("D")) {
+                configuration.setDbPoolSize(Integer.parseInt(cmd.getOptionValue("D")));
+            }
+
             configuration.setDbIgnoreSSLWarn(cmd.hasOption("i"));
 
             // Program threads
             if(cmd.hasOption("t")) {
                 configuration.setThreadLimit(Integer.parseInt(cmd.getOptionValue("t")));
             }
+
+            // Virtual threads
+            if(cmd.hasOption("V")) {
+                configuration.setVirtualThreads(true);
+            }
+
+            // Non-blocking page loading
+            if(cmd.hasOption("A")) {
+                configuration.setAsyncPageLoading(true);
+            }
+
+            // Characters in flight
+            if(cmd.hasOption("m")) {
+                configuration.setMaxInFlight(Integer.parseInt(cmd.getOptionValue("m")));
+            }
+
+            // Adaptive concurrency
+            if(cmd.hasOption("L")) {
+                configuration.setAdaptiveConcurrency(true);
+            }
+
+            // Request rate limiting
+            if(cmd.hasOption("r")) {
+                configuration.setRequestRate(Double.parseDouble(cmd.getOptionValue("r")));
+            }
+            if(cmd.hasOption("b")) {
+                configuration.setRequestBurst(Integer.parseInt(cmd.getOptionValue("b")));
+            }
+
+            // Parallel sub-page fetching
+            if(cmd.hasOption("P")) {
+                configuration.setParallelFetch(true);
+            }
+
+            // Refresh previously gathered characters
+            if(cmd.hasOption("R")) {
+                configuration.setRefreshMode(true);
+            }
+
+            // Page extraction method
+            if(cmd.hasOption("E")) {
+                configuration.setPageExtractor(getChoice("-E", cmd.getOptionValue("E"), PAGE_EXTRACTORS));
+            }
+
+            // Eorzea Database store
+            if(cmd.hasOption("C")) {
+                configuration.setEdbStoreFile(cmd.getOptionValue("C"));
+            }
+
+            // Collectible name lookups
+            if(cmd.hasOption("N")) {
+                configuration.setNameLookups(getChoice("-N", cmd.getOptionValue("N"), NAME_LOOKUPS));
+            }
+
+            // Collectible catalog
+            if(cmd.hasOption("K")) {
+                configuration.setCatalogFile(cmd.getOptionValue("K"));
+            }
+
+            // Refresh the collectible catalog
+            if(cmd.hasOption("F")) {
+                configuration.setRefreshCatalog(true);
+            }
+
+            // Batched writes
+            if(cmd.hasOption("w")) {
+                configuration.setWriteBatchSize(Integer.parseInt(cmd.getOptionValue("w")));
+            }
+
+            // Native upserts
+            if(cmd.hasOption("X")) {
+                configuration.setNativeUpsert(true);
+            }
+
+            // Character status map
+            if(cmd.hasOption("M")) {
+                configuration.setStatusMapFile(cmd.getOptionValue("M"));
+            }
+
+            // Staged pipeline
+            if(cmd.hasOption("S")) {
+                configuration.setStagedPipeline(true);
+            }
+
+            // Pooled HTTP connections per host
+            if(cmd.hasOption("c")) {
+                configuration.setHttpMaxConnectionsPerRoute(Integer.parseInt(cmd.getOptionValue("c")));
+            }
         }
         return new ConfigurationBuilder(configuration);
     }
 
+    /**
+     * Fetches the trimmed text content of the first child element with the given tag name, if present.
+     * 
+     * @param parent Element to search within.
+     * @param tagName Name of the child element.
+     * @return Text content of the element, or <code>null</code> if no such element exists.
+     */
+    private static String getOptionalText(final Element parent, final String tagName) {
+        NodeList nodes = parent.getElementsByTagName(tagName);
+        return nodes.getLength() > 0 ? nodes.item(0).getTextContent().trim() : null;
+    }
+
+    /**
+     * Matches the value of an option to one of its choices, ignoring case, so that an unknown value is rejected in the same way as an
+     * option that fails to parse as a number, rather than silently falling back to the default.
+     *
+     * @param option Name of the option, for reporting.
+     * @param value Value given for the option.
+     * @param choices Values the option may take.
+     * @return the choice matched.
+     * @throws IllegalArgumentException if the value is not one of the choices.
+     */
+    private static String getChoice(final String option, final String value, final String... choices) {
+        for(String choice : choices) {
+            if(choice.equalsIgnoreCase(value.trim())) {
+                return choice;
+            }
+        }
+        throw new IllegalArgumentException("Unknown value '" + value + "' for " + option + ", expected one of "
+                                           + String.join(", ", choices));
+    }
+
     /**
      * Fetches the {@link ApplicationConfig} bean configured by this builder.
      * 
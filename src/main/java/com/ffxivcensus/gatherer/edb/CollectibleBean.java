@@ -0,0 +1,99 @@
+package com.ffxivcensus.gatherer.edb;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Entry in the {@link CollectibleDictionary}, recording the dense index assigned to a collectible's tooltip ID.
+ *
+ * @author matthew.hillier
+ */
+@Entity
+@Table(name = "tblcollectibles")
+public class CollectibleBean {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "collectible_type")
+    private CollectibleType type;
+    @Column(name = "bit_index")
+    private int index;
+    @Column(name = "tooltip_id")
+    private String tooltipId;
+    private String name;
+    @Column(name = "tooltip_href")
+    private String tooltipHref;
+
+    public CollectibleBean() {
+    }
+
+    public CollectibleBean(final CollectibleType type, final int index, final String tooltipId) {
+        this.type = type;
+        this.index = index;
+        this.tooltipId = tooltipId;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(final int id) {
+        this.id = id;
+    }
+
+    public CollectibleType getType() {
+        return type;
+    }
+
+    public void setType(final CollectibleType type) {
+        this.type = type;
+    }
+
+    /**
+     * @return the dense index of the collectible amongst all collectibles of the same type, used as its bit in each player's collection.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(final int index) {
+        this.index = index;
+    }
+
+    public String getTooltipId() {
+        return tooltipId;
+    }
+
+    public void setTooltipId(final String tooltipId) {
+        this.tooltipId = tooltipId;
+    }
+
+    /**
+     * @return the name of the collectible, or null if it has not yet been looked up.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the tooltip reference the collectible was first seen under, from which its name can be looked up, or null if not known.
+     */
+    public String getTooltipHref() {
+        return tooltipHref;
+    }
+
+    public void setTooltipHref(final String tooltipHref) {
+        this.tooltipHref = tooltipHref;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ffxivcensus.gatherer.edb;
+
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * Repository for CRUD actions for the entries of the {@link CollectibleDictionary}.
+ * 
+ * @author matthew.hillier
+ */
+public interface CollectibleBeanRepository extends CrudRepository<CollectibleBean, Integer> {
+
+}
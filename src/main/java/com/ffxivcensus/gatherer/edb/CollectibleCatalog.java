@@ -0,0 +1,175 @@
+package com.ffxivcensus.gatherer.edb;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalog of every known collectible, as reference data that can be imported into the {@link EorzeaDatabaseCache} rather than looked
+ * up from the Lodestone on each run.
+ * <p>
+ * The catalog is held in a tab-separated file, with a line per collectible of <code>type, tooltip ID, name, patch</code>, where the patch
+ * is the game patch the collectible was first catalogued in. Lines starting with <code>#</code> are ignored. The file is written sorted
+ * by type and name, so that it can be kept under version control and compared between patches.
+ *
+ * @author matthew.hillier
+ */
+public class CollectibleCatalog {
+
+    private static final String SEPARATOR = "\t";
+    private static final String COMMENT = "#";
+    private static final String HEADER = COMMENT + " type" + SEPARATOR + "tooltip_id" + SEPARATOR + "name" + SEPARATOR + "patch";
+    private static final int FIELDS = 4;
+
+    private final Map<CollectibleType, Map<String, Entry>> entries = new EnumMap<>(CollectibleType.class);
+
+    public CollectibleCatalog() {
+        for(CollectibleType type : CollectibleType.values()) {
+            entries.put(type, new LinkedHashMap<String, Entry>());
+        }
+    }
+
+    /**
+     * Reads a catalog from the given file.
+     *
+     * @param file File holding the catalog.
+     * @return the catalog.
+     * @throws IOException if the file cannot be read, or holds a malformed line.
+     */
+    public static CollectibleCatalog read(final Path file) throws IOException {
+        CollectibleCatalog catalog = new CollectibleCatalog();
+        try(BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while((line = reader.readLine()) != null) {
+                lineNumber++;
+                if(line.isEmpty() || line.startsWith(COMMENT)) {
+                    continue;
+                }
+                String[] fields = line.split(SEPARATOR, -1);
+                try {
+                    if(fields.length != FIELDS || fields[1].isEmpty() || fields[2].isEmpty()) {
+                        throw new IllegalArgumentException("Expected " + FIELDS + " fields");
+                    }
+                    catalog.add(CollectibleType.valueOf(fields[0]), fields[1], fields[2], fields[3].isEmpty() ? null : fields[3]);
+                } catch(IllegalArgumentException iae) {
+                    throw new IOException("Malformed catalog entry at line " + lineNumber + " of " + file + ": " + iae.getMessage());
+                }
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Writes the catalog to the given file, replacing it in a single step so that a reader never sees a part-written catalog.
+     *
+     * @param file File to hold the catalog.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(final Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try(BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for(Map<String, Entry> typeEntries : entries.values()) {
+                List<Entry> sorted = new ArrayList<>(typeEntries.values());
+                sorted.sort(Comparator.comparing(Entry::getName).thenComparing(Entry::getTooltipId));
+                for(Entry entry : sorted) {
+                    writer.write(entry.getType() + SEPARATOR + entry.getTooltipId() + SEPARATOR + entry.getName() + SEPARATOR
+                                 + (entry.getPatch() != null ? entry.getPatch() : ""));
+                    writer.newLine();
+                }
+            }
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Adds a collectible to the catalog, replacing any entry already held for it.
+     *
+     * @param type Type of the collectible.
+     * @param tooltipId Tooltip ID of the collectible.
+     * @param name Name of the collectible.
+     * @param patch Game patch the collectible was catalogued in, or null if not known.
+     */
+    public void add(final CollectibleType type, final String tooltipId, final String name, final String patch) {
+        entries.get(type).put(tooltipId, new Entry(type, tooltipId, name, patch));
+    }
+
+    /**
+     * @param type Type of the collectible.
+     * @param tooltipId Tooltip ID of the collectible.
+     * @return whether the catalog holds the collectible.
+     */
+    public boolean contains(final CollectibleType type, final String tooltipId) {
+        return entries.get(type).containsKey(tooltipId);
+    }
+
+    /**
+     * @param type Type of the collectibles.
+     * @return the catalogued collectibles of the given type, by tooltip ID.
+     */
+    public Map<String, Entry> getEntries(final CollectibleType type) {
+        return Collections.unmodifiableMap(entries.get(type));
+    }
+
+    /**
+     * @return the number of collectibles in the catalog.
+     */
+    public int size() {
+        int size = 0;
+        for(Map<String, Entry> typeEntries : entries.values()) {
+            size += typeEntries.size();
+        }
+        return size;
+    }
+
+    /**
+     * Single collectible in the catalog.
+     */
+    public static final class Entry {
+        private final CollectibleType type;
+        private final String tooltipId;
+        private final String name;
+        private final String patch;
+
+        private Entry(final CollectibleType type, final String tooltipId, final String name, final String patch) {
+            this.type = type;
+            this.tooltipId = tooltipId;
+            this.name = name;
+            this.patch = patch;
+        }
+
+        public CollectibleType getType() {
+            return type;
+        }
+
+        public String getTooltipId() {
+            return tooltipId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the game patch the collectible was catalogued in, or null if not known.
+         */
+        public String getPatch() {
+            return patch;
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.ffxivcensus.gatherer.edb;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Brings a {@link CollectibleCatalog} up to date with every collectible seen by the gatherer, as recorded in the
+ * {@link CollectibleDictionary}.
+ * <p>
+ * Only collectibles missing from the catalog are considered. Where the dictionary already knows the name of a missing collectible it is
+ * catalogued straight away; otherwise its name is looked up from the tooltip it was first seen under. Collectibles seen before their
+ * tooltips were recorded cannot be looked up, and are left out until next seen by the gatherer.
+ *
+ * @author matthew.hillier
+ */
+public class CollectibleCatalogRefresher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CollectibleCatalogRefresher.class);
+
+    private final CollectibleDictionary dictionary;
+    private final EorzeaDatabaseCache edbCache;
+    private final String patch;
+
+    /**
+     * Creates a new refresher.
+     *
+     * @param dictionary Dictionary of every collectible seen by the gatherer.
+     * @param edbCache Cache to look up any names not already known.
+     * @param patch Game patch to record against newly catalogued collectibles, or null if not known.
+     */
+    public CollectibleCatalogRefresher(final CollectibleDictionary dictionary, final EorzeaDatabaseCache edbCache, final String patch) {
+        this.dictionary = dictionary;
+        this.edbCache = edbCache;
+        this.patch = patch;
+    }
+
+    /**
+     * Refreshes the catalog held in the given file, creating it if it does not exist.
+     *
+     * @param file File holding the catalog.
+     * @return the number of collectibles added to the catalog.
+     * @throws IOException if the catalog cannot be read or written.
+     * @throws InterruptedException if interrupted while looking up a name.
+     */
+    public int refresh(final Path file) throws IOException, InterruptedException {
+        CollectibleCatalog catalog = Files.exists(file) ? CollectibleCatalog.read(file) : new CollectibleCatalog();
+        int added = refresh(catalog);
+        if(added > 0) {
+            catalog.write(file);
+        }
+        LOG.info("Added " + added + " collectibles to the catalog in " + file + ", which now holds " + catalog.size());
+        return added;
+    }
+
+    /**
+     * Adds every collectible in the dictionary that is missing from the catalog, and whose name can be found.
+     *
+     * @param catalog Catalog to refresh.
+     * @return the number of collectibles added to the catalog.
+     * @throws InterruptedException if interrupted while looking up a name.
+     */
+    public int refresh(final CollectibleCatalog catalog) throws InterruptedException {
+        int added = 0;
+        for(CollectibleType type : CollectibleType.values()) {
+            for(CollectibleBean entry : dictionary.getEntries(type)) {
+                if(catalog.contains(type, entry.getTooltipId())) {
+                    continue;
+                }
+                String name = entry.getName() != null ? entry.getName() : lookUp(entry);
+                if(name != null) {
+                    catalog.add(type, entry.getTooltipId(), name, patch);
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
+
+    private String lookUp(final CollectibleBean entry) throws InterruptedException {
+        if(entry.getTooltipHref() == null) {
+            LOG.debug("Unable to look up " + entry.getType() + " " + entry.getTooltipId() + " as its tooltip has not been recorded");
+            return null;
+        }
+        try {
+            String name = edbCache.getNameFromTooltip(entry.getType(), entry.getTooltipHref());
+            if(name != null) {
+                dictionary.setName(entry.getType(), entry.getTooltipId(), name);
+            }
+            return name;
+        } catch(IOException ioe) {
+            LOG.warn("Unable to look up " + entry.getType() + " " + entry.getTooltipId() + ": " + ioe.getMessage());
+            return null;
+        }
+    }
+
+}
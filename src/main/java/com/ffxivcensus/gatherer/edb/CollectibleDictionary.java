@@ -0,0 +1,227 @@
+package com.ffxivcensus.gatherer.edb;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Dictionary assigning each collectible a dense index, by tooltip ID, amongst all collectibles of the same type.
+ * <p>
+ * The index of a collectible is used as its bit in each player's collection, so that a collection can be held as a compact bitset and
+ * membership checked in constant time. Indexes are assigned the first time a tooltip ID is seen, and never change once assigned. Where a
+ * {@link CollectibleBeanRepository} has been set, the dictionary is loaded from it and every new entry is saved to it, so that indexes are
+ * shared between runs and between gatherers writing to the same database.
+ * <p>
+ * Looking up an index or name that is already known is lock-free; only assigning a new index or name is synchronised.
+ *
+ * @author matthew.hillier
+ */
+public class CollectibleDictionary {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CollectibleDictionary.class);
+    /**
+     * Number of times to retry assigning an index where another gatherer has assigned it first.
+     */
+    private static final int MAX_ASSIGN_ATTEMPTS = 5;
+    private final Map<CollectibleType, Entries> entries = new EnumMap<>(CollectibleType.class);
+    private CollectibleBeanRepository repository;
+    private volatile int generation;
+
+    public CollectibleDictionary() {
+        for(CollectibleType type : CollectibleType.values()) {
+            entries.put(type, new Entries());
+        }
+    }
+
+    /**
+     * Sets the repository to keep the dictionary in, loading every entry it already holds.
+     *
+     * @param repository Repository to load from, and save to.
+     */
+    public synchronized void setRepository(final CollectibleBeanRepository repository) {
+        this.repository = repository;
+        reload();
+    }
+
+    /**
+     * Gets the index of a collectible, assigning it the next free index if it has not been seen before.
+     *
+     * @param type Type of the collectible.
+     * @param tooltipId Tooltip ID of the collectible.
+     * @return the index of the collectible.
+     */
+    public int getIndex(final CollectibleType type, final String tooltipId) {
+        return getIndex(type, tooltipId, null);
+    }
+
+    /**
+     * Gets the index of a collectible, assigning it the next free index if it has not been seen before, along with the tooltip
+     * reference it was seen under so that its name can be looked up later.
+     *
+     * @param type Type of the collectible.
+     * @param tooltipId Tooltip ID of the collectible.
+     * @param tooltipHref Tooltip reference the collectible was seen under, or null if not known.
+     * @return the index of the collectible.
+     */
+    public int getIndex(final CollectibleType type, final String tooltipId, final String tooltipHref) {
+        CollectibleBean entry = entries.get(type).byTooltipId.get(tooltipId);
+        return entry != null ? entry.getIndex() : assign(type, tooltipId, tooltipHref).getIndex();
+    }
+
+    /**
+     * Gets the index of the collectible with the given name.
+     *
+     * @param type Type of the collectible.
+     * @param name Name of the collectible.
+     * @return the index of the collectible, or -1 if no collectible of that name has been seen.
+     */
+    public int getIndexOfName(final CollectibleType type, final String name) {
+        Integer index = entries.get(type).byName.get(name);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @param type Type of the collectible.
+     * @return the number of collectibles of the given type in the dictionary.
+     */
+    public int size(final CollectibleType type) {
+        return entries.get(type).byTooltipId.size();
+    }
+
+    /**
+     * @param type Type of the collectibles.
+     * @return every collectible of the given type in the dictionary.
+     */
+    public Collection<CollectibleBean> getEntries(final CollectibleType type) {
+        return Collections.unmodifiableCollection(entries.get(type).byTooltipId.values());
+    }
+
+    /**
+     * Determines whether any of the given collectibles has yet to be named, such as where its name is still being looked up.
+     *
+     * @param type Type of the collectibles.
+     * @param indexes Indexes of the collectibles.
+     * @return true if any of the collectibles has no name in the dictionary.
+     */
+    public boolean hasUnnamed(final CollectibleType type, final BitSet indexes) {
+        for(int index : entries.get(type).unnamed) {
+            if(indexes.get(index)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the generation of the names in the dictionary, which changes whenever a collectible is named, so that anything built from
+     * the names in the dictionary can tell when it needs rebuilding.
+     *
+     * @return the generation of the names in the dictionary.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Records the name of a collectible, so that it can be found by name.
+     *
+     * @param type Type of the collectible.
+     * @param tooltipId Tooltip ID of the collectible.
+     * @param name Name of the collectible.
+     * @return the index of the collectible.
+     */
+    public int setName(final CollectibleType type, final String tooltipId, final String name) {
+        int index = getIndex(type, tooltipId);
+        Integer named = entries.get(type).byName.get(name);
+        if(named == null || named != index) {
+            rename(type, tooltipId, name);
+        }
+        return index;
+    }
+
+    private synchronized CollectibleBean assign(final CollectibleType type, final String tooltipId, final String tooltipHref) {
+        Entries typeEntries = entries.get(type);
+        for(int attempt = 0; attempt < MAX_ASSIGN_ATTEMPTS; attempt++) {
+            CollectibleBean entry = typeEntries.byTooltipId.get(tooltipId);
+            if(entry != null) {
+                return entry;
+            }
+            entry = new CollectibleBean(type, typeEntries.next, tooltipId);
+            entry.setTooltipHref(tooltipHref);
+            try {
+                save(entry);
+                add(entry);
+                LOG.debug("Assigned " + type + " " + tooltipId + " index " + entry.getIndex());
+                return entry;
+            } catch(DataIntegrityViolationException dive) {
+                // Another gatherer has assigned either this ID or this index, so pick up whatever it assigned and try again
+                LOG.debug("Index " + entry.getIndex() + " for " + type + " " + tooltipId + " already assigned, reloading dictionary");
+                reload();
+            }
+        }
+        throw new IllegalStateException("Unable to assign an index to " + type + " " + tooltipId + " after " + MAX_ASSIGN_ATTEMPTS
+                                        + " attempts");
+    }
+
+    private synchronized void rename(final CollectibleType type, final String tooltipId, final String name) {
+        CollectibleBean entry = entries.get(type).byTooltipId.get(tooltipId);
+        if(!name.equals(entry.getName())) {
+            entry.setName(name);
+            save(entry);
+        }
+        entries.get(type).byName.put(name, entry.getIndex());
+        entries.get(type).unnamed.remove(entry.getIndex());
+        generation++;
+    }
+
+    private void save(final CollectibleBean entry) {
+        if(repository != null) {
+            CollectibleBean saved = repository.save(entry);
+            if(saved != null) {
+                entry.setId(saved.getId());
+            }
+        }
+    }
+
+    private void reload() {
+        if(repository != null) {
+            for(CollectibleBean entry : repository.findAll()) {
+                add(entry);
+            }
+        }
+    }
+
+    private void add(final CollectibleBean entry) {
+        Entries typeEntries = entries.get(entry.getType());
+        typeEntries.byTooltipId.put(entry.getTooltipId(), entry);
+        if(entry.getName() != null) {
+            typeEntries.byName.put(entry.getName(), entry.getIndex());
+            typeEntries.unnamed.remove(entry.getIndex());
+            generation++;
+        } else {
+            typeEntries.unnamed.add(entry.getIndex());
+        }
+        typeEntries.next = Math.max(typeEntries.next, entry.getIndex() + 1);
+    }
+
+    /**
+     * Entries for a single type of collectible.
+     */
+    private static final class Entries {
+        private final Map<String, CollectibleBean> byTooltipId = new ConcurrentHashMap<>();
+        private final Map<String, Integer> byName = new ConcurrentHashMap<>();
+        /** Indexes of the collectibles not yet named, which are few once the dictionary has been filled. */
+        private final Set<Integer> unnamed = ConcurrentHashMap.newKeySet();
+        /** Next index to assign, only accessed while holding the dictionary's lock. */
+        private int next;
+    }
+
+}
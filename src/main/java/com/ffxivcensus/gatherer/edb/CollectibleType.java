@@ -0,0 +1,11 @@
+package com.ffxivcensus.gatherer.edb;
+
+/**
+ * Types of collectible looked up from the Eorzea Database.
+ *
+ * @author matthew.hillier
+ */
+public enum CollectibleType {
+    MINION,
+    MOUNT
+}
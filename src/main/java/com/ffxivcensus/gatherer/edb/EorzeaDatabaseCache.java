@@ -1,8 +1,17 @@
 package com.ffxivcensus.gatherer.edb;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 import org.jsoup.nodes.Document;
 import org.jsoup.select.Elements;
@@ -14,48 +23,285 @@ import com.ffxivcensus.gatherer.lodestone.ProductionLodestonePageLoader;
 /**
  * Provides a wrapper around accessing Mounts & Minions from the web servers, caching responses so that we don't have to wait on HTTP
  * requests for anything we've already looked up.
+ * Where an {@link EorzeaDatabaseStore} has been set, the cache is warmed from it, and everything looked up is kept in it for later runs.
  * 
  * @author matthew.hillier
  */
-public class EorzeaDatabaseCache {
+public class EorzeaDatabaseCache implements Closeable {
 
     private static final Logger LOG = LoggerFactory.getLogger(EorzeaDatabaseCache.class);
+    private static final String LAYOUT_MINION_HEADER = "minion__header__label";
+    private static final String LAYOUT_MOUNT_HEADER = "mount__header__label";
+    private static final int BACKGROUND_LOOKUP_THREADS = 2;
+    private static final long BACKGROUND_LOOKUP_SHUTDOWN_SECONDS = 60;
     private LodestonePageLoader loader = new ProductionLodestonePageLoader();
-    private Map<String, String> minions = new ConcurrentHashMap<>();
-    private Map<String, String> mounts = new ConcurrentHashMap<>();
+    private EorzeaDatabaseStore store;
+    private ExecutorService backgroundLookups;
+    /**
+     * Names by tooltip ID, held as futures so that concurrent lookups of the same tooltip share a single request.
+     * A future completed with null records a tooltip that has no name, so that it is not requested again.
+     */
+    private Map<String, CompletableFuture<String>> minions = new ConcurrentHashMap<>();
+    private Map<String, CompletableFuture<String>> mounts = new ConcurrentHashMap<>();
 
     public String getMinionNameFromTooltip(String dataTooltipHref) throws IOException, InterruptedException {
-        String id = dataTooltipHref.substring(dataTooltipHref.lastIndexOf("/") + 1);
-        String name = minions.get(id);
+        return getNameFromTooltip(CollectibleType.MINION, minions, dataTooltipHref, LAYOUT_MINION_HEADER);
+    }
+
+    public String getMountNameFromTooltip(String dataTooltipHref) throws IOException, InterruptedException {
+        return getNameFromTooltip(CollectibleType.MOUNT, mounts, dataTooltipHref, LAYOUT_MOUNT_HEADER);
+    }
+
+    /**
+     * Gets the name of a collectible of the given type, looking it up if it is not already known.
+     *
+     * @param type Type of the collectible.
+     * @param dataTooltipHref Tooltip reference of the collectible.
+     * @return the name of the collectible, or null if it has no name.
+     */
+    public String getNameFromTooltip(CollectibleType type, String dataTooltipHref) throws IOException, InterruptedException {
+        return type == CollectibleType.MINION ? getMinionNameFromTooltip(dataTooltipHref) : getMountNameFromTooltip(dataTooltipHref);
+    }
+
+    /**
+     * Gets the name of a minion, only if it is already known, looking it up in the background otherwise.
+     *
+     * @param dataTooltipHref Tooltip reference of the minion.
+     * @return the name of the minion, or null if it is not yet known (or has no name).
+     */
+    public String getMinionNameIfKnown(String dataTooltipHref) {
+        return getNameIfKnown(CollectibleType.MINION, minions, dataTooltipHref, LAYOUT_MINION_HEADER);
+    }
+
+    /**
+     * Gets the name of a mount, only if it is already known, looking it up in the background otherwise.
+     *
+     * @param dataTooltipHref Tooltip reference of the mount.
+     * @return the name of the mount, or null if it is not yet known (or has no name).
+     */
+    public String getMountNameIfKnown(String dataTooltipHref) {
+        return getNameIfKnown(CollectibleType.MOUNT, mounts, dataTooltipHref, LAYOUT_MOUNT_HEADER);
+    }
+
+    /**
+     * Gets the name of a collectible only where it has already been looked up, without ever starting a lookup.
+     *
+     * @param type Type of the collectible.
+     * @param tooltipId Tooltip ID of the collectible.
+     * @return the name of the collectible, or null if it is not yet known (or has no name).
+     */
+    public String getKnownName(CollectibleType type, String tooltipId) {
+        CompletableFuture<String> name = (type == CollectibleType.MINION ? minions : mounts).get(tooltipId);
+        return name != null && name.isDone() && !name.isCompletedExceptionally() ? name.join() : null;
+    }
+
+    /**
+     * Gets the tooltip ID of every collectible of the given type whose name has already been looked up, by its name.
+     *
+     * @param type Type of the collectibles.
+     * @return the tooltip ID of each collectible known, by name.
+     */
+    public Map<String, String> getKnownTooltipIds(CollectibleType type) {
+        Map<String, String> tooltipIds = new HashMap<>();
+        (type == CollectibleType.MINION ? minions : mounts).forEach((id, name) -> {
+            if(name.isDone() && !name.isCompletedExceptionally() && name.join() != null) {
+                tooltipIds.put(name.join(), id);
+            }
+        });
+        return tooltipIds;
+    }
+
+    /**
+     * Waits for every lookup under way in the background to finish, whether or not it succeeds, leaving the cache open for more.
+     *
+     * @param timeout Longest time to wait.
+     * @param unit Unit of the timeout.
+     * @return true if every lookup finished, or false if the time ran out first.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean awaitBackgroundLookups(long timeout, TimeUnit unit) throws InterruptedException {
+        CompletableFuture<?>[] pending = Stream.concat(minions.values().stream(), mounts.values().stream())
+                                                       .filter(name -> !name.isDone())
+                                                       .map(name -> name.handle((n, ex) -> null))
+                                                       .toArray(CompletableFuture<?>[]::new);
+        try {
+            CompletableFuture.allOf(pending).get(timeout, unit);
+            return true;
+        } catch(TimeoutException te) {
+            return false;
+        } catch(ExecutionException ee) {
+            // Not possible, as every failure has already been handled above
+            return true;
+        }
+    }
+
+    /**
+     * Gets the stable ID of a collectible from its tooltip reference, being the last segment of the reference.
+     *
+     * @param dataTooltipHref Tooltip reference, such as <code>/lodestone/character/1/mount/tooltip/abc123</code>.
+     * @return the ID, such as <code>abc123</code>.
+     */
+    public static String getTooltipId(String dataTooltipHref) {
+        return dataTooltipHref.substring(dataTooltipHref.lastIndexOf("/") + 1);
+    }
+
+    /**
+     * Looks up the name shown on a tooltip, unless it has already been looked up.
+     * Only the first caller to miss on a tooltip requests it, with any others looking up the same tooltip at the same time waiting on
+     * that request. Where the request fails, it is forgotten so that the next caller tries again.
+     */
+    private String getNameFromTooltip(CollectibleType type, Map<String, CompletableFuture<String>> names, String dataTooltipHref,
+                                      String headerClass) throws IOException, InterruptedException {
+        String id = getTooltipId(dataTooltipHref);
+        CompletableFuture<String> name = names.get(id);
         if(name == null) {
-            Document doc = loader.getTooltipPage(dataTooltipHref);
-            Elements headers = doc.getElementsByClass("minion__header__label");
-            if(!headers.isEmpty()) {
-                name = headers.get(0).text();
-                minions.put(id, name);
-                LOG.debug("Cached minion '" + name + "' under ID " + id);
+            CompletableFuture<String> lookup = new CompletableFuture<>();
+            name = names.putIfAbsent(id, lookup);
+            if(name == null) {
+                name = lookup;
+                lookUp(type, id, dataTooltipHref, headerClass, names, lookup);
             }
         }
-        return name;
+        try {
+            return name.get();
+        } catch(ExecutionException ee) {
+            if(ee.getCause() instanceof IOException) {
+                throw (IOException) ee.getCause();
+            } else if(ee.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause();
+            }
+            throw new IOException(ee.getCause());
+        }
     }
 
-    public String getMountNameFromTooltip(String dataTooltipHref) throws IOException, InterruptedException {
-        String id = dataTooltipHref.substring(dataTooltipHref.lastIndexOf("/") + 1);
-        String name = mounts.get(id);
+    /**
+     * Returns the name shown on a tooltip where already looked up, otherwise starting a lookup in the background (unless one is
+     * already under way) so that the name is known the next time it is asked for.
+     * The caller starting a lookup is always given null, however quickly the lookup completes, so that it is treated the same way
+     * every time.
+     */
+    private String getNameIfKnown(CollectibleType type, Map<String, CompletableFuture<String>> names, String dataTooltipHref,
+                                  String headerClass) {
+        String id = getTooltipId(dataTooltipHref);
+        CompletableFuture<String> name = names.get(id);
         if(name == null) {
+            CompletableFuture<String> lookup = new CompletableFuture<>();
+            name = names.putIfAbsent(id, lookup);
+            if(name == null) {
+                getBackgroundLookups().execute(() -> {
+                    try {
+                        lookUp(type, id, dataTooltipHref, headerClass, names, lookup);
+                    } catch(InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                    if(lookup.isCompletedExceptionally()) {
+                        LOG.warn("Unable to look up " + type + " " + id + " in the background, will try again when next seen");
+                    }
+                });
+                return null;
+            }
+        }
+        return name.isDone() && !name.isCompletedExceptionally() ? name.join() : null;
+    }
+
+    private synchronized ExecutorService getBackgroundLookups() {
+        if(backgroundLookups == null) {
+            backgroundLookups = Executors.newFixedThreadPool(BACKGROUND_LOOKUP_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "edb-lookup");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return backgroundLookups;
+    }
+
+    private void lookUp(CollectibleType type, String id, String dataTooltipHref, String headerClass,
+                        Map<String, CompletableFuture<String>> names, CompletableFuture<String> lookup) throws InterruptedException {
+        try {
+            String name = null;
             Document doc = loader.getTooltipPage(dataTooltipHref);
-            Elements headers = doc.getElementsByClass("mount__header__label");
+            Elements headers = doc != null ? doc.getElementsByClass(headerClass) : new Elements();
             if(!headers.isEmpty()) {
                 name = headers.get(0).text();
-                mounts.put(id, name);
-                LOG.debug("Cached mount '" + name + "' under ID " + id);
+                store(type, id, name);
+                LOG.debug("Cached " + type + " '" + name + "' under ID " + id);
+            } else {
+                LOG.debug("Cached " + type + " ID " + id + " as having no name");
             }
+            lookup.complete(name);
+        } catch(InterruptedException ie) {
+            // Let any other callers waiting on this lookup fail, rather than wait forever
+            names.remove(id, lookup);
+            lookup.completeExceptionally(new IOException("Interrupted looking up " + type + " " + id, ie));
+            throw ie;
+        } catch(IOException | RuntimeException e) {
+            names.remove(id, lookup);
+            lookup.completeExceptionally(e);
         }
-        return name;
     }
 
     public void setLodestonePageLoader(LodestonePageLoader loader) {
         this.loader = loader;
     }
 
+    /**
+     * Sets the store to keep looked-up names in between runs, warming the cache with every name it already holds.
+     *
+     * @param store Store to load from, and append to.
+     * @throws IOException if the store cannot be loaded.
+     */
+    public void setStore(EorzeaDatabaseStore store) throws IOException {
+        Map<CollectibleType, Map<String, String>> stored = store.load();
+        stored.get(CollectibleType.MINION).forEach((id, name) -> minions.put(id, CompletableFuture.completedFuture(name)));
+        stored.get(CollectibleType.MOUNT).forEach((id, name) -> mounts.put(id, CompletableFuture.completedFuture(name)));
+        this.store = store;
+    }
+
+    /**
+     * Warms the cache with every name held in the catalog, so that none of them need looking up.
+     *
+     * @param catalog Catalog to import.
+     */
+    public void importCatalog(CollectibleCatalog catalog) {
+        catalog.getEntries(CollectibleType.MINION)
+               .forEach((id, entry) -> minions.put(id, CompletableFuture.completedFuture(entry.getName())));
+        catalog.getEntries(CollectibleType.MOUNT)
+               .forEach((id, entry) -> mounts.put(id, CompletableFuture.completedFuture(entry.getName())));
+        LOG.info("Imported " + catalog.size() + " collectibles from the catalog");
+    }
+
+    /**
+     * Waits for any lookups under way in the background to finish, so that their names are kept in the store, and then closes it.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized(this) {
+            if(backgroundLookups != null) {
+                backgroundLookups.shutdown();
+                try {
+                    backgroundLookups.awaitTermination(BACKGROUND_LOOKUP_SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+                } catch(InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        if(store != null) {
+            store.close();
+        }
+    }
+
+    /**
+     * Keeps a newly looked-up name in the store, if there is one.
+     * A failure to store the name is not fatal, as it only means it will be looked up again on the next run.
+     */
+    private void store(CollectibleType type, String id, String name) {
+        if(store != null) {
+            try {
+                store.append(type, id, name);
+            } catch(IOException ioe) {
+                LOG.warn("Unable to store " + type + " '" + name + "' in " + store.getFile(), ioe);
+            }
+        }
+    }
+
 }
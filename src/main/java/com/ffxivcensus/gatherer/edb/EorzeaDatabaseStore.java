@@ -0,0 +1,155 @@
+package com.ffxivcensus.gatherer.edb;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local file store of the names looked up from the Eorzea Database, so that they survive between runs of the gatherer.
+ * <p>
+ * Names are held in a tab-separated journal, with a line per name of <code>type, version, ID, name</code>. New names are appended as
+ * they are looked up, so that nothing is lost if the gatherer stops part way through a run. Each name is recorded against the version
+ * the store was opened with, and names recorded against any other version are treated as expired, and dropped when the store is next
+ * loaded. Changing the version (for example on a new game patch) therefore causes every name to be looked up afresh.
+ *
+ * @author matthew.hillier
+ */
+public class EorzeaDatabaseStore implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EorzeaDatabaseStore.class);
+    private static final String SEPARATOR = "\t";
+    private static final int FIELDS = 4;
+
+    private final Path file;
+    private final String version;
+    private BufferedWriter writer;
+
+    /**
+     * Creates a new store, backed by the given file.
+     *
+     * @param file File to hold the names, which will be created if it does not exist.
+     * @param version Version to record names against, and to expire names from any other version.
+     */
+    public EorzeaDatabaseStore(final Path file, final String version) {
+        this.file = file;
+        this.version = version;
+    }
+
+    /**
+     * Loads all of the unexpired names held in the store, and opens it for further names to be appended.
+     * Where any names have expired (or the file was left part-written), the file is compacted to hold only the names loaded.
+     *
+     * @return the names held, by collectible type and then ID.
+     * @throws IOException if the file cannot be read or written.
+     */
+    public synchronized Map<CollectibleType, Map<String, String>> load() throws IOException {
+        Map<CollectibleType, Map<String, String>> names = new EnumMap<>(CollectibleType.class);
+        for(CollectibleType type : CollectibleType.values()) {
+            names.put(type, new LinkedHashMap<String, String>());
+        }
+
+        int lines = 0;
+        int loaded = 0;
+        if(Files.exists(file)) {
+            try(BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while((line = reader.readLine()) != null) {
+                    lines++;
+                    String[] fields = line.split(SEPARATOR, -1);
+                    if(fields.length != FIELDS || !version.equals(fields[1]) || fields[3].isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        names.get(CollectibleType.valueOf(fields[0])).put(fields[2], fields[3]);
+                        loaded++;
+                    } catch(IllegalArgumentException iae) {
+                        // Unknown type, so treat as expired
+                    }
+                }
+            }
+        }
+
+        if(loaded < lines) {
+            LOG.info("Compacting Eorzea Database store {}, dropping {} expired entries", file, lines - loaded);
+            compact(names);
+        }
+        LOG.info("Loaded {} names from Eorzea Database store {}", loaded, file);
+
+        if(writer == null) {
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        return names;
+    }
+
+    /**
+     * Appends a newly looked-up name to the store.
+     *
+     * @param type Type of collectible.
+     * @param id ID of the collectible.
+     * @param name Name of the collectible.
+     * @throws IOException if the name cannot be written.
+     */
+    public synchronized void append(final CollectibleType type, final String id, final String name) throws IOException {
+        if(writer == null) {
+            throw new IllegalStateException("Store must be loaded before names can be appended");
+        }
+        writer.write(toLine(type, id, name));
+        writer.newLine();
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if(writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Rewrites the file to hold only the given names, replacing the original in one step so that it is never left part-written.
+     */
+    private void compact(final Map<CollectibleType, Map<String, String>> names) throws IOException {
+        close();
+        Path parent = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try(BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for(Map.Entry<CollectibleType, Map<String, String>> byType : names.entrySet()) {
+                for(Map.Entry<String, String> name : byType.getValue().entrySet()) {
+                    out.write(toLine(byType.getKey(), name.getKey(), name.getValue()));
+                    out.newLine();
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private String toLine(final CollectibleType type, final String id, final String name) {
+        return type.name() + SEPARATOR + version + SEPARATOR + clean(id) + SEPARATOR + clean(name);
+    }
+
+    private static String clean(final String value) {
+        return value.replaceAll("[\\t\\r\\n]", " ");
+    }
+
+}
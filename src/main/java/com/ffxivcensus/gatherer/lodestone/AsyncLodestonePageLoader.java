@@ -0,0 +1,102 @@
+package com.ffxivcensus.gatherer.lodestone;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.jsoup.nodes.Document;
+
+/**
+ * Non-blocking counterpart to the {@link LodestonePageLoader}.
+ * Rather than parking the calling thread on a socket, each method returns immediately with a {@link CompletableFuture} that will be
+ * completed once the page has been fetched and parsed.
+ * <p>
+ * Failures are reported by completing the future exceptionally with the same exceptions that the blocking loader would throw, so a
+ * missing page will complete with a {@link FetchYieldedPageNotFoundException} and any other HTTP failure with an
+ * {@link java.io.IOException}.
+ *
+ * @author matthew.hillier
+ * @see LodestonePageLoader
+ */
+public interface AsyncLodestonePageLoader {
+
+    /**
+     * Fetches a Character page.
+     *
+     * @param characterId
+     * @return Future to be completed with the Character page.
+     */
+    CompletableFuture<Document> getCharacterPage(final int characterId);
+
+    /**
+     * Fetches a Character's Class & Job info, where available.
+     *
+     * @param characterId
+     * @return Future to be completed with the Class & Job page.
+     */
+    CompletableFuture<Document> getClassJobPage(final int characterId);
+
+    /**
+     * Fetches a Characters Minions page, where available.
+     *
+     * @param characterId
+     * @return Future to be completed with the Minions page.
+     */
+    CompletableFuture<Document> getMinionPage(final int characterId);
+
+    /**
+     * Fetches a Characters Mounts page, where available.
+     *
+     * @param characterId
+     * @return Future to be completed with the Mounts page.
+     */
+    CompletableFuture<Document> getMountPage(final int characterId);
+
+    /**
+     * Fetches a tooltop page from a 'data-tooltip_href' reference
+     *
+     * @param href Value from the data-tooltip_href value
+     * @return Future to be completed with the Tooltip page.
+     */
+    CompletableFuture<Document> getTooltipPage(final String href);
+
+    /**
+     * Fetches the source of a Character page, for extractors that work on the raw page rather than a {@link Document}.
+     * By default, the source is re-generated from the loaded {@link Document}.
+     *
+     * @param characterId
+     * @return Future to be completed with the source of the Character page.
+     */
+    default CompletableFuture<String> getCharacterPageSource(final int characterId) {
+        return getCharacterPage(characterId).thenApply(Document::outerHtml);
+    }
+
+    /**
+     * Fetches the source of a Character's Class & Job page, where available.
+     *
+     * @param characterId
+     * @return Future to be completed with the source of the Class & Job page.
+     */
+    default CompletableFuture<String> getClassJobPageSource(final int characterId) {
+        return getClassJobPage(characterId).thenApply(Document::outerHtml);
+    }
+
+    /**
+     * Fetches the source of a Characters Minions page, where available.
+     *
+     * @param characterId
+     * @return Future to be completed with the source of the Minions page.
+     */
+    default CompletableFuture<String> getMinionPageSource(final int characterId) {
+        return getMinionPage(characterId).thenApply(Document::outerHtml);
+    }
+
+    /**
+     * Fetches the source of a Characters Mounts page, where available.
+     *
+     * @param characterId
+     * @return Future to be completed with the source of the Mounts page.
+     */
+    default CompletableFuture<String> getMountPageSource(final int characterId) {
+        return getMountPage(characterId).thenApply(Document::outerHtml);
+    }
+
+}
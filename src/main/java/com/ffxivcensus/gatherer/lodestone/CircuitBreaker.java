@@ -0,0 +1,211 @@
+package com.ffxivcensus.gatherer.lodestone;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Circuit breaker guarding all requests to a single host.
+ * <p>
+ * While the host is healthy, the breaker is <em>closed</em> and requests are sent as normal. Once the host has failed enough requests in a
+ * row, asks us to back off via <code>Retry-After</code> or is found to be down for maintenance, the breaker <em>opens</em> and no requests
+ * are sent until the open period has passed. The open period follows the host's <code>Retry-After</code> where given, otherwise it backs
+ * off exponentially (with jitter) each time the breaker re-opens. After the open period, the breaker is <em>half-open</em>: a single probe
+ * request is let through, and the breaker closes again only once a request succeeds.
+ * <p>
+ * The probe belongs to the request it was given to, which may keep asking for permission for each of its own retries. Every request must
+ * {@link #release(Object) release} its permission once it has finished, however it finished, so that a probe ending without saying
+ * anything about the host (e.g. one that never got a connection) lets the next request probe instead. A probe that has not reported back
+ * within {@link #PROBE_TIMEOUT_MILLIS} is handed on regardless, so that no one lost request can hold every other request back.
+ *
+ * @author matthew.hillier
+ */
+public class CircuitBreaker {
+
+    /**
+     * States the breaker may be in.
+     */
+    public enum State {
+        /** Requests are sent as normal. */
+        CLOSED,
+        /** No requests are sent. */
+        OPEN,
+        /** A single probe request is sent to check whether the host has recovered. */
+        HALF_OPEN
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(CircuitBreaker.class);
+    /** Number of consecutive failures needed to open the breaker. */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    private static final long BASE_OPEN_MILLIS = 5000;
+    private static final long MAX_OPEN_MILLIS = 300000;
+    /** How often callers waiting on a probe check back. */
+    private static final long PROBE_POLL_MILLIS = 1000;
+    /** How long a probe may go without reporting back before another request is allowed to probe. */
+    static final long PROBE_TIMEOUT_MILLIS = 60000;
+
+    private final String host;
+    private final int failureThreshold;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private int consecutiveOpens;
+    private long openUntil;
+    private boolean probeInFlight;
+    private Object probeOwner;
+    private long probeStarted;
+
+    /**
+     * Creates a new breaker for the given host.
+     *
+     * @param host Host guarded by this breaker.
+     * @param failureThreshold Number of consecutive failures needed to open the breaker.
+     */
+    public CircuitBreaker(final String host, final int failureThreshold) {
+        this(host, failureThreshold, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(final String host, final int failureThreshold, final LongSupplier clock) {
+        this.host = host;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.clock = clock;
+    }
+
+    /**
+     * Asks for permission to send a request.
+     * Where permission is not granted, the caller should wait for the time returned and then ask again. Once the request has finished,
+     * whether or not permission was ever granted, the caller should {@link #release(Object) release} it.
+     *
+     * @param requester Identifies the request, so that a request given the probe is let through again for each of its retries.
+     * @return Zero if the request may be sent now, otherwise milliseconds to wait before asking again.
+     */
+    public synchronized long acquirePermission(final Object requester) {
+        long now = clock.getAsLong();
+        switch (state) {
+            case OPEN:
+                if(now < openUntil) {
+                    return openUntil - now;
+                }
+                LOG.info("CIRCUIT BREAKER: {} - Probing to see if it has recovered", host);
+                state = State.HALF_OPEN;
+                startProbe(requester, now);
+                return 0;
+            case HALF_OPEN:
+                if(!probeInFlight || probeOwner == requester) {
+                    startProbe(requester, now);
+                    return 0;
+                } else if(now - probeStarted >= PROBE_TIMEOUT_MILLIS) {
+                    LOG.warn("CIRCUIT BREAKER: {} - Probe has not reported back in {}s, probing again", host, PROBE_TIMEOUT_MILLIS / 1000);
+                    startProbe(requester, now);
+                    return 0;
+                }
+                return PROBE_POLL_MILLIS;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Releases the permission given to a request once it has finished, letting another request probe where this request held the probe
+     * without it having reported on the host's health.
+     *
+     * @param requester Identifies the request, as given to {@link #acquirePermission(Object)}.
+     */
+    public synchronized void release(final Object requester) {
+        if(probeInFlight && probeOwner == requester) {
+            probeInFlight = false;
+            probeOwner = null;
+        }
+    }
+
+    private void startProbe(final Object requester, final long now) {
+        probeInFlight = true;
+        probeOwner = requester;
+        probeStarted = now;
+    }
+
+    /**
+     * Records a request that reached a healthy host, closing the breaker if it was open.
+     */
+    public synchronized void onSuccess() {
+        if(state != State.CLOSED) {
+            LOG.info("CIRCUIT BREAKER: {} - Recovered, resuming requests", host);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        consecutiveOpens = 0;
+        probeInFlight = false;
+        probeOwner = null;
+    }
+
+    /**
+     * Records a failed request, opening the breaker if the host has failed too many requests in a row or asked us to back off.
+     *
+     * @param retryAfterMillis How long the host asked us to wait, or zero if it did not say.
+     */
+    public synchronized void onFailure(final long retryAfterMillis) {
+        consecutiveFailures++;
+        if(state == State.HALF_OPEN || consecutiveFailures >= failureThreshold || retryAfterMillis > 0) {
+            open(retryAfterMillis, consecutiveFailures + " consecutive failures");
+        }
+    }
+
+    /**
+     * Opens the breaker immediately, for example because the host is down for maintenance.
+     *
+     * @param retryAfterMillis How long the host asked us to wait, or zero if it did not say.
+     * @param reason Reason to report for opening.
+     */
+    public synchronized void trip(final long retryAfterMillis, final String reason) {
+        consecutiveFailures++;
+        open(retryAfterMillis, reason);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Determines whether requests to the host are currently being held back.
+     *
+     * @return <code>true</code> unless the breaker is closed.
+     */
+    public synchronized boolean isOpen() {
+        return state != State.CLOSED;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    private void open(final long retryAfterMillis, final String reason) {
+        long now = clock.getAsLong();
+        if(state == State.OPEN) {
+            // Requests sent before the breaker opened are still reporting back, so only honour any longer wait they have been given
+            if(retryAfterMillis > 0) {
+                openUntil = Math.max(openUntil, now + retryAfterMillis);
+            }
+            return;
+        }
+        consecutiveOpens++;
+        long wait = retryAfterMillis > 0 ? retryAfterMillis : backoffMillis(consecutiveOpens);
+        openUntil = now + wait;
+        state = State.OPEN;
+        probeInFlight = false;
+        probeOwner = null;
+        LOG.warn("CIRCUIT BREAKER: {} - Pausing requests for {}s due to {}", host, wait / 1000, reason);
+    }
+
+    /**
+     * Calculates how long to stay open for, doubling each time the breaker re-opens without the host having recovered, and randomised
+     * so that probes do not line up with any schedule the host may be following.
+     */
+    private static long backoffMillis(final int opens) {
+        long ceiling = Math.min(MAX_OPEN_MILLIS, BASE_OPEN_MILLIS << Math.min(opens - 1, 16));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.ffxivcensus.gatherer.lodestone;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.jsoup.nodes.Document;
+
+/**
+ * Adapts a blocking {@link LodestonePageLoader} to the {@link AsyncLodestonePageLoader} interface by running each fetch on the given
+ * {@link Executor}.
+ * Useful where a blocking loader, such as one backed by test data, needs to be driven through the non-blocking code paths.
+ *
+ * @author matthew.hillier
+ */
+public class ExecutorAsyncLodestonePageLoader implements AsyncLodestonePageLoader {
+
+    private final LodestonePageLoader loader;
+    private final Executor executor;
+
+    /**
+     * Creates a new adapter around the given loader.
+     *
+     * @param loader Blocking loader to delegate to.
+     * @param executor Executor on which the blocking calls will be made.
+     */
+    public ExecutorAsyncLodestonePageLoader(final LodestonePageLoader loader, final Executor executor) {
+        this.loader = loader;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Document> getCharacterPage(final int characterId) {
+        return supply(() -> loader.getCharacterPage(characterId));
+    }
+
+    @Override
+    public CompletableFuture<Document> getClassJobPage(final int characterId) {
+        return supply(() -> loader.getClassJobPage(characterId));
+    }
+
+    @Override
+    public CompletableFuture<Document> getMinionPage(final int characterId) {
+        return supply(() -> loader.getMinionPage(characterId));
+    }
+
+    @Override
+    public CompletableFuture<Document> getMountPage(final int characterId) {
+        return supply(() -> loader.getMountPage(characterId));
+    }
+
+    @Override
+    public CompletableFuture<Document> getTooltipPage(final String href) {
+        return supply(() -> loader.getTooltipPage(href));
+    }
+
+    @Override
+    public CompletableFuture<String> getCharacterPageSource(final int characterId) {
+        return supply(() -> loader.getCharacterPageSource(characterId));
+    }
+
+    @Override
+    public CompletableFuture<String> getClassJobPageSource(final int characterId) {
+        return supply(() -> loader.getClassJobPageSource(characterId));
+    }
+
+    @Override
+    public CompletableFuture<String> getMinionPageSource(final int characterId) {
+        return supply(() -> loader.getMinionPageSource(characterId));
+    }
+
+    @Override
+    public CompletableFuture<String> getMountPageSource(final int characterId) {
+        return supply(() -> loader.getMountPageSource(characterId));
+    }
+
+    private <T> CompletableFuture<T> supply(final PageFetch<T> fetch) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(fetch.fetch());
+                } catch(InterruptedException ie) {
+                    future.completeExceptionally(ie);
+                    Thread.currentThread().interrupt();
+                } catch(Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch(RejectedExecutionException ree) {
+            future.completeExceptionally(ree);
+        }
+        return future;
+    }
+
+    /**
+     * A single blocking page fetch.
+     */
+    @FunctionalInterface
+    private interface PageFetch<T> {
+        T fetch() throws Exception;
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.ffxivcensus.gatherer.lodestone;
+
+/**
+ * Exception that identifies that a page has not been modified since the copy previously fetched from the Lodestone.
+ *
+ * @author matthew.hillier
+ * @see PageValidators
+ */
+public class FetchYieldedPageNotModifiedException extends Exception {
+
+    private static final long serialVersionUID = 3806731128935446420L;
+
+}
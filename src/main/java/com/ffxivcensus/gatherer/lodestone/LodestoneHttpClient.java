@@ -0,0 +1,660 @@
+package com.ffxivcensus.gatherer.lodestone;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+import javax.net.ssl.SSLException;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shared, pooled HTTP client used for all traffic to the Lodestone & its image servers.
+ * Connections are kept alive and re-used between requests, so that the handful of requests made for each character do not each pay for
+ * a fresh TCP/TLS handshake. Both a blocking and a non-blocking pool are available; the non-blocking pool is only created once it is
+ * first used.
+ * <p>
+ * Connections are limited both in total and per route (i.e. per host), and any connection left idle for longer than the configured idle
+ * timeout is evicted from the pool. Pool utilisation can be inspected through {@link #getPoolStats()} and {@link #getRouteStats()}.
+ * <p>
+ * Where a {@link TokenBucketRateLimiter} has been set, every request (including any retries) must take a token from it before being sent.
+ * Requests that are rate limited (HTTP 429) or fail are retried a limited number of times, backing off exponentially between attempts,
+ * before the response or failure is handed back to the caller. The outcome of each attempt is reported to any registered
+ * {@link RequestOutcomeListener}.
+ * <p>
+ * Each host is also guarded by a {@link CircuitBreaker}. When a host is down for maintenance, asks us to back off, or keeps failing,
+ * its breaker opens and requests to it are held (rather than failed) until the host recovers.
+ *
+ * @author matthew.hillier
+ */
+public class LodestoneHttpClient implements Closeable {
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 128;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 64;
+    public static final long DEFAULT_KEEP_ALIVE_MILLIS = 30000;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 10000;
+    /** Connection & Socket timeout. */
+    private static final int TIMEOUT_MILLIS = 5000;
+    /** HTTP Status Code returned by the Lodestone when rate limiting. */
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    /** Maximum number of times to send a request while being rate limited or failing, unless the host's circuit breaker is open. */
+    private static final int MAX_ATTEMPTS = 6;
+    private static final long BASE_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+    /**
+     * Maximum number of times to hold a request for maintenance. Each hold waits out the circuit breaker's open period, so this only
+     * gives up on the request after the Lodestone has been down for some time.
+     */
+    private static final int MAX_MAINTENANCE_ATTEMPTS = 20;
+    /**
+     * Matches the title of the Lodestone's maintenance page. Only looked for in HTTP 503 responses, which never carry a character's
+     * profile, so that names & titles chosen by players cannot be mistaken for it.
+     */
+    private static final Pattern MAINTENANCE_PATTERN = Pattern.compile("<title>[^<]*maintenance[^<]*</title>", Pattern.CASE_INSENSITIVE);
+
+    private static final Logger LOG = LoggerFactory.getLogger(LodestoneHttpClient.class);
+
+    private static LodestoneHttpClient defaultClient;
+
+    private final int maxConnections;
+    private final int maxConnectionsPerRoute;
+    private final long idleTimeoutMillis;
+    private final RequestConfig requestConfig;
+    private final ConnectionKeepAliveStrategy keepAliveStrategy;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient client;
+    private PoolingNHttpClientConnectionManager asyncConnectionManager;
+    private CloseableHttpAsyncClient asyncClient;
+    private ScheduledExecutorService scheduler;
+    private volatile TokenBucketRateLimiter rateLimiter;
+    private final List<RequestOutcomeListener> outcomeListeners = new CopyOnWriteArrayList<>();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new client with the default pool settings.
+     */
+    public LodestoneHttpClient() {
+        this(DEFAULT_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS_PER_ROUTE, DEFAULT_KEEP_ALIVE_MILLIS, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Creates a new client with the given pool settings.
+     *
+     * @param maxConnections Maximum number of open connections, across all hosts.
+     * @param maxConnectionsPerRoute Maximum number of open connections to any one host.
+     * @param keepAliveMillis How long to keep a connection alive for, where the server does not say otherwise.
+     * @param idleTimeoutMillis How long a connection may sit idle in the pool before it is closed.
+     */
+    public LodestoneHttpClient(final int maxConnections, final int maxConnectionsPerRoute, final long keepAliveMillis,
+                               final long idleTimeoutMillis) {
+        this.maxConnections = Math.max(1, maxConnections);
+        this.maxConnectionsPerRoute = Math.max(1, Math.min(maxConnectionsPerRoute, this.maxConnections));
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.requestConfig = RequestConfig.custom()
+                                          .setConnectTimeout(TIMEOUT_MILLIS)
+                                          .setConnectionRequestTimeout(TIMEOUT_MILLIS)
+                                          .setSocketTimeout(TIMEOUT_MILLIS)
+                                          .build();
+        this.keepAliveStrategy = (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMillis) : keepAliveMillis;
+        };
+
+        connectionManager = new PoolingHttpClientConnectionManager(keepAliveMillis, TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(this.maxConnections);
+        connectionManager.setDefaultMaxPerRoute(this.maxConnectionsPerRoute);
+        // Re-validate connections that have been sat in the pool, as the server may have dropped them in the meantime
+        connectionManager.setValidateAfterInactivity(1000);
+        client = HttpClients.custom()
+                            .setConnectionManager(connectionManager)
+                            .setKeepAliveStrategy(keepAliveStrategy)
+                            .setDefaultRequestConfig(requestConfig)
+                            .disableCookieManagement()
+                            .evictExpiredConnections()
+                            .evictIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS)
+                            .build();
+    }
+
+    /**
+     * Fetches the client shared by any component that has not been given one of its own.
+     *
+     * @return Shared client instance.
+     */
+    public static synchronized LodestoneHttpClient getDefault() {
+        if(defaultClient == null) {
+            defaultClient = new LodestoneHttpClient();
+        }
+        return defaultClient;
+    }
+
+    /**
+     * Performs a GET request, blocking until the full response has been received.
+     *
+     * @param url URL to fetch.
+     * @return The response.
+     * @throws IOException If the request could not be completed.
+     * @throws InterruptedException If interrupted while waiting to send the request.
+     */
+    public LodestoneResponse get(final String url) throws IOException, InterruptedException {
+        return execute(new HttpGet(url));
+    }
+
+    /**
+     * Performs a HEAD request, blocking until the response has been received.
+     *
+     * @param url URL to probe.
+     * @return The response, which will have no body.
+     * @throws IOException If the request could not be completed.
+     * @throws InterruptedException If interrupted while waiting to send the request.
+     */
+    public LodestoneResponse head(final String url) throws IOException, InterruptedException {
+        return execute(new HttpHead(url));
+    }
+
+    /**
+     * Performs a GET request with additional request headers (e.g. for a conditional request), blocking until the full response has
+     * been received.
+     *
+     * @param url URL to fetch.
+     * @param headers Headers to send with the request.
+     * @return The response.
+     * @throws IOException If the request could not be completed.
+     * @throws InterruptedException If interrupted while waiting to send the request.
+     */
+    public LodestoneResponse get(final String url, final Map<String, String> headers) throws IOException, InterruptedException {
+        return execute(withHeaders(new HttpGet(url), headers));
+    }
+
+    /**
+     * Performs a HEAD request with additional request headers (e.g. for a conditional request), blocking until the response has been
+     * received.
+     *
+     * @param url URL to probe.
+     * @param headers Headers to send with the request.
+     * @return The response, which will have no body.
+     * @throws IOException If the request could not be completed.
+     * @throws InterruptedException If interrupted while waiting to send the request.
+     */
+    public LodestoneResponse head(final String url, final Map<String, String> headers) throws IOException, InterruptedException {
+        return execute(withHeaders(new HttpHead(url), headers));
+    }
+
+    /**
+     * Performs a GET request without blocking the calling thread.
+     *
+     * @param url URL to fetch.
+     * @return Future to be completed with the response, or exceptionally where the request could not be completed.
+     */
+    public CompletableFuture<LodestoneResponse> getAsync(final String url) {
+        return executeAsync(new HttpGet(url));
+    }
+
+    /**
+     * Performs a HEAD request without blocking the calling thread.
+     *
+     * @param url URL to probe.
+     * @return Future to be completed with the response, or exceptionally where the request could not be completed.
+     */
+    public CompletableFuture<LodestoneResponse> headAsync(final String url) {
+        return executeAsync(new HttpHead(url));
+    }
+
+    /**
+     * Fetches the utilisation of the connection pools, combined across both the blocking & non-blocking pools.
+     *
+     * @return Snapshot of the pool utilisation.
+     */
+    public PoolStats getPoolStats() {
+        PoolStats stats = connectionManager.getTotalStats();
+        PoolingNHttpClientConnectionManager asyncManager = getAsyncConnectionManager();
+        if(asyncManager != null) {
+            stats = combine(stats, asyncManager.getTotalStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Fetches the utilisation of the connection pools for each host currently known to them.
+     *
+     * @return Snapshot of the pool utilisation, keyed on host name.
+     */
+    public Map<String, PoolStats> getRouteStats() {
+        Map<String, PoolStats> routeStats = new LinkedHashMap<>();
+        for(HttpRoute route : connectionManager.getRoutes()) {
+            routeStats.merge(route.getTargetHost().getHostName(), connectionManager.getStats(route), LodestoneHttpClient::combine);
+        }
+        PoolingNHttpClientConnectionManager asyncManager = getAsyncConnectionManager();
+        if(asyncManager != null) {
+            for(HttpRoute route : asyncManager.getRoutes()) {
+                routeStats.merge(route.getTargetHost().getHostName(), asyncManager.getStats(route), LodestoneHttpClient::combine);
+            }
+        }
+        return routeStats;
+    }
+
+    /**
+     * Sets the rate limiter from which every request must take a token before being sent.
+     *
+     * @param rateLimiter Rate limiter to use, or <code>null</code> to send requests without limit.
+     */
+    public void setRateLimiter(final TokenBucketRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    public TokenBucketRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Registers a listener to be notified of the outcome of every request sent.
+     *
+     * @param listener Listener to register.
+     */
+    public void addRequestOutcomeListener(final RequestOutcomeListener listener) {
+        outcomeListeners.add(listener);
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    /**
+     * Closes both connection pools, abandoning any requests still in flight.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if(scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if(asyncClient != null) {
+            asyncClient.close();
+        }
+        client.close();
+    }
+
+    private static HttpRequestBase withHeaders(final HttpRequestBase request, final Map<String, String> headers) {
+        for(Map.Entry<String, String> header : headers.entrySet()) {
+            request.setHeader(header.getKey(), header.getValue());
+        }
+        return request;
+    }
+
+    private LodestoneResponse execute(final HttpRequestBase request) throws IOException, InterruptedException {
+        CircuitBreaker breaker = getCircuitBreaker(request.getURI().getHost());
+        try {
+            return execute(request, breaker);
+        } finally {
+            // However the request ended, it must not keep hold of the breaker's probe
+            breaker.release(request);
+        }
+    }
+
+    private LodestoneResponse execute(final HttpRequestBase request, final CircuitBreaker breaker) throws IOException, InterruptedException {
+        for(int attempt = 1;; attempt++) {
+            long permitWait;
+            while((permitWait = breaker.acquirePermission(request)) > 0) {
+                TimeUnit.MILLISECONDS.sleep(permitWait);
+            }
+            acquireToken();
+            LodestoneResponse response;
+            long start = System.nanoTime();
+            try(CloseableHttpResponse httpResponse = client.execute(request)) {
+                // Always consume the entity, otherwise the connection cannot be returned to the pool for re-use
+                String body = httpResponse.getEntity() != null ? EntityUtils.toString(httpResponse.getEntity(), StandardCharsets.UTF_8)
+                                                               : null;
+                response = new LodestoneResponse(request.getURI().toString(), httpResponse, body);
+            } catch(IOException e) {
+                notifyFailure(request, e, start);
+                long retryWait = retryDelay(request, e, attempt, breaker);
+                if(retryWait < 0) {
+                    throw e;
+                }
+                TimeUnit.MILLISECONDS.sleep(retryWait);
+                request.reset();
+                continue;
+            }
+            notifyResponse(request, response, start);
+            long retryWait = retryDelay(request, response, attempt, breaker);
+            if(retryWait < 0) {
+                return response;
+            }
+            TimeUnit.MILLISECONDS.sleep(retryWait);
+            request.reset();
+        }
+    }
+
+    private CompletableFuture<LodestoneResponse> executeAsync(final HttpRequestBase request) {
+        final CompletableFuture<LodestoneResponse> future = new CompletableFuture<>();
+        // However the request ends, including being cancelled, it must not keep hold of the breaker's probe
+        future.whenComplete((response, ex) -> getCircuitBreaker(request.getURI().getHost()).release(request));
+        dispatchAsync(request, 1, future);
+        return future;
+    }
+
+    /**
+     * Sends the request once the host's circuit breaker allows and a token is available, without blocking the calling thread while
+     * waiting for either.
+     */
+    private void dispatchAsync(final HttpRequestBase request, final int attempt, final CompletableFuture<LodestoneResponse> future) {
+        long permitWait = getCircuitBreaker(request.getURI().getHost()).acquirePermission(request);
+        if(permitWait > 0) {
+            getScheduler().schedule(() -> dispatchAsync(request, attempt, future), permitWait, TimeUnit.MILLISECONDS);
+            return;
+        }
+        long waitNanos = rateLimiter != null ? rateLimiter.reserve() : 0;
+        if(waitNanos > 0) {
+            getScheduler().schedule(() -> sendAsync(request, attempt, future), waitNanos, TimeUnit.NANOSECONDS);
+        } else {
+            sendAsync(request, attempt, future);
+        }
+    }
+
+    private void sendAsync(final HttpRequestBase request, final int attempt, final CompletableFuture<LodestoneResponse> future) {
+        final CloseableHttpAsyncClient httpClient;
+        try {
+            httpClient = getAsyncClient();
+        } catch(IOException e) {
+            future.completeExceptionally(e);
+            return;
+        }
+        final CircuitBreaker breaker = getCircuitBreaker(request.getURI().getHost());
+        final long start = System.nanoTime();
+        httpClient.execute(request, new FutureCallback<HttpResponse>() {
+
+            @Override
+            public void completed(final HttpResponse httpResponse) {
+                LodestoneResponse response;
+                try {
+                    String body = httpResponse.getEntity() != null ? EntityUtils.toString(httpResponse.getEntity(), StandardCharsets.UTF_8)
+                                                                   : null;
+                    response = new LodestoneResponse(request.getURI().toString(), httpResponse, body);
+                } catch(IOException e) {
+                    failed(e);
+                    return;
+                }
+                notifyResponse(request, response, start);
+                long retryWait = retryDelay(request, response, attempt, breaker);
+                if(retryWait < 0) {
+                    future.complete(response);
+                } else {
+                    retryAsync(request, attempt, future, retryWait);
+                }
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                notifyFailure(request, ex, start);
+                long retryWait;
+                if(ex instanceof TimeoutException) {
+                    // The non-blocking pool reports running out of connections as a lease time out
+                    retryWait = leaseRetryDelay(request, ex, attempt);
+                } else {
+                    retryWait = ex instanceof IOException ? retryDelay(request, (IOException) ex, attempt, breaker) : -1;
+                }
+                if(retryWait < 0) {
+                    future.completeExceptionally(ex);
+                } else {
+                    retryAsync(request, attempt, future, retryWait);
+                }
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+    }
+
+    private void retryAsync(final HttpRequestBase request, final int attempt, final CompletableFuture<LodestoneResponse> future,
+                            final long delayMillis) {
+        getScheduler().schedule(() -> {
+            request.reset();
+            dispatchAsync(request, attempt + 1, future);
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void notifyResponse(final HttpRequestBase request, final LodestoneResponse response, final long start) {
+        long latency = System.nanoTime() - start;
+        for(RequestOutcomeListener listener : outcomeListeners) {
+            listener.onResponse(request.getURI().getHost(), response.getStatusCode(), latency);
+        }
+    }
+
+    private void notifyFailure(final HttpRequestBase request, final Exception cause, final long start) {
+        long latency = System.nanoTime() - start;
+        for(RequestOutcomeListener listener : outcomeListeners) {
+            listener.onFailure(request.getURI().getHost(), cause, latency);
+        }
+    }
+
+    private void acquireToken() throws InterruptedException {
+        if(rateLimiter != null) {
+            rateLimiter.acquire();
+        }
+    }
+
+    /**
+     * Decides what to do with a response, updating the host's circuit breaker to match.
+     * <ul>
+     * <li>Maintenance pages and requests to back off via <code>Retry-After</code> open the breaker, and the request is held until the
+     * breaker closes again. Requests are only held for maintenance a limited number of times, so that no one request can keep the
+     * breaker open for good.</li>
+     * <li>Rate limited (HTTP 429) & server error (HTTP 5xx) responses are retried after an exponential back-off, a limited number of times
+     * unless the breaker has opened in the meantime.</li>
+     * <li>Anything else is handed back to the caller.</li>
+     * </ul>
+     *
+     * @return Milliseconds to wait before retrying, or -1 if the response should be handed back to the caller.
+     */
+    private static long retryDelay(final HttpRequestBase request, final LodestoneResponse response, final int attempt,
+                                   final CircuitBreaker breaker) {
+        int statusCode = response.getStatusCode();
+        long retryAfter = getRetryAfterMillis(response);
+        if(isMaintenance(response)) {
+            breaker.trip(retryAfter, "maintenance");
+            return attempt < MAX_MAINTENANCE_ATTEMPTS ? 0 : -1;
+        } else if(statusCode == HTTP_TOO_MANY_REQUESTS) {
+            if(retryAfter > 0) {
+                breaker.trip(retryAfter, "HTTP 429 with Retry-After");
+                return 0;
+            }
+            // The host is up and answering, it just wants us to slow down
+            breaker.onSuccess();
+            return attempt < MAX_ATTEMPTS ? backoffMillis(request, attempt, "rate limiting (HTTP 429)") : -1;
+        } else if(statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+            breaker.onFailure(retryAfter);
+            return breaker.isOpen() || attempt < MAX_ATTEMPTS ? backoffMillis(request, attempt, "HTTP " + statusCode) : -1;
+        }
+        breaker.onSuccess();
+        return -1;
+    }
+
+    /**
+     * Decides what to do with a request that failed to get a response, updating the host's circuit breaker to match.
+     *
+     * @return Milliseconds to wait before retrying, or -1 if the failure should be handed back to the caller.
+     */
+    private static long retryDelay(final HttpRequestBase request, final IOException cause, final int attempt,
+                                   final CircuitBreaker breaker) {
+        if(cause instanceof UnknownHostException || cause instanceof SSLException) {
+            // Not something that will resolve itself by waiting, so don't hold anything up for it
+            return -1;
+        } else if(cause instanceof ConnectionPoolTimeoutException) {
+            return leaseRetryDelay(request, cause, attempt);
+        }
+        breaker.onFailure(0);
+        return breaker.isOpen() || attempt < MAX_ATTEMPTS ? backoffMillis(request, attempt, cause.toString()) : -1;
+    }
+
+    /**
+     * Decides what to do with a request that timed out waiting for a connection from our own pool. The request never reached the host,
+     * so says nothing about its health and is kept away from the circuit breaker.
+     *
+     * @return Milliseconds to wait before retrying, or -1 if the failure should be handed back to the caller.
+     */
+    private static long leaseRetryDelay(final HttpRequestBase request, final Exception cause, final int attempt) {
+        return attempt < MAX_ATTEMPTS ? backoffMillis(request, attempt, cause.toString()) : -1;
+    }
+
+    /**
+     * Determines whether the response is the Lodestone's maintenance page.
+     */
+    static boolean isMaintenance(final LodestoneResponse response) {
+        if(response.getStatusCode() != HttpStatus.SC_SERVICE_UNAVAILABLE) {
+            return false;
+        }
+        return response.getBody() != null && MAINTENANCE_PATTERN.matcher(response.getBody()).find();
+    }
+
+    /**
+     * Reads the Retry-After header of the response, which may be given either in seconds or as a date.
+     *
+     * @return Milliseconds to wait, or zero where no (valid) Retry-After header was given.
+     */
+    static long getRetryAfterMillis(final LodestoneResponse response) {
+        String retryAfter = response.getHeader(HttpHeaders.RETRY_AFTER);
+        if(retryAfter == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())));
+        } catch(NumberFormatException nfe) {
+            Date retryAt = DateUtils.parseDate(retryAfter);
+            return retryAt != null ? Math.max(0, retryAt.getTime() - System.currentTimeMillis()) : 0;
+        }
+    }
+
+    /**
+     * Calculates how long to back off for before retrying.
+     * The wait doubles with each attempt, and is randomised across the upper half of the range so that many requests failing at the same
+     * time do not all retry at the same time.
+     */
+    private static long backoffMillis(final HttpRequestBase request, final int attempt, final String reason) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempt - 1, 16));
+        long wait = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+        LOG.trace("Experiencing {} while fetching {} (attempt {}), waiting {}ms then retrying...", reason, request.getURI(), attempt, wait);
+        return wait;
+    }
+
+    /**
+     * Fetches the circuit breaker guarding the given host, creating it on first use.
+     *
+     * @param host Host name.
+     * @return Circuit breaker for the host.
+     */
+    public CircuitBreaker getCircuitBreaker(final String host) {
+        return circuitBreakers.computeIfAbsent(host, h -> new CircuitBreaker(h, CircuitBreaker.DEFAULT_FAILURE_THRESHOLD));
+    }
+
+    /**
+     * Determines whether requests to any host are currently being held back by its circuit breaker.
+     *
+     * @return <code>true</code> if any circuit breaker is not closed.
+     */
+    public boolean isAnyCircuitOpen() {
+        for(CircuitBreaker breaker : circuitBreakers.values()) {
+            if(breaker.isOpen()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized ScheduledExecutorService getScheduler() {
+        if(scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "lodestone-http-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+
+    /**
+     * Lazily creates & starts the non-blocking client, so that runs which never use it do not hold an I/O reactor open.
+     */
+    private synchronized CloseableHttpAsyncClient getAsyncClient() throws IOReactorException {
+        if(asyncClient == null) {
+            IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                                                           .setConnectTimeout(TIMEOUT_MILLIS)
+                                                           .setSoTimeout(TIMEOUT_MILLIS)
+                                                           .build();
+            asyncConnectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactorConfig));
+            asyncConnectionManager.setMaxTotal(maxConnections);
+            asyncConnectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+            asyncClient = HttpAsyncClients.custom()
+                                          .setConnectionManager(asyncConnectionManager)
+                                          .setKeepAliveStrategy(keepAliveStrategy)
+                                          .setDefaultRequestConfig(requestConfig)
+                                          .disableCookieManagement()
+                                          .build();
+            asyncClient.start();
+
+            // The non-blocking client has no built-in evictor, so we schedule our own
+            final PoolingNHttpClientConnectionManager manager = asyncConnectionManager;
+            long period = Math.max(1000, idleTimeoutMillis / 2);
+            getScheduler().scheduleWithFixedDelay(() -> {
+                manager.closeExpiredConnections();
+                manager.closeIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+            }, period, period, TimeUnit.MILLISECONDS);
+        }
+        return asyncClient;
+    }
+
+    private synchronized PoolingNHttpClientConnectionManager getAsyncConnectionManager() {
+        return asyncConnectionManager;
+    }
+
+    private static PoolStats combine(final PoolStats a, final PoolStats b) {
+        return new PoolStats(a.getLeased() + b.getLeased(),
+                             a.getPending() + b.getPending(),
+                             a.getAvailable() + b.getAvailable(),
+                             a.getMax() + b.getMax());
+    }
+
+}
@@ -22,6 +22,24 @@ public interface LodestonePageLoader {
      */
     Document getCharacterPage(final int characterId) throws IOException, InterruptedException, FetchYieldedPageNotFoundException;
 
+    /**
+     * Fetches a Character page, only where it has been modified since the copy described by the given validators was fetched.
+     * Where a modified page is returned, the validators are updated to describe it.
+     * By default, loaders that cannot make conditional requests always return the page.
+     * @param characterId
+     * @param validators Validators of the copy of the page previously fetched.
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws FetchYieldedPageNotFoundException
+     * @throws FetchYieldedPageNotModifiedException
+     */
+    default Document getCharacterPage(final int characterId, final PageValidators validators) throws IOException, InterruptedException,
+                                                                                            FetchYieldedPageNotFoundException,
+                                                                                            FetchYieldedPageNotModifiedException {
+        return getCharacterPage(characterId);
+    }
+
     /**
      * Fetches a Character's Class & Job info, where available.
      * @param characterId
@@ -61,4 +79,76 @@ public interface LodestonePageLoader {
      */
     Document getTooltipPage(final String href) throws IOException, InterruptedException;
 
+    /**
+     * Fetches the source of a Character page, for extractors that work on the raw page rather than a {@link Document}.
+     * By default, the source is re-generated from the loaded {@link Document}.
+     * @param characterId
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws FetchYieldedPageNotFoundException
+     */
+    default String getCharacterPageSource(final int characterId) throws IOException, InterruptedException,
+                                                                 FetchYieldedPageNotFoundException {
+        return getCharacterPage(characterId).outerHtml();
+    }
+
+    /**
+     * Fetches the source of a Character page, only where it has been modified since the copy described by the given validators was
+     * fetched.
+     * @param characterId
+     * @param validators Validators of the copy of the page previously fetched.
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws FetchYieldedPageNotFoundException
+     * @throws FetchYieldedPageNotModifiedException
+     * @see #getCharacterPage(int, PageValidators)
+     */
+    default String getCharacterPageSource(final int characterId, final PageValidators validators) throws IOException,
+                                                                                                 InterruptedException,
+                                                                                                 FetchYieldedPageNotFoundException,
+                                                                                                 FetchYieldedPageNotModifiedException {
+        return getCharacterPage(characterId, validators).outerHtml();
+    }
+
+    /**
+     * Fetches the source of a Character's Class & Job page, where available.
+     * @param characterId
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws FetchYieldedPageNotFoundException
+     */
+    default String getClassJobPageSource(final int characterId) throws IOException, InterruptedException,
+                                                                FetchYieldedPageNotFoundException {
+        return getClassJobPage(characterId).outerHtml();
+    }
+
+    /**
+     * Fetches the source of a Characters Minions page, where available.
+     * @param characterId
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws FetchYieldedPageNotFoundException
+     */
+    default String getMinionPageSource(final int characterId) throws IOException, InterruptedException,
+                                                              FetchYieldedPageNotFoundException {
+        return getMinionPage(characterId).outerHtml();
+    }
+
+    /**
+     * Fetches the source of a Characters Mounts page, where available.
+     * @param characterId
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws FetchYieldedPageNotFoundException
+     */
+    default String getMountPageSource(final int characterId) throws IOException, InterruptedException,
+                                                             FetchYieldedPageNotFoundException {
+        return getMountPage(characterId).outerHtml();
+    }
+
 }
@@ -0,0 +1,61 @@
+package com.ffxivcensus.gatherer.lodestone;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+
+/**
+ * Fully-consumed response from the {@link LodestoneHttpClient}.
+ * By the time one of these has been created the underlying connection has already been returned to the pool, so it is safe to hold onto
+ * for as long as needed.
+ *
+ * @author matthew.hillier
+ */
+public class LodestoneResponse {
+
+    private final String url;
+    private final int statusCode;
+    private final Header[] headers;
+    private final String body;
+
+    /**
+     * Creates a new response from the given status line, headers & body.
+     *
+     * @param url URL that was requested.
+     * @param response Response received from the server.
+     * @param body Response body, or <code>null</code> where the response had none.
+     */
+    LodestoneResponse(final String url, final HttpResponse response, final String body) {
+        this.url = url;
+        this.statusCode = response.getStatusLine().getStatusCode();
+        this.headers = response.getAllHeaders();
+        this.body = body;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * Fetches the value of the first header with the given name.
+     *
+     * @param name Name of the header, case-insensitive.
+     * @return Value of the header, or <code>null</code> if not present.
+     */
+    public String getHeader(final String name) {
+        for(Header header : headers) {
+            if(header.getName().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.ffxivcensus.gatherer.lodestone;
+
+/**
+ * Validators (<code>Last-Modified</code> and <code>ETag</code>) describing the copy of a page previously fetched from the Lodestone, used
+ * to make a conditional request for the page.
+ * Where the page turns out to have been modified, the validators are updated to describe the newly fetched copy.
+ *
+ * @author matthew.hillier
+ */
+public class PageValidators {
+
+    private String lastModified;
+    private String eTag;
+
+    /**
+     * Creates validators for a page that has not been fetched before.
+     */
+    public PageValidators() {
+    }
+
+    /**
+     * Creates validators for the copy of a page previously fetched.
+     *
+     * @param lastModified <code>Last-Modified</code> header returned with the page, or <code>null</code> if none was returned.
+     * @param eTag <code>ETag</code> header returned with the page, or <code>null</code> if none was returned.
+     */
+    public PageValidators(final String lastModified, final String eTag) {
+        this.lastModified = lastModified;
+        this.eTag = eTag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(final String lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public void setETag(final String eTag) {
+        this.eTag = eTag;
+    }
+
+}
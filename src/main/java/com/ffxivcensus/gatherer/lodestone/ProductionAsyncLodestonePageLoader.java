@@ -0,0 +1,140 @@
+package com.ffxivcensus.gatherer.lodestone;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import org.apache.http.HttpStatus;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Non-blocking Lodestone Page Loader that works with the live EU lodestone.
+ * Requests are issued through the non-blocking pool of a {@link LodestoneHttpClient}, so a handful of I/O dispatcher threads can keep many
+ * requests in flight at once. Response bodies are handed off to a separate executor to be parsed, keeping the I/O threads free to service the
+ * network.
+ *
+ * @author matthew.hillier
+ * @see ProductionLodestonePageLoader
+ */
+public class ProductionAsyncLodestonePageLoader implements AsyncLodestonePageLoader {
+
+    /** Logger */
+    private static final Logger LOG = LoggerFactory.getLogger(ProductionAsyncLodestonePageLoader.class);
+    /** URL fragment for Classes & Jobs */
+    private static final String SECTION_CLASS_JOB = "class_job";
+    /** URL fragment for Minions. */
+    private static final String SECTION_MINIONS = "minion";
+    /** URL fragment for Mounts. */
+    private static final String SECTION_MOUNTS = "mount";
+
+    private String baseDomain = "http://eu.finalfantasyxiv.com";
+    /**
+     * Base URL used to fetch character data for.
+     * Default to {@value}}
+     */
+    private String baseUrl = baseDomain + "/lodestone/character/%d/";
+
+    private final LodestoneHttpClient httpClient;
+    private final Executor parseExecutor;
+
+    /**
+     * Creates a new loader making requests through the given HTTP client, parsing pages on the common fork-join pool.
+     *
+     * @param httpClient Pooled HTTP client to use.
+     */
+    public ProductionAsyncLodestonePageLoader(final LodestoneHttpClient httpClient) {
+        this(httpClient, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new loader making requests through the given HTTP client, parsing pages on the given executor.
+     *
+     * @param httpClient Pooled HTTP client to use.
+     * @param parseExecutor Executor on which response bodies will be parsed.
+     */
+    public ProductionAsyncLodestonePageLoader(final LodestoneHttpClient httpClient, final Executor parseExecutor) {
+        this.httpClient = httpClient;
+        this.parseExecutor = parseExecutor;
+    }
+
+    @Override
+    public CompletableFuture<Document> getCharacterPage(final int characterId) {
+        return getPage(String.format(baseUrl, characterId), true);
+    }
+
+    @Override
+    public CompletableFuture<Document> getClassJobPage(final int characterId) {
+        return getPage(String.format(baseUrl + SECTION_CLASS_JOB, characterId), true);
+    }
+
+    @Override
+    public CompletableFuture<Document> getMinionPage(final int characterId) {
+        return getPage(String.format(baseUrl + SECTION_MINIONS, characterId), true);
+    }
+
+    @Override
+    public CompletableFuture<Document> getMountPage(final int characterId) {
+        return getPage(String.format(baseUrl + SECTION_MOUNTS, characterId), true);
+    }
+
+    @Override
+    public CompletableFuture<Document> getTooltipPage(final String href) {
+        return getPage(baseDomain + href, false);
+    }
+
+    @Override
+    public CompletableFuture<String> getCharacterPageSource(final int characterId) {
+        return getPageSource(String.format(baseUrl, characterId));
+    }
+
+    @Override
+    public CompletableFuture<String> getClassJobPageSource(final int characterId) {
+        return getPageSource(String.format(baseUrl + SECTION_CLASS_JOB, characterId));
+    }
+
+    @Override
+    public CompletableFuture<String> getMinionPageSource(final int characterId) {
+        return getPageSource(String.format(baseUrl + SECTION_MINIONS, characterId));
+    }
+
+    @Override
+    public CompletableFuture<String> getMountPageSource(final int characterId) {
+        return getPageSource(String.format(baseUrl + SECTION_MOUNTS, characterId));
+    }
+
+    private CompletableFuture<Document> getPage(final String url, final boolean notFoundIsExpected) {
+        return fetch(url, notFoundIsExpected).thenApplyAsync(body -> Jsoup.parse(body, url), parseExecutor);
+    }
+
+    /**
+     * Fetches the source of a character page, completing the returned future on the parse executor so that whatever extracts from the
+     * page does not hold up the I/O threads.
+     */
+    private CompletableFuture<String> getPageSource(final String url) {
+        return fetch(url, true).thenApplyAsync(Function.identity(), parseExecutor);
+    }
+
+    /**
+     * Issues the request for the given URL, completing the returned future with the response body.
+     */
+    private CompletableFuture<String> fetch(final String url, final boolean notFoundIsExpected) {
+        return httpClient.getAsync(url).thenApply(response -> {
+            int statusCode = response.getStatusCode();
+            if(statusCode == HttpStatus.SC_OK) {
+                return response.getBody();
+            } else if(statusCode == HttpStatus.SC_NOT_FOUND && notFoundIsExpected) {
+                LOG.info("Encountered 404 while loading url: {}", url);
+                throw new CompletionException(new FetchYieldedPageNotFoundException());
+            } else {
+                throw new CompletionException(new IOException("Unexpected HTTP Status Code: " + statusCode));
+            }
+        });
+    }
+
+}
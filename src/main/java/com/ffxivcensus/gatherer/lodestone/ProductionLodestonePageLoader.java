@@ -1,18 +1,20 @@
 package com.ffxivcensus.gatherer.lodestone;
 
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpStatus;
-import org.jsoup.HttpStatusException;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.Random;
-import java.util.concurrent.TimeUnit;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Loadestone Page Loader that works with the live EU lodestone,
+ * All requests are made through a {@link LodestoneHttpClient}, so that connections are pooled & re-used between requests, and any rate
+ * limiting by the Lodestone is dealt with before the response reaches this loader.
  *
  * @author matthew.hillier
  */
@@ -34,6 +36,24 @@ public class ProductionLodestonePageLoader implements LodestonePageLoader {
      */
     private String baseUrl = baseDomain + "/lodestone/character/%d/";
 
+    private LodestoneHttpClient httpClient;
+
+    /**
+     * Creates a new loader, using the shared {@link LodestoneHttpClient#getDefault() default} HTTP client.
+     */
+    public ProductionLodestonePageLoader() {
+        this(null);
+    }
+
+    /**
+     * Creates a new loader, making all requests through the given HTTP client.
+     *
+     * @param httpClient Pooled HTTP client to use.
+     */
+    public ProductionLodestonePageLoader(final LodestoneHttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
     /**
      * Fetches the given Character {@link Document} from the Lodestone.
      *
@@ -45,76 +65,133 @@ public class ProductionLodestonePageLoader implements LodestonePageLoader {
      */
     @Override
     public Document getCharacterPage(final int characterId) throws IOException, InterruptedException, FetchYieldedPageNotFoundException {
-        return getPage(baseUrl, characterId, 1);
+        return getPage(baseUrl, characterId);
+    }
+
+    /**
+     * Fetches the given Character {@link Document} from the Lodestone, sending a conditional request based on the given validators.
+     *
+     * @param characterId
+     * @param validators Validators of the copy of the page previously fetched, updated where a modified page is returned.
+     * @return A Jsoup Document object of the page.
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws FetchYieldedPageNotFoundException When the server returns a 404 response.
+     * @throws FetchYieldedPageNotModifiedException When the server returns a 304 response.
+     */
+    @Override
+    public Document getCharacterPage(final int characterId, final PageValidators validators) throws IOException, InterruptedException,
+                                                                                            FetchYieldedPageNotFoundException,
+                                                                                            FetchYieldedPageNotModifiedException {
+        return Jsoup.parse(getCharacterPageSource(characterId, validators), String.format(baseUrl, characterId));
     }
 
     @Override
     public Document getClassJobPage(int characterId) throws IOException, InterruptedException, FetchYieldedPageNotFoundException {
-        return getPage(baseUrl + SECTION_CLASS_JOB, characterId, 1);
+        return getPage(baseUrl + SECTION_CLASS_JOB, characterId);
     }
 
     @Override
     public Document getMinionPage(int characterId) throws IOException, InterruptedException, FetchYieldedPageNotFoundException {
-        return getPage(baseUrl + SECTION_MINIONS, characterId, 1);
+        return getPage(baseUrl + SECTION_MINIONS, characterId);
     }
 
     @Override
     public Document getMountPage(int characterId) throws IOException, InterruptedException, FetchYieldedPageNotFoundException {
-        return getPage(baseUrl + SECTION_MOUNTS, characterId, 1);
+        return getPage(baseUrl + SECTION_MOUNTS, characterId);
+    }
+
+    @Override
+    public String getCharacterPageSource(final int characterId) throws IOException, InterruptedException,
+                                                                FetchYieldedPageNotFoundException {
+        return getPageSource(baseUrl, characterId);
+    }
+
+    @Override
+    public String getCharacterPageSource(final int characterId, final PageValidators validators) throws IOException,
+                                                                                                InterruptedException,
+                                                                                                FetchYieldedPageNotFoundException,
+                                                                                                FetchYieldedPageNotModifiedException {
+        String url = String.format(baseUrl, characterId);
+        Map<String, String> headers = new HashMap<>();
+        if(validators.getLastModified() != null) {
+            headers.put(HttpHeaders.IF_MODIFIED_SINCE, validators.getLastModified());
+        }
+        if(validators.getETag() != null) {
+            headers.put(HttpHeaders.IF_NONE_MATCH, validators.getETag());
+        }
+
+        LodestoneResponse response = getHttpClient().get(url, headers);
+        if(response.getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+            throw new FetchYieldedPageNotModifiedException();
+        }
+        String source = checkResponse(response, url);
+        validators.setLastModified(response.getHeader(HttpHeaders.LAST_MODIFIED));
+        validators.setETag(response.getHeader(HttpHeaders.ETAG));
+        return source;
+    }
+
+    @Override
+    public String getClassJobPageSource(final int characterId) throws IOException, InterruptedException,
+                                                               FetchYieldedPageNotFoundException {
+        return getPageSource(baseUrl + SECTION_CLASS_JOB, characterId);
+    }
+
+    @Override
+    public String getMinionPageSource(final int characterId) throws IOException, InterruptedException,
+                                                             FetchYieldedPageNotFoundException {
+        return getPageSource(baseUrl + SECTION_MINIONS, characterId);
+    }
+
+    @Override
+    public String getMountPageSource(final int characterId) throws IOException, InterruptedException,
+                                                            FetchYieldedPageNotFoundException {
+        return getPageSource(baseUrl + SECTION_MOUNTS, characterId);
     }
 
     @Override
     public Document getTooltipPage(String href) throws IOException, InterruptedException {
         Document doc;
-        try {
-            doc = Jsoup.connect(baseDomain + href).timeout(5000).get();
-        } catch(HttpStatusException httpe) {
-            switch (httpe.getStatusCode()) {
-                case 429:
-                    // Generate random number 1->20*attempt no and sleep for it
-                    Random rand = new Random();
-                    int randomNum = rand.nextInt(5);
-                    LOG.trace("Experiencing rate limiting (HTTP 429) while fetching tooltip, waiting " + randomNum + "ms then retrying...");
-                    TimeUnit.MILLISECONDS.sleep(randomNum);
-                    doc = getTooltipPage(href);
-                    break;
-                default:
-                    throw new IOException("Unexpected HTTP Status Code: " + httpe.getStatusCode(), httpe);
-            }
+        String url = baseDomain + href;
+        LodestoneResponse response = getHttpClient().get(url);
+        switch (response.getStatusCode()) {
+            case HttpStatus.SC_OK:
+                doc = Jsoup.parse(response.getBody(), url);
+                break;
+            default:
+                throw new IOException("Unexpected HTTP Status Code: " + response.getStatusCode());
         }
         return doc;
     }
 
-    private Document getPage(final String pageUrl, final int characterId, final int attempt) throws IOException, InterruptedException,
+    private Document getPage(final String pageUrl, final int characterId) throws IOException, InterruptedException,
 			FetchYieldedPageNotFoundException {
-        Document doc;
+        return Jsoup.parse(getPageSource(pageUrl, characterId), String.format(pageUrl, characterId));
+    }
 
+    private String getPageSource(final String pageUrl, final int characterId) throws IOException, InterruptedException,
+                                                                              FetchYieldedPageNotFoundException {
         String url = String.format(pageUrl, characterId);
+        return checkResponse(getHttpClient().get(url), url);
+    }
 
-        try {
-            doc = Jsoup.connect(url).timeout(5000).get();
-        } catch(HttpStatusException httpe) {
-            switch (httpe.getStatusCode()) {
-                case 429:
-                    // Generate random number 1->20*attempt no and sleep for it
-                    Random rand = new Random();
-                    int max = attempt * 20;
-                    int min = (attempt - 1) + 1;
-                    int randomNum = rand.nextInt(max - min + 1) + min;
-                    LOG.trace("Experiencing rate limiting (HTTP 429) while fetching id " + characterId + " (attempt " + attempt
-                              + "), waiting " + randomNum + "ms then retrying...");
-                    TimeUnit.MILLISECONDS.sleep(randomNum);
-                    doc = getPage(url, characterId, attempt);
-                    break;
-                case HttpStatus.SC_NOT_FOUND:
-                    LOG.info("Encountered 404 while loading url: {}", url);
-                    throw new FetchYieldedPageNotFoundException();
-                default:
-                    throw new IOException("Unexpected HTTP Status Code: " + httpe.getStatusCode(), httpe);
-            }
+    private String checkResponse(final LodestoneResponse response, final String url) throws IOException, FetchYieldedPageNotFoundException {
+        switch (response.getStatusCode()) {
+            case HttpStatus.SC_OK:
+                return response.getBody();
+            case HttpStatus.SC_NOT_FOUND:
+                LOG.info("Encountered 404 while loading url: {}", url);
+                throw new FetchYieldedPageNotFoundException();
+            default:
+                throw new IOException("Unexpected HTTP Status Code: " + response.getStatusCode());
         }
+    }
 
-        return doc;
+    private synchronized LodestoneHttpClient getHttpClient() {
+        if(httpClient == null) {
+            httpClient = LodestoneHttpClient.getDefault();
+        }
+        return httpClient;
     }
 
 }
@@ -0,0 +1,29 @@
+package com.ffxivcensus.gatherer.lodestone;
+
+/**
+ * Listener notified by the {@link LodestoneHttpClient} of the outcome of every request sent, including any retries.
+ * Listeners are called on the thread that completed the request, which may be an I/O dispatcher thread, so must return quickly.
+ *
+ * @author matthew.hillier
+ */
+public interface RequestOutcomeListener {
+
+    /**
+     * Called once a response has been received.
+     *
+     * @param host Host the request was sent to.
+     * @param statusCode HTTP Status Code of the response.
+     * @param latencyNanos Time taken between sending the request and receiving the response.
+     */
+    void onResponse(final String host, final int statusCode, final long latencyNanos);
+
+    /**
+     * Called where no response could be received, for example due to a time out.
+     *
+     * @param host Host the request was sent to.
+     * @param cause Reason the request failed.
+     * @param latencyNanos Time taken between sending the request and it failing.
+     */
+    void onFailure(final String host, final Exception cause, final long latencyNanos);
+
+}
@@ -0,0 +1,88 @@
+package com.ffxivcensus.gatherer.lodestone;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide token bucket limiting the rate at which requests are sent to the Lodestone.
+ * The bucket refills at a steady rate of tokens per second up to a maximum burst size, and each request must take a token before it is
+ * sent. Where no token is available, the caller is told how long it must wait for one; tokens are reserved on a first-come, first-served
+ * basis so that a steady stream of callers is spread evenly across the configured rate.
+ *
+ * @author matthew.hillier
+ */
+public class TokenBucketRateLimiter {
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final LongSupplier nanoClock;
+    /** Tokens currently available; negative where tokens have been reserved ahead of being refilled. */
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Creates a new limiter allowing the given rate of requests, starting with a full bucket.
+     *
+     * @param requestsPerSecond Sustained rate of requests permitted.
+     * @param burst Maximum number of requests that may be sent back-to-back after a quiet period.
+     */
+    public TokenBucketRateLimiter(final double requestsPerSecond, final int burst) {
+        this(requestsPerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(final double requestsPerSecond, final int burst, final LongSupplier nanoClock) {
+        if(requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Request rate must be positive");
+        }
+        this.tokensPerNano = requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.nanoClock = nanoClock;
+        this.tokens = this.burst;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes a token, waiting until one is available.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if(waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Reserves a token without waiting for it.
+     * The caller must wait for the returned time before sending its request.
+     *
+     * @return Nanoseconds until the reserved token becomes available, or zero if available immediately.
+     */
+    public synchronized long reserve() {
+        refill();
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+
+    /**
+     * Fetches the number of tokens currently available.
+     *
+     * @return Available tokens, or a negative number where requests are already waiting on tokens.
+     */
+    public synchronized double getAvailableTokens() {
+        refill();
+        return tokens;
+    }
+
+    public double getRequestsPerSecond() {
+        return tokensPerNano * TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.ffxivcensus.gatherer.parser;
+
+import java.util.List;
+
+/**
+ * Interface describing an extractor that picks the details needed to build a character out of the source of their Lodestone pages.
+ *
+ * @author matthew.hillier
+ * @see JsoupCharacterPageExtractor
+ * @see StreamingCharacterPageExtractor
+ */
+public interface CharacterPageExtractor {
+
+    /**
+     * Extracts the details shown on a Character's profile page.
+     *
+     * @param html Source of the profile page.
+     * @return Details of the character.
+     */
+    CharacterProfile extractProfile(final String html);
+
+    /**
+     * Extracts the levels shown on a Character's Class & Job page.
+     *
+     * @param html Source of the Class & Job page.
+     * @return Levels of each class, in the order displayed on the Lodestone, along with the name shown against each.
+     */
+    ClassJobLevels extractLevels(final String html);
+
+    /**
+     * Extracts the tooltip references of each mount shown on a Character's Mounts page.
+     *
+     * @param html Source of the Mounts page.
+     * @return Values of the 'data-tooltip_href' attribute of each mount.
+     */
+    List<String> extractMountTooltips(final String html);
+
+    /**
+     * Extracts the tooltip references of each minion shown on a Character's Minions page.
+     *
+     * @param html Source of the Minions page.
+     * @return Values of the 'data-tooltip_href' attribute of each minion.
+     */
+    List<String> extractMinionTooltips(final String html);
+
+}
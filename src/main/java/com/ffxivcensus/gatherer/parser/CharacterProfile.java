@@ -0,0 +1,104 @@
+package com.ffxivcensus.gatherer.parser;
+
+/**
+ * Details of a character extracted from their Lodestone profile page.
+ *
+ * @author matthew.hillier
+ * @see CharacterPageExtractor
+ */
+public class CharacterProfile {
+
+    private String name;
+    private String realm;
+    private String race;
+    private String gender;
+    private String grandCompany;
+    private String grandCompanyRank;
+    private String freeCompany;
+    /**
+     * URL of the character's full body image
+     */
+    private String imageUrl;
+    private boolean mountsTabDisabled;
+    private boolean minionsTabDisabled;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    public String getRealm() {
+        return realm;
+    }
+
+    public void setRealm(final String realm) {
+        this.realm = realm;
+    }
+
+    public String getRace() {
+        return race;
+    }
+
+    public void setRace(final String race) {
+        this.race = race;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public void setGender(final String gender) {
+        this.gender = gender;
+    }
+
+    public String getGrandCompany() {
+        return grandCompany;
+    }
+
+    public void setGrandCompany(final String grandCompany) {
+        this.grandCompany = grandCompany;
+    }
+
+    public String getGrandCompanyRank() {
+        return grandCompanyRank;
+    }
+
+    public void setGrandCompanyRank(final String grandCompanyRank) {
+        this.grandCompanyRank = grandCompanyRank;
+    }
+
+    public String getFreeCompany() {
+        return freeCompany;
+    }
+
+    public void setFreeCompany(final String freeCompany) {
+        this.freeCompany = freeCompany;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(final String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public boolean isMountsTabDisabled() {
+        return mountsTabDisabled;
+    }
+
+    public void setMountsTabDisabled(final boolean mountsTabDisabled) {
+        this.mountsTabDisabled = mountsTabDisabled;
+    }
+
+    public boolean isMinionsTabDisabled() {
+        return minionsTabDisabled;
+    }
+
+    public void setMinionsTabDisabled(final boolean minionsTabDisabled) {
+        this.minionsTabDisabled = minionsTabDisabled;
+    }
+}
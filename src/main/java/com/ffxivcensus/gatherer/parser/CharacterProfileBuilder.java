@@ -0,0 +1,197 @@
+package com.ffxivcensus.gatherer.parser;
+
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_BLOCK_NAME;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_DETAIL_IMAGE;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_FREECOMPANY_NAME;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_FRAME_CHARA_WORLD;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Builder of a {@link CharacterProfile} from the raw details of a profile page, filled in by each {@link CharacterPageExtractor} as it
+ * finds them, so that every extractor assembles the profile in the same way however it walks the page.
+ *
+ * @author matthew.hillier
+ */
+final class CharacterProfileBuilder {
+
+    private static final String TAB_MOUNTS = "mounts";
+    private static final String TAB_MINIONS = "minions";
+    private static final String BLOCK_GRAND_COMPANY = "Grand Company";
+    private static final String NONE = "none";
+
+    private String title;
+    private String world;
+    private String race;
+    private String raceAndGender;
+    private String imageUrl;
+    private boolean mountsTabDisabled;
+    private boolean minionsTabDisabled;
+    private final List<Box> boxes = new ArrayList<>();
+
+    /**
+     * @param title Text of the page title, which starts with the character's name.
+     */
+    void setTitle(final String title) {
+        this.title = title;
+    }
+
+    /**
+     * @param world Text of the world block, such as <code>Cerberus [Chaos]</code>.
+     */
+    void setWorld(final String world) {
+        this.world = world;
+    }
+
+    /**
+     * @param race Text directly within the first character block name, being the character's race.
+     * @param raceAndGender Full text of the first character block name, such as <code>Miqo'te Seeker of the Sun / ♀</code>.
+     */
+    void setRaceAndGender(final String race, final String raceAndGender) {
+        this.race = race;
+        this.raceAndGender = raceAndGender;
+    }
+
+    /**
+     * @param imageUrl Source of the character's full body image.
+     */
+    void setImageUrl(final String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    /**
+     * Records a profile tab that the character has disabled.
+     *
+     * @param tab Text of the tab.
+     */
+    void addDisabledTab(final String tab) {
+        String tabName = tab.toLowerCase(Locale.ROOT);
+        mountsTabDisabled |= tabName.contains(TAB_MOUNTS);
+        minionsTabDisabled |= tabName.contains(TAB_MINIONS);
+    }
+
+    /**
+     * Starts the next character block box, such as Race/Clan/Gender, Grand Company or Free Company.
+     *
+     * @return the box, to be filled in as its details are found.
+     */
+    Box addBox() {
+        Box box = new Box();
+        boxes.add(box);
+        return box;
+    }
+
+    /**
+     * @return the box most recently started.
+     */
+    Box currentBox() {
+        return boxes.get(boxes.size() - 1);
+    }
+
+    /**
+     * Assembles the profile from the details found.
+     *
+     * @return the profile.
+     * @throws IllegalArgumentException if any mandatory detail was not found on the page.
+     */
+    CharacterProfile build() {
+        CharacterProfile profile = new CharacterProfile();
+        profile.setName(StringUtils.defaultString(title).split(Pattern.quote("|"))[0].trim());
+
+        String realmAndDatacenter = required(world, LAYOUT_FRAME_CHARA_WORLD);
+        if(!realmAndDatacenter.isEmpty()) {
+            profile.setRealm(realmAndDatacenter.substring(0, realmAndDatacenter.indexOf("[") - 1));
+        }
+
+        profile.setRace(required(race, LAYOUT_CHARACTER_BLOCK_NAME));
+        String[] parts = required(raceAndGender, LAYOUT_CHARACTER_BLOCK_NAME).split(Pattern.quote("/"));
+        String gender = parts.length > 1 ? parts[1].trim() : "";
+        if(gender.equals("♂")) {
+            profile.setGender("male");
+        } else if(gender.equals("♀")) {
+            profile.setGender("female");
+        }
+
+        profile.setGrandCompany(getGrandCompanyPart(0));
+        profile.setGrandCompanyRank(getGrandCompanyPart(1).replace("Serpent ", "")
+                                                          .replace("Storm ", "")
+                                                          .replace("Flame ", ""));
+
+        // Checks to see if optional FC has been added
+        String fc = NONE;
+        if(boxes.size() == 5) {
+            fc = required(boxes.get(4).freeCompany, LAYOUT_CHARACTER_FREECOMPANY_NAME);
+        } else if(boxes.size() == 4 && boxes.get(3).freeCompany != null) {
+            fc = boxes.get(3).freeCompany;
+        }
+        profile.setFreeCompany(fc);
+
+        profile.setImageUrl(required(imageUrl, LAYOUT_CHARACTER_DETAIL_IMAGE));
+        profile.setMountsTabDisabled(mountsTabDisabled);
+        profile.setMinionsTabDisabled(minionsTabDisabled);
+        return profile;
+    }
+
+    /**
+     * Fetches part of the Grand Company box, searching only as far as the first box without a title.
+     */
+    private String getGrandCompanyPart(final int index) {
+        for(Box box : boxes) {
+            if(box.title == null) {
+                break;
+            } else if(BLOCK_GRAND_COMPANY.equals(box.title)) {
+                return StringUtils.defaultString(box.names).split("/")[index].trim();
+            }
+        }
+        return NONE;
+    }
+
+    private static String required(final String value, final String layout) {
+        if(value == null) {
+            throw new IllegalArgumentException("No " + layout + " found on profile page");
+        }
+        return value;
+    }
+
+    /**
+     * Details of a single character block box.
+     */
+    static final class Box {
+        private String title;
+        private String names;
+        private String freeCompany;
+
+        boolean hasTitle() {
+            return title != null;
+        }
+
+        void setTitle(final String title) {
+            this.title = title;
+        }
+
+        void addName(final String name) {
+            names = names == null ? name : names + " " + name;
+        }
+
+        boolean hasFreeCompany() {
+            return freeCompany != null;
+        }
+
+        /**
+         * Records that the box holds a Free Company, whose name is made up of each name subsequently added.
+         */
+        void startFreeCompany() {
+            freeCompany = "";
+        }
+
+        void addFreeCompany(final String name) {
+            freeCompany = freeCompany.isEmpty() ? name : freeCompany + " " + name;
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.ffxivcensus.gatherer.parser;
+
+import java.util.Arrays;
+
+/**
+ * Levels found on a Character's Class & Job page, in the order displayed, along with the name shown against each.
+ * <p>
+ * Levels are held in a primitive buffer, and parsed straight from the page text into it, so that no boxed or intermediate values are
+ * created per level.
+ *
+ * @author matthew.hillier
+ */
+public final class ClassJobLevels {
+
+    private static final int INITIAL_CAPACITY = 40;
+
+    private int[] levels = new int[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Adds the next level on the page, which has not (yet) been named.
+     *
+     * @param level Level to add.
+     */
+    public void addLevel(final int level) {
+        if(size == levels.length) {
+            levels = Arrays.copyOf(levels, size * 2);
+            names = Arrays.copyOf(names, size * 2);
+        }
+        levels[size++] = level;
+    }
+
+    /**
+     * Names the most recently added level, where it has not already been named.
+     *
+     * @param name Name shown on the page against the level.
+     */
+    public void nameLastLevel(final String name) {
+        if(size > 0 && names[size - 1] == null) {
+            names[size - 1] = name;
+        }
+    }
+
+    /**
+     * @return the number of levels found.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index Position of the level on the page.
+     * @return the level.
+     */
+    public int getLevel(final int index) {
+        return levels[index];
+    }
+
+    /**
+     * @param index Position of the level on the page.
+     * @return the name shown against the level, or null if none was found.
+     */
+    public String getName(final int index) {
+        return names[index];
+    }
+
+    /**
+     * @return the levels, in the order displayed on the Lodestone.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(levels, size);
+    }
+
+    /**
+     * Parses a level shown on the Class & Job page, without creating any intermediate strings.
+     * Surrounding whitespace is ignored, and a level of "-" (not yet unlocked) is treated as zero.
+     *
+     * @param text Text containing the level.
+     * @param start Start of the level (inclusive).
+     * @param end End of the level (exclusive).
+     * @return the level.
+     * @throws NumberFormatException if the text is not a level.
+     */
+    public static int parseLevel(final CharSequence text, final int start, final int end) {
+        int from = start;
+        int to = end;
+        while(from < to && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        while(to > from && Character.isWhitespace(text.charAt(to - 1))) {
+            to--;
+        }
+        if(to - from == 1 && text.charAt(from) == '-') {
+            return 0;
+        }
+        if(from == to || to - from > 9) {
+            throw new NumberFormatException("Invalid level: \"" + text.subSequence(start, end) + "\"");
+        }
+        int level = 0;
+        for(int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if(digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid level: \"" + text.subSequence(start, end) + "\"");
+            }
+            level = level * 10 + digit;
+        }
+        return level;
+    }
+
+    /**
+     * Parses a level shown on the Class & Job page.
+     *
+     * @param text Text of the level.
+     * @return the level.
+     * @see #parseLevel(CharSequence, int, int)
+     */
+    public static int parseLevel(final CharSequence text) {
+        return parseLevel(text, 0, text.length());
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.ffxivcensus.gatherer.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+/**
+ * Declarative table of the fields to pull out of a page, filled in a single walk of the document.
+ * <p>
+ * Each field pairs a precompiled selector with a binder that copies the matching element into the target. A field may be scoped to
+ * another field, in which case it is only matched against elements inside the element that field matched, and is reset each time the
+ * enclosing field matches again. This allows the structure of the page to be described once, up front, rather than re-scanning the
+ * whole document for each value. Tables are immutable once built, and may be shared between threads.
+ *
+ * @author matthew.hillier
+ * @param <T> Type of the object being filled.
+ */
+public final class FieldTable<T> {
+
+    /**
+     * Scope of fields that may match anywhere in the document.
+     */
+    public static final int DOCUMENT = -1;
+
+    private final Field<T>[] fields;
+
+    private FieldTable(final Field<T>[] fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Creates a new, empty, table builder.
+     *
+     * @return the builder.
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Walks the given document once, filling the target from every field that matches.
+     *
+     * @param root Document (or element) to walk.
+     * @param target Object to fill.
+     * @return the target, for chaining.
+     */
+    public T extract(final Element root, final T target) {
+        new NodeTraversor(new Walk(root, target)).traverse(root);
+        return target;
+    }
+
+    /**
+     * State of a single walk of a document.
+     */
+    private final class Walk implements NodeVisitor {
+
+        private final Element root;
+        private final T target;
+        /** Element currently open for each field, or null where the walk is not inside a match of that field. */
+        private final Element[] open;
+        /** Whether each field has matched within the current instance of its scope. */
+        private final boolean[] matched;
+
+        private Walk(final Element root, final T target) {
+            this.root = root;
+            this.target = target;
+            this.open = new Element[fields.length];
+            this.matched = new boolean[fields.length];
+        }
+
+        @Override
+        public void head(final Node node, final int depth) {
+            if(!(node instanceof Element)) {
+                return;
+            }
+            Element element = (Element) node;
+            for(int i = 0; i < fields.length; i++) {
+                Field<T> field = fields[i];
+                if(field.scope != DOCUMENT && open[field.scope] == null || field.first && matched[i]
+                   || !field.selector.matches(root, element)) {
+                    continue;
+                }
+                matched[i] = true;
+                if(open[i] == null) {
+                    open[i] = element;
+                    // Scoped fields start afresh within each new match of their scope
+                    for(int child = i + 1; child < fields.length; child++) {
+                        if(fields[child].scope == i) {
+                            matched[child] = false;
+                        }
+                    }
+                }
+                if(field.binder != null) {
+                    field.binder.accept(target, element);
+                }
+            }
+        }
+
+        @Override
+        public void tail(final Node node, final int depth) {
+            for(int i = 0; i < open.length; i++) {
+                if(open[i] == node) {
+                    open[i] = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Single entry in the table.
+     */
+    private static final class Field<T> {
+        private final int scope;
+        private final Evaluator selector;
+        private final boolean first;
+        private final BiConsumer<T, Element> binder;
+
+        private Field(final int scope, final Evaluator selector, final boolean first, final BiConsumer<T, Element> binder) {
+            this.scope = scope;
+            this.selector = selector;
+            this.first = first;
+            this.binder = binder;
+        }
+    }
+
+    /**
+     * Builder for a {@link FieldTable}.
+     * Fields are matched in the order they are added, and a field must be added after the field it is scoped to.
+     */
+    public static final class Builder<T> {
+
+        private final List<Field<T>> fields = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a field filled from only the first element matching the selector within its scope.
+         *
+         * @param scope Field to scope this field to, or {@link FieldTable#DOCUMENT}.
+         * @param selector Precompiled selector to match.
+         * @param binder Binder to copy the element into the target, or null where the field only serves as a scope.
+         * @return the ID of the new field, for scoping further fields to.
+         */
+        public int first(final int scope, final Evaluator selector, final BiConsumer<T, Element> binder) {
+            return add(scope, selector, true, binder);
+        }
+
+        /**
+         * Adds a field filled from every element matching the selector within its scope.
+         *
+         * @param scope Field to scope this field to, or {@link FieldTable#DOCUMENT}.
+         * @param selector Precompiled selector to match.
+         * @param binder Binder to copy the element into the target, or null where the field only serves as a scope.
+         * @return the ID of the new field, for scoping further fields to.
+         */
+        public int each(final int scope, final Evaluator selector, final BiConsumer<T, Element> binder) {
+            return add(scope, selector, false, binder);
+        }
+
+        private int add(final int scope, final Evaluator selector, final boolean first, final BiConsumer<T, Element> binder) {
+            if(scope < DOCUMENT || scope >= fields.size()) {
+                throw new IllegalArgumentException("Fields must be scoped to a field already in the table");
+            }
+            fields.add(new Field<>(scope, selector, first, binder));
+            return fields.size() - 1;
+        }
+
+        /**
+         * Builds the table.
+         *
+         * @return the immutable table.
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public FieldTable<T> build() {
+            return new FieldTable<>(fields.toArray(new Field[fields.size()]));
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.ffxivcensus.gatherer.parser;
+
+import static com.ffxivcensus.gatherer.parser.FieldTable.DOCUMENT;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.ATTR_SRC;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.ATTR_TOOLTIP;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.ATTR_TOOLTIP_HREF;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.CLASS_DISABLE;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_BLOCK_BOX;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_BLOCK_NAME;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_BLOCK_TITLE;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_CONTENT;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_DETAIL_IMAGE;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_FREECOMPANY_NAME;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_JOB_LEVEL;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_JOB_NAME;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_MINION;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_MOUNTS;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_TAB;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_FRAME_CHARA_WORLD;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.TAG_A;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.TAG_IMG;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.TAG_LI;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.TAG_TITLE;
+import static com.ffxivcensus.gatherer.parser.Selectors.childOf;
+import static com.ffxivcensus.gatherer.parser.Selectors.hasClass;
+import static com.ffxivcensus.gatherer.parser.Selectors.tag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.TextNode;
+
+/**
+ * Character page extractor that parses each page into a full Jsoup DOM, and then fills the details of interest from it.
+ * <p>
+ * The details taken from each page are described by a {@link FieldTable}, built once with precompiled selectors, so that each page is
+ * walked only once however many details are taken from it. To take a new detail from a page, add a field to the relevant table.
+ *
+ * @author matthew.hillier
+ */
+public class JsoupCharacterPageExtractor implements CharacterPageExtractor {
+
+    /**
+     * Details taken from the profile page.
+     */
+    private static final FieldTable<CharacterProfileBuilder> PROFILE_TABLE;
+    /**
+     * Levels taken from the Class & Job page, from the first content section only, named by the tooltip (or text) following each.
+     */
+    private static final FieldTable<ClassJobLevels> LEVEL_TABLE;
+    /**
+     * Tooltips taken from the items in the first collection box of the Mounts page.
+     */
+    private static final FieldTable<List<String>> MOUNT_TABLE = getTooltipTable(LAYOUT_CHARACTER_MOUNTS);
+    /**
+     * Tooltips taken from the items in the first collection box of the Minions page.
+     */
+    private static final FieldTable<List<String>> MINION_TABLE = getTooltipTable(LAYOUT_CHARACTER_MINION);
+
+    static {
+        FieldTable.Builder<CharacterProfileBuilder> profile = FieldTable.builder();
+        profile.first(DOCUMENT, tag(TAG_TITLE), (builder, title) -> builder.setTitle(title.text()));
+        profile.first(DOCUMENT, hasClass(LAYOUT_FRAME_CHARA_WORLD), (builder, world) -> builder.setWorld(world.text()));
+        profile.first(DOCUMENT, hasClass(LAYOUT_CHARACTER_BLOCK_NAME), JsoupCharacterPageExtractor::setRaceAndGender);
+        int box = profile.each(DOCUMENT, hasClass(LAYOUT_CHARACTER_BLOCK_BOX), (builder, element) -> builder.addBox());
+        profile.first(box, hasClass(LAYOUT_CHARACTER_BLOCK_TITLE), (builder, title) -> builder.currentBox().setTitle(title.text()));
+        profile.each(box, hasClass(LAYOUT_CHARACTER_BLOCK_NAME), (builder, name) -> builder.currentBox().addName(name.text()));
+        int freeCompany = profile.first(box, hasClass(LAYOUT_CHARACTER_FREECOMPANY_NAME),
+                                        (builder, fc) -> builder.currentBox().startFreeCompany());
+        profile.each(freeCompany, tag(TAG_A), (builder, link) -> builder.currentBox().addFreeCompany(link.text()));
+        int image = profile.first(DOCUMENT, hasClass(LAYOUT_CHARACTER_DETAIL_IMAGE), null);
+        int imageLink = profile.first(image, tag(TAG_A), null);
+        profile.first(imageLink, tag(TAG_IMG), (builder, img) -> builder.setImageUrl(img.attr(ATTR_SRC)));
+        profile.each(DOCUMENT, childOf(hasClass(LAYOUT_CHARACTER_TAB), tag(TAG_LI)), (builder, tab) -> {
+            if(Selectors.hasClass(tab, CLASS_DISABLE)) {
+                builder.addDisabledTab(tab.text());
+            }
+        });
+        PROFILE_TABLE = profile.build();
+
+        FieldTable.Builder<ClassJobLevels> levels = FieldTable.builder();
+        int content = levels.first(DOCUMENT, hasClass(LAYOUT_CHARACTER_CONTENT), null);
+        levels.each(content, hasClass(LAYOUT_CHARACTER_JOB_LEVEL),
+                    (found, jobLevel) -> found.addLevel(ClassJobLevels.parseLevel(jobLevel.text())));
+        levels.each(content, hasClass(LAYOUT_CHARACTER_JOB_NAME),
+                    (found, jobName) -> found.nameLastLevel(jobName.hasAttr(ATTR_TOOLTIP) ? jobName.attr(ATTR_TOOLTIP) : jobName.text()));
+        LEVEL_TABLE = levels.build();
+    }
+
+    @Override
+    public CharacterProfile extractProfile(final String html) {
+        return PROFILE_TABLE.extract(Jsoup.parse(html), new CharacterProfileBuilder()).build();
+    }
+
+    @Override
+    public ClassJobLevels extractLevels(final String html) {
+        return LEVEL_TABLE.extract(Jsoup.parse(html), new ClassJobLevels());
+    }
+
+    @Override
+    public List<String> extractMountTooltips(final String html) {
+        return MOUNT_TABLE.extract(Jsoup.parse(html), new ArrayList<>());
+    }
+
+    @Override
+    public List<String> extractMinionTooltips(final String html) {
+        return MINION_TABLE.extract(Jsoup.parse(html), new ArrayList<>());
+    }
+
+    /**
+     * Builds the table to take the 'data-tooltip_href' value of each item in a collection (Mounts/Minions).
+     *
+     * @param collectionClass the class of the element holding the collection.
+     * @return the table.
+     */
+    private static FieldTable<List<String>> getTooltipTable(final String collectionClass) {
+        FieldTable.Builder<List<String>> tooltips = FieldTable.builder();
+        int collection = tooltips.first(DOCUMENT, hasClass(collectionClass), null);
+        tooltips.each(collection, tag(TAG_LI), (list, item) -> list.add(item.attr(ATTR_TOOLTIP_HREF)));
+        return tooltips.build();
+    }
+
+    /**
+     * Sets the race from the first of the text nodes directly within the block name, and the gender from its full text.
+     */
+    private static void setRaceAndGender(final CharacterProfileBuilder builder, final Element blockName) {
+        List<TextNode> textNodes = blockName.textNodes();
+        builder.setRaceAndGender(textNodes.isEmpty() ? "" : textNodes.get(0).text().trim(), blockName.text());
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.ffxivcensus.gatherer.parser;
+
+/**
+ * Names of the tags, attributes & classes that the details of a character are found under on their Lodestone pages, shared by every
+ * {@link CharacterPageExtractor} so that a change to the layout only needs making once.
+ *
+ * @author matthew.hillier
+ */
+final class LodestoneLayout {
+
+    static final String ATTR_SRC = "src";
+    static final String ATTR_TOOLTIP_HREF = "data-tooltip_href";
+    static final String ATTR_TOOLTIP = "data-tooltip";
+    static final String TAG_TITLE = "title";
+    static final String TAG_IMG = "img";
+    static final String TAG_A = "a";
+    static final String TAG_LI = "li";
+    static final String LAYOUT_CHARACTER_DETAIL_IMAGE = "character__detail__image";
+    static final String LAYOUT_CHARACTER_MOUNTS = "character__mounts";
+    static final String LAYOUT_CHARACTER_MINION = "character__minion";
+    static final String LAYOUT_CHARACTER_CONTENT = "character__content";
+    static final String LAYOUT_CHARACTER_JOB_LEVEL = "character__job__level";
+    static final String LAYOUT_CHARACTER_JOB_NAME = "character__job__name";
+    static final String LAYOUT_CHARACTER_FREECOMPANY_NAME = "character__freecompany__name";
+    static final String LAYOUT_CHARACTER_BLOCK_BOX = "character-block__box";
+    static final String LAYOUT_FRAME_CHARA_WORLD = "frame__chara__world";
+    static final String LAYOUT_CHARACTER_BLOCK_NAME = "character-block__name";
+    static final String LAYOUT_CHARACTER_BLOCK_TITLE = "character-block__title";
+    static final String LAYOUT_CHARACTER_TAB = "character__profile_tab";
+    static final String CLASS_DISABLE = "disable";
+
+    private LodestoneLayout() {
+        // Constants only
+    }
+
+}
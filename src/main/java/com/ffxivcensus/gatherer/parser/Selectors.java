@@ -0,0 +1,114 @@
+package com.ffxivcensus.gatherer.parser;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+
+/**
+ * Precompiled selectors for use in a {@link FieldTable}.
+ * <p>
+ * These are built once, up front, rather than parsed from a CSS query on every call. Class matching scans the element's class attribute
+ * in place, rather than splitting it into a new set of names for every element tested.
+ *
+ * @author matthew.hillier
+ */
+public final class Selectors {
+
+    /**
+     * Private constructor as this should never be initiated.
+     */
+    private Selectors() {
+    }
+
+    /**
+     * Matches elements with the given tag name, equivalent to the CSS selector <code>tag</code>.
+     *
+     * @param tagName Lower-case name of the tag.
+     * @return the selector.
+     */
+    public static Evaluator tag(final String tagName) {
+        return new Evaluator() {
+            @Override
+            public boolean matches(final Element root, final Element element) {
+                return element.tagName().equals(tagName);
+            }
+
+            @Override
+            public String toString() {
+                return tagName;
+            }
+        };
+    }
+
+    /**
+     * Matches elements with the given class, equivalent to the CSS selector <code>.class</code>.
+     *
+     * @param className Name of the class.
+     * @return the selector.
+     */
+    public static Evaluator hasClass(final String className) {
+        return new Evaluator() {
+            @Override
+            public boolean matches(final Element root, final Element element) {
+                return hasClass(element, className);
+            }
+
+            @Override
+            public String toString() {
+                return "." + className;
+            }
+        };
+    }
+
+    /**
+     * Matches elements matching <code>child</code> whose parent matches <code>parent</code>, equivalent to the CSS selector
+     * <code>parent &gt; child</code>.
+     *
+     * @param parent Selector for the parent element.
+     * @param child Selector for the element itself.
+     * @return the selector.
+     */
+    public static Evaluator childOf(final Evaluator parent, final Evaluator child) {
+        return new Evaluator() {
+            @Override
+            public boolean matches(final Element root, final Element element) {
+                Element parentElement = element.parent();
+                return child.matches(root, element) && parentElement != null && parent.matches(root, parentElement);
+            }
+
+            @Override
+            public String toString() {
+                return parent + " > " + child;
+            }
+        };
+    }
+
+    /**
+     * Determines whether an element has the given class, ignoring case, without splitting its class attribute.
+     *
+     * @param element Element to check.
+     * @param className Name of the class.
+     * @return whether the element has the class.
+     */
+    public static boolean hasClass(final Element element, final String className) {
+        String classes = element.attributes().get("class");
+        int length = classes.length();
+        int nameLength = className.length();
+        int start = 0;
+        while(start + nameLength <= length) {
+            if(Character.isWhitespace(classes.charAt(start))) {
+                start++;
+                continue;
+            }
+            int end = start;
+            while(end < length && !Character.isWhitespace(classes.charAt(end))) {
+                end++;
+            }
+            if(end - start == nameLength && classes.regionMatches(true, start, className, 0, nameLength)) {
+                return true;
+            }
+            start = end;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,365 @@
+package com.ffxivcensus.gatherer.parser;
+
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.ATTR_SRC;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.ATTR_TOOLTIP;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.ATTR_TOOLTIP_HREF;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.CLASS_DISABLE;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_BLOCK_BOX;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_BLOCK_NAME;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_BLOCK_TITLE;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_CONTENT;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_DETAIL_IMAGE;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_FREECOMPANY_NAME;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_JOB_LEVEL;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_JOB_NAME;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_MINION;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_MOUNTS;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_CHARACTER_TAB;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.LAYOUT_FRAME_CHARA_WORLD;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.TAG_A;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.TAG_IMG;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.TAG_LI;
+import static com.ffxivcensus.gatherer.parser.LodestoneLayout.TAG_TITLE;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.jsoup.helper.StringUtil;
+import org.jsoup.parser.Parser;
+
+import com.ffxivcensus.gatherer.parser.StreamingHtmlParser.Tag;
+
+/**
+ * Character page extractor that streams through the source of each page with a {@link StreamingHtmlParser}, picking out only the elements
+ * & attributes of interest as they are passed, without ever building a DOM.
+ * <p>
+ * Text is gathered following the same rules as Jsoup's <code>Element.text()</code>, so that the details extracted are identical to those
+ * from the {@link JsoupCharacterPageExtractor}.
+ *
+ * @author matthew.hillier
+ */
+public class StreamingCharacterPageExtractor implements CharacterPageExtractor {
+
+    @Override
+    public CharacterProfile extractProfile(final String html) {
+        ProfileHandler handler = new ProfileHandler();
+        StreamingHtmlParser.parse(html, handler);
+        return handler.profile.build();
+    }
+
+    @Override
+    public ClassJobLevels extractLevels(final String html) {
+        LevelHandler handler = new LevelHandler();
+        StreamingHtmlParser.parse(html, handler);
+        if(!handler.contentFound) {
+            throw new IllegalArgumentException("No " + LAYOUT_CHARACTER_CONTENT + " found on Class/Job page");
+        }
+        return handler.levels;
+    }
+
+    @Override
+    public List<String> extractMountTooltips(final String html) {
+        TooltipHandler handler = new TooltipHandler(LAYOUT_CHARACTER_MOUNTS);
+        StreamingHtmlParser.parse(html, handler);
+        return handler.tooltips;
+    }
+
+    @Override
+    public List<String> extractMinionTooltips(final String html) {
+        TooltipHandler handler = new TooltipHandler(LAYOUT_CHARACTER_MINION);
+        StreamingHtmlParser.parse(html, handler);
+        return handler.tooltips;
+    }
+
+    /**
+     * Text being gathered from an element until it is closed.
+     */
+    private static final class TextCapture {
+        private final int depth;
+        private final boolean firstOwnTextOnly;
+        private final Consumer<String> onComplete;
+        private final StringBuilder text = new StringBuilder();
+        private boolean hasOwnText;
+
+        private TextCapture(final int depth, final boolean firstOwnTextOnly, final Consumer<String> onComplete) {
+            this.depth = depth;
+            this.firstOwnTextOnly = firstOwnTextOnly;
+            this.onComplete = onComplete;
+        }
+
+        private void append(final String chunk, final int textDepth) {
+            if(firstOwnTextOnly) {
+                if(textDepth == depth && !hasOwnText) {
+                    hasOwnText = true;
+                    StringUtil.appendNormalisedWhitespace(text, chunk, false);
+                }
+            } else {
+                StringUtil.appendNormalisedWhitespace(text, chunk, text.length() > 0 && text.charAt(text.length() - 1) == ' ');
+            }
+        }
+
+        private void separate() {
+            if(!firstOwnTextOnly && text.length() > 0 && text.charAt(text.length() - 1) != ' ') {
+                text.append(' ');
+            }
+        }
+
+        private void complete() {
+            onComplete.accept(text.toString().trim());
+        }
+    }
+
+    /**
+     * Handler that can gather the text of any element it is interested in.
+     */
+    private abstract static class CapturingHandler implements StreamingHtmlParser.Handler {
+
+        private final List<TextCapture> captures = new ArrayList<>();
+
+        /**
+         * Gathers the text of the element just opened, in the same way as Jsoup's <code>Element.text()</code>.
+         */
+        protected void captureText(final int depth, final Consumer<String> onComplete) {
+            captures.add(new TextCapture(depth, false, onComplete));
+        }
+
+        /**
+         * Gathers the first of the text nodes directly within the element just opened.
+         */
+        protected void captureFirstOwnText(final int depth, final Consumer<String> onComplete) {
+            captures.add(new TextCapture(depth, true, onComplete));
+        }
+
+        @Override
+        public final void startElement(final Tag tag, final int depth) {
+            if(!captures.isEmpty() && StreamingHtmlParser.isBlockOrBreak(tag.getName())) {
+                for(TextCapture capture : captures) {
+                    capture.separate();
+                }
+            }
+            onStartElement(tag, depth);
+        }
+
+        @Override
+        public final void endElement(final String name, final int depth) {
+            Iterator<TextCapture> it = captures.iterator();
+            while(it.hasNext()) {
+                TextCapture capture = it.next();
+                if(capture.depth == depth) {
+                    it.remove();
+                    capture.complete();
+                }
+            }
+            onEndElement(depth);
+        }
+
+        @Override
+        public final void text(final String html, final int start, final int end, final int depth) {
+            onText(html, start, end, depth);
+            if(captures.isEmpty()) {
+                return;
+            }
+            String chunk = html.substring(start, end);
+            if(chunk.indexOf('&') >= 0) {
+                chunk = Parser.unescapeEntities(chunk, false);
+            }
+            for(TextCapture capture : captures) {
+                capture.append(chunk, depth);
+            }
+        }
+
+        protected abstract void onStartElement(final Tag tag, final int depth);
+
+        protected abstract void onEndElement(final int depth);
+
+        /**
+         * Receives each run of text between tags, before it is gathered into any captures.
+         */
+        protected void onText(final String html, final int start, final int end, final int depth) {
+            // By default, text is only of interest where it is being captured
+        }
+    }
+
+    private static final class ProfileHandler extends CapturingHandler {
+        private final CharacterProfileBuilder profile = new CharacterProfileBuilder();
+        private boolean titleFound;
+        private boolean worldFound;
+        private boolean nameFound;
+        private CharacterProfileBuilder.Box currentBox;
+        private int boxDepth;
+        private int freeCompanyDepth;
+        private int imageDepth;
+        private boolean imageFound;
+        private int imageLinkDepth;
+        private boolean imageLinkFound;
+        private boolean imageUrlFound;
+        private int tabDepth;
+
+        @Override
+        protected void onStartElement(final Tag tag, final int depth) {
+            String name = tag.getName();
+            if(TAG_TITLE.equals(name) && !titleFound) {
+                titleFound = true;
+                captureText(depth, profile::setTitle);
+            }
+            if(!worldFound && tag.hasClass(LAYOUT_FRAME_CHARA_WORLD)) {
+                worldFound = true;
+                captureText(depth, profile::setWorld);
+            }
+
+            // Boxes of character details, e.g. Race/Clan/Gender, Grand Company & Free Company
+            if(tag.hasClass(LAYOUT_CHARACTER_BLOCK_BOX)) {
+                currentBox = profile.addBox();
+                boxDepth = depth;
+            }
+            if(tag.hasClass(LAYOUT_CHARACTER_BLOCK_NAME)) {
+                if(!nameFound) {
+                    nameFound = true;
+                    final String[] race = new String[1];
+                    captureFirstOwnText(depth, text -> race[0] = text);
+                    // Completed after the race, as captures of the same element complete in the order they were started
+                    captureText(depth, text -> profile.setRaceAndGender(race[0], text));
+                }
+                if(currentBox != null) {
+                    captureText(depth, currentBox::addName);
+                }
+            }
+            if(currentBox != null) {
+                final CharacterProfileBuilder.Box box = currentBox;
+                if(tag.hasClass(LAYOUT_CHARACTER_BLOCK_TITLE) && !box.hasTitle()) {
+                    // Marks the box as titled straight away, so that only its first title is taken
+                    box.setTitle("");
+                    captureText(depth, box::setTitle);
+                }
+                if(freeCompanyDepth > 0 && TAG_A.equals(name)) {
+                    captureText(depth, box::addFreeCompany);
+                }
+                if(tag.hasClass(LAYOUT_CHARACTER_FREECOMPANY_NAME) && !box.hasFreeCompany()) {
+                    box.startFreeCompany();
+                    freeCompanyDepth = depth;
+                }
+            }
+
+            // Full body image, being the first image within the first link within the first image block
+            if(!imageFound && tag.hasClass(LAYOUT_CHARACTER_DETAIL_IMAGE)) {
+                imageFound = true;
+                imageDepth = depth;
+            } else if(imageDepth > 0) {
+                if(!imageLinkFound && TAG_A.equals(name)) {
+                    imageLinkFound = true;
+                    imageLinkDepth = depth;
+                } else if(imageLinkDepth > 0 && !imageUrlFound && TAG_IMG.equals(name)) {
+                    imageUrlFound = true;
+                    String src = tag.getAttribute(ATTR_SRC);
+                    profile.setImageUrl(src != null ? src : "");
+                }
+            }
+
+            // Profile tabs, which are disabled where the character has chosen to hide them
+            if(tag.hasClass(LAYOUT_CHARACTER_TAB)) {
+                tabDepth = depth;
+            } else if(tabDepth > 0 && depth == tabDepth + 1 && TAG_LI.equals(name) && tag.hasClass(CLASS_DISABLE)) {
+                captureText(depth, profile::addDisabledTab);
+            }
+        }
+
+        @Override
+        protected void onEndElement(final int depth) {
+            if(currentBox != null) {
+                if(depth == freeCompanyDepth) {
+                    freeCompanyDepth = 0;
+                }
+                if(depth == boxDepth) {
+                    currentBox = null;
+                    boxDepth = 0;
+                }
+            }
+            if(depth == imageLinkDepth) {
+                imageLinkDepth = 0;
+            }
+            if(depth == imageDepth) {
+                imageDepth = 0;
+            }
+            if(depth == tabDepth) {
+                tabDepth = 0;
+            }
+        }
+    }
+
+    private static final class LevelHandler extends CapturingHandler {
+        private final ClassJobLevels levels = new ClassJobLevels();
+        /** Text of the level currently being read, reused for every level so that levels are parsed without creating strings. */
+        private final StringBuilder levelText = new StringBuilder();
+        private boolean contentFound;
+        private int contentDepth;
+        private int levelDepth;
+
+        @Override
+        protected void onStartElement(final Tag tag, final int depth) {
+            if(!contentFound && tag.hasClass(LAYOUT_CHARACTER_CONTENT)) {
+                contentFound = true;
+                contentDepth = depth;
+            } else if(contentDepth > 0 && levelDepth == 0 && tag.hasClass(LAYOUT_CHARACTER_JOB_LEVEL)) {
+                levelDepth = depth;
+                levelText.setLength(0);
+            } else if(contentDepth > 0 && tag.hasClass(LAYOUT_CHARACTER_JOB_NAME)) {
+                String tooltip = tag.getAttribute(ATTR_TOOLTIP);
+                if(tooltip != null) {
+                    levels.nameLastLevel(tooltip);
+                } else {
+                    captureText(depth, levels::nameLastLevel);
+                }
+            }
+        }
+
+        @Override
+        protected void onText(final String html, final int start, final int end, final int depth) {
+            if(levelDepth > 0) {
+                levelText.append(html, start, end);
+            }
+        }
+
+        @Override
+        protected void onEndElement(final int depth) {
+            if(depth == levelDepth) {
+                levelDepth = 0;
+                levels.addLevel(ClassJobLevels.parseLevel(levelText));
+            }
+            if(depth == contentDepth) {
+                contentDepth = 0;
+            }
+        }
+    }
+
+    private static final class TooltipHandler extends CapturingHandler {
+        private final String collectionClass;
+        private final List<String> tooltips = new ArrayList<>();
+        private boolean collectionFound;
+        private int collectionDepth;
+
+        private TooltipHandler(final String collectionClass) {
+            this.collectionClass = collectionClass;
+        }
+
+        @Override
+        protected void onStartElement(final Tag tag, final int depth) {
+            if(!collectionFound && tag.hasClass(collectionClass)) {
+                collectionFound = true;
+                collectionDepth = depth;
+            } else if(collectionDepth > 0 && TAG_LI.equals(tag.getName())) {
+                String tooltip = tag.getAttribute(ATTR_TOOLTIP_HREF);
+                tooltips.add(tooltip != null ? tooltip : "");
+            }
+        }
+
+        @Override
+        protected void onEndElement(final int depth) {
+            if(depth == collectionDepth) {
+                collectionDepth = 0;
+            }
+        }
+    }
+
+}
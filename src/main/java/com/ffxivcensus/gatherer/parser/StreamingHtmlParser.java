@@ -0,0 +1,391 @@
+package com.ffxivcensus.gatherer.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.jsoup.parser.Parser;
+
+/**
+ * Lightweight, single-pass HTML tokeniser that reports elements & text to a {@link Handler} as it reads them, rather than building a DOM.
+ * <p>
+ * Only the names of the currently open elements are kept while parsing. Attributes are not read unless the handler asks for them, and
+ * text is only reported as a range of the source, so that a handler interested in a handful of elements pays for little more than a scan
+ * of the page.
+ * <p>
+ * The tokeniser is tolerant of the same sort of markup as the Lodestone serves, rather than being a full HTML5 parser: void and
+ * self-closed elements are closed immediately, list items and paragraphs are closed where a browser would implicitly close them, end tags
+ * close any unclosed elements within them, stray end tags are ignored, and the content of scripts & styles is skipped.
+ *
+ * @author matthew.hillier
+ */
+public final class StreamingHtmlParser {
+
+    /**
+     * Receives the elements & text of a page as it is parsed.
+     */
+    public interface Handler {
+
+        /**
+         * Called as each element is opened.
+         *
+         * @param tag Start tag of the element, only valid for the duration of the call.
+         * @param depth Depth of the element, where the outermost element is at depth 1.
+         */
+        void startElement(Tag tag, int depth);
+
+        /**
+         * Called as each element is closed, whether explicitly or implicitly.
+         *
+         * @param name Lower-case name of the element.
+         * @param depth Depth of the element.
+         */
+        void endElement(String name, int depth);
+
+        /**
+         * Called with each run of text between tags.
+         *
+         * @param html Source being parsed.
+         * @param start Start of the text (inclusive).
+         * @param end End of the text (exclusive).
+         * @param depth Depth of the element containing the text.
+         */
+        void text(String html, int start, int end, int depth);
+    }
+
+    private static final Set<String> VOID_ELEMENTS = new HashSet<>(Arrays.asList("area", "base", "br", "col", "embed", "hr", "img",
+                                                                                  "input", "keygen", "link", "meta", "param", "source",
+                                                                                  "track", "wbr"));
+    private static final Set<String> RAW_TEXT_ELEMENTS = new HashSet<>(Arrays.asList("script", "style"));
+    /**
+     * Elements that implicitly close an open paragraph.
+     */
+    private static final Set<String> PARAGRAPH_CLOSERS = new HashSet<>(Arrays.asList("address", "article", "aside", "blockquote", "div",
+                                                                                      "dl", "fieldset", "footer", "form", "h1", "h2",
+                                                                                      "h3", "h4", "h5", "h6", "header", "hr", "nav",
+                                                                                      "ol", "p", "pre", "section", "table", "ul"));
+    /**
+     * Elements that may sit between a paragraph and an element that would close it, without preventing it being closed.
+     */
+    private static final Set<String> PHRASING_ELEMENTS = new HashSet<>(Arrays.asList("a", "abbr", "b", "cite", "code", "em", "font",
+                                                                                      "i", "label", "q", "s", "small", "span",
+                                                                                      "strong", "sub", "sup", "u"));
+    private static final Set<String> BLOCK_ELEMENTS = new HashSet<>(Arrays.asList("address", "article", "aside", "blockquote", "body",
+                                                                                   "caption", "dd", "details", "div", "dl", "dt",
+                                                                                   "fieldset", "figcaption", "figure", "footer", "form",
+                                                                                   "h1", "h2", "h3", "h4", "h5", "h6", "header", "hr",
+                                                                                   "html", "li", "main", "nav", "ol", "p", "pre",
+                                                                                   "section", "table", "tbody", "td", "tfoot", "th",
+                                                                                   "thead", "tr", "ul"));
+
+    private final String html;
+    private final Handler handler;
+    private final List<String> openElements = new ArrayList<>();
+    private final Tag tag = new Tag();
+
+    private StreamingHtmlParser(final String html, final Handler handler) {
+        this.html = html;
+        this.handler = handler;
+    }
+
+    /**
+     * Parses the given source, reporting each element & run of text to the handler.
+     *
+     * @param html Source to parse.
+     * @param handler Handler to report to.
+     */
+    public static void parse(final String html, final Handler handler) {
+        new StreamingHtmlParser(html, handler).parse();
+    }
+
+    /**
+     * Determines whether the named element would be laid out as a block, and therefore separated from the text around it.
+     *
+     * @param name Lower-case element name.
+     * @return <code>true</code> if the element is a block, or a line break.
+     */
+    public static boolean isBlockOrBreak(final String name) {
+        return "br".equals(name) || BLOCK_ELEMENTS.contains(name);
+    }
+
+    private void parse() {
+        final int length = html.length();
+        int pos = 0;
+        while(pos < length) {
+            int lt = html.indexOf('<', pos);
+            if(lt < 0) {
+                text(pos, length);
+                break;
+            }
+            if(lt > pos) {
+                text(pos, lt);
+            }
+            if(html.startsWith("<!--", lt)) {
+                int end = html.indexOf("-->", lt + 4);
+                pos = end < 0 ? length : end + 3;
+            } else if(lt + 1 < length && (html.charAt(lt + 1) == '!' || html.charAt(lt + 1) == '?')) {
+                // Doctype or processing instruction
+                int end = html.indexOf('>', lt);
+                pos = end < 0 ? length : end + 1;
+            } else if(lt + 2 < length && html.charAt(lt + 1) == '/' && isNameStart(html.charAt(lt + 2))) {
+                int nameEnd = nameEnd(lt + 2);
+                int end = html.indexOf('>', nameEnd);
+                closeElement(html.substring(lt + 2, nameEnd).toLowerCase(Locale.ROOT));
+                pos = end < 0 ? length : end + 1;
+            } else if(lt + 1 < length && isNameStart(html.charAt(lt + 1))) {
+                pos = startTag(lt);
+            } else {
+                // Not a tag, so treat the '<' as text
+                text(lt, lt + 1);
+                pos = lt + 1;
+            }
+        }
+        while(!openElements.isEmpty()) {
+            pop();
+        }
+    }
+
+    /**
+     * Reads the start tag beginning at the given position, opening the element.
+     *
+     * @return Position immediately after the tag.
+     */
+    private int startTag(final int lt) {
+        final int length = html.length();
+        int nameEnd = nameEnd(lt + 1);
+        // Find the end of the tag, skipping over any quoted attribute values
+        int end = nameEnd;
+        char quote = 0;
+        while(end < length) {
+            char c = html.charAt(end);
+            if(quote != 0) {
+                if(c == quote) {
+                    quote = 0;
+                }
+            } else if(c == '"' || c == '\'') {
+                quote = c;
+            } else if(c == '>') {
+                break;
+            }
+            end++;
+        }
+        String name = html.substring(lt + 1, nameEnd).toLowerCase(Locale.ROOT);
+        boolean selfClosing = end < length && html.charAt(end - 1) == '/';
+
+        implicitlyClose(name);
+        openElements.add(name);
+        tag.reset(name, nameEnd, selfClosing ? end - 1 : end);
+        handler.startElement(tag, openElements.size());
+
+        int next = end < length ? end + 1 : length;
+        if(selfClosing || VOID_ELEMENTS.contains(name)) {
+            pop();
+        } else if(RAW_TEXT_ELEMENTS.contains(name)) {
+            // Skip the content of scripts & styles, which may contain anything that looks like markup
+            int close = next;
+            while((close = html.indexOf("</", close)) >= 0 && !html.regionMatches(true, close + 2, name, 0, name.length())) {
+                close += 2;
+            }
+            next = close < 0 ? length : close;
+        }
+        return next;
+    }
+
+    /**
+     * Closes any open elements that a browser would implicitly close on opening the named element.
+     */
+    private void implicitlyClose(final String name) {
+        if("li".equals(name)) {
+            for(int i = openElements.size() - 1; i >= 0; i--) {
+                String open = openElements.get(i);
+                if("li".equals(open)) {
+                    popTo(i);
+                    return;
+                } else if("ul".equals(open) || "ol".equals(open)) {
+                    return;
+                }
+            }
+        }
+        if(PARAGRAPH_CLOSERS.contains(name)) {
+            for(int i = openElements.size() - 1; i >= 0; i--) {
+                String open = openElements.get(i);
+                if("p".equals(open)) {
+                    popTo(i);
+                    return;
+                } else if(!PHRASING_ELEMENTS.contains(open)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void closeElement(final String name) {
+        for(int i = openElements.size() - 1; i >= 0; i--) {
+            if(openElements.get(i).equals(name)) {
+                popTo(i);
+                return;
+            }
+        }
+        // Stray end tag, which is ignored
+    }
+
+    /**
+     * Closes all elements down to & including the element at the given index of the stack.
+     */
+    private void popTo(final int index) {
+        while(openElements.size() > index) {
+            pop();
+        }
+    }
+
+    private void pop() {
+        int depth = openElements.size();
+        handler.endElement(openElements.remove(depth - 1), depth);
+    }
+
+    private void text(final int start, final int end) {
+        handler.text(html, start, end, openElements.size());
+    }
+
+    private int nameEnd(final int start) {
+        int end = start;
+        while(end < html.length()) {
+            char c = html.charAt(end);
+            if(Character.isWhitespace(c) || c == '>' || c == '/') {
+                break;
+            }
+            end++;
+        }
+        return end;
+    }
+
+    private static boolean isNameStart(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * Start tag of an element, reading its attributes from the source only as they are asked for.
+     */
+    public final class Tag {
+
+        private String name;
+        private int attributesStart;
+        private int attributesEnd;
+        // Location of the value of the last attribute found
+        private int valueStart;
+        private int valueEnd;
+
+        private void reset(final String name, final int attributesStart, final int attributesEnd) {
+            this.name = name;
+            this.attributesStart = attributesStart;
+            this.attributesEnd = attributesEnd;
+        }
+
+        /**
+         * @return Lower-case name of the element.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Fetches the value of the named attribute, with any character references decoded.
+         *
+         * @param attributeName Name of the attribute.
+         * @return Value of the attribute, an empty string where it has no value, or <code>null</code> where the element does not have it.
+         */
+        public String getAttribute(final String attributeName) {
+            if(!findAttribute(attributeName)) {
+                return null;
+            }
+            String value = html.substring(valueStart, valueEnd);
+            return value.indexOf('&') >= 0 ? Parser.unescapeEntities(value, true) : value;
+        }
+
+        /**
+         * Determines whether the element has the given class, ignoring case.
+         *
+         * @param className Class to look for.
+         * @return <code>true</code> if the class is one of those in the element's 'class' attribute.
+         */
+        public boolean hasClass(final String className) {
+            if(!findAttribute("class")) {
+                return false;
+            }
+            int length = className.length();
+            int pos = valueStart;
+            while(pos < valueEnd) {
+                while(pos < valueEnd && Character.isWhitespace(html.charAt(pos))) {
+                    pos++;
+                }
+                int start = pos;
+                while(pos < valueEnd && !Character.isWhitespace(html.charAt(pos))) {
+                    pos++;
+                }
+                if(pos - start == length && html.regionMatches(true, start, className, 0, length)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Scans the attributes of the tag for the one named, recording the location of its value.
+         */
+        private boolean findAttribute(final String attributeName) {
+            int pos = attributesStart;
+            while(pos < attributesEnd) {
+                char c = html.charAt(pos);
+                if(Character.isWhitespace(c) || c == '/') {
+                    pos++;
+                    continue;
+                }
+                int nameStart = pos;
+                while(pos < attributesEnd) {
+                    c = html.charAt(pos);
+                    if(Character.isWhitespace(c) || c == '=' || c == '/') {
+                        break;
+                    }
+                    pos++;
+                }
+                int nameLength = pos - nameStart;
+                while(pos < attributesEnd && Character.isWhitespace(html.charAt(pos))) {
+                    pos++;
+                }
+                int start = pos;
+                int end = pos;
+                if(pos < attributesEnd && html.charAt(pos) == '=') {
+                    pos++;
+                    while(pos < attributesEnd && Character.isWhitespace(html.charAt(pos))) {
+                        pos++;
+                    }
+                    if(pos < attributesEnd && (html.charAt(pos) == '"' || html.charAt(pos) == '\'')) {
+                        char quote = html.charAt(pos);
+                        start = pos + 1;
+                        end = html.indexOf(quote, start);
+                        if(end < 0 || end > attributesEnd) {
+                            end = attributesEnd;
+                        }
+                        pos = end + 1;
+                    } else {
+                        start = pos;
+                        while(pos < attributesEnd && !Character.isWhitespace(html.charAt(pos))) {
+                            pos++;
+                        }
+                        end = pos;
+                    }
+                }
+                if(nameLength == attributeName.length() && html.regionMatches(true, nameStart, attributeName, 0, nameLength)) {
+                    valueStart = start;
+                    valueEnd = end;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.ffxivcensus.gatherer.player;
+
+import java.util.List;
+
+import com.ffxivcensus.gatherer.parser.ClassJobLevels;
+
+/**
+ * A character part-way through being built by the stages of {@link PlayerBuilder}, holding the sources of the pages fetched for them
+ * until parsed, and what was parsed from them until resolved.
+ *
+ * @author matthew.hillier
+ * @see PlayerBuilder#fetchPages(int)
+ * @see PlayerBuilder#parsePages(CharacterPages)
+ * @see PlayerBuilder#resolveCollectibles(CharacterPages)
+ */
+public class CharacterPages {
+
+    private final PlayerBean player;
+    private String classJobSource;
+    private String mountSource;
+    private String minionSource;
+    private ClassJobLevels levels;
+    private List<String> mountTooltips;
+    private List<String> minionTooltips;
+
+    CharacterPages(final PlayerBean player) {
+        this.player = player;
+    }
+
+    /**
+     * @return the character being built, populated from their profile page once fetched.
+     */
+    public PlayerBean getPlayer() {
+        return player;
+    }
+
+    /**
+     * @return whether the character could not be found, and so has nothing to parse or resolve.
+     */
+    public boolean isDeleted() {
+        return CharacterStatus.DELETED.equals(player.getCharacterStatus());
+    }
+
+    String getClassJobSource() {
+        return classJobSource;
+    }
+
+    void setClassJobSource(final String classJobSource) {
+        this.classJobSource = classJobSource;
+    }
+
+    /**
+     * @return the source of the mounts page, or null where the tab is disabled or the page could not be found.
+     */
+    String getMountSource() {
+        return mountSource;
+    }
+
+    void setMountSource(final String mountSource) {
+        this.mountSource = mountSource;
+    }
+
+    /**
+     * @return the source of the minions page, or null where the tab is disabled or the page could not be found.
+     */
+    String getMinionSource() {
+        return minionSource;
+    }
+
+    void setMinionSource(final String minionSource) {
+        this.minionSource = minionSource;
+    }
+
+    ClassJobLevels getLevels() {
+        return levels;
+    }
+
+    List<String> getMountTooltips() {
+        return mountTooltips;
+    }
+
+    List<String> getMinionTooltips() {
+        return minionTooltips;
+    }
+
+    /**
+     * Records what was parsed from the pages, releasing their sources.
+     */
+    void setParsed(final ClassJobLevels levels, final List<String> mountTooltips, final List<String> minionTooltips) {
+        this.levels = levels;
+        this.mountTooltips = mountTooltips;
+        this.minionTooltips = minionTooltips;
+        this.classJobSource = null;
+        this.mountSource = null;
+        this.minionSource = null;
+    }
+
+}
@@ -0,0 +1,305 @@
+package com.ffxivcensus.gatherer.player;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Status of every character ID gathered, held in a memory-mapped file with two bits per ID, so that whether a character is known or has
+ * been deleted can be answered without querying the database, and survives between runs.
+ * <p>
+ * Each ID is held as one of unknown, {@link CharacterStatus#ACTIVE}, {@link CharacterStatus#INACTIVE} or
+ * {@link CharacterStatus#DELETED}, four IDs to a byte, so that 40 million IDs take 10MB. The file is mapped in segments as higher IDs are
+ * set, so that it only grows as far as the highest ID gathered.
+ * <p>
+ * The map is kept alongside the database, not in place of it: a newly created map should be {@link #seed(PlayerBeanRepository) seeded}
+ * from the database, and the file deleted to rebuild it should the two be changed separately.
+ *
+ * @author matthew.hillier
+ */
+public class CharacterStatusMap implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CharacterStatusMap.class);
+    private static final int MAGIC = 0x58495653; // XIVS
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int IDS_PER_BYTE = 4;
+    private static final int BITS_PER_ID = 2;
+    private static final int STATUS_MASK = 0x3;
+    /** Bytes in each mapped segment, covering 16 million IDs. */
+    private static final int SEGMENT_BYTES = 4 * 1024 * 1024;
+    private static final int SEGMENTS = (int) ((((long) Integer.MAX_VALUE + 1) / IDS_PER_BYTE + SEGMENT_BYTES - 1) / SEGMENT_BYTES);
+    private static final int LOCK_STRIPES = 64;
+    private static final int SEED_BLOCK_SIZE = 100000;
+    private static final CharacterStatus[] STATUSES = CharacterStatus.values();
+
+    private final FileChannel channel;
+    private final boolean created;
+    private final AtomicReferenceArray<MappedByteBuffer> segments = new AtomicReferenceArray<>(SEGMENTS);
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final AtomicInteger highestKnownId = new AtomicInteger(-1);
+    private final AtomicInteger highestValidId = new AtomicInteger(-1);
+
+    /**
+     * Opens the map held in the given file, creating it if it does not exist.
+     *
+     * @param file File holding the map.
+     * @throws IOException if the file cannot be opened, or does not hold a map.
+     */
+    public CharacterStatusMap(final Path file) throws IOException {
+        for(int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            created = channel.size() < HEADER_BYTES;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            if(created) {
+                header.putInt(MAGIC).putInt(VERSION).flip();
+                channel.write(header, 0);
+            } else {
+                channel.read(header, 0);
+                header.flip();
+                if(header.getInt() != MAGIC || header.getInt() != VERSION) {
+                    throw new IOException(file + " does not hold a character status map");
+                }
+                long dataBytes = channel.size() - HEADER_BYTES;
+                for(int segment = 0; segment < (dataBytes + SEGMENT_BYTES - 1) / SEGMENT_BYTES; segment++) {
+                    getSegment(segment);
+                }
+                highestKnownId.set(findHighest(Integer.MAX_VALUE, false));
+                highestValidId.set(findHighest(highestKnownId.get(), true));
+            }
+        } catch(IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        LOG.info("Opened character status map " + file + (created ? " (new)" : ", highest character known #" + highestKnownId.get()));
+    }
+
+    /**
+     * @return whether the map was created on opening, and so is yet to be seeded.
+     */
+    public boolean isCreated() {
+        return created;
+    }
+
+    /**
+     * Records the status of every character already in the database, for a newly created map.
+     *
+     * @param playerRepository Repository holding the characters.
+     */
+    public void seed(final PlayerBeanRepository playerRepository) {
+        PlayerBean highest = playerRepository.findTopByOrderByIdDesc();
+        if(highest == null) {
+            return;
+        }
+        for(long firstId = 0; firstId <= highest.getId(); firstId += SEED_BLOCK_SIZE) {
+            int lastId = (int) Math.min(firstId + SEED_BLOCK_SIZE - 1, highest.getId());
+            for(Object[] row : playerRepository.findStatusesByIdBetween((int) firstId, lastId)) {
+                set((Integer) row[0], (CharacterStatus) row[1]);
+            }
+        }
+        LOG.info("Seeded character status map up to character #" + highest.getId());
+    }
+
+    /**
+     * @param id ID of the character.
+     * @return the status of the character, or null if it has not been gathered.
+     */
+    public CharacterStatus get(final int id) {
+        checkId(id);
+        MappedByteBuffer segment = segments.get(getSegmentIndex(id));
+        if(segment == null) {
+            return null;
+        }
+        int code = (segment.get(getOffset(id)) >>> getShift(id)) & STATUS_MASK;
+        return code == 0 ? null : STATUSES[code - 1];
+    }
+
+    /**
+     * @param id ID of the character.
+     * @return whether the character has been gathered before.
+     */
+    public boolean isKnown(final int id) {
+        return get(id) != null;
+    }
+
+    /**
+     * @param id ID of the character.
+     * @return whether the character has been marked as deleted.
+     */
+    public boolean isDeleted(final int id) {
+        return get(id) == CharacterStatus.DELETED;
+    }
+
+    /**
+     * Records the status of a character.
+     *
+     * @param id ID of the character.
+     * @param status Status of the character, or null to forget it.
+     */
+    public void set(final int id, final CharacterStatus status) {
+        checkId(id);
+        write(id, status == null ? 0 : status.ordinal() + 1);
+        if(status == null) {
+            recalculateHighest(id);
+            return;
+        }
+        highestKnownId.accumulateAndGet(id, Math::max);
+        if(status != CharacterStatus.DELETED) {
+            highestValidId.accumulateAndGet(id, Math::max);
+        } else if(id == highestValidId.get()) {
+            highestValidId.set(findHighest(id, true));
+        }
+    }
+
+    /**
+     * Forgets every character above the given ID, as when they are trimmed from the database.
+     *
+     * @param id Highest ID to keep.
+     */
+    public void clearAbove(final int id) {
+        clearRange(id, highestKnownId.get());
+    }
+
+    /**
+     * Forgets every character in the given range of IDs, as when they are trimmed from the database.
+     *
+     * @param afterId ID above which to forget characters.
+     * @param upToId Highest ID to forget.
+     */
+    public void clearRange(final int afterId, final int upToId) {
+        for(long clear = (long) afterId + 1; clear <= upToId; clear++) {
+            write((int) clear, 0);
+        }
+        recalculateHighest(afterId);
+    }
+
+    /**
+     * @return the highest ID of any character gathered, or -1 if none have been.
+     */
+    public int getHighestKnownId() {
+        return highestKnownId.get();
+    }
+
+    /**
+     * @return the highest ID of any character that has not been deleted, or -1 if none have been gathered.
+     */
+    public int getHighestValidId() {
+        return highestValidId.get();
+    }
+
+    /**
+     * Writes any changes to the map out to its file.
+     */
+    public void force() {
+        for(int segment = 0; segment < SEGMENTS; segment++) {
+            MappedByteBuffer buffer = segments.get(segment);
+            if(buffer != null) {
+                buffer.force();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private void write(final int id, final int code) {
+        MappedByteBuffer segment = segments.get(getSegmentIndex(id));
+        if(segment == null) {
+            if(code == 0) {
+                return;
+            }
+            segment = getSegment(getSegmentIndex(id));
+        }
+        int offset = getOffset(id);
+        int shift = getShift(id);
+        // Four IDs share each byte, so neighbouring IDs updated from different threads must not overwrite each other
+        synchronized(locks[(id / IDS_PER_BYTE) % LOCK_STRIPES]) {
+            int current = segment.get(offset);
+            segment.put(offset, (byte) ((current & ~(STATUS_MASK << shift)) | (code << shift)));
+        }
+    }
+
+    private void recalculateHighest(final int fromId) {
+        synchronized(highestKnownId) {
+            highestKnownId.set(findHighest(Math.max(fromId, highestKnownId.get()), false));
+            highestValidId.set(findHighest(highestKnownId.get(), true));
+        }
+    }
+
+    /**
+     * Scans down from the given ID for the highest character known, or the highest that has not been deleted.
+     */
+    private int findHighest(final int fromId, final boolean valid) {
+        for(long id = fromId; id >= 0; id--) {
+            MappedByteBuffer segment = segments.get(getSegmentIndex((int) id));
+            if(segment == null) {
+                // Skip to the top of the segment below
+                id = (long) getSegmentIndex((int) id) * SEGMENT_BYTES * IDS_PER_BYTE;
+                continue;
+            }
+            int offset = getOffset((int) id);
+            if(segment.get(offset) == 0) {
+                // Skip the rest of an empty byte
+                id -= id % IDS_PER_BYTE;
+                continue;
+            }
+            int code = (segment.get(offset) >>> getShift((int) id)) & STATUS_MASK;
+            if(code != 0 && (!valid || STATUSES[code - 1] != CharacterStatus.DELETED)) {
+                return (int) id;
+            }
+        }
+        return -1;
+    }
+
+    private MappedByteBuffer getSegment(final int index) {
+        MappedByteBuffer segment = segments.get(index);
+        if(segment == null) {
+            synchronized(segments) {
+                segment = segments.get(index);
+                if(segment == null) {
+                    try {
+                        segment = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + (long) index * SEGMENT_BYTES, SEGMENT_BYTES);
+                    } catch(IOException ioe) {
+                        throw new IllegalStateException("Unable to map character status segment " + index, ioe);
+                    }
+                    segments.set(index, segment);
+                }
+            }
+        }
+        return segment;
+    }
+
+    private static int getSegmentIndex(final int id) {
+        return id / IDS_PER_BYTE / SEGMENT_BYTES;
+    }
+
+    private static int getOffset(final int id) {
+        return id / IDS_PER_BYTE % SEGMENT_BYTES;
+    }
+
+    private static int getShift(final int id) {
+        return id % IDS_PER_BYTE * BITS_PER_ID;
+    }
+
+    private static void checkId(final int id) {
+        if(id < 0) {
+            throw new IllegalArgumentException("Character ID must not be negative: " + id);
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.ffxivcensus.gatherer.player;
+
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Enumeration of each of the classes, jobs & other levels recorded against a {@link PlayerBean}.
+ * The names under which each is displayed on the Lodestone, and the order they are displayed in, are held by the
+ * {@link JobLayoutRegistry}.
+ *
+ * @author matthew.hillier
+ */
+public enum Job {
+    GLADIATOR(PlayerBean::setLevelGladiator),
+    MARAUDER(PlayerBean::setLevelMarauder),
+    DARKKNIGHT(PlayerBean::setLevelDarkknight),
+    GUNBREAKER(PlayerBean::setLevelGunbreaker),
+    CONJURER(PlayerBean::setLevelConjurer),
+    SCHOLAR(PlayerBean::setLevelScholar),
+    ASTROLOGIAN(PlayerBean::setLevelAstrologian),
+    SAGE(PlayerBean::setLevelSage),
+    PUGILIST(PlayerBean::setLevelPugilist),
+    LANCER(PlayerBean::setLevelLancer),
+    ROGUE(PlayerBean::setLevelRogue),
+    SAMURAI(PlayerBean::setLevelSamurai),
+    REAPER(PlayerBean::setLevelReaper),
+    ARCHER(PlayerBean::setLevelArcher),
+    MACHINIST(PlayerBean::setLevelMachinist),
+    DANCER(PlayerBean::setLevelDancer),
+    THAUMATURGE(PlayerBean::setLevelThaumaturge),
+    ARCANIST(PlayerBean::setLevelArcanist),
+    REDMAGE(PlayerBean::setLevelRedmage),
+    BLUEMAGE(PlayerBean::setLevelBluemage),
+    CARPENTER(PlayerBean::setLevelCarpenter),
+    BLACKSMITH(PlayerBean::setLevelBlacksmith),
+    ARMORER(PlayerBean::setLevelArmorer),
+    GOLDSMITH(PlayerBean::setLevelGoldsmith),
+    LEATHERWORKER(PlayerBean::setLevelLeatherworker),
+    WEAVER(PlayerBean::setLevelWeaver),
+    ALCHEMIST(PlayerBean::setLevelAlchemist),
+    CULINARIAN(PlayerBean::setLevelCulinarian),
+    MINER(PlayerBean::setLevelMiner),
+    BOTANIST(PlayerBean::setLevelBotanist),
+    FISHER(PlayerBean::setLevelFisher),
+    /** Resistance Rank in the Bozjan Southern Front. */
+    BOZJA(PlayerBean::setLevelBozja),
+    /** Elemental Level in The Forbidden Land, Eureka. */
+    EUREKA(PlayerBean::setLevelEureka);
+
+    private final ObjIntConsumer<PlayerBean> setter;
+
+    Job(final ObjIntConsumer<PlayerBean> setter) {
+        this.setter = setter;
+    }
+
+    /**
+     * Records the level of this job against the player.
+     *
+     * @param player Player to update.
+     * @param level Level of the job.
+     */
+    public void setLevel(final PlayerBean player, final int level) {
+        setter.accept(player, level);
+    }
+}
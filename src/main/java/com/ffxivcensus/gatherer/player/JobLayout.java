@@ -0,0 +1,109 @@
+package com.ffxivcensus.gatherer.player;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ffxivcensus.gatherer.parser.ClassJobLevels;
+
+/**
+ * Layout of the Lodestone Class/Job page for a single game patch, used to match the levels found on the page to each {@link Job}.
+ * Layouts are immutable once loaded, and are shared between threads.
+ *
+ * @author matthew.hillier
+ * @see JobLayoutRegistry
+ */
+public class JobLayout {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JobLayout.class);
+
+    private final String version;
+    private final Job[] positions;
+    private final Map<String, Job> jobsByName;
+    /** Names not recognised so far, so that each is only reported once. */
+    private final Set<String> unrecognisedNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * Creates a new layout.
+     *
+     * @param version Game patch the layout applies to.
+     * @param positions Jobs in the order displayed on the Class/Job page.
+     * @param jobsByName Jobs by each of the (lower-case) names they are displayed under.
+     */
+    public JobLayout(final String version, final Job[] positions, final Map<String, Job> jobsByName) {
+        this.version = version;
+        this.positions = positions.clone();
+        this.jobsByName = jobsByName;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Records each of the levels found on the Class/Job page against the player.
+     * Levels are matched to jobs by the name shown against them, falling back to their position on the page where no name was found.
+     * Named levels that are not recognised are skipped, and reported once.
+     *
+     * @param player Player to update.
+     * @param levels Levels found on the Class/Job page.
+     * @throws IllegalArgumentException if an unnamed level is found beyond the end of the layout.
+     */
+    public void apply(final PlayerBean player, final ClassJobLevels levels) {
+        Set<Job> applied = EnumSet.noneOf(Job.class);
+        for(int index = 0; index < levels.size(); index++) {
+            String name = levels.getName(index);
+            Job job = name != null ? getJob(name) : null;
+            if(job == null && name != null) {
+                if(unrecognisedNames.add(name)) {
+                    LOG.warn("Job '{}' is not known to the {} job layout, and will not be recorded", name, version);
+                }
+                continue;
+            }
+            if(job == null) {
+                if(index >= positions.length) {
+                    throw new IllegalArgumentException("Error: More class levels found (" + levels.size() + ") than anticipated ("
+                                                       + positions.length + "). The class definitions need to be updated.");
+                }
+                job = positions[index];
+            }
+            if(applied.add(job)) {
+                job.setLevel(player, levels.getLevel(index));
+            }
+        }
+    }
+
+    /**
+     * Finds the job displayed under the given name on the Lodestone, such as "Paladin / Gladiator" or "Blue Mage (Limited Job)".
+     *
+     * @param name Name shown on the page.
+     * @return the matching job, or null if the name is not recognised.
+     */
+    public Job getJob(final String name) {
+        int start = 0;
+        while(start <= name.length()) {
+            int end = name.indexOf('/', start);
+            if(end < 0) {
+                end = name.length();
+            }
+            String part = name.substring(start, end);
+            int bracket = part.indexOf('(');
+            if(bracket >= 0) {
+                part = part.substring(0, bracket);
+            }
+            Job job = jobsByName.get(part.trim().toLowerCase(Locale.ROOT));
+            if(job != null) {
+                return job;
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+
+}
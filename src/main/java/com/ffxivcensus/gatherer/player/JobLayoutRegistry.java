@@ -0,0 +1,112 @@
+package com.ffxivcensus.gatherer.player;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Registry of the layouts of the Lodestone Class/Job page, by game patch.
+ * <p>
+ * The names each job is displayed under, and the order they are displayed in for each patch, are read from
+ * <code>job-layouts.properties</code>, so that a new patch or expansion only needs that file updating:
+ * <dl>
+ * <dt>job.<i>JOB</i></dt>
+ * <dd>Comma-separated names the {@link Job} is displayed under.</dd>
+ * <dt>layout.<i>version</i></dt>
+ * <dd>Comma-separated jobs in the order displayed in that game patch.</dd>
+ * <dt>layout.default</dt>
+ * <dd>Version of the layout to use where none is configured.</dd>
+ * </dl>
+ *
+ * @author matthew.hillier
+ */
+public class JobLayoutRegistry {
+
+    public static final String DEFAULT_RESOURCE = "/job-layouts.properties";
+    private static final String PREFIX_JOB = "job.";
+    private static final String PREFIX_LAYOUT = "layout.";
+    private static final String KEY_DEFAULT_LAYOUT = PREFIX_LAYOUT + "default";
+
+    private final Map<String, JobLayout> layouts = new HashMap<>();
+    private final String defaultVersion;
+
+    /**
+     * Creates a registry of the layouts held in {@link #DEFAULT_RESOURCE}.
+     */
+    public JobLayoutRegistry() {
+        this(loadResource(DEFAULT_RESOURCE));
+    }
+
+    /**
+     * Creates a registry of the layouts held in the given properties.
+     *
+     * @param properties Job names & layouts, as described above.
+     * @throws IllegalArgumentException if the properties refer to an unknown job or default layout.
+     */
+    public JobLayoutRegistry(final Properties properties) {
+        Map<String, Job> jobsByName = new HashMap<>();
+        for(Job job : Job.values()) {
+            String names = properties.getProperty(PREFIX_JOB + job.name(), job.name());
+            for(String name : names.split(",")) {
+                jobsByName.put(name.trim().toLowerCase(Locale.ROOT), job);
+            }
+        }
+
+        for(String key : properties.stringPropertyNames()) {
+            if(key.startsWith(PREFIX_LAYOUT) && !key.equals(KEY_DEFAULT_LAYOUT)) {
+                String version = key.substring(PREFIX_LAYOUT.length());
+                String[] jobNames = properties.getProperty(key).split(",");
+                Job[] positions = new Job[jobNames.length];
+                for(int i = 0; i < jobNames.length; i++) {
+                    positions[i] = Job.valueOf(jobNames[i].trim());
+                }
+                layouts.put(version, new JobLayout(version, positions, jobsByName));
+            }
+        }
+
+        defaultVersion = properties.getProperty(KEY_DEFAULT_LAYOUT);
+        if(!layouts.containsKey(defaultVersion)) {
+            throw new IllegalArgumentException("Default job layout '" + defaultVersion + "' has not been defined");
+        }
+    }
+
+    /**
+     * Gets the layout for the given game patch.
+     *
+     * @param version Game patch, or null for the default layout.
+     * @return the layout.
+     * @throws IllegalArgumentException if there is no layout for the given patch.
+     */
+    public JobLayout getLayout(final String version) {
+        JobLayout layout = layouts.get(version == null ? defaultVersion : version);
+        if(layout == null) {
+            throw new IllegalArgumentException("No job layout has been defined for '" + version + "'");
+        }
+        return layout;
+    }
+
+    /**
+     * @return the layout to use where no game patch has been configured.
+     */
+    public JobLayout getDefaultLayout() {
+        return getLayout(defaultVersion);
+    }
+
+    private static Properties loadResource(final String resource) {
+        Properties properties = new Properties();
+        try(InputStream in = JobLayoutRegistry.class.getResourceAsStream(resource)) {
+            if(in == null) {
+                throw new IllegalStateException("Job layouts not found at " + resource);
+            }
+            properties.load(in);
+        } catch(IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+        return properties;
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.ffxivcensus.gatherer.player;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Enumeration of each of the flags recorded against a {@link PlayerBean} on the basis of the mounts & minions they own.
+ * The mounts & minions that set each flag are held by the {@link OwnershipRules}.
+ *
+ * @author matthew.hillier
+ */
+public enum OwnershipFlag {
+    HAS_30_DAYS_SUB(PlayerBean::setHas30DaysSub),
+    HAS_60_DAYS_SUB(PlayerBean::setHas60DaysSub),
+    HAS_90_DAYS_SUB(PlayerBean::setHas90DaysSub),
+    HAS_180_DAYS_SUB(PlayerBean::setHas180DaysSub),
+    HAS_270_DAYS_SUB(PlayerBean::setHas270DaysSub),
+    HAS_360_DAYS_SUB(PlayerBean::setHas360DaysSub),
+    HAS_450_DAYS_SUB(PlayerBean::setHas450DaysSub),
+    HAS_630_DAYS_SUB(PlayerBean::setHas630DaysSub),
+    HAS_960_DAYS_SUB(PlayerBean::setHas960DaysSub),
+    HAS_PRE_ORDER_ARR(PlayerBean::setHasPreOrderArr),
+    HAS_PRE_ORDER_HW(PlayerBean::setHasPreOrderHW),
+    HAS_PRE_ORDER_SB(PlayerBean::setHasPreOrderSB),
+    HAS_PRE_ORDER_SHB(PlayerBean::setHasPreOrderShB),
+    HAS_ARR_ARTBOOK(PlayerBean::setHasARRArtbook),
+    HAS_HW_ARTBOOK_ONE(PlayerBean::setHasHWArtbookOne),
+    HAS_HW_ARTBOOK_TWO(PlayerBean::setHasHWArtbookTwo),
+    HAS_SB_ARTBOOK(PlayerBean::setHasSBArtbook),
+    HAS_SB_ARTBOOK_TWO(PlayerBean::setHasSBArtbookTwo),
+    HAS_ENCYCLOPEDIA_EORZEA(PlayerBean::setHasEncyclopediaEorzea),
+    HAS_BEFORE_METEOR(PlayerBean::setHasBeforeMeteor),
+    HAS_BEFORE_THE_FALL(PlayerBean::setHasBeforeTheFall),
+    HAS_SOUNDTRACK(PlayerBean::setHasSoundtrack),
+    HAS_ATTENDED_ETERNAL_BOND(PlayerBean::setHasAttendedEternalBond),
+    HAS_COMPLETED_HW_SIGHTSEEING(PlayerBean::setHasCompletedHWSightseeing),
+    HAS_COMPLETED_2PT5(PlayerBean::setHasCompleted2pt5),
+    HAS_FIFTY_COMMS(PlayerBean::setHasFiftyComms),
+    HAS_MOOGLE_PLUSH(PlayerBean::setHasMooglePlush),
+    HAS_TOPAZ_CARBUNCLE_PLUSH(PlayerBean::setHasTopazCarbunclePlush),
+    HAS_EMERALD_CARBUNCLE_PLUSH(PlayerBean::setHasEmeraldCarbunclePlush),
+    HAS_COMPLETED_HILDIBRAND(PlayerBean::setHasCompletedHildibrand),
+    HAS_PS4_COLLECTORS(PlayerBean::setHasPS4Collectors),
+    HAS_COMPLETED_3PT1(PlayerBean::setHasCompleted3pt1),
+    HAS_COMPLETED_3PT3(PlayerBean::setHasCompleted3pt3),
+    HAS_ETERNAL_BOND(PlayerBean::setHasEternalBond),
+    HAS_ARR_COLLECTORS(PlayerBean::setHasARRCollectors),
+    HAS_KOBOLD(PlayerBean::setHasKobold),
+    HAS_SAHAGIN(PlayerBean::setHasSahagin),
+    HAS_AMALJAA(PlayerBean::setHasAmaljaa),
+    HAS_SYLPH(PlayerBean::setHasSylph),
+    HAS_MOOGLE(PlayerBean::setHasMoogle),
+    HAS_VANU_VANU(PlayerBean::setHasVanuVanu),
+    HAS_VATH(PlayerBean::setHasVath),
+    HAS_COMPLETED_HW(PlayerBean::setHasCompletedHW),
+    HAS_COMPLETED_SB(PlayerBean::setHasCompletedSB),
+    LEGACY_PLAYER(PlayerBean::setLegacyPlayer);
+
+    private final BiConsumer<PlayerBean, Boolean> setter;
+
+    OwnershipFlag(final BiConsumer<PlayerBean, Boolean> setter) {
+        this.setter = setter;
+    }
+
+    /**
+     * Records this flag against the player.
+     *
+     * @param player Player to update.
+     * @param value Whether the player owns any of the mounts & minions for this flag.
+     */
+    public void set(final PlayerBean player, final boolean value) {
+        setter.accept(player, value);
+    }
+}
@@ -0,0 +1,191 @@
+package com.ffxivcensus.gatherer.player;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import com.ffxivcensus.gatherer.edb.CollectibleDictionary;
+import com.ffxivcensus.gatherer.edb.CollectibleType;
+
+/**
+ * Rules deriving each {@link OwnershipFlag} of a player from the mounts & minions they own.
+ * <p>
+ * The rules are read from <code>ownership-rules.properties</code>, or a file of the same form, so that a new or changed reward only
+ * needs that file updating:
+ * <dl>
+ * <dt>minion.<i>FLAG</i></dt>
+ * <dd>Comma-separated names of the minions, any of which sets the flag.</dd>
+ * <dt>mount.<i>FLAG</i></dt>
+ * <dd>Comma-separated names of the mounts, any of which sets the flag.</dd>
+ * </dl>
+ * The rules are compiled against the {@link CollectibleDictionary} into a table of the flags set by each collectible's index, so that
+ * every flag is evaluated in a single pass over the player's collections, however many rules there are. The table is rebuilt whenever
+ * the dictionary learns a new name.
+ *
+ * @author matthew.hillier
+ */
+public class OwnershipRules {
+
+    public static final String DEFAULT_RESOURCE = "/ownership-rules.properties";
+    private static final int[] NO_FLAGS = new int[0];
+    private static final int FLAG_COUNT = OwnershipFlag.values().length;
+
+    /** Flags set by each collectible, by name. */
+    private final Map<CollectibleType, Map<String, int[]>> flagsByName = new EnumMap<>(CollectibleType.class);
+    /** Flags with at least one rule, which are the only flags set on each player. */
+    private final OwnershipFlag[] ruledFlags;
+    private volatile Compiled compiled;
+
+    /**
+     * Creates the rules held in {@link #DEFAULT_RESOURCE}.
+     */
+    public OwnershipRules() {
+        this(loadResource(DEFAULT_RESOURCE));
+    }
+
+    /**
+     * Creates the rules held in the given properties.
+     *
+     * @param properties Rules, as described above.
+     * @throws IllegalArgumentException if the properties refer to an unknown flag or type of collectible.
+     */
+    public OwnershipRules(final Properties properties) {
+        Map<CollectibleType, Map<String, List<OwnershipFlag>>> rules = new EnumMap<>(CollectibleType.class);
+        EnumSet<OwnershipFlag> flags = EnumSet.noneOf(OwnershipFlag.class);
+        for(String key : properties.stringPropertyNames()) {
+            int separator = key.indexOf('.');
+            if(separator < 0) {
+                throw new IllegalArgumentException("Ownership rule '" + key + "' should be of the form <type>.<FLAG>");
+            }
+            CollectibleType type = CollectibleType.valueOf(key.substring(0, separator).toUpperCase(Locale.ROOT));
+            OwnershipFlag flag = OwnershipFlag.valueOf(key.substring(separator + 1));
+            for(String name : properties.getProperty(key).split(",")) {
+                if(!name.trim().isEmpty()) {
+                    rules.computeIfAbsent(type, t -> new LinkedHashMap<>()).computeIfAbsent(name.trim(), n -> new ArrayList<>()).add(flag);
+                }
+            }
+            flags.add(flag);
+        }
+
+        rules.forEach((type, names) -> {
+            Map<String, int[]> typeFlags = new LinkedHashMap<>();
+            names.forEach((name, nameFlags) -> typeFlags.put(name, nameFlags.stream().mapToInt(OwnershipFlag::ordinal).distinct().toArray()));
+            flagsByName.put(type, typeFlags);
+        });
+        ruledFlags = flags.toArray(new OwnershipFlag[flags.size()]);
+    }
+
+    /**
+     * Creates the rules held in the given file.
+     *
+     * @param file Properties file holding the rules, as described above.
+     * @return the rules.
+     * @throws IOException if the file cannot be read.
+     */
+    public static OwnershipRules load(final Path file) throws IOException {
+        Properties properties = new Properties();
+        try(InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        return new OwnershipRules(properties);
+    }
+
+    /**
+     * Sets every flag that has a rule against the player, from the player's sets of mounts & minions.
+     *
+     * @param player Player to update.
+     * @param dictionary Dictionary the player's sets of mounts & minions are indexed by.
+     */
+    public void apply(final PlayerBean player, final CollectibleDictionary dictionary) {
+        Compiled table = compile(dictionary);
+        boolean[] owned = new boolean[FLAG_COUNT];
+        table.mark(CollectibleType.MINION, player.getMinionSet(), owned);
+        table.mark(CollectibleType.MOUNT, player.getMountSet(), owned);
+        for(OwnershipFlag flag : ruledFlags) {
+            flag.set(player, owned[flag.ordinal()]);
+        }
+    }
+
+    private Compiled compile(final CollectibleDictionary dictionary) {
+        Compiled table = compiled;
+        // Read the generation before reading any names, so that a name added part-way through triggers another rebuild
+        int generation = dictionary.getGeneration();
+        if(table == null || table.dictionary != dictionary || table.generation != generation) {
+            table = new Compiled(dictionary, generation);
+            compiled = table;
+        }
+        return table;
+    }
+
+    /**
+     * Table of the flags set by each collectible, by its index in a given generation of a dictionary.
+     */
+    private final class Compiled {
+        private final CollectibleDictionary dictionary;
+        private final int generation;
+        private final Map<CollectibleType, int[][]> flagsByIndex = new EnumMap<>(CollectibleType.class);
+
+        private Compiled(final CollectibleDictionary dictionary, final int generation) {
+            this.dictionary = dictionary;
+            this.generation = generation;
+            flagsByName.forEach((type, names) -> {
+                int[][] table = new int[dictionary.size(type)][];
+                names.forEach((name, flags) -> {
+                    int index = dictionary.getIndexOfName(type, name);
+                    if(index >= 0 && index < table.length) {
+                        table[index] = table[index] == null ? flags : merge(table[index], flags);
+                    }
+                });
+                flagsByIndex.put(type, table);
+            });
+        }
+
+        private void mark(final CollectibleType type, final BitSet collection, final boolean[] owned) {
+            int[][] table = flagsByIndex.get(type);
+            if(table == null) {
+                return;
+            }
+            for(int index = collection.nextSetBit(0); index >= 0 && index < table.length; index = collection.nextSetBit(index + 1)) {
+                for(int flag : table[index] != null ? table[index] : NO_FLAGS) {
+                    owned[flag] = true;
+                }
+            }
+        }
+    }
+
+    private static int[] merge(final int[] first, final int[] second) {
+        BitSet flags = new BitSet();
+        for(int flag : first) {
+            flags.set(flag);
+        }
+        for(int flag : second) {
+            flags.set(flag);
+        }
+        return flags.stream().toArray();
+    }
+
+    private static Properties loadResource(final String resource) {
+        Properties properties = new Properties();
+        try(InputStream in = OwnershipRules.class.getResourceAsStream(resource)) {
+            if(in == null) {
+                throw new IllegalStateException("Ownership rules not found at " + resource);
+            }
+            properties.load(in);
+        } catch(IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+        return properties;
+    }
+
+}
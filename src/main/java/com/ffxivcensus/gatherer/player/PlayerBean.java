@@ -1,11 +1,10 @@
 package com.ffxivcensus.gatherer.player;
 
-import com.ffxivcensus.gatherer.util.StringListConverter;
+import com.ffxivcensus.gatherer.util.BitSetConverter;
 
 import javax.persistence.*;
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Date;
-import java.util.List;
 
 /**
  * Object class to represent a Character/Player. This class specifies the attributes and behaviour of a player object.
@@ -150,18 +149,22 @@ public class PlayerBean {
     private boolean hasCompleted3pt3;
     @Column(name = "legacy_player")
     private boolean isLegacyPlayer;
-    @Column(name = "minions")
-    @Convert(converter = StringListConverter.class)
-    private List<String> minions = new ArrayList<>();
-    @Column(name = "mounts")
-    @Convert(converter = StringListConverter.class)
-    private List<String> mounts = new ArrayList<>();
+    @Column(name = "minion_set")
+    @Convert(converter = BitSetConverter.class)
+    private BitSet minionSet = new BitSet();
+    @Column(name = "mount_set")
+    @Convert(converter = BitSetConverter.class)
+    private BitSet mountSet = new BitSet();
     @Column(name = "date_active")
     private Date dateImgLastModified;
     @Column(name = "is_active")
     private boolean isActive;
     @Enumerated(EnumType.STRING)
     private CharacterStatus characterStatus = CharacterStatus.ACTIVE;
+    @Column(name = "page_last_modified")
+    private String pageLastModified;
+    @Column(name = "page_etag")
+    private String pageETag;
 
     public PlayerBean() {
     }
@@ -854,20 +857,26 @@ public class PlayerBean {
         this.isLegacyPlayer = isLegacyPlayer;
     }
 
-    public List<String> getMinions() {
-        return minions;
+    /**
+     * @return the player's minions, as the set of their indexes in the collectible dictionary.
+     */
+    public BitSet getMinionSet() {
+        return minionSet;
     }
 
-    public void setMinions(final List<String> minions) {
-        this.minions = minions;
+    public void setMinionSet(final BitSet minionSet) {
+        this.minionSet = minionSet;
     }
 
-    public List<String> getMounts() {
-        return mounts;
+    /**
+     * @return the player's mounts, as the set of their indexes in the collectible dictionary.
+     */
+    public BitSet getMountSet() {
+        return mountSet;
     }
 
-    public void setMounts(final List<String> mounts) {
-        this.mounts = mounts;
+    public void setMountSet(final BitSet mountSet) {
+        this.mountSet = mountSet;
     }
 
     public Date getDateImgLastModified() {
@@ -893,4 +902,20 @@ public class PlayerBean {
     public void setCharacterStatus(final CharacterStatus characterStatus) {
         this.characterStatus = characterStatus;
     }
+
+    public String getPageLastModified() {
+        return pageLastModified;
+    }
+
+    public void setPageLastModified(final String pageLastModified) {
+        this.pageLastModified = pageLastModified;
+    }
+
+    public String getPageETag() {
+        return pageETag;
+    }
+
+    public void setPageETag(final String pageETag) {
+        this.pageETag = pageETag;
+    }
 }
@@ -0,0 +1,129 @@
+package com.ffxivcensus.gatherer.player;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+
+/**
+ * Columns of the {@link PlayerBean} table, as mapped by JPA, for writing players with plain JDBC.
+ * <p>
+ * The columns are read once from the entity's mapping annotations, naming each column as Spring Boot's default naming strategy does
+ * where no name is given, and applying any attribute converter, so that a player is written exactly as JPA would write it.
+ *
+ * @author matthew.hillier
+ */
+final class PlayerBeanColumns {
+
+    private final String table;
+    private final String[] names;
+    private final Field[] fields;
+    private final AttributeConverter<Object, Object>[] converters;
+    private final int idColumn;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    PlayerBeanColumns() {
+        table = PlayerBean.class.getAnnotation(Table.class).name();
+        List<String> columnNames = new ArrayList<>();
+        List<Field> columnFields = new ArrayList<>();
+        List<AttributeConverter<Object, Object>> columnConverters = new ArrayList<>();
+        int id = -1;
+        for(Field field : PlayerBean.class.getDeclaredFields()) {
+            if(Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())
+               || field.isAnnotationPresent(Transient.class)) {
+                continue;
+            }
+            field.setAccessible(true);
+            Column column = field.getAnnotation(Column.class);
+            columnNames.add(column != null && !column.name().isEmpty() ? column.name() : getPhysicalName(field.getName()));
+            columnFields.add(field);
+            Convert convert = field.getAnnotation(Convert.class);
+            try {
+                columnConverters.add(convert != null ? (AttributeConverter<Object, Object>) convert.converter().newInstance() : null);
+            } catch(InstantiationException | IllegalAccessException e) {
+                throw new IllegalStateException("Unable to create converter for " + field.getName(), e);
+            }
+            if(field.isAnnotationPresent(Id.class)) {
+                id = columnFields.size() - 1;
+            }
+        }
+        names = columnNames.toArray(new String[columnNames.size()]);
+        fields = columnFields.toArray(new Field[columnFields.size()]);
+        converters = columnConverters.toArray(new AttributeConverter[columnConverters.size()]);
+        idColumn = id;
+    }
+
+    /**
+     * @return the name of the table.
+     */
+    String getTable() {
+        return table;
+    }
+
+    /**
+     * @return the names of each column.
+     */
+    String[] getNames() {
+        return names.clone();
+    }
+
+    /**
+     * @return the position of the ID amongst the columns.
+     */
+    int getIdColumn() {
+        return idColumn;
+    }
+
+    /**
+     * Gets the value of each column for the given player, converted as JPA would convert it.
+     *
+     * @param player Player to read.
+     * @return the value of each column, in the same order as {@link #getNames()}.
+     */
+    Object[] getValues(final PlayerBean player) {
+        Object[] values = new Object[fields.length];
+        for(int i = 0; i < fields.length; i++) {
+            Object value;
+            try {
+                value = fields[i].get(player);
+            } catch(IllegalAccessException iae) {
+                throw new IllegalStateException("Unable to read " + fields[i].getName(), iae);
+            }
+            if(converters[i] != null) {
+                value = converters[i].convertToDatabaseColumn(value);
+            } else if(value instanceof Enum && fields[i].isAnnotationPresent(Enumerated.class)) {
+                value = ((Enum<?>) value).name();
+            } else if(value instanceof Date) {
+                value = new Timestamp(((Date) value).getTime());
+            }
+            values[i] = value;
+        }
+        return values;
+    }
+
+    /**
+     * Names a column from its field, in the same way as Spring Boot's default physical naming strategy.
+     */
+    static String getPhysicalName(final String fieldName) {
+        StringBuilder name = new StringBuilder(fieldName.replace('.', '_'));
+        for(int i = 1; i < name.length() - 1; i++) {
+            if(Character.isLowerCase(name.charAt(i - 1)) && Character.isUpperCase(name.charAt(i))
+               && Character.isLowerCase(name.charAt(i + 1))) {
+                name.insert(i++, '_');
+            }
+        }
+        return name.toString().toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -1,6 +1,9 @@
 package com.ffxivcensus.gatherer.player;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,10 +30,25 @@ public interface PlayerBeanRepository extends CrudRepository<PlayerBean, Integer
     PlayerBean findTopByCharacterStatusNotOrderByIdDesc(final CharacterStatus characterStatus);
 
     /**
-     * Method to trim all deleted characters from the top-end of the database.
+     * Finds the ID & status of every character between the given IDs, without loading the rest of each character.
+     *
+     * @param firstId First ID to find.
+     * @param lastId Last ID to find, inclusive.
+     * @return a pair of ID & {@link CharacterStatus} for each character found.
+     */
+    @Query("SELECT p.id, p.characterStatus FROM PlayerBean p WHERE p.id BETWEEN ?1 AND ?2")
+    List<Object[]> findStatusesByIdBetween(final int firstId, final int lastId);
+
+    /**
+     * Method to trim a range of deleted characters from the top-end of the database, with a single bulk delete.
      * Used to ensure enable re-parsing of new characters where the gatherer overruns at the top-end of the ID numbers.
+     *
+     * @param afterId ID above which to delete characters.
+     * @param upToId Last ID to delete, inclusive.
+     * @return the number of characters deleted.
      */
     @Modifying
     @Transactional
-    void deleteByIdGreaterThan(final Integer lastKnownId);
+    @Query("DELETE FROM PlayerBean p WHERE p.id > ?1 AND p.id <= ?2")
+    int deleteByIdRange(final int afterId, final int upToId);
 }
@@ -0,0 +1,367 @@
+package com.ffxivcensus.gatherer.player;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-behind buffer for saving players, writing them to the database in batches rather than one at a time.
+ * <p>
+ * Players are queued by the gatherers and written by a single background thread, once either a full batch has been queued or the
+ * oldest player in the batch has waited for the flush interval. Each batch is written in a single transaction using JDBC batching, with
+ * new players inserted and previously gathered players updated, so that no merge select is needed. Any player updated that turns out to
+ * have no row, for example because it was trimmed since being loaded, is inserted instead. Where the JDBC driver has been set to
+ * rewrite batched statements, each batch of inserts is sent as a single multi-row insert. Where an {@link UpsertDialect} is given, every
+ * player is instead written with the database's native upsert, so that whether the player is new does not need to be known.
+ * <p>
+ * With a batch size of zero, nothing is queued and each player is written on the calling thread as a batch of one, which still avoids
+ * the select and dirty checking made by saving through the repository.
+ * <p>
+ * The queue is bounded, so that gatherers block when the database falls behind rather than build an unbounded backlog. Where a batch
+ * fails, each player in it is saved individually through the {@link PlayerBeanRepository}, so that one bad row does not lose the rest.
+ * Anything that must only happen once a player is in the database can be given as a callback when it is written, which is run once its
+ * batch has committed, or it has been saved individually.
+ *
+ * @author matthew.hillier
+ */
+public class PlayerBeanWriter implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PlayerBeanWriter.class);
+    /**
+     * Number of batches that may be queued, in addition to the batch being written.
+     */
+    private static final int QUEUED_BATCHES = 4;
+    private static final long CLOSE_TIMEOUT_SECONDS = 60;
+    private static final long POLL_MILLIS = 100;
+    private static final PlayerBeanColumns COLUMNS = new PlayerBeanColumns();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PlayerBeanRepository playerRepository;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final BlockingQueue<PendingWrite> queue;
+    private final String insertSql;
+    private final String updateSql;
+    private final String upsertSql;
+    private final Object pendingLock = new Object();
+    /** Number of players queued or being written, guarded by pendingLock. */
+    private long pending;
+    private volatile boolean closed;
+    private Thread flusher;
+
+    /**
+     * Creates a new writer.
+     *
+     * @param dataSource Data source to write players to.
+     * @param playerRepository Repository to save players through individually, where a batch fails.
+     * @param batchSize Maximum number of players to write in each batch, or zero to write each player on the calling thread.
+     * @param flushIntervalMillis Maximum time a player may wait for its batch to fill before it is written.
+     */
+    public PlayerBeanWriter(final DataSource dataSource, final PlayerBeanRepository playerRepository, final int batchSize,
+                            final long flushIntervalMillis) {
+        this(dataSource, playerRepository, batchSize, flushIntervalMillis, null);
+    }
+
+    /**
+     * Creates a new writer, writing players with the given dialect's native upsert.
+     *
+     * @param dataSource Data source to write players to.
+     * @param playerRepository Repository to save players through individually, where a batch fails.
+     * @param batchSize Maximum number of players to write in each batch, or zero to write each player on the calling thread.
+     * @param flushIntervalMillis Maximum time a player may wait for its batch to fill before it is written.
+     * @param dialect Dialect of the database, or null to insert new players and update existing players separately.
+     */
+    public PlayerBeanWriter(final DataSource dataSource, final PlayerBeanRepository playerRepository, final int batchSize,
+                            final long flushIntervalMillis, final UpsertDialect dialect) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.playerRepository = playerRepository;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, batchSize) * QUEUED_BATCHES);
+
+        String[] names = COLUMNS.getNames();
+        StringBuilder insert = new StringBuilder("INSERT INTO ").append(COLUMNS.getTable()).append(" (");
+        StringBuilder values = new StringBuilder();
+        StringBuilder update = new StringBuilder("UPDATE ").append(COLUMNS.getTable()).append(" SET ");
+        String updateSeparator = "";
+        for(int i = 0; i < names.length; i++) {
+            insert.append(i > 0 ? ", " : "").append(names[i]);
+            values.append(i > 0 ? ", ?" : "?");
+            if(i != COLUMNS.getIdColumn()) {
+                update.append(updateSeparator).append(names[i]).append(" = ?");
+                updateSeparator = ", ";
+            }
+        }
+        insertSql = insert.append(") VALUES (").append(values).append(")").toString();
+        updateSql = update.append(" WHERE ").append(names[COLUMNS.getIdColumn()]).append(" = ?").toString();
+        upsertSql = dialect != null ? dialect.getSql(COLUMNS.getTable(), names, COLUMNS.getIdColumn()) : null;
+    }
+
+    /**
+     * Queues the player to be written, blocking while the queue is full. Where the batch size is zero, the player is instead written
+     * before returning.
+     *
+     * @param player Player to write.
+     * @param existing Whether the player has been saved before, and so should be updated rather than inserted.
+     * @throws InterruptedException if interrupted while waiting for space in the queue.
+     * @throws IllegalStateException if the writer has been closed.
+     */
+    public void write(final PlayerBean player, final boolean existing) throws InterruptedException {
+        write(player, existing, null);
+    }
+
+    /**
+     * Queues the player to be written, blocking while the queue is full, and runs the callback once the player has been written. Where
+     * the batch size is zero, the player is instead written before returning. The callback is not run if the player cannot be written.
+     *
+     * @param player Player to write.
+     * @param existing Whether the player has been saved before, and so should be updated rather than inserted.
+     * @param onWritten Callback to run once the player has been committed to the database, on the thread that wrote it, or null.
+     * @throws InterruptedException if interrupted while waiting for space in the queue.
+     * @throws IllegalStateException if the writer has been closed.
+     */
+    public void write(final PlayerBean player, final boolean existing, final Runnable onWritten) throws InterruptedException {
+        if(closed) {
+            throw new IllegalStateException("Unable to write player " + player.getId() + " as the writer has been closed");
+        }
+        if(batchSize == 0) {
+            writeBatch(Collections.singletonList(new PendingWrite(player, existing, onWritten)));
+            return;
+        }
+        startFlusher();
+        synchronized(pendingLock) {
+            pending++;
+        }
+        try {
+            queue.put(new PendingWrite(player, existing, onWritten));
+        } catch(InterruptedException ie) {
+            written(1);
+            throw ie;
+        }
+    }
+
+    /**
+     * Waits for every player queued so far to be written.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void flush() throws InterruptedException {
+        synchronized(pendingLock) {
+            while(pending > 0) {
+                pendingLock.wait();
+            }
+        }
+    }
+
+    /**
+     * Writes every player still queued, and stops the background thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread thread;
+        synchronized(this) {
+            thread = flusher;
+        }
+        if(thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT_SECONDS));
+                if(thread.isAlive()) {
+                    LOG.warn("Timed out waiting for " + queue.size() + " queued players to be written");
+                }
+            } catch(InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized void startFlusher() {
+        if(flusher == null) {
+            flusher = new Thread(this::runFlusher, "player-writer");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    private void runFlusher() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while(!closed || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch(InterruptedException ie) {
+                // Only closing the writer should stop the flusher, so write whatever has been collected and carry on
+                LOG.warn("Player writer interrupted, continuing until closed");
+            }
+            try {
+                writeBatch(batch);
+            } finally {
+                written(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Collects players into the batch until it is full, or the first player collected has waited for the flush interval. Waits in short
+     * slices, so that a batch is cut short as soon as the writer is closed.
+     */
+    private void collect(final List<PendingWrite> batch) throws InterruptedException {
+        long deadline = Long.MAX_VALUE;
+        while(batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long now = System.currentTimeMillis();
+            if(!batch.isEmpty() && deadline == Long.MAX_VALUE) {
+                deadline = now + flushIntervalMillis;
+            }
+            if(batch.size() >= batchSize || now >= deadline || closed) {
+                return;
+            }
+            PendingWrite next = queue.poll(Math.min(deadline - now, POLL_MILLIS), TimeUnit.MILLISECONDS);
+            if(next != null) {
+                batch.add(next);
+            }
+        }
+    }
+
+    /**
+     * Writes a batch of players in a single transaction, falling back to saving each individually if the batch fails.
+     */
+    void writeBatch(final List<PendingWrite> batch) {
+        if(batch.isEmpty()) {
+            return;
+        }
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> updatedValues = new ArrayList<>();
+        for(PendingWrite write : batch) {
+            Object[] values = COLUMNS.getValues(write.player);
+            if(upsertSql != null) {
+                inserts.add(values);
+            } else if(write.existing) {
+                updates.add(toUpdateValues(values));
+                updatedValues.add(values);
+            } else {
+                inserts.add(values);
+            }
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                if(!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(upsertSql != null ? upsertSql : insertSql, inserts);
+                }
+                if(!updates.isEmpty()) {
+                    insertMissing(jdbcTemplate.batchUpdate(updateSql, updates), updatedValues);
+                }
+                return null;
+            });
+            LOG.debug("Wrote batch of {} players", batch.size());
+        } catch(RuntimeException re) {
+            LOG.warn("Unable to write batch of " + batch.size() + " players, saving each individually: " + re.getMessage());
+            for(PendingWrite write : batch) {
+                try {
+                    playerRepository.save(write.player);
+                } catch(RuntimeException e) {
+                    LOG.error("Unable to save player " + write.player.getId() + ": " + e.getMessage(), e);
+                    continue;
+                }
+                notifyWritten(write);
+            }
+            return;
+        }
+        for(PendingWrite write : batch) {
+            notifyWritten(write);
+        }
+    }
+
+    /**
+     * Inserts each player whose update matched no row, as when a player thought to exist has since been deleted from the database.
+     * Drivers that do not report the count of each statement in a batch report {@link java.sql.Statement#SUCCESS_NO_INFO}, which is taken
+     * as a successful update.
+     */
+    private void insertMissing(final int[] updateCounts, final List<Object[]> updatedValues) {
+        List<Object[]> missing = new ArrayList<>();
+        for(int i = 0; i < updateCounts.length && i < updatedValues.size(); i++) {
+            if(updateCounts[i] == 0) {
+                missing.add(updatedValues.get(i));
+            }
+        }
+        if(!missing.isEmpty()) {
+            LOG.debug("Inserting {} players that were expected to exist", missing.size());
+            jdbcTemplate.batchUpdate(insertSql, missing);
+        }
+    }
+
+    private static void notifyWritten(final PendingWrite write) {
+        if(write.onWritten == null) {
+            return;
+        }
+        try {
+            write.onWritten.run();
+        } catch(RuntimeException re) {
+            LOG.error("Error after writing player " + write.player.getId() + ": " + re.getMessage(), re);
+        }
+    }
+
+    /**
+     * Moves the ID from its position amongst the columns to the end, to match the <code>WHERE</code> clause of the update.
+     */
+    private static Object[] toUpdateValues(final Object[] values) {
+        int id = COLUMNS.getIdColumn();
+        Object[] update = new Object[values.length];
+        System.arraycopy(values, 0, update, 0, id);
+        System.arraycopy(values, id + 1, update, id, values.length - id - 1);
+        update[values.length - 1] = values[id];
+        return update;
+    }
+
+    private void written(final int count) {
+        synchronized(pendingLock) {
+            pending -= count;
+            if(pending <= 0) {
+                pendingLock.notifyAll();
+            }
+        }
+    }
+
+    String getInsertSql() {
+        return insertSql;
+    }
+
+    String getUpdateSql() {
+        return updateSql;
+    }
+
+    String getUpsertSql() {
+        return upsertSql;
+    }
+
+    /**
+     * Player waiting to be written.
+     */
+    static final class PendingWrite {
+        private final PlayerBean player;
+        private final boolean existing;
+        private final Runnable onWritten;
+
+        PendingWrite(final PlayerBean player, final boolean existing, final Runnable onWritten) {
+            this.player = player;
+            this.existing = existing;
+            this.onWritten = onWritten;
+        }
+    }
+
+}
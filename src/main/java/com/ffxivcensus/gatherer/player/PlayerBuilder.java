@@ -1,31 +1,50 @@
 package com.ffxivcensus.gatherer.player;
 
+import com.ffxivcensus.gatherer.config.ApplicationConfig;
+import com.ffxivcensus.gatherer.edb.CollectibleBean;
+import com.ffxivcensus.gatherer.edb.CollectibleDictionary;
+import com.ffxivcensus.gatherer.edb.CollectibleType;
 import com.ffxivcensus.gatherer.edb.EorzeaDatabaseCache;
+import com.ffxivcensus.gatherer.lodestone.AsyncLodestonePageLoader;
+import com.ffxivcensus.gatherer.lodestone.ExecutorAsyncLodestonePageLoader;
 import com.ffxivcensus.gatherer.lodestone.FetchYieldedPageNotFoundException;
+import com.ffxivcensus.gatherer.lodestone.FetchYieldedPageNotModifiedException;
+import com.ffxivcensus.gatherer.lodestone.LodestoneHttpClient;
 import com.ffxivcensus.gatherer.lodestone.LodestonePageLoader;
+import com.ffxivcensus.gatherer.lodestone.LodestoneResponse;
+import com.ffxivcensus.gatherer.lodestone.PageValidators;
 import com.ffxivcensus.gatherer.lodestone.ProductionLodestonePageLoader;
+import com.ffxivcensus.gatherer.parser.CharacterPageExtractor;
+import com.ffxivcensus.gatherer.parser.ClassJobLevels;
+import com.ffxivcensus.gatherer.parser.CharacterProfile;
+import com.ffxivcensus.gatherer.parser.JsoupCharacterPageExtractor;
+import com.ffxivcensus.gatherer.parser.StreamingCharacterPageExtractor;
 import com.ffxivcensus.gatherer.task.GathererTask;
-import com.mashape.unirest.http.HttpResponse;
-import com.mashape.unirest.http.JsonNode;
-import com.mashape.unirest.http.Unirest;
-import org.apache.commons.lang.StringUtils;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.utils.DateUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 /**
  * Builder class for creating PlayerBean objects from the Lodestone.
@@ -39,20 +58,11 @@ import java.util.regex.Pattern;
 public class PlayerBuilder {
 
     private static final String HEADER_LAST_MODIFIED = "Last-Modified";
-    private static final String ATTR_SRC = "src";
-    private static final String TAG_IMG = "img";
-    private static final String TAG_A = "a";
-    private static final String LAYOUT_CHARACTER_DETAIL_IMAGE = "character__detail__image";
-    private static final String LAYOUT_CHARACTER_MOUNTS = "character__mounts";
-    private static final String TAG_LI = "li";
-    private static final String LAYOUT_CHARACTER_MINION = "character__minion";
-    private static final String LAYOUT_CHARACTER_JOB_LEVEL = "character__job__level";
-    private static final String LAYOUT_CHARACTER_FREECOMPANY_NAME = "character__freecompany__name";
-    private static final String LAYOUT_CHARACTER_BLOCK_BOX = "character-block__box";
-    private static final String LAYOUT_FRAME_CHARA_WORLD = "frame__chara__world";
-    private static final String LAYOUT_CHARACTER_BLOCK_NAME = "character-block__name";
-    private static final String LAYOUT_CHARACTER_BLOCK_TITLE = "character-block__title";
-	private static final String LAYOUT_CHARACTER_TAB = "character__profile_tab";
+    private static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+    /**
+     * Last-modified date to assume where the profile image cannot be loaded - the launch of A Realm Reborn
+     */
+    private static final String DEFAULT_LAST_MODIFIED = "Sat, 24 Aug 2013 00:00:01 GMT";
     private static final Logger LOG = LoggerFactory.getLogger(PlayerBuilder.class);
     /**
      * Number of days inactivity before character is considered inactive
@@ -60,121 +70,61 @@ public class PlayerBuilder {
     private static final int ACTIVITY_RANGE_DAYS = 30;
 
     private static final long ONE_DAY_IN_MILLIS = 86400000;
+    private static final JobLayoutRegistry JOB_LAYOUTS = new JobLayoutRegistry();
+    private static final OwnershipRules DEFAULT_OWNERSHIP_RULES = new OwnershipRules();
 
     private LodestonePageLoader pageLoader = new ProductionLodestonePageLoader();
+    private AsyncLodestonePageLoader asyncPageLoader;
+    private LodestoneHttpClient httpClient;
     private EorzeaDatabaseCache edbCache;
+    private CollectibleDictionary collectibleDictionary = new CollectibleDictionary();
+    private CharacterPageExtractor pageExtractor = new JsoupCharacterPageExtractor();
+    private boolean parallelFetch;
+    private JobLayout jobLayout = JOB_LAYOUTS.getDefaultLayout();
+    private OwnershipRules ownershipRules = DEFAULT_OWNERSHIP_RULES;
+    private boolean backgroundNameLookups;
+    /** Executor resolving collectibles for pages loaded asynchronously, as a collectible not seen before is saved to the database. */
+    private ExecutorService resolveExecutor;
+    /** IDs of the players built while any of their collectibles was still unnamed, guarded by its own lock. */
+    private final BitSet playersAwaitingNames = new BitSet();
 
     /**
-     * Set player class levels.
-     * As of 6.0, this is now parsed in the order:
-     * - Gladiator
-     * - Marauder
-     * - Dark Knight
-     * - Gunbreaker
-     * - White Mage
-     * - Scholar
-     * - Astrologian
-     * - Sage
-     * - Monk
-     * - Dragoon
-     * - Ninja
-     * - Samurai
-     * - Reaper
-     * - Bard
-     * - Machinist
-     * - Dancer
-     * - Black Mage
-     * - Summoner
-     * - Red Mage
-     * - Blue Mage
-     * - Carpenter
-     * - Blacksmith
-     * - Armorer
-     * - Goldsmith
-     * - Leatherworker
-     * - Weaver
-     * - Alchemist
-     * - Culinarian
-     * - Miner
-     * - Botanist
-     * - Fisher
-     *
-     * @param arrLevels integer array of classes in order displayed on lodestone.
-     */
-    public void setLevels(final PlayerBean player, final int[] arrLevels) {
-        // Row 1, Col 1
-        player.setLevelGladiator(arrLevels[0]);
-        player.setLevelMarauder(arrLevels[1]);
-        player.setLevelDarkknight(arrLevels[2]);
-        player.setLevelGunbreaker(arrLevels[3]);
-        // Row 1, Col 2
-        player.setLevelConjurer(arrLevels[4]);
-        player.setLevelScholar(arrLevels[5]);
-        player.setLevelAstrologian(arrLevels[6]);
-        player.setLevelSage(arrLevels[7]);
-        // Row 2, Col 1
-        player.setLevelPugilist(arrLevels[8]);
-        player.setLevelLancer(arrLevels[9]);
-        player.setLevelRogue(arrLevels[10]);
-        player.setLevelSamurai(arrLevels[11]);
-        player.setLevelReaper(arrLevels[12]);
-        // Row 2, Col 2
-        player.setLevelArcher(arrLevels[13]);
-        player.setLevelMachinist(arrLevels[14]);
-        player.setLevelDancer(arrLevels[15]);
-        player.setLevelThaumaturge(arrLevels[16]);
-        player.setLevelArcanist(arrLevels[17]);
-        player.setLevelRedmage(arrLevels[18]);
-        player.setLevelBluemage(arrLevels[19]);
-        // Row 3, Col 1
-        player.setLevelCarpenter(arrLevels[20]);
-        player.setLevelBlacksmith(arrLevels[21]);
-        player.setLevelArmorer(arrLevels[22]);
-        player.setLevelGoldsmith(arrLevels[23]);
-        player.setLevelLeatherworker(arrLevels[24]);
-        player.setLevelWeaver(arrLevels[25]);
-        player.setLevelAlchemist(arrLevels[26]);
-        player.setLevelCulinarian(arrLevels[27]);
-        // Row 3, Col 2
-        player.setLevelMiner(arrLevels[28]);
-        player.setLevelBotanist(arrLevels[29]);
-        player.setLevelFisher(arrLevels[30]);
-        // TODO: Figure out a better way to parse Resistance & Elemental levels. As they're optional, segments we cannot rely on their exact position in the array
-        // Resistance Rank is an optional component at the end of the section, so may not exist
-        if(arrLevels.length > 32) {
-            player.setLevelBozja(arrLevels[31]);
-        }
-        // Elemental Level is an optional component at the end of the section, so may not exist
-        if(arrLevels.length > 32) {
-            player.setLevelEureka(arrLevels[32]);
-        }
+     * Set player class levels, matching each level found on the lodestone class/job page to its job using the configured
+     * {@link JobLayout}.
+     *
+     * @param player the player to update.
+     * @param levels the levels found on the lodestone class/job page.
+     */
+    public void setLevels(final PlayerBean player, final ClassJobLevels levels) {
+        jobLayout.apply(player, levels);
     }
 
     /**
-     * Determine if a player has a specified mount
+     * Determine if a player has a specified mount, by checking the mount's bit in the player's set of mounts.
      *
      * @param mountName the name of the mount to check for.
      * @return whether the player has the specified mount.
      */
     public boolean doesPlayerHaveMount(final PlayerBean player, final String mountName) {
-        return player.getMounts().contains(mountName);
+        int index = collectibleDictionary.getIndexOfName(CollectibleType.MOUNT, mountName);
+        return index >= 0 && player.getMountSet().get(index);
     }
 
     /**
-     * Determine if a player has a specified minion.
+     * Determine if a player has a specified minion, by checking the minion's bit in the player's set of minions.
      *
      * @param minionName the name of the minion to check for
      * @return whether the player has the specified minion.
      */
     public boolean doesPlayerHaveMinion(final PlayerBean player, final String minionName) {
-        return player.getMinions().contains(minionName);
+        int index = collectibleDictionary.getIndexOfName(CollectibleType.MINION, minionName);
+        return index >= 0 && player.getMinionSet().get(index);
     }
 
     /**
      * Fetch a player from the lodestone specified by ID.
      *
      * @param playerID the ID of the player to fetch
-     * @param attempt the number of times this character has been attempted.
      * @return the player object matching the specified ID.
      * @throws Exception exception thrown if more class levels returned than anticipated.
      */
@@ -184,377 +134,591 @@ public class PlayerBuilder {
         player.setId(playerID);
         // Declare HTML document
         try {
-            Document doc = pageLoader.getCharacterPage(playerID);
-
-            player.setPlayerName(getNameFromPage(doc));
-            player.setRealm(getRealmFromPage(doc));
-            player.setRace(getRaceFromPage(doc));
-            player.setGender(getGenderFromPage(doc));
-            player.setGrandCompany(getGrandCompanyFromPage(doc));
-            player.setGrandCompanyRank(getGrandCompanyRankFromPage(doc));
-            player.setFreeCompany(getFreeCompanyFromPage(doc));
-            player.setDateImgLastModified(getDateLastUpdatedFromPage(doc, playerID));
-
-            Document classJobDoc = pageLoader.getClassJobPage(playerID);
-            setLevels(player, getLevelsFromPage(classJobDoc));
-
-			if (isPlayerTabDisabled(doc, "Mounts")) {
-				player.setMounts(new ArrayList<>());
+            CharacterProfile profile = pageExtractor.extractProfile(pageLoader.getCharacterPageSource(playerID));
+            setPlayerFromPages(player, profile);
+        } catch(FetchYieldedPageNotFoundException plfe) {
+            player.setCharacterStatus(CharacterStatus.DELETED);
+        }
+        return player;
+    }
+
+    /**
+     * Re-fetch a player previously fetched from the lodestone, skipping as much of the work as possible where they have not changed.
+     * The profile page is requested conditionally, and the full body image probed, against what was seen when the player was last
+     * fetched. Where the profile page has not changed, only whether the player is still considered active is updated. Where only the
+     * image has not changed, the details on the profile page are updated, but the class/job, mount and minion pages are not loaded.
+     *
+     * @param existing the player as previously fetched.
+     * @return the existing player updated where unchanged, otherwise a newly fetched player object.
+     */
+    public PlayerBean refreshPlayer(final PlayerBean existing) throws IOException, InterruptedException {
+        final int playerID = existing.getId();
+        PageValidators validators = new PageValidators(existing.getPageLastModified(), existing.getPageETag());
+        PlayerBean player = new PlayerBean();
+        player.setId(playerID);
+        try {
+            CharacterProfile profile = pageExtractor.extractProfile(pageLoader.getCharacterPageSource(playerID, validators));
+            if(existing.getDateImgLastModified() != null
+               && !isImageModifiedSince(profile.getImageUrl(), existing.getDateImgLastModified(), playerID)) {
+                LOG.debug("Character {} has not changed since last gathered", playerID);
+                setProfile(existing, profile);
+                existing.setPageLastModified(validators.getLastModified());
+                existing.setPageETag(validators.getETag());
+                return refreshActivity(existing);
+            }
+            player.setPageLastModified(validators.getLastModified());
+            player.setPageETag(validators.getETag());
+            setPlayerFromPages(player, profile);
+        } catch(FetchYieldedPageNotModifiedException pnme) {
+            LOG.debug("Character {} profile has not been modified since last gathered", playerID);
+            return refreshActivity(existing);
+        } catch(FetchYieldedPageNotFoundException plfe) {
+            player.setCharacterStatus(CharacterStatus.DELETED);
+        }
+        return player;
+    }
+
+    /**
+     * Fetches the pages of a player from the lodestone specified by ID, as the first of three stages building the player, so that
+     * fetching can be run on threads sized for waiting on the Lodestone.
+     * Only the profile page is parsed at this stage, as it decides which other pages need fetching. The pages are fetched one after
+     * another, as concurrency comes from the number of players being fetched at once.
+     *
+     * @param playerID the ID of the player to fetch
+     * @return the pages of the player, to be {@link #parsePages(CharacterPages) parsed}.
+     */
+    public CharacterPages fetchPages(final int playerID) throws IOException, InterruptedException {
+        PlayerBean player = new PlayerBean();
+        player.setId(playerID);
+        CharacterPages pages = new CharacterPages(player);
+        try {
+            CharacterProfile profile = pageExtractor.extractProfile(pageLoader.getCharacterPageSource(playerID));
+            setProfile(player, profile);
+            player.setDateImgLastModified(getDateLastUpdated(profile.getImageUrl(), playerID));
+            pages.setClassJobSource(pageLoader.getClassJobPageSource(playerID));
+            if(!profile.isMountsTabDisabled()) {
+                try {
+                    pages.setMountSource(pageLoader.getMountPageSource(playerID));
+                } catch(FetchYieldedPageNotFoundException e) {
+                    pages.setMountSource(null);
+                }
+            }
+            if(!profile.isMinionsTabDisabled()) {
+                try {
+                    pages.setMinionSource(pageLoader.getMinionPageSource(playerID));
+                } catch(FetchYieldedPageNotFoundException e) {
+                    pages.setMinionSource(null);
+                }
+            }
+        } catch(FetchYieldedPageNotFoundException plfe) {
+            player.setCharacterStatus(CharacterStatus.DELETED);
+        }
+        return pages;
+    }
+
+    /**
+     * Parses the levels and collectible tooltips out of the pages fetched for a player, as the second of three stages building the
+     * player, so that parsing can be run on threads sized for the available processors.
+     *
+     * @param pages the pages fetched for the player, to be {@link #resolveCollectibles(CharacterPages) resolved}.
+     */
+    public void parsePages(final CharacterPages pages) {
+        if(pages.isDeleted()) {
+            return;
+        }
+        List<String> noTooltips = Collections.emptyList();
+        pages.setParsed(getLevelsFromPage(pages.getClassJobSource()),
+                        pages.getMountSource() != null ? pageExtractor.extractMountTooltips(pages.getMountSource()) : noTooltips,
+                        pages.getMinionSource() != null ? pageExtractor.extractMinionTooltips(pages.getMinionSource()) : noTooltips);
+    }
+
+    /**
+     * Resolves the collectibles parsed for a player against the Eorzea Database, and derives the rest of their details, as the last of
+     * three stages building the player, so that any lookups of new collectibles are kept apart from fetching & parsing.
+     *
+     * @param pages the pages parsed for the player.
+     * @return the finished player object.
+     */
+    public PlayerBean resolveCollectibles(final CharacterPages pages) throws IOException, InterruptedException {
+        PlayerBean player = pages.getPlayer();
+        if(pages.isDeleted()) {
+            return player;
+        }
+        setLevels(player, pages.getLevels());
+        player.setMountSet(resolveMounts(pages.getMountTooltips(), backgroundNameLookups));
+        player.setMinionSet(resolveMinions(pages.getMinionTooltips(), backgroundNameLookups));
+        finalisePlayer(player, backgroundNameLookups);
+        return player;
+    }
+
+    /**
+     * Populates the player from their profile page, along with their class/job, mount and minion pages.
+     *
+     * @param player the player to populate.
+     * @param profile the details from the lodestone profile page.
+     * @throws FetchYieldedPageNotFoundException if the character could not be found.
+     */
+    private void setPlayerFromPages(final PlayerBean player, final CharacterProfile profile) throws IOException, InterruptedException,
+                                                                                              FetchYieldedPageNotFoundException {
+        final int playerID = player.getId();
+        setProfile(player, profile);
+
+        if(parallelFetch) {
+            join(getSubPagesInParallel(getAsyncPageLoader(), player, profile, backgroundNameLookups));
+        } else {
+            player.setDateImgLastModified(getDateLastUpdated(profile.getImageUrl(), playerID));
+
+            setLevels(player, getLevelsFromPage(pageLoader.getClassJobPageSource(playerID)));
+
+			if (profile.isMountsTabDisabled()) {
+				player.setMountSet(new BitSet());
 			} else {
 				// Mounts from the relevant sub-section
 				try {
-					Document mountDoc = pageLoader.getMountPage(playerID);
-					player.setMounts(getMountsFromPage(mountDoc));
+					player.setMountSet(getMountsFromPage(pageLoader.getMountPageSource(playerID), backgroundNameLookups));
 				} catch (FetchYieldedPageNotFoundException e) {
-					player.setMounts(new ArrayList<>());
+					player.setMountSet(new BitSet());
 				}
 			}
 
 
-			if (isPlayerTabDisabled(doc, "Minions")) {
-				player.setMinions(new ArrayList<>());
+			if (profile.isMinionsTabDisabled()) {
+				player.setMinionSet(new BitSet());
 			} else {
 				// Minions from the relevant sub-section
 				try {
-					Document minionDoc = pageLoader.getMinionPage(playerID);
-					player.setMinions(getMinionsFromPage(minionDoc));
+					player.setMinionSet(getMinionsFromPage(pageLoader.getMinionPageSource(playerID), backgroundNameLookups));
 				} catch (FetchYieldedPageNotFoundException e) {
-					player.setMinions(new ArrayList<>());
+					player.setMinionSet(new BitSet());
 				}
 			}
+        }
 
-            // Info based on the result of grabbing Mounts & Minions
-            player.setHas30DaysSub(doesPlayerHaveMinion(player, "Wind-up Cursor"));
-            player.setHas60DaysSub(doesPlayerHaveMinion(player, "Black Chocobo Chick"));
-            player.setHas90DaysSub(doesPlayerHaveMinion(player, "Beady Eye"));
-            player.setHas180DaysSub(doesPlayerHaveMinion(player, "Minion Of Light"));
-            player.setHas270DaysSub(doesPlayerHaveMinion(player, "Wind-up Leader"));
-            player.setHas360DaysSub(doesPlayerHaveMinion(player, "Wind-up Odin"));
-            player.setHas450DaysSub(doesPlayerHaveMinion(player, "Wind-up Goblin"));
-            player.setHas630DaysSub(doesPlayerHaveMinion(player, "Wind-up Nanamo"));
-            player.setHas960DaysSub(doesPlayerHaveMinion(player, "Wind-up Firion"));
-            player.setHasPreOrderArr(doesPlayerHaveMinion(player, "Cait Sith Doll"));
-            player.setHasPreOrderHW(doesPlayerHaveMinion(player, "Chocobo Chick Courier"));
-            player.setHasPreOrderSB(doesPlayerHaveMinion(player, "Wind-up Red Mage"));
-            player.setHasPreOrderShB(doesPlayerHaveMinion(player, "Baby Gremlin"));
-            player.setHasARRArtbook(doesPlayerHaveMinion(player, "Model Enterprise"));
-            player.setHasHWArtbookOne(doesPlayerHaveMinion(player, "Wind-Up Relm"));
-            player.setHasHWArtbookTwo(doesPlayerHaveMinion(player, "Wind-Up Hraesvelgr"));
-            player.setHasSBArtbook(doesPlayerHaveMinion(player, "Wind-up Yotsuyu"));
-            player.setHasSBArtbookTwo(doesPlayerHaveMinion(player, "Dress-up Tataru"));
-            player.setHasEncyclopediaEorzea(doesPlayerHaveMinion(player, "Namingway"));
-            player.setHasBeforeMeteor(doesPlayerHaveMinion(player, "Wind-up Dalamud"));
-            player.setHasBeforeTheFall(doesPlayerHaveMinion(player, "Set Of Primogs"));
-            player.setHasSoundtrack(doesPlayerHaveMinion(player, "Wind-up Bahamut"));
-            player.setHasAttendedEternalBond(doesPlayerHaveMinion(player, "Demon Box"));
-            player.setHasCompletedHWSightseeing(doesPlayerHaveMinion(player, "Fledgling Apkallu"));
-            player.setHasCompleted2pt5(doesPlayerHaveMinion(player, "Midgardsormr"));
-            player.setHasFiftyComms(doesPlayerHaveMinion(player, "Princely Hatchling"));
-            player.setHasMooglePlush(doesPlayerHaveMinion(player, "Wind-up Delivery Moogle"));
-            player.setHasTopazCarbunclePlush(doesPlayerHaveMinion(player, "Heliodor Carbuncle"));
-            player.setHasEmeraldCarbunclePlush(doesPlayerHaveMinion(player, "Peridot Carbuncle"));
-            player.setHasCompletedHildibrand(doesPlayerHaveMinion(player, "Wind-up Gentleman"));
-            player.setHasPS4Collectors(doesPlayerHaveMinion(player, "Wind-up Moogle"));
-            player.setHasCompleted3pt1(doesPlayerHaveMinion(player, "Wind-up Haurchefant"));
-            player.setHasCompleted3pt3(doesPlayerHaveMinion(player, "Wind-up Aymeric"));
-            player.setHasEternalBond(doesPlayerHaveMount(player, "Ceremony Chocobo"));
-            player.setHasARRCollectors(doesPlayerHaveMount(player, "Coeurl"));
-            player.setHasKobold(doesPlayerHaveMount(player, "Bomb Palanquin"));
-            player.setHasSahagin(doesPlayerHaveMount(player, "Cavalry Elbst"));
-            player.setHasAmaljaa(doesPlayerHaveMount(player, "Cavalry Drake"));
-            player.setHasSylph(doesPlayerHaveMount(player, "Laurel Goobbue"));
-            player.setHasMoogle(doesPlayerHaveMount(player, "Cloud Mallow"));
-            player.setHasVanuVanu(doesPlayerHaveMount(player, "Sanuwa"));
-            player.setHasVath(doesPlayerHaveMount(player, "Kongamato"));
-            player.setHasCompletedHW(doesPlayerHaveMount(player, "Midgardsormr"));
-            // Main Scenario quest doesn't drop a minion, so instead assume players will at least play one of the Level 70 dungeons and
-            // eventually get the minion
-            player.setHasCompletedSB(doesPlayerHaveMinion(player, "Ivon Coeurlfist Doll") || doesPlayerHaveMinion(player, "Dress-up Yugiri")
-                                     || doesPlayerHaveMinion(player, "Wind-up Exdeath"));
-            player.setLegacyPlayer(doesPlayerHaveMount(player, "Legacy Chocobo"));
-
-            // Finalise character info
-            player.setActive(isPlayerActiveInDateRange(player));
-            player.setCharacterStatus(player.isActive() ? CharacterStatus.ACTIVE : CharacterStatus.INACTIVE);
-        } catch(FetchYieldedPageNotFoundException plfe) {
-            player.setCharacterStatus(CharacterStatus.DELETED);
+        finalisePlayer(player, backgroundNameLookups);
+    }
+
+    /**
+     * Waits for the given pages to be loaded, re-throwing the cause of any failure.
+     */
+    private static void join(final CompletableFuture<Void> pages) throws IOException, InterruptedException,
+                                                                   FetchYieldedPageNotFoundException {
+        try {
+            pages.get();
+        } catch(ExecutionException ee) {
+            Throwable cause = unwrap(ee.getCause());
+            if(cause instanceof FetchYieldedPageNotFoundException) {
+                throw (FetchYieldedPageNotFoundException) cause;
+            } else if(cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if(cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            } else if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
         }
-        return player;
     }
 
     /**
-     * Determine whether a player is active based upon the last modified date of their full body image
+     * Fetch a player from the lodestone specified by ID, without blocking the calling thread on any page loads.
+     * Pages are fetched through the {@link AsyncLodestonePageLoader}. By default, each subsequent page is requested once the previous
+     * has been loaded; where parallel fetching has been enabled, the class/job, mount and minion pages and the profile image are all
+     * requested as soon as the profile page has been loaded.
+     * As nothing may block while the pages are loaded, the names of mounts & minions not yet known are always looked up in the
+     * background, and collectibles are resolved on an executor of the builder's own rather than wherever the pages were loaded.
+     * If no {@link AsyncLodestonePageLoader} has been set, the configured {@link LodestonePageLoader} will be driven from the common
+     * fork-join pool instead.
      *
-     * @return whether player has been active inside the activity window
+     * @param playerID the ID of the player to fetch
+     * @return future to be completed with the player object matching the specified ID.
      */
-    private boolean isPlayerActiveInDateRange(final PlayerBean player) {
-
-        Calendar date = Calendar.getInstance();
-        long t = date.getTimeInMillis();
+    public CompletableFuture<PlayerBean> getPlayerAsync(final int playerID) {
+        final AsyncLodestonePageLoader loader = getAsyncPageLoader();
+        final PlayerBean player = new PlayerBean();
+        player.setId(playerID);
 
-        Date nowMinusIncludeRange = new Date(t - (ACTIVITY_RANGE_DAYS * ONE_DAY_IN_MILLIS));
-        return player.getDateImgLastModified().after(nowMinusIncludeRange); // If the date occurs between the include range and now, then
-                                                                            // return true. Else false
+        return loader.getCharacterPageSource(playerID)
+                     .thenCompose(source -> {
+                         CharacterProfile profile = pageExtractor.extractProfile(source);
+                         setProfile(player, profile);
+                         if(parallelFetch) {
+                             return getSubPagesInParallel(loader, player, profile, true);
+                         }
+                         return getDateLastUpdatedAsync(profile.getImageUrl(), playerID)
+                                .thenAccept(player::setDateImgLastModified)
+                                .thenCompose(v -> loader.getClassJobPageSource(playerID))
+                                .thenAccept(classJobSource -> setLevels(player, getLevelsFromPage(classJobSource)))
+                                .thenCompose(v -> getCollectionAsync(profile.isMountsTabDisabled(),
+                                                                     () -> loader.getMountPageSource(playerID),
+                                                                     mountSource -> getMountsFromPage(mountSource, true)))
+                                .thenAccept(player::setMountSet)
+                                .thenCompose(v -> getCollectionAsync(profile.isMinionsTabDisabled(),
+                                                                     () -> loader.getMinionPageSource(playerID),
+                                                                     minionSource -> getMinionsFromPage(minionSource, true)))
+                                .thenAccept(player::setMinionSet);
+                     })
+                     .handle((v, ex) -> {
+                         if(ex == null) {
+                             finalisePlayer(player, true);
+                         } else if(unwrap(ex) instanceof FetchYieldedPageNotFoundException) {
+                             player.setCharacterStatus(CharacterStatus.DELETED);
+                         } else {
+                             throw new CompletionException(unwrap(ex));
+                         }
+                         return player;
+                     });
     }
 
-	private boolean isPlayerTabDisabled(final Document doc, final String tabName) {
-		return doc.select("."+LAYOUT_CHARACTER_TAB+" > li:contains("+tabName+")").hasClass("disable");
-	}
+    /**
+     * Requests the class/job, mount and minion pages along with the profile image all at once, populating the player as each completes.
+     * Collection pages whose tab has been disabled on the profile are not requested.
+     *
+     * @param loader the page loader to fetch the pages with.
+     * @param player the player to populate.
+     * @param profile the details from the lodestone profile page.
+     * @param knownNamesOnly whether to only take the names of mounts & minions already known, looking up the rest in the background.
+     * @return future to be completed once all of the pages have been loaded.
+     */
+    private CompletableFuture<Void> getSubPagesInParallel(final AsyncLodestonePageLoader loader, final PlayerBean player,
+                                                          final CharacterProfile profile, final boolean knownNamesOnly) {
+        final int playerID = player.getId();
+        CompletableFuture<Void> portrait = getDateLastUpdatedAsync(profile.getImageUrl(), playerID)
+                                           .thenAccept(player::setDateImgLastModified);
+        CompletableFuture<Void> classJobs = loader.getClassJobPageSource(playerID)
+                                                  .thenAccept(classJobSource -> setLevels(player, getLevelsFromPage(classJobSource)));
+        CompletableFuture<Void> mounts = getCollectionAsync(profile.isMountsTabDisabled(), () -> loader.getMountPageSource(playerID),
+                                                            source -> getMountsFromPage(source, knownNamesOnly))
+                                         .thenAccept(player::setMountSet);
+        CompletableFuture<Void> minions = getCollectionAsync(profile.isMinionsTabDisabled(), () -> loader.getMinionPageSource(playerID),
+                                                             source -> getMinionsFromPage(source, knownNamesOnly))
+                                          .thenAccept(player::setMinionSet);
+        return CompletableFuture.allOf(portrait, classJobs, mounts, minions);
+    }
 
     /**
-     * Given a lodestone profile page, return the name of the character.
+     * Populates the player with the details shown on their main profile page.
      *
-     * @param doc the lodestone profile page.
-     * @return the name of the character.
+     * @param player the player to populate.
+     * @param profile the details from the lodestone profile page.
      */
-    private String getNameFromPage(final Document doc) {
-        String[] parts = doc.title().split(Pattern.quote("|"));
-        return parts[0].trim();
+    private void setProfile(final PlayerBean player, final CharacterProfile profile) {
+        player.setPlayerName(profile.getName());
+        player.setRealm(profile.getRealm());
+        player.setRace(profile.getRace());
+        player.setGender(profile.getGender());
+        player.setGrandCompany(profile.getGrandCompany());
+        player.setGrandCompanyRank(profile.getGrandCompanyRank());
+        player.setFreeCompany(profile.getFreeCompany());
     }
 
     /**
-     * Given a lodestone profile page, return the realm of the character.
+     * Sets all of the information derived from the pages already loaded into the player, once all pages have been loaded.
      *
-     * @param doc the lodestone profile page.
-     * @return the realm of the character.
+     * @param player the player to finalise.
+     * @param knownNamesOnly whether the player's mounts & minions were resolved taking only the names already known.
      */
-    private String getRealmFromPage(final Document doc) {
-        // Get elements in the player name area, and return the Realm name (contained in the span)
-        String realmAndDatacenter = doc.getElementsByClass(LAYOUT_FRAME_CHARA_WORLD).get(0).text();
-        String realm = null;
-        if(!StringUtils.isEmpty(realmAndDatacenter)) {
-            realm = realmAndDatacenter.substring(0, realmAndDatacenter.indexOf("[") - 1);
+    private void finalisePlayer(final PlayerBean player, final boolean knownNamesOnly) {
+        // Info based on the result of grabbing Mounts & Minions
+        ownershipRules.apply(player, collectibleDictionary);
+        if(knownNamesOnly && (collectibleDictionary.hasUnnamed(CollectibleType.MINION, player.getMinionSet())
+                                     || collectibleDictionary.hasUnnamed(CollectibleType.MOUNT, player.getMountSet()))) {
+            // Flags set by the collectibles still being looked up can only be derived once their names are known
+            synchronized(playersAwaitingNames) {
+                playersAwaitingNames.set(player.getId());
+            }
         }
-        return realm;
+
+        // Finalise character info
+        refreshActivity(player);
     }
 
     /**
-     * Given a lodestone profile page, return the race of the character.
+     * Re-derives the flags of a player from their sets of mounts & minions, against the names now known to the dictionary.
      *
-     * @param doc the lodestone profile page.
-     * @return the race of the character.
+     * @param player the player to update.
      */
-    private String getRaceFromPage(final Document doc) {
-        return doc.getElementsByClass(LAYOUT_CHARACTER_BLOCK_NAME).get(0).textNodes().get(0).text().trim();
+    public void refreshOwnership(final PlayerBean player) {
+        ownershipRules.apply(player, collectibleDictionary);
     }
 
     /**
-     * Given a lodestone profile page, return the gender of the character.
+     * Names every collectible in the dictionary whose name has since been looked up in the background.
      *
-     * @param doc the lodestone profile page.
-     * @return the gender of the character.
+     * @return the number of collectibles named.
      */
-    private String getGenderFromPage(final Document doc) {
-        String[] parts = doc.getElementsByClass(LAYOUT_CHARACTER_BLOCK_NAME).get(0).text().split(Pattern.quote("/"));
-        String gender = parts[1].trim();
-        if(gender.equals("♂")) {
-            return "male";
-        } else if(gender.equals("♀")) {
-            return "female";
-        } else {
-            return null;
+    public int nameLookedUpCollectibles() {
+        int named = 0;
+        for(CollectibleType type : CollectibleType.values()) {
+            for(CollectibleBean entry : collectibleDictionary.getEntries(type)) {
+                String name = entry.getName() == null ? edbCache.getKnownName(type, entry.getTooltipId()) : null;
+                if(name != null) {
+                    collectibleDictionary.setName(type, entry.getTooltipId(), name);
+                    named++;
+                }
+            }
         }
+        return named;
     }
 
-	private Element getElementForCharacterBlockWithName(Document doc, String titleToFind) {
-		Elements elements = doc.getElementsByClass(LAYOUT_CHARACTER_BLOCK_BOX);
-			for (Element element : elements) {
-				Elements elementsWithClass = element.getElementsByClass(LAYOUT_CHARACTER_BLOCK_TITLE);
-				if (elementsWithClass.isEmpty()) return null;
-				else if (elementsWithClass.get(0).text().equals(titleToFind)) {
-					return element;
-				}
-		}
-		return null;
-	}
-
-	private String getGrandCompanyBlockElementByIndexFromPage(final Document doc, int index) {
-		String value = "none";
-		Element element = this.getElementForCharacterBlockWithName(doc, "Grand Company");
-		if (element != null) {
-			value = element.getElementsByClass(LAYOUT_CHARACTER_BLOCK_NAME).text().split("/")[index].trim();
-		}
-		return value;
-	}
-
-    /**
-     * Given a lodestone profile page, return the grand company of the character.
-     *
-     * @param doc the lodestone profile page.
-     * @return the grand company of the character.
-     */
-    private String getGrandCompanyFromPage(final Document doc) {
-        return getGrandCompanyBlockElementByIndexFromPage(doc, 0);
-    }
-
-	/**
-	 * Given a lodestone profile page, return the grand company rank of the character.
-	 *
-	 * @param doc the lodestone profile page.
-	 * @return the grand company of the character.
-	 */
-	private String getGrandCompanyRankFromPage(final Document doc) {
-		return getGrandCompanyBlockElementByIndexFromPage(doc, 1)
-				.replace("Serpent ", "")
-				.replace("Storm ", "")
-				.replace("Flame ", "");
-	}
-
-    /**
-     * Given a lodestone profile page, return the free company of the character.
-     *
-     * @param doc the lodestone profile page.
-     * @return the free company of the character.
-     */
-    private String getFreeCompanyFromPage(final Document doc) {
-        String fc = null;
-        // Get all elements with class chara_profile_box_info
-        Elements elements = doc.getElementsByClass(LAYOUT_CHARACTER_BLOCK_BOX);
-
-        // Checks to see if optional FC has been added
-        if(elements.size() == 5) {
-            fc = elements.get(4).getElementsByClass(LAYOUT_CHARACTER_FREECOMPANY_NAME).get(0).getElementsByTag(TAG_A).text();
-        } else if(elements.size() == 4) { // If only 4 elements present
-
-            if(!elements.get(3).getElementsByClass(LAYOUT_CHARACTER_FREECOMPANY_NAME).isEmpty()) { // If box is fc
-                fc = elements.get(3).getElementsByClass(LAYOUT_CHARACTER_FREECOMPANY_NAME).get(0).getElementsByTag(TAG_A).text();
-            } else { // Else must not be gc
-                fc = "none";
-            }
-        } else {
-            fc = "none";
+    /**
+     * Takes the IDs of every player built with background name lookups while any of their collectibles was still unnamed, so that
+     * their flags can be re-derived once the names are known.
+     *
+     * @return the IDs of the players, which are no longer held by the builder.
+     */
+    public BitSet takePlayersAwaitingNames() {
+        synchronized(playersAwaitingNames) {
+            BitSet taken = (BitSet) playersAwaitingNames.clone();
+            playersAwaitingNames.clear();
+            return taken;
         }
-        return fc;
     }
 
     /**
-     * Given a lodestone profile page, return the levelset of the character.
+     * Updates whether the player is considered active, based on the last-modified date of their full body image.
      *
-     * @param doc the lodestone profile page
-     * @return the set of levels of the player in the order displayed on the lodestone.
-     * @throws Exception Exception thrown if more classes found than anticipated.
-     */
-    private int[] getLevelsFromPage(final Document doc) {
-        // Initialize array list in which to store levels (in order displayed on lodestone)
-        List<Integer> levels = new ArrayList<>();
-
-        Element classJobTab = doc.getElementsByClass("character__content").get(0);
-        for(Element jobLevel : classJobTab.getElementsByClass(LAYOUT_CHARACTER_JOB_LEVEL)) {
-            String strLvl = jobLevel.text();
-            if(strLvl.equals("-")) {
-                levels.add(0);
-            } else {
-                levels.add(Integer.parseInt(strLvl));
-            }
-        }
+     * @param player the player to update.
+     * @return the updated player.
+     */
+    private PlayerBean refreshActivity(final PlayerBean player) {
+        player.setActive(isPlayerActiveInDateRange(player));
+        player.setCharacterStatus(player.isActive() ? CharacterStatus.ACTIVE : CharacterStatus.INACTIVE);
+        return player;
+    }
 
-        // Initialize int array
-        int[] arrLevels = new int[levels.size()];
-        // Convert array list to array of ints
-        for(int index = 0; index < levels.size(); index++) {
-            arrLevels[index] = Integer.parseInt(levels.get(index).toString());
+    /**
+     * Fetches and parses one of the collection sub-pages (Mounts/Minions) of a character.
+     * Where the tab has been disabled on the profile, or the page cannot be found, an empty collection is returned.
+     * The page is parsed on the builder's own executor, as resolving a collectible not seen before saves it to the database.
+     */
+    private CompletableFuture<BitSet> getCollectionAsync(final boolean tabDisabled, final Supplier<CompletableFuture<String>> pageFetch,
+                                                         final CollectionParser parser) {
+        if(tabDisabled) {
+            return CompletableFuture.completedFuture(new BitSet());
         }
+        return pageFetch.get()
+                        .thenApplyAsync(collectionSource -> {
+                            try {
+                                return parser.parse(collectionSource);
+                            } catch(InterruptedException ie) {
+                                Thread.currentThread().interrupt();
+                                throw new CompletionException(ie);
+                            } catch(IOException ioe) {
+                                throw new CompletionException(ioe);
+                            }
+                        }, getResolveExecutor())
+                        .handle((collection, ex) -> {
+                            if(ex == null) {
+                                return collection;
+                            } else if(unwrap(ex) instanceof FetchYieldedPageNotFoundException) {
+                                return new BitSet();
+                            }
+                            throw new CompletionException(unwrap(ex));
+                        });
+    }
 
-        // Check if levels array is larger than this system is programmed for
-        // As of 6.0, this is now 32 - SCH and SMN are 2 jobs, + SAM, RDM, BLU, GNB, DNC, RPR, SGE, Bozja & Eureka
-        if(arrLevels.length > 33) {
-            throw new IllegalArgumentException("Error: More class levels found (" + arrLevels.length
-                                               + ") than anticipated (30). The class definitions need to be updated.");
-        }
+    private static Throwable unwrap(final Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
 
-        return arrLevels;
+    /**
+     * Determine whether a player is active based upon the last modified date of their full body image
+     *
+     * @return whether player has been active inside the activity window
+     */
+    private boolean isPlayerActiveInDateRange(final PlayerBean player) {
+
+        Calendar date = Calendar.getInstance();
+        long t = date.getTimeInMillis();
+
+        Date nowMinusIncludeRange = new Date(t - (ACTIVITY_RANGE_DAYS * ONE_DAY_IN_MILLIS));
+        return player.getDateImgLastModified().after(nowMinusIncludeRange); // If the date occurs between the include range and now, then
+                                                                            // return true. Else false
     }
 
     /**
-     * Get the set of minions from a page.
+     * Given the source of a lodestone class/job page, return the levelset of the character.
      *
-     * @param doc the lodestone profile page to parse.
-     * @return the set of strings representing the player's minions.
+     * @param source the source of the lodestone class/job page
+     * @return the set of levels of the player in the order displayed on the lodestone.
+     */
+    private ClassJobLevels getLevelsFromPage(final String source) {
+        return pageExtractor.extractLevels(source);
+    }
+
+    /**
+     * Get the set of minions from a page, as the set of their indexes in the collectible dictionary.
+     *
+     * @param source the source of the lodestone minions page to parse.
+     * @param knownNamesOnly whether to only take the names already known, looking up the rest in the background.
+     * @return the player's minions.
      * @throws InterruptedException
      * @throws IOException
      */
-    private List<String> getMinionsFromPage(final Document doc) throws IOException, InterruptedException {
-
-        // Initialize array in which to store minions
-        List<String> minions = new ArrayList<>();
-        // Get minion box element
-        Elements minionBoxes = doc.getElementsByClass(LAYOUT_CHARACTER_MINION);
-        // Get mounts
-        if(!minionBoxes.isEmpty()) {
-            Elements minionSet = minionBoxes.get(0).getElementsByTag(TAG_LI);
-            for(Element minion : minionSet) {
-                String minionName = edbCache.getMinionNameFromTooltip(minion.attr("data-tooltip_href"));
-                if(minionName != null) {
-                    minions.add(minionName);
-                }
+    private BitSet getMinionsFromPage(final String source, final boolean knownNamesOnly) throws IOException, InterruptedException {
+        return resolveMinions(pageExtractor.extractMinionTooltips(source), knownNamesOnly);
+    }
+
+    /**
+     * Resolve a set of minions from their tooltips to their indexes in the collectible dictionary, naming each in the dictionary where
+     * its name is known.
+     *
+     * @param tooltips the tooltips of the minions, as found on the lodestone minions page.
+     * @param knownNamesOnly whether to only take the names already known, looking up the rest in the background.
+     * @return the player's minions.
+     */
+    private BitSet resolveMinions(final List<String> tooltips, final boolean knownNamesOnly) throws IOException, InterruptedException {
+        BitSet minionSet = new BitSet();
+        for(String tooltip : tooltips) {
+            String tooltipId = EorzeaDatabaseCache.getTooltipId(tooltip);
+            minionSet.set(collectibleDictionary.getIndex(CollectibleType.MINION, tooltipId, tooltip));
+            String minionName = knownNamesOnly ? edbCache.getMinionNameIfKnown(tooltip) : edbCache.getMinionNameFromTooltip(tooltip);
+            if(minionName != null) {
+                collectibleDictionary.setName(CollectibleType.MINION, tooltipId, minionName);
             }
         }
-        return minions;
+        return minionSet;
     }
 
     /**
-     * Get the set of mounts from a page.
+     * Get the set of mounts from a page, as the set of their indexes in the collectible dictionary.
      *
-     * @param doc the lodestone profile page to parse.
-     * @return the set of strings representing the player's mounts.
+     * @param source the source of the lodestone mounts page to parse.
+     * @param knownNamesOnly whether to only take the names already known, looking up the rest in the background.
+     * @return the player's mounts.
      * @throws InterruptedException
      * @throws IOException
      */
-    private List<String> getMountsFromPage(final Document doc) throws IOException, InterruptedException {
-
-        // Initialize array in which to store minions
-        List<String> mounts = new ArrayList<>();
+    private BitSet getMountsFromPage(final String source, final boolean knownNamesOnly) throws IOException, InterruptedException {
+        return resolveMounts(pageExtractor.extractMountTooltips(source), knownNamesOnly);
+    }
 
-        // Get minion box element
-        Elements mountBoxes = doc.getElementsByClass(LAYOUT_CHARACTER_MOUNTS);
-        // Get mounts
-        if(!mountBoxes.isEmpty()) {
-            Elements mountSet = mountBoxes.get(0).getElementsByTag(TAG_LI);
-            for(Element mount : mountSet) {
-                String mountName = edbCache.getMountNameFromTooltip(mount.attr("data-tooltip_href"));
-                if(mountName != null) {
-                    mounts.add(mountName);
-                }
+    /**
+     * Resolve a set of mounts from their tooltips to their indexes in the collectible dictionary, naming each in the dictionary where
+     * its name is known.
+     *
+     * @param tooltips the tooltips of the mounts, as found on the lodestone mounts page.
+     * @param knownNamesOnly whether to only take the names already known, looking up the rest in the background.
+     * @return the player's mounts.
+     */
+    private BitSet resolveMounts(final List<String> tooltips, final boolean knownNamesOnly) throws IOException, InterruptedException {
+        BitSet mountSet = new BitSet();
+        for(String tooltip : tooltips) {
+            String tooltipId = EorzeaDatabaseCache.getTooltipId(tooltip);
+            mountSet.set(collectibleDictionary.getIndex(CollectibleType.MOUNT, tooltipId, tooltip));
+            String mountName = knownNamesOnly ? edbCache.getMountNameIfKnown(tooltip) : edbCache.getMountNameFromTooltip(tooltip);
+            if(mountName != null) {
+                collectibleDictionary.setName(CollectibleType.MOUNT, tooltipId, mountName);
             }
         }
-        return mounts;
+        return mountSet;
     }
 
     /**
      * Gets the last-modified date of the Character full body image.
      *
-     * @param doc the lodestone profile page to parse
+     * @param imageUrl the URL of the full body image
+     * @param id the ID of the character
      * @return the date on which the full body image was last modified.
      */
-    private Date getDateLastUpdatedFromPage(final Document doc, final int id) {
-        Date dateLastModified;
-        // Get character image URL.
-        String imgUrl = doc.getElementsByClass(LAYOUT_CHARACTER_DETAIL_IMAGE).get(0).getElementsByTag(TAG_A).get(0)
-                           .getElementsByTag(TAG_IMG)
-                           .get(0).attr(ATTR_SRC);
-        String strLastModifiedDate = "";
+    private Date getDateLastUpdated(final String imageUrl, final int id) {
+        String strLastModifiedDate = null;
 
         try {
-            HttpResponse<JsonNode> jsonResponse = Unirest.head(imgUrl).asJson();
-
-            strLastModifiedDate = jsonResponse.getHeaders().get(HEADER_LAST_MODIFIED).toString();
+            strLastModifiedDate = getHttpClient().head(imageUrl).getHeader(HEADER_LAST_MODIFIED);
+            if(strLastModifiedDate == null) {
+                throw new IOException("No " + HEADER_LAST_MODIFIED + " header returned");
+            }
+        } catch(InterruptedException ie) {
+            // Don't swallow the interrupt, leave it for the caller to deal with once the character is done
+            Thread.currentThread().interrupt();
+            LOG.warn("Setting last-active date to ARR launch date as interrupted while loading character " + id + "'s profile image");
         } catch(Exception e) {
             LOG.warn("Setting last-active date to ARR launch date due to an an error loading character " + id
                      + "'s profile image: " + e.getMessage());
-            strLastModifiedDate = "[Sat, 24 Aug 2013 00:00:01 GMT]";
         }
 
-        strLastModifiedDate = strLastModifiedDate.replace("[", "");
-        strLastModifiedDate = strLastModifiedDate.replace("]", "");
+        return parseLastModifiedDate(strLastModifiedDate, id);
+    }
+
+    /**
+     * Gets the last-modified date of the Character full body image, without blocking the calling thread.
+     *
+     * @param imageUrl the URL of the full body image
+     * @param id the ID of the character
+     * @return future to be completed with the date on which the full body image was last modified.
+     */
+    private CompletableFuture<Date> getDateLastUpdatedAsync(final String imageUrl, final int id) {
+        return getHttpClient().headAsync(imageUrl)
+                              .thenApply(response -> {
+                                  String lastModified = response.getHeader(HEADER_LAST_MODIFIED);
+                                  if(lastModified == null) {
+                                      LOG.warn("Setting last-active date to ARR launch date as no " + HEADER_LAST_MODIFIED
+                                               + " header was returned for character " + id + "'s profile image");
+                                  }
+                                  return lastModified;
+                              })
+                              .exceptionally(ex -> {
+                                  LOG.warn("Setting last-active date to ARR launch date due to an an error loading character " + id
+                                           + "'s profile image: " + unwrap(ex).getMessage());
+                                  return null;
+                              })
+                              .thenApply(lastModified -> parseLastModifiedDate(lastModified, id));
+    }
+
+    /**
+     * Determines whether the Character full body image has been modified since the date previously seen.
+     * As only the day of last modification is stored, the image is treated as unchanged where it was last modified on that same day.
+     * Where the image cannot be probed, it is assumed to have been modified.
+     *
+     * @param imageUrl the URL of the full body image
+     * @param lastSeen the date on which the image was last modified when previously seen
+     * @param id the ID of the character
+     * @return whether the image has been modified since the date given.
+     */
+    private boolean isImageModifiedSince(final String imageUrl, final Date lastSeen, final int id) {
+        Calendar nextDay = Calendar.getInstance();
+        nextDay.setTime(lastSeen);
+        nextDay.set(Calendar.HOUR_OF_DAY, 0);
+        nextDay.set(Calendar.MINUTE, 0);
+        nextDay.set(Calendar.SECOND, 0);
+        nextDay.set(Calendar.MILLISECOND, 0);
+        nextDay.add(Calendar.DAY_OF_MONTH, 1);
+
+        try {
+            LodestoneResponse response = getHttpClient().head(imageUrl,
+                                                              Collections.singletonMap(HEADER_IF_MODIFIED_SINCE,
+                                                                                       DateUtils.formatDate(nextDay.getTime())));
+            if(response.getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+                return false;
+            }
+            String lastModified = response.getHeader(HEADER_LAST_MODIFIED);
+            return lastModified == null || !parseLastModifiedDate(lastModified, id).before(nextDay.getTime());
+        } catch(InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return true;
+        } catch(Exception e) {
+            LOG.debug("Could not probe character " + id + "'s profile image, so assuming it has changed: " + e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Parses the value of a <code>Last-Modified</code> header.
+     *
+     * @param lastModified the header value, or <code>null</code> if it could not be loaded.
+     * @param id the ID of the character
+     * @return the date given by the header, or the ARR launch date if the header could not be loaded.
+     */
+    private Date parseLastModifiedDate(final String lastModified, final int id) {
         DateFormat dateFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz");
 
         try {
-            dateLastModified = dateFormat.parse(strLastModifiedDate);
+            return dateFormat.parse(lastModified != null ? lastModified : DEFAULT_LAST_MODIFIED);
         } catch(ParseException e) {
             throw new IllegalArgumentException("Could not correctly parse date 'Last-Modified' header from full body image for character id"
                                                + id);
         }
-        return dateLastModified;
     }
 
     /**
@@ -563,10 +727,57 @@ public class PlayerBuilder {
      *
      * @param pageLoader the pageLoader to set
      */
+    @Autowired
     public void setPageLoader(final LodestonePageLoader pageLoader) {
         this.pageLoader = pageLoader;
     }
 
+    /**
+     * Sets a non-blocking Loadestone Page Loader to use when fetching players via {@link #getPlayerAsync(int)}.
+     *
+     * @param asyncPageLoader the asyncPageLoader to set
+     */
+    @Autowired
+    public void setAsyncPageLoader(final AsyncLodestonePageLoader asyncPageLoader) {
+        this.asyncPageLoader = asyncPageLoader;
+    }
+
+    private synchronized AsyncLodestonePageLoader getAsyncPageLoader() {
+        if(asyncPageLoader == null) {
+            asyncPageLoader = new ExecutorAsyncLodestonePageLoader(pageLoader, ForkJoinPool.commonPool());
+        }
+        return asyncPageLoader;
+    }
+
+    private synchronized ExecutorService getResolveExecutor() {
+        if(resolveExecutor == null) {
+            resolveExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "collectible-resolve");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return resolveExecutor;
+    }
+
+    /**
+     * Sets the pooled HTTP client used to probe character images.
+     * By default, the shared {@link LodestoneHttpClient#getDefault() default} client will be used.
+     *
+     * @param httpClient the httpClient to set
+     */
+    @Autowired
+    public void setHttpClient(final LodestoneHttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    private synchronized LodestoneHttpClient getHttpClient() {
+        if(httpClient == null) {
+            httpClient = LodestoneHttpClient.getDefault();
+        }
+        return httpClient;
+    }
+
     /**
      * Sets an instance of the EorzeaDatabaseCache used for read-through caching of lookups from Eorzea Database on the Lodestone.
      *
@@ -576,4 +787,101 @@ public class PlayerBuilder {
     public void setEorzeaDatabaseCache(final EorzeaDatabaseCache edbCache) {
         this.edbCache = edbCache;
     }
+
+    /**
+     * Sets the dictionary used to record each player's mounts & minions as a set of indexes.
+     * By default, the PlayerBuilder will use an in-memory dictionary of its own.
+     *
+     * @param collectibleDictionary
+     */
+    @Autowired
+    public void setCollectibleDictionary(final CollectibleDictionary collectibleDictionary) {
+        this.collectibleDictionary = collectibleDictionary;
+    }
+
+    /**
+     * Applies the gathering options from the application configuration.
+     * The page extractor & name lookup options are expected to hold one of their known values, as checked by the
+     * {@link com.ffxivcensus.gatherer.config.ConfigurationBuilder}.
+     *
+     * @param appConfig
+     */
+    @Autowired
+    public void setApplicationConfig(final ApplicationConfig appConfig) {
+        setParallelFetch(appConfig.isParallelFetch());
+        setJobLayout(JOB_LAYOUTS.getLayout(appConfig.getJobLayout()));
+        if(appConfig.getOwnershipRulesFile() != null) {
+            try {
+                setOwnershipRules(OwnershipRules.load(Paths.get(appConfig.getOwnershipRulesFile())));
+            } catch(IOException ioe) {
+                throw new UncheckedIOException("Unable to load ownership rules from " + appConfig.getOwnershipRulesFile(), ioe);
+            }
+        }
+        setBackgroundNameLookups(appConfig.isBackgroundNameLookups());
+        if(ApplicationConfig.PAGE_EXTRACTOR_STREAMING.equals(appConfig.getPageExtractor())) {
+            setPageExtractor(new StreamingCharacterPageExtractor());
+        }
+    }
+
+    /**
+     * Sets whether the class/job, mount and minion pages and profile image should be fetched in parallel once the profile page has been
+     * loaded, rather than one after another.
+     *
+     * @param parallelFetch
+     */
+    public void setParallelFetch(final boolean parallelFetch) {
+        this.parallelFetch = parallelFetch;
+    }
+
+    /**
+     * Sets whether the names of mounts & minions not yet known should be looked up in the background, rather than while the
+     * character is being built.
+     * Where looked up in the background, a character's flags are only derived from the collectibles already named when they were
+     * built, though all of their collectibles are always recorded in their sets of mounts & minions; the characters affected are
+     * held until {@link #takePlayersAwaitingNames() taken}, so that their flags can be {@link #refreshOwnership(PlayerBean) re-derived}
+     * once the names have been looked up.
+     *
+     * @param backgroundNameLookups
+     */
+    public void setBackgroundNameLookups(final boolean backgroundNameLookups) {
+        this.backgroundNameLookups = backgroundNameLookups;
+    }
+
+    /**
+     * Sets the layout used to match the levels on the class/job page to each job.
+     * By default, the PlayerBuilder will use the default layout of the {@link JobLayoutRegistry}.
+     *
+     * @param jobLayout
+     */
+    public void setJobLayout(final JobLayout jobLayout) {
+        this.jobLayout = jobLayout;
+    }
+
+    /**
+     * Sets the rules used to derive each player's flags from the mounts & minions they own.
+     * By default, the PlayerBuilder will use the rules bundled in {@link OwnershipRules#DEFAULT_RESOURCE}.
+     *
+     * @param ownershipRules
+     */
+    public void setOwnershipRules(final OwnershipRules ownershipRules) {
+        this.ownershipRules = ownershipRules;
+    }
+
+    /**
+     * Sets the extractor used to pick the details of a character out of their pages.
+     * By default, the PlayerBuilder will use a {@link JsoupCharacterPageExtractor}.
+     *
+     * @param pageExtractor
+     */
+    public void setPageExtractor(final CharacterPageExtractor pageExtractor) {
+        this.pageExtractor = pageExtractor;
+    }
+
+    /**
+     * Parses the contents of a collection sub-page (Mounts/Minions).
+     */
+    @FunctionalInterface
+    private interface CollectionParser {
+        BitSet parse(String source) throws IOException, InterruptedException;
+    }
 }
@@ -0,0 +1,85 @@
+package com.ffxivcensus.gatherer.player;
+
+/**
+ * Native single-statement upsert for each database supported by the gatherer, so that a player can be written without first selecting
+ * it to find whether it is new.
+ *
+ * @author matthew.hillier
+ */
+public enum UpsertDialect {
+
+    /**
+     * <code>INSERT ... ON DUPLICATE KEY UPDATE</code>, as supported by MySQL & MariaDB.
+     */
+    MYSQL {
+        @Override
+        String getConflictClause(final String idName) {
+            return " ON DUPLICATE KEY UPDATE ";
+        }
+
+        @Override
+        String getUpdateValue(final String name) {
+            return "VALUES(" + name + ")";
+        }
+    },
+    /**
+     * <code>INSERT ... ON CONFLICT DO UPDATE</code>, as supported by PostgreSQL 9.5 onwards.
+     */
+    POSTGRESQL {
+        @Override
+        String getConflictClause(final String idName) {
+            return " ON CONFLICT (" + idName + ") DO UPDATE SET ";
+        }
+
+        @Override
+        String getUpdateValue(final String name) {
+            return "EXCLUDED." + name;
+        }
+    };
+
+    /**
+     * Finds the dialect for the given database URL.
+     *
+     * @param dbUrl URL of the database, as configured without its <code>jdbc:</code> prefix.
+     * @return the dialect of the database.
+     * @throws IllegalArgumentException if native upserts are not supported for the database.
+     */
+    public static UpsertDialect forUrl(final String dbUrl) {
+        if(dbUrl.startsWith("mysql:") || dbUrl.startsWith("mariadb:")) {
+            return MYSQL;
+        } else if(dbUrl.startsWith("postgresql:")) {
+            return POSTGRESQL;
+        }
+        throw new IllegalArgumentException("Native upserts are not supported for the database at " + dbUrl);
+    }
+
+    /**
+     * Builds an upsert of every column, taking its parameters in the same order as the columns.
+     *
+     * @param table Name of the table.
+     * @param names Names of the columns.
+     * @param idColumn Position of the ID amongst the columns.
+     * @return the upsert statement.
+     */
+    String getSql(final String table, final String[] names, final int idColumn) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (").append(String.join(", ", names))
+                                                                  .append(") VALUES (");
+        for(int i = 0; i < names.length; i++) {
+            sql.append(i > 0 ? ", ?" : "?");
+        }
+        sql.append(")").append(getConflictClause(names[idColumn]));
+        String separator = "";
+        for(int i = 0; i < names.length; i++) {
+            if(i != idColumn) {
+                sql.append(separator).append(names[i]).append(" = ").append(getUpdateValue(names[i]));
+                separator = ", ";
+            }
+        }
+        return sql.toString();
+    }
+
+    abstract String getConflictClause(String idName);
+
+    abstract String getUpdateValue(String name);
+
+}
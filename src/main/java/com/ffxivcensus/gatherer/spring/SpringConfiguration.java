@@ -1,6 +1,10 @@
 package com.ffxivcensus.gatherer.spring;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -9,6 +13,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Scope;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.xml.sax.SAXException;
 
 import com.ffxivcensus.gatherer.CLIConstants;
@@ -16,14 +21,36 @@ import com.ffxivcensus.gatherer.Console;
 import com.ffxivcensus.gatherer.GatheringStatus;
 import com.ffxivcensus.gatherer.config.ApplicationConfig;
 import com.ffxivcensus.gatherer.config.ConfigurationBuilder;
+import com.ffxivcensus.gatherer.edb.CollectibleBeanRepository;
+import com.ffxivcensus.gatherer.edb.CollectibleCatalog;
+import com.ffxivcensus.gatherer.edb.CollectibleCatalogRefresher;
+import com.ffxivcensus.gatherer.edb.CollectibleDictionary;
 import com.ffxivcensus.gatherer.edb.EorzeaDatabaseCache;
+import com.ffxivcensus.gatherer.edb.EorzeaDatabaseStore;
+import com.ffxivcensus.gatherer.lodestone.LodestoneHttpClient;
+import com.ffxivcensus.gatherer.lodestone.ProductionAsyncLodestonePageLoader;
+import com.ffxivcensus.gatherer.lodestone.ProductionLodestonePageLoader;
+import com.ffxivcensus.gatherer.lodestone.TokenBucketRateLimiter;
+import com.ffxivcensus.gatherer.player.JobLayoutRegistry;
+import com.ffxivcensus.gatherer.player.PlayerBeanRepository;
+import com.ffxivcensus.gatherer.player.PlayerBeanWriter;
+import com.ffxivcensus.gatherer.player.PlayerBuilder;
+import com.ffxivcensus.gatherer.player.UpsertDialect;
+import com.ffxivcensus.gatherer.task.AdaptiveConcurrencyController;
+import com.ffxivcensus.gatherer.task.CollectionMigrationTask;
 import com.ffxivcensus.gatherer.task.GathererTask;
+import com.ffxivcensus.gatherer.task.GatheringPipeline;
+import com.ffxivcensus.gatherer.task.InFlightLimiter;
+import com.ffxivcensus.gatherer.task.VirtualThreads;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
 @Configuration
 public class SpringConfiguration {
 
+    /** Number of characters to convert at once when converting their mounts & minions into sets. */
+    private static final int COLLECTION_MIGRATION_BLOCK_SIZE = 500;
+
     @Bean
     public ApplicationConfig applicationConfig() throws ParserConfigurationException, IOException, SAXException, ParseException {
         return ConfigurationBuilder.createBuilder()
@@ -34,13 +61,136 @@ public class SpringConfiguration {
 
     @Bean
     @Scope("prototype") // This is a prototype bean, as we want a new one every time
-    public GathererTask gatherer() {
-        return new GathererTask();
+    public GathererTask gatherer(final PlayerBeanRepository playerRepository, final PlayerBuilder playerBuilder)
+            throws ParserConfigurationException, IOException, SAXException, ParseException {
+        ApplicationConfig appConfig = applicationConfig();
+        GathererTask gatherer = new GathererTask();
+        gatherer.setAsyncPageLoading(appConfig.isAsyncPageLoading());
+        gatherer.setRefreshMode(appConfig.isRefreshMode());
+        if(appConfig.getWriteBatchSize() > 0 || appConfig.isNativeUpsert()) {
+            gatherer.setPlayerWriter(playerBeanWriter(playerRepository));
+        }
+        if(appConfig.isStagedPipeline()) {
+            gatherer.setGatheringPipeline(gatheringPipeline(playerBuilder));
+        }
+        if(appConfig.isAsyncPageLoading() || appConfig.isAdaptiveConcurrency() || appConfig.isStagedPipeline()
+           || appConfig.isVirtualThreads()) {
+            gatherer.setInFlightLimiter(inFlightLimiter());
+        }
+        return gatherer;
+    }
+
+    @Bean(destroyMethod = "close") // Saves any characters still in the pipeline on shutdown
+    public GatheringPipeline gatheringPipeline(final PlayerBuilder playerBuilder) throws ParserConfigurationException, IOException,
+                                                                                     SAXException, ParseException {
+        ApplicationConfig appConfig = applicationConfig();
+        // Only handed to the gatherers where the staged pipeline has been enabled, and its threads are only started once used
+        return new GatheringPipeline(playerBuilder,
+                                     appConfig.getFetchThreads() > 0 ? appConfig.getFetchThreads() : appConfig.getThreadLimit(),
+                                     appConfig.getParseThreads() > 0 ? appConfig.getParseThreads()
+                                                                     : Runtime.getRuntime().availableProcessors(),
+                                     appConfig.getResolveThreads(),
+                                     appConfig.getPersistThreads(),
+                                     appConfig.getStageQueueSize());
+    }
+
+    @Bean
+    public InFlightLimiter inFlightLimiter() throws ParserConfigurationException, IOException, SAXException, ParseException {
+        ApplicationConfig appConfig = applicationConfig();
+        // Characters in flight are held by the page loader, the pipeline or virtual threads, rather than each by a pooled thread
+        boolean virtualThreads = appConfig.isVirtualThreads() && VirtualThreads.isSupported();
+        boolean pooledThreads = !appConfig.isAsyncPageLoading() && !appConfig.isStagedPipeline() && !virtualThreads;
+        int maxLimit;
+        if(pooledThreads) {
+            maxLimit = appConfig.getThreadLimit();
+        } else if(virtualThreads) {
+            maxLimit = appConfig.getVirtualThreadsInFlight();
+        } else {
+            maxLimit = appConfig.getMaxInFlight();
+        }
+        InFlightLimiter limiter = new InFlightLimiter(maxLimit);
+        if(appConfig.isAdaptiveConcurrency()) {
+            // Start low and let the controller grow the limit as the Lodestone allows
+            limiter.setLimit(Math.max(ApplicationConfig.DEFAULT_MIN_CONCURRENCY, maxLimit / 4));
+            lodestoneHttpClient().addRequestOutcomeListener(new AdaptiveConcurrencyController(limiter,
+                                                                                               ApplicationConfig.DEFAULT_MIN_CONCURRENCY,
+                                                                                               maxLimit));
+        }
+        return limiter;
+    }
+
+    @Bean(destroyMethod = "close")
+    public LodestoneHttpClient lodestoneHttpClient() throws ParserConfigurationException, IOException, SAXException, ParseException {
+        ApplicationConfig appConfig = applicationConfig();
+        LodestoneHttpClient httpClient = new LodestoneHttpClient(appConfig.getHttpMaxConnections(),
+                                                                 appConfig.getHttpMaxConnectionsPerRoute(),
+                                                                 TimeUnit.SECONDS.toMillis(appConfig.getHttpKeepAliveSeconds()),
+                                                                 TimeUnit.SECONDS.toMillis(appConfig.getHttpIdleTimeoutSeconds()));
+        if(appConfig.getRequestRate() > 0) {
+            httpClient.setRateLimiter(new TokenBucketRateLimiter(appConfig.getRequestRate(), appConfig.getRequestBurst()));
+        }
+        return httpClient;
+    }
+
+    @Bean
+    public ProductionLodestonePageLoader lodestonePageLoader() throws ParserConfigurationException, IOException, SAXException,
+                                                               ParseException {
+        return new ProductionLodestonePageLoader(lodestoneHttpClient());
+    }
+
+    @Bean
+    public ProductionAsyncLodestonePageLoader asyncLodestonePageLoader() throws ParserConfigurationException, IOException, SAXException,
+                                                                         ParseException {
+        return new ProductionAsyncLodestonePageLoader(lodestoneHttpClient());
+    }
+
+    @Bean(destroyMethod = "close")
+    public EorzeaDatabaseCache eorzeaDatabaseCache() throws ParserConfigurationException, IOException, SAXException, ParseException {
+        ApplicationConfig appConfig = applicationConfig();
+        EorzeaDatabaseCache cache = new EorzeaDatabaseCache();
+        cache.setLodestonePageLoader(lodestonePageLoader());
+        if(appConfig.getEdbStoreFile() != null) {
+            cache.setStore(new EorzeaDatabaseStore(Paths.get(appConfig.getEdbStoreFile()), appConfig.getEdbStoreVersion()));
+        }
+        if(appConfig.getCatalogFile() != null) {
+            Path catalogFile = Paths.get(appConfig.getCatalogFile());
+            // The catalog will not exist until it has first been refreshed
+            if(Files.exists(catalogFile)) {
+                cache.importCatalog(CollectibleCatalog.read(catalogFile));
+            }
+        }
+        return cache;
+    }
+
+    @Bean
+    public CollectibleCatalogRefresher collectibleCatalogRefresher(final CollectibleDictionary dictionary)
+            throws ParserConfigurationException, IOException, SAXException, ParseException {
+        ApplicationConfig appConfig = applicationConfig();
+        String patch = new JobLayoutRegistry().getLayout(appConfig.getJobLayout()).getVersion();
+        return new CollectibleCatalogRefresher(dictionary, eorzeaDatabaseCache(), patch);
+    }
+
+    @Bean
+    public CollectibleDictionary collectibleDictionary(final CollectibleBeanRepository repository) {
+        CollectibleDictionary dictionary = new CollectibleDictionary();
+        dictionary.setRepository(repository);
+        return dictionary;
     }
 
     @Bean
-    public EorzeaDatabaseCache eorzeaDatabaseCache() {
-        return new EorzeaDatabaseCache();
+    public CollectionMigrationTask collectionMigrationTask(final CollectibleDictionary dictionary)
+            throws ParserConfigurationException, IOException, SAXException, ParseException {
+        return new CollectionMigrationTask(new JdbcTemplate(dataSource()), dictionary, eorzeaDatabaseCache(),
+                                           COLLECTION_MIGRATION_BLOCK_SIZE);
+    }
+
+    @Bean(destroyMethod = "close") // Writes any characters still queued on shutdown
+    public PlayerBeanWriter playerBeanWriter(final PlayerBeanRepository playerRepository) throws ParserConfigurationException, IOException,
+                                                                                              SAXException, ParseException {
+        ApplicationConfig appConfig = applicationConfig();
+        // Only handed to the gatherers where batching or upserts have been enabled, otherwise it is never written to
+        return new PlayerBeanWriter(dataSource(), playerRepository, appConfig.getWriteBatchSize(), appConfig.getWriteBatchIntervalMillis(),
+                                    appConfig.isNativeUpsert() ? UpsertDialect.forUrl(appConfig.getDbUrl()) : null);
     }
 
     @Bean(destroyMethod = "close") // Should happen anyway, but worth calling out
@@ -52,11 +202,17 @@ public class SpringConfiguration {
         hikariConfig.setJdbcUrl("jdbc:" + appConfig.getDbUrl() + "/" + appConfig.getDbName());
         hikariConfig.setUsername(appConfig.getDbUser());
         hikariConfig.setPassword(appConfig.getDbPassword());
-        hikariConfig.setMaximumPoolSize(appConfig.getThreadLimit());
+        hikariConfig.setMaximumPoolSize(appConfig.getDbPoolSize() > 0 ? appConfig.getDbPoolSize() : appConfig.getThreadLimit());
         hikariConfig.setInitializationFailTimeout(30000);
         if(appConfig.isDbIgnoreSSLWarn()) {
             hikariConfig.addDataSourceProperty("useSSL", false);
         }
+        // Allow the driver to send each batch of inserts as a single multi-row insert
+        if(appConfig.getDbUrl().startsWith("mysql:")) {
+            hikariConfig.addDataSourceProperty("rewriteBatchedStatements", true);
+        } else if(appConfig.getDbUrl().startsWith("postgresql:")) {
+            hikariConfig.addDataSourceProperty("reWriteBatchedInserts", true);
+        }
 
         return new HikariDataSource(hikariConfig);
     }
@@ -0,0 +1,133 @@
+package com.ffxivcensus.gatherer.task;
+
+import java.io.InterruptedIOException;
+
+import org.apache.http.HttpStatus;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ffxivcensus.gatherer.lodestone.RequestOutcomeListener;
+
+/**
+ * Adjusts the number of characters allowed in flight based on how the Lodestone is responding, using an additive-increase,
+ * multiplicative-decrease (AIMD) scheme.
+ * <p>
+ * Request outcomes are collected into windows roughly one limit's worth of requests long. When a window completes without any sign of
+ * congestion and with latency close to the best seen so far, the limit is raised by one. As soon as the Lodestone starts throttling (HTTP
+ * 429/503) or requests time out, the limit is cut by a fixed factor and a fresh window begins, so that a burst of throttled responses only
+ * results in a single cut. Over time the limit settles just below the point at which the Lodestone starts to push back.
+ *
+ * @author matthew.hillier
+ */
+public class AdaptiveConcurrencyController implements RequestOutcomeListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveConcurrencyController.class);
+    /** HTTP Status Code returned by the Lodestone when rate limiting. */
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    /** Fewest requests to consider before deciding to raise the limit. */
+    private static final int MIN_WINDOW = 10;
+    /** Factor by which to cut the limit on congestion. */
+    private static final double DECREASE_FACTOR = 0.75;
+    /** How far the average latency of a window may exceed the best seen before the window is considered unhealthy. */
+    private static final double LATENCY_TOLERANCE = 2.0;
+    /** How quickly the best-seen latency is allowed to drift upwards, so a single lucky window does not hold back growth forever. */
+    private static final double BASELINE_DRIFT = 1.01;
+
+    private final InFlightLimiter limiter;
+    private final int minLimit;
+    private final int maxLimit;
+
+    private int windowSamples;
+    private long windowLatencyNanos;
+    private double baselineLatencyNanos = Double.MAX_VALUE;
+    /** Outcomes seen since the limit was last cut. */
+    private long outcomesSinceCut;
+    /** Characters that were in flight when the limit was last cut, whose requests may still report congestion. */
+    private long requestsAtCut = -1;
+
+    /**
+     * Creates a new controller adjusting the limit of the given limiter between the given bounds.
+     *
+     * @param limiter Limiter to adjust.
+     * @param minLimit Lowest the limit may be cut to.
+     * @param maxLimit Highest the limit may be raised to.
+     */
+    public AdaptiveConcurrencyController(final InFlightLimiter limiter, final int minLimit, final int maxLimit) {
+        this.limiter = limiter;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        limiter.setLimit(Math.min(Math.max(limiter.getLimit(), this.minLimit), this.maxLimit));
+    }
+
+    @Override
+    public synchronized void onResponse(final String host, final int statusCode, final long latencyNanos) {
+        outcomesSinceCut++;
+        if(statusCode == HTTP_TOO_MANY_REQUESTS || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE) {
+            decrease("HTTP " + statusCode);
+        } else {
+            windowSamples++;
+            windowLatencyNanos += latencyNanos;
+            if(windowSamples >= Math.max(MIN_WINDOW, limiter.getLimit())) {
+                completeWindow();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onFailure(final String host, final Exception cause, final long latencyNanos) {
+        if(cause instanceof ConnectionPoolTimeoutException) {
+            // Waited on our own connection pool, so the request never reached the Lodestone
+            return;
+        }
+        outcomesSinceCut++;
+        // Only time-outs indicate the Lodestone is struggling; other failures say nothing about how much load it can take
+        if(cause instanceof InterruptedIOException) {
+            decrease("time-out");
+        }
+    }
+
+    /**
+     * Fetches the current limit on the number of characters in flight.
+     *
+     * @return the current limit
+     */
+    public int getLimit() {
+        return limiter.getLimit();
+    }
+
+    private void completeWindow() {
+        double averageLatency = (double) windowLatencyNanos / windowSamples;
+        baselineLatencyNanos = Math.min(baselineLatencyNanos * BASELINE_DRIFT, averageLatency);
+        if(averageLatency <= baselineLatencyNanos * LATENCY_TOLERANCE) {
+            int limit = limiter.getLimit();
+            if(limit < maxLimit) {
+                limiter.setLimit(limit + 1);
+                LOG.trace("Raised concurrency limit to {}", limit + 1);
+            }
+        }
+        resetWindow();
+    }
+
+    private void decrease(final String reason) {
+        int limit = limiter.getLimit();
+        if(outcomesSinceCut <= requestsAtCut) {
+            // Still hearing back from requests sent before the last cut, so this is the same congestion event
+            return;
+        }
+        int newLimit = Math.max(minLimit, (int) (limit * DECREASE_FACTOR));
+        if(newLimit < limit) {
+            limiter.setLimit(newLimit);
+            LOG.debug("Cut concurrency limit from {} to {} due to {}", limit, newLimit, reason);
+        }
+        outcomesSinceCut = 0;
+        requestsAtCut = limiter.getInFlight();
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        windowSamples = 0;
+        windowLatencyNanos = 0;
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.ffxivcensus.gatherer.task;
+
+import java.util.BitSet;
+
+import com.ffxivcensus.gatherer.player.CharacterStatus;
+import com.ffxivcensus.gatherer.player.PlayerBeanRepository;
+
+/**
+ * Which characters in a contiguous block of IDs have been gathered before, and which of those have been marked as deleted, loaded with
+ * a single range query before the block is dispatched.
+ * <p>
+ * This saves each gatherer from loading its character just to find whether it exists or has been deleted, and saves deleted characters
+ * from being dispatched at all.
+ *
+ * @author matthew.hillier
+ */
+class CharacterStatusBlock {
+
+    private final int firstId;
+    private final int lastId;
+    private final BitSet known = new BitSet();
+    private final BitSet deleted = new BitSet();
+
+    private CharacterStatusBlock(final int firstId, final int lastId) {
+        this.firstId = firstId;
+        this.lastId = lastId;
+    }
+
+    /**
+     * Loads the block of characters between the given IDs.
+     *
+     * @param playerRepository Repository to load the characters from.
+     * @param firstId First ID in the block.
+     * @param lastId Last ID in the block, inclusive.
+     * @return the block.
+     */
+    static CharacterStatusBlock load(final PlayerBeanRepository playerRepository, final int firstId, final int lastId) {
+        CharacterStatusBlock block = new CharacterStatusBlock(firstId, lastId);
+        for(Object[] row : playerRepository.findStatusesByIdBetween(firstId, lastId)) {
+            int offset = (Integer) row[0] - firstId;
+            block.known.set(offset);
+            if(CharacterStatus.DELETED.equals(row[1])) {
+                block.deleted.set(offset);
+            }
+        }
+        return block;
+    }
+
+    /**
+     * @param id ID of the character.
+     * @return whether the character falls within this block.
+     */
+    boolean contains(final int id) {
+        return id >= firstId && id <= lastId;
+    }
+
+    /**
+     * @param id ID of a character within this block.
+     * @return whether the character has been gathered before.
+     */
+    boolean isKnown(final int id) {
+        return known.get(id - firstId);
+    }
+
+    /**
+     * @param id ID of a character within this block.
+     * @return whether the character has been marked as deleted.
+     */
+    boolean isDeleted(final int id) {
+        return deleted.get(id - firstId);
+    }
+
+    /**
+     * @return the number of characters in this block that have been marked as deleted.
+     */
+    int getDeletedCount() {
+        return deleted.cardinality();
+    }
+
+}
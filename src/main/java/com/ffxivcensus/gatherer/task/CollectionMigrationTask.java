@@ -0,0 +1,136 @@
+package com.ffxivcensus.gatherer.task;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ffxivcensus.gatherer.edb.CollectibleDictionary;
+import com.ffxivcensus.gatherer.edb.CollectibleType;
+import com.ffxivcensus.gatherer.edb.EorzeaDatabaseCache;
+import com.ffxivcensus.gatherer.util.BitSetConverter;
+import com.ffxivcensus.gatherer.util.StringListConverter;
+
+/**
+ * Runnable task converting the mounts & minions of characters gathered before they were kept as sets, from the comma-separated lists of
+ * names in the old <code>minions</code> & <code>mounts</code> columns into the <code>minion_set</code> & <code>mount_set</code> columns.
+ * <p>
+ * Each name is matched to its collectible in the collectible dictionary, or otherwise by the tooltip ID of the name already known to the
+ * {@link EorzeaDatabaseCache}, such as from its store or an imported catalog. The old columns of each character converted are cleared,
+ * and once none are left the database changelog drops them. A character owning any collectible whose name cannot be matched keeps their
+ * old columns, so that they can be converted by a later run, once the name is known. Characters already re-gathered keep the sets they
+ * were gathered with. Characters are converted in bounded blocks of IDs, and the task is intended to run before gathering starts.
+ *
+ * @author matthew.hillier
+ */
+public class CollectionMigrationTask implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CollectionMigrationTask.class);
+    private static final StringListConverter NAMES = new StringListConverter();
+    private static final BitSetConverter SETS = new BitSetConverter();
+    private static final String SELECT_SQL = "SELECT id, minions, mounts, minion_set, mount_set FROM tblplayers"
+                                             + " WHERE id > ? AND (minions IS NOT NULL OR mounts IS NOT NULL) ORDER BY id LIMIT ?";
+    private static final String UPDATE_SQL = "UPDATE tblplayers SET minion_set = ?, mount_set = ?, minions = NULL, mounts = NULL"
+                                             + " WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CollectibleDictionary dictionary;
+    private final EorzeaDatabaseCache edbCache;
+    private final int blockSize;
+    private final Map<CollectibleType, Map<String, String>> tooltipIds = new EnumMap<>(CollectibleType.class);
+
+    /**
+     * Creates a new migration task.
+     *
+     * @param jdbcTemplate Template to read and write the characters through.
+     * @param dictionary Dictionary to match each name to its collectible in.
+     * @param edbCache Cache holding the tooltip IDs of the names already known.
+     * @param blockSize Number of characters to convert at once.
+     */
+    public CollectionMigrationTask(final JdbcTemplate jdbcTemplate, final CollectibleDictionary dictionary,
+                                   final EorzeaDatabaseCache edbCache, final int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dictionary = dictionary;
+        this.edbCache = edbCache;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public void run() {
+        for(CollectibleType type : CollectibleType.values()) {
+            tooltipIds.put(type, edbCache.getKnownTooltipIds(type));
+        }
+
+        int converted = 0;
+        int unmatched = 0;
+        int lastId = -1;
+        try {
+            List<Map<String, Object>> rows;
+            do {
+                rows = jdbcTemplate.queryForList(SELECT_SQL, lastId, blockSize);
+                List<Object[]> updates = new ArrayList<>(rows.size());
+                for(Map<String, Object> row : rows) {
+                    lastId = ((Number) row.get("id")).intValue();
+                    BitSet minions = convert(CollectibleType.MINION, (String) row.get("minions"));
+                    BitSet mounts = convert(CollectibleType.MOUNT, (String) row.get("mounts"));
+                    if(minions == null && row.get("minion_set") == null || mounts == null && row.get("mount_set") == null) {
+                        unmatched++;
+                    } else {
+                        updates.add(new Object[] {setOf(row.get("minion_set"), minions), setOf(row.get("mount_set"), mounts), lastId});
+                    }
+                }
+                if(!updates.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+                    converted += updates.size();
+                }
+            } while(rows.size() == blockSize && !Thread.currentThread().isInterrupted());
+        } catch(BadSqlGrammarException bsge) {
+            // The old columns have already been dropped, so there is nothing left to convert
+            LOG.debug("COLLECTION MIGRATION: No old mount & minion columns to convert");
+            return;
+        }
+
+        if(converted > 0 || unmatched > 0) {
+            LOG.info("COLLECTION MIGRATION: Converted the mounts & minions of {} characters", converted);
+        }
+        if(unmatched > 0) {
+            LOG.warn("COLLECTION MIGRATION: Left {} characters owning mounts or minions not yet named, to convert once they are known"
+                     + " (such as from a catalog)", unmatched);
+        }
+    }
+
+    /**
+     * Converts a comma-separated list of names into their set.
+     *
+     * @return the set, or null if the list held any name that could not be matched.
+     */
+    private BitSet convert(final CollectibleType type, final String names) {
+        BitSet set = new BitSet();
+        for(String name : NAMES.convertToEntityAttribute(names)) {
+            int index = dictionary.getIndexOfName(type, name);
+            if(index < 0) {
+                String tooltipId = tooltipIds.get(type).get(name);
+                if(tooltipId == null) {
+                    return null;
+                }
+                index = dictionary.setName(type, tooltipId, name);
+            }
+            set.set(index);
+        }
+        return set;
+    }
+
+    /**
+     * Picks the set to keep for a character, preferring the set they were last gathered with.
+     */
+    private static Object setOf(final Object gathered, final BitSet converted) {
+        return gathered != null ? gathered : SETS.convertToDatabaseColumn(converted);
+    }
+
+}
@@ -5,9 +5,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.ffxivcensus.gatherer.GathererController;
+import com.ffxivcensus.gatherer.GatheringStatus;
 import com.ffxivcensus.gatherer.player.CharacterStatus;
+import com.ffxivcensus.gatherer.player.CharacterStatusMap;
 import com.ffxivcensus.gatherer.player.PlayerBean;
 import com.ffxivcensus.gatherer.player.PlayerBeanRepository;
+import com.ffxivcensus.gatherer.player.PlayerBeanWriter;
 import com.ffxivcensus.gatherer.player.PlayerBuilder;
 
 /**
@@ -29,22 +32,49 @@ public class GathererTask implements Runnable {
     private int playerId;
     private PlayerBuilder playerBuilder;
     private PlayerBeanRepository playerRepository;
+    private PlayerBeanWriter playerWriter;
+    private CharacterStatusMap statusMap;
+    private GatheringStatus gatheringStatus;
+    private InFlightLimiter inFlightLimiter;
+    private GatheringPipeline gatheringPipeline;
+    private boolean asyncPageLoading;
+    private boolean refreshMode;
+    private boolean prefetched;
+    private boolean known;
 
     /**
      * Run the Gatherer.
+     * Where non-blocking page loading has been enabled, the character will be fetched via the non-blocking page loader and this method
+     * will return as soon as the character is in flight, otherwise the character is fetched and saved on the calling thread.
+     * Where refresh mode has been enabled, characters that have been gathered before are refreshed on the calling thread, re-fetching
+     * their pages only where they have changed.
+     * Where a {@link GatheringPipeline} has been provided, any other character is put into it, and this method returns once the
+     * pipeline has accepted the character.
      */
     @Override
     public void run() {
         try {
             LOG.debug("Starting evaluation of player ID: {}", getPlayerId());
 
-            // Check whether we already know about this character
-            PlayerBean player = playerRepository.findOne(getPlayerId());
+            // Check whether we already know about this character, unless the dispatcher has checked already
+            // Refreshing a known character still needs it loading in full
+            PlayerBean player = null;
+            boolean existing = known;
+            if(!prefetched || (known && refreshMode)) {
+                player = playerRepository.findOne(getPlayerId());
+                existing = player != null;
+            }
             if(player == null || !CharacterStatus.DELETED.equals(player.getCharacterStatus())) {
                 // Only update characters that have not been deleted
-                player = playerBuilder.getPlayer(getPlayerId());
-                getPlayerRepository().save(player);
-                RESULT_LOG.info("{} - {}", getPlayerId(), player.getCharacterStatus());
+                if(player != null && refreshMode) {
+                    refresh(player);
+                } else if(gatheringPipeline != null) {
+                    gatherStaged(existing);
+                } else if(asyncPageLoading) {
+                    gatherAsync(existing);
+                } else {
+                    gather(existing);
+                }
             } else {
                 RESULT_LOG.info("{} - SKIPPED as they have been previously marked as DELETED", getPlayerId());
             }
@@ -54,6 +84,136 @@ public class GathererTask implements Runnable {
         }
     }
 
+    /**
+     * Fetches & saves the character on the calling thread, holding a slot from the {@link InFlightLimiter} (where provided) for the
+     * duration.
+     *
+     * @param existing Whether the character has been gathered before.
+     * @throws Exception If the character could not be fetched or saved.
+     */
+    private void gather(final boolean existing) throws Exception {
+        if(inFlightLimiter != null) {
+            inFlightLimiter.acquire();
+        }
+        try {
+            PlayerBean player = playerBuilder.getPlayer(getPlayerId());
+            save(player, existing);
+            RESULT_LOG.info("{} - {}", getPlayerId(), player.getCharacterStatus());
+        } finally {
+            if(inFlightLimiter != null) {
+                inFlightLimiter.release();
+            }
+        }
+    }
+
+    /**
+     * Refreshes & saves a previously gathered character on the calling thread via {@link PlayerBuilder#refreshPlayer(PlayerBean)},
+     * holding a slot from the {@link InFlightLimiter} (where provided) for the duration.
+     *
+     * @param existing The character as previously gathered.
+     * @throws Exception If the character could not be refreshed or saved.
+     */
+    private void refresh(final PlayerBean existing) throws Exception {
+        if(inFlightLimiter != null) {
+            inFlightLimiter.acquire();
+        }
+        try {
+            PlayerBean player = playerBuilder.refreshPlayer(existing);
+            save(player, true);
+            RESULT_LOG.info("{} - {} (REFRESHED)", getPlayerId(), player.getCharacterStatus());
+        } finally {
+            if(inFlightLimiter != null) {
+                inFlightLimiter.release();
+            }
+        }
+    }
+
+    /**
+     * Puts the character in flight via {@link PlayerBuilder#getPlayerAsync(int)}, saving the result once all pages have been loaded.
+     * Blocks only for as long as it takes to obtain a slot from the {@link InFlightLimiter}.
+     * Where saving is left to a {@link PlayerBeanWriter}, the slot is held until the writer has accepted the character, so that a full
+     * writer holds back further characters from being put in flight.
+     *
+     * @param existing Whether the character has been gathered before.
+     * @throws InterruptedException If interrupted while waiting for a slot.
+     */
+    private void gatherAsync(final boolean existing) throws InterruptedException {
+        final int id = getPlayerId();
+        inFlightLimiter.acquire();
+        try {
+            playerBuilder.getPlayerAsync(id).whenComplete((player, ex) -> {
+                try {
+                    if(ex != null) {
+                        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                        LOG.error(cause.getMessage(), cause);
+                        RESULT_LOG.debug("{} - FAILED", id);
+                    } else {
+                        save(player, existing);
+                        RESULT_LOG.info("{} - {}", id, player.getCharacterStatus());
+                    }
+                } catch(Exception e) {
+                    LOG.error(e.getMessage(), e);
+                    RESULT_LOG.debug("{} - FAILED", id);
+                } finally {
+                    inFlightLimiter.release();
+                }
+            });
+        } catch(RuntimeException re) {
+            inFlightLimiter.release();
+            throw re;
+        }
+    }
+
+    /**
+     * Puts the character into the {@link GatheringPipeline}, saving the result once it has passed through each stage.
+     * Blocks only for as long as it takes to obtain a slot from the {@link InFlightLimiter} (where provided) and for the pipeline to
+     * accept the character, with the slot held until the character leaves the pipeline.
+     *
+     * @param existing Whether the character has been gathered before.
+     * @throws InterruptedException If interrupted while waiting for a slot or for the pipeline.
+     */
+    private void gatherStaged(final boolean existing) throws InterruptedException {
+        if(inFlightLimiter != null) {
+            inFlightLimiter.acquire();
+        }
+        Runnable release = () -> {
+            if(inFlightLimiter != null) {
+                inFlightLimiter.release();
+            }
+        };
+        try {
+            gatheringPipeline.submit(getPlayerId(), player -> save(player, existing), release);
+        } catch(InterruptedException | RuntimeException e) {
+            release.run();
+            throw e;
+        }
+    }
+
+    /**
+     * Saves the character, either directly or via the {@link PlayerBeanWriter} where provided, and records its status in the
+     * {@link CharacterStatusMap} where provided and against the {@link GatheringStatus}.
+     * The status map outlives the run, so the character is only recorded in it once it has been committed to the database; where
+     * written via the writer, that is once its batch has been written.
+     *
+     * @param player The character to save.
+     * @param existing Whether the character has been saved before.
+     * @throws InterruptedException If interrupted while waiting for the writer to accept the character.
+     */
+    private void save(final PlayerBean player, final boolean existing) throws InterruptedException {
+        Runnable recordStatus = statusMap != null ? () -> statusMap.set(player.getId(), player.getCharacterStatus()) : null;
+        if(playerWriter != null) {
+            playerWriter.write(player, existing, recordStatus);
+        } else {
+            getPlayerRepository().save(player);
+            if(recordStatus != null) {
+                recordStatus.run();
+            }
+        }
+        if(gatheringStatus != null) {
+            gatheringStatus.recordGathered(player.getId(), player.getCharacterStatus());
+        }
+    }
+
     public int getPlayerId() {
         return playerId;
     }
@@ -62,6 +222,17 @@ public class GathererTask implements Runnable {
         this.playerId = playerId;
     }
 
+    /**
+     * Records whether the character has been gathered before, as already checked by the dispatcher, so that it does not need loading
+     * just to check. The dispatcher is expected not to dispatch characters that have been marked as deleted.
+     *
+     * @param known Whether the character has been gathered before.
+     */
+    public void setKnown(final boolean known) {
+        this.prefetched = true;
+        this.known = known;
+    }
+
     public PlayerBeanRepository getPlayerRepository() {
         return playerRepository;
     }
@@ -76,4 +247,69 @@ public class GathererTask implements Runnable {
         this.playerRepository = playerRepository;
     }
 
+    /**
+     * Sets the status of the run, against which the highest gathered & valid characters are recorded.
+     *
+     * @param gatheringStatus
+     */
+    @Autowired
+    public void setGatheringStatus(GatheringStatus gatheringStatus) {
+        this.gatheringStatus = gatheringStatus;
+    }
+
+    /**
+     * Sets the writer used to save characters with plain JDBC, in batches or by native upsert, rather than through the repository.
+     *
+     * @param playerWriter
+     */
+    public void setPlayerWriter(PlayerBeanWriter playerWriter) {
+        this.playerWriter = playerWriter;
+    }
+
+    /**
+     * Sets the map in which to record the status of each character saved.
+     *
+     * @param statusMap
+     */
+    public void setStatusMap(CharacterStatusMap statusMap) {
+        this.statusMap = statusMap;
+    }
+
+    /**
+     * Sets the limiter used to bound the number of characters in flight.
+     * Required when using non-blocking page loading.
+     *
+     * @param inFlightLimiter
+     */
+    public void setInFlightLimiter(InFlightLimiter inFlightLimiter) {
+        this.inFlightLimiter = inFlightLimiter;
+    }
+
+    /**
+     * Sets the pipeline through which to gather the character, in place of gathering it on the calling thread.
+     *
+     * @param gatheringPipeline
+     */
+    public void setGatheringPipeline(GatheringPipeline gatheringPipeline) {
+        this.gatheringPipeline = gatheringPipeline;
+    }
+
+    /**
+     * Sets whether the character should be fetched via the non-blocking page loader.
+     *
+     * @param asyncPageLoading
+     */
+    public void setAsyncPageLoading(boolean asyncPageLoading) {
+        this.asyncPageLoading = asyncPageLoading;
+    }
+
+    /**
+     * Sets whether characters that have been gathered before should be refreshed, rather than fetched in full.
+     *
+     * @param refreshMode
+     */
+    public void setRefreshMode(boolean refreshMode) {
+        this.refreshMode = refreshMode;
+    }
+
 }
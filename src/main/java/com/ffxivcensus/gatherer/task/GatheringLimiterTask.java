@@ -1,17 +1,18 @@
 package com.ffxivcensus.gatherer.task;
 
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ExecutorService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.ffxivcensus.gatherer.GatheringStatus;
 import com.ffxivcensus.gatherer.config.ApplicationConfig;
-import com.ffxivcensus.gatherer.player.CharacterStatus;
-import com.ffxivcensus.gatherer.player.PlayerBean;
-import com.ffxivcensus.gatherer.player.PlayerBeanRepository;
 
 /**
  * Runnable task managing the shutdown criteria of the gathering process, by managing the {@see ExecutorService}.
+ * <p>
+ * The highest gathered & valid characters are read from the {@link GatheringStatus}, which is seeded from the database before gathering
+ * starts and kept up to date as each character is saved, so that checking puts no load on the database.
  * 
  * @author matthew.hillier
  */
@@ -19,28 +20,28 @@ public class GatheringLimiterTask implements Runnable {
 
     private static final Logger LOG = LoggerFactory.getLogger(GatheringLimiterTask.class);
 
-    private ThreadPoolExecutor gathererExecutor;
-    private PlayerBeanRepository characterRepository;
+    private ExecutorService gathererExecutor;
+    private GatheringStatus gatheringStatus;
     private ApplicationConfig config;
 
-    public GatheringLimiterTask(ApplicationConfig config, final ThreadPoolExecutor gathererExecutor, final PlayerBeanRepository playerBeanRepository) {
+    public GatheringLimiterTask(ApplicationConfig config, final ExecutorService gathererExecutor, final GatheringStatus gatheringStatus) {
         this.config = config;
         this.gathererExecutor = gathererExecutor;
-        this.characterRepository = playerBeanRepository;
+        this.gatheringStatus = gatheringStatus;
     }
 
     @Override
     public void run() {
         LOG.debug("GATHERING CAPPING: Checking whether the gathering should stop...");
-        // Check the database for the highest valid character
-        PlayerBean highestGathered = characterRepository.findTopByOrderByIdDesc();
-        // Check the database for the highest gathered ID so far
-        PlayerBean highestValid = characterRepository.findTopByCharacterStatusNotOrderByIdDesc(CharacterStatus.DELETED);
+        // Check the highest gathered ID so far
+        int highestGathered = gatheringStatus.getHighestGatheredId();
+        // Check the highest valid character
+        int highestValid = gatheringStatus.getHighestValidId();
         // if the gap between valid character and gathered ID is greater than the gap limit
         // then
         // - issue gathererService.shutdownNow()
-        int maxId = highestGathered == null ? Integer.MAX_VALUE : highestGathered.getId();
-        int maxValidId = highestValid == null ? 0 : highestValid.getId();
+        int maxId = highestGathered < 0 ? Integer.MAX_VALUE : highestGathered;
+        int maxValidId = highestValid < 0 ? 0 : highestValid;
 
         if(maxId > config.getAutoStopLowerLimitId() && maxId > maxValidId + config.getAutoStopGap()) {
             LOG.info("GATHERING CAPPING: FINISHING - No valid characters found for at least {} ID's after Character #{}",
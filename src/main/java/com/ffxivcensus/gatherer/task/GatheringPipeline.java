@@ -0,0 +1,179 @@
+package com.ffxivcensus.gatherer.task;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ffxivcensus.gatherer.player.CharacterPages;
+import com.ffxivcensus.gatherer.player.PlayerBean;
+import com.ffxivcensus.gatherer.player.PlayerBuilder;
+
+/**
+ * Gathers characters through four stages, each with its own threads and bounded queue, rather than wholly on one gatherer thread.
+ * <ol>
+ * <li><b>fetch</b> - loads each character's pages from the Lodestone, sized for waiting on the network.</li>
+ * <li><b>parse</b> - picks the levels & collectibles out of the pages, sized for the available processors.</li>
+ * <li><b>resolve</b> - resolves the collectibles against the Eorzea Database and derives the rest of the character.</li>
+ * <li><b>persist</b> - saves the character, usually by handing it to the batched writer.</li>
+ * </ol>
+ * Characters that cannot be found skip straight from fetch to persist. Each stage blocks the one before it once its queue is full, so
+ * that the slowest stage sets the pace without the others piling up work, and can be found from the {@link PipelineMonitorTask} report.
+ *
+ * @author matthew.hillier
+ * @see PlayerBuilder#fetchPages(int)
+ * @see PlayerBuilder#parsePages(CharacterPages)
+ * @see PlayerBuilder#resolveCollectibles(CharacterPages)
+ */
+public class GatheringPipeline implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GatheringPipeline.class);
+    private static final Logger RESULT_LOG = LoggerFactory.getLogger(GathererTask.class.getName() + ".result");
+    /** Longest to wait for each stage to finish its work on closing. */
+    private static final long CLOSE_TIMEOUT_SECONDS = 60;
+
+    private final PlayerBuilder playerBuilder;
+    private final PipelineStage fetch;
+    private final PipelineStage parse;
+    private final PipelineStage resolve;
+    private final PipelineStage persist;
+
+    /**
+     * Creates a new pipeline.
+     *
+     * @param playerBuilder Builder whose stages build each character.
+     * @param fetchThreads Number of threads fetching pages.
+     * @param parseThreads Number of threads parsing pages.
+     * @param resolveThreads Number of threads resolving collectibles.
+     * @param persistThreads Number of threads saving characters.
+     * @param queueSize Number of characters that may wait for each stage.
+     */
+    public GatheringPipeline(final PlayerBuilder playerBuilder, final int fetchThreads, final int parseThreads, final int resolveThreads,
+                             final int persistThreads, final int queueSize) {
+        this.playerBuilder = playerBuilder;
+        this.fetch = new PipelineStage("fetch", fetchThreads, queueSize);
+        this.parse = new PipelineStage("parse", parseThreads, queueSize);
+        this.resolve = new PipelineStage("resolve", resolveThreads, queueSize);
+        this.persist = new PipelineStage("persist", persistThreads, queueSize);
+    }
+
+    /**
+     * Puts a character into the pipeline, waiting while the fetch stage is full.
+     * Once the character has been saved, or has failed at any stage, the given callback is run on the thread of the last stage reached.
+     *
+     * @param playerId ID of the character to gather.
+     * @param persister Saves the character once built.
+     * @param done Run once the character has left the pipeline, unless it could not be put into it.
+     * @throws InterruptedException If interrupted while waiting for the fetch stage.
+     */
+    public void submit(final int playerId, final Persister persister, final Runnable done) throws InterruptedException {
+        handOff(fetch, new Job(playerId, persister, done), this::fetch);
+    }
+
+    /**
+     * @return the stages of the pipeline, in order.
+     */
+    public List<PipelineStage> getStages() {
+        return Collections.unmodifiableList(Arrays.asList(fetch, parse, resolve, persist));
+    }
+
+    /**
+     * Waits for the characters in the pipeline to be saved, stage by stage, then stops each stage.
+     */
+    @Override
+    public void close() {
+        try {
+            for(PipelineStage stage : getStages()) {
+                if(!stage.shutdown(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    LOG.warn("Pipeline stage {} did not finish within {} seconds", stage.getName(), CLOSE_TIMEOUT_SECONDS);
+                }
+            }
+        } catch(InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for(PipelineStage stage : getStages()) {
+                stage.shutdownNow();
+            }
+        }
+    }
+
+    private void fetch(final Job job) throws Exception {
+        job.pages = playerBuilder.fetchPages(job.playerId);
+        if(job.pages.isDeleted()) {
+            job.player = job.pages.getPlayer();
+            handOff(persist, job, this::persist);
+        } else {
+            handOff(parse, job, this::parse);
+        }
+    }
+
+    private void parse(final Job job) throws Exception {
+        playerBuilder.parsePages(job.pages);
+        handOff(resolve, job, this::resolve);
+    }
+
+    private void resolve(final Job job) throws Exception {
+        job.player = playerBuilder.resolveCollectibles(job.pages);
+        job.pages = null;
+        handOff(persist, job, this::persist);
+    }
+
+    private void persist(final Job job) throws Exception {
+        job.persister.persist(job.player);
+        RESULT_LOG.info("{} - {}", job.playerId, job.player.getCharacterStatus());
+        job.done.run();
+    }
+
+    /**
+     * Submits the next step for the character to the given stage, which sees the character out of the pipeline should the step fail.
+     */
+    private void handOff(final PipelineStage stage, final Job job, final Step step) throws InterruptedException {
+        stage.submit(() -> {
+            try {
+                step.run(job);
+            } catch(Exception e) {
+                if(e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                LOG.error(e.getMessage(), e);
+                RESULT_LOG.debug("{} - FAILED", job.playerId);
+                job.done.run();
+            }
+        });
+    }
+
+    /**
+     * Saves a character built by the pipeline.
+     */
+    @FunctionalInterface
+    public interface Persister {
+        void persist(PlayerBean player) throws InterruptedException;
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run(Job job) throws Exception;
+    }
+
+    /**
+     * A character passing through the pipeline.
+     */
+    private static class Job {
+        private final int playerId;
+        private final Persister persister;
+        private final Runnable done;
+        private CharacterPages pages;
+        private PlayerBean player;
+
+        private Job(final int playerId, final Persister persister, final Runnable done) {
+            this.playerId = playerId;
+            this.persister = persister;
+            this.done = done;
+        }
+    }
+
+}
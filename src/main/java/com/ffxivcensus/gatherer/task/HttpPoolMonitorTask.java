@@ -0,0 +1,43 @@
+package com.ffxivcensus.gatherer.task;
+
+import java.util.Map;
+
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ffxivcensus.gatherer.lodestone.LodestoneHttpClient;
+
+/**
+ * Runnable task reporting on the utilisation of the pooled HTTP connections.
+ * A pool that is consistently full with requests pending indicates that more connections per host may help, while a pool with many
+ * connections available indicates the limit can safely be reduced.
+ *
+ * @author matthew.hillier
+ */
+public class HttpPoolMonitorTask implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpPoolMonitorTask.class);
+
+    private final LodestoneHttpClient httpClient;
+
+    public HttpPoolMonitorTask(final LodestoneHttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public void run() {
+        PoolStats total = httpClient.getPoolStats();
+        LOG.info("HTTP POOL: {} leased, {} available, {} pending (max {} per host, {} total)",
+                 total.getLeased(), total.getAvailable(), total.getPending(),
+                 httpClient.getMaxConnectionsPerRoute(), httpClient.getMaxConnections());
+        if(LOG.isDebugEnabled()) {
+            for(Map.Entry<String, PoolStats> route : httpClient.getRouteStats().entrySet()) {
+                PoolStats stats = route.getValue();
+                LOG.debug("HTTP POOL: {} - {} leased, {} available, {} pending",
+                          route.getKey(), stats.getLeased(), stats.getAvailable(), stats.getPending());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.ffxivcensus.gatherer.task;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounds the number of characters that may be gathered concurrently.
+ * Callers must {@link #acquire()} a slot before starting work on a character and {@link #release()} it once that character has been
+ * dealt with, regardless of the outcome.
+ * <p>
+ * Unlike the thread pool limits, this allows non-blocking page loading to keep many characters in flight from only a few threads, while
+ * still applying back-pressure to the gatherer threads once the limit has been reached. The limit may be changed while gathering is under
+ * way, for example by the {@link AdaptiveConcurrencyController}.
+ *
+ * @author matthew.hillier
+ */
+public class InFlightLimiter {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Signalled whenever a slot may have become available. */
+    private final Condition slotAvailable = lock.newCondition();
+    /** Signalled once nothing remains in flight. */
+    private final Condition idle = lock.newCondition();
+    private int limit;
+    private int inFlight;
+
+    /**
+     * Creates a new limiter allowing up to the given number of concurrent characters.
+     *
+     * @param limit Maximum number of characters in flight.
+     */
+    public InFlightLimiter(final int limit) {
+        this.limit = Math.max(1, limit);
+    }
+
+    /**
+     * Acquires a slot, waiting until one becomes available.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while(inFlight >= limit) {
+                slotAvailable.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a previously acquired slot.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            if(inFlight > 0) {
+                inFlight--;
+            }
+            slotAvailable.signal();
+            if(inFlight == 0) {
+                idle.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for all acquired slots to be released.
+     *
+     * @param timeout Maximum time to wait.
+     * @param unit Unit of the timeout.
+     * @return Whether everything in flight completed within the timeout.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public boolean awaitIdle(final long timeout, final TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while(inFlight > 0) {
+                if(nanos <= 0) {
+                    return false;
+                }
+                nanos = idle.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fetches the maximum number of characters allowed in flight.
+     *
+     * @return the limit
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes the maximum number of characters allowed in flight.
+     * Lowering the limit does not affect characters already in flight, but no more will be allowed to start until enough have completed to
+     * bring the number in flight below the new limit.
+     *
+     * @param limit New maximum number of characters in flight.
+     */
+    public void setLimit(final int limit) {
+        lock.lock();
+        try {
+            this.limit = Math.max(1, limit);
+            slotAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fetches the number of characters currently in flight.
+     *
+     * @return the number of acquired slots
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
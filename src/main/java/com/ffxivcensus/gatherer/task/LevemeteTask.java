@@ -1,71 +1,229 @@
 package com.ffxivcensus.gatherer.task;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.ffxivcensus.gatherer.GatheringStatus;
+import com.ffxivcensus.gatherer.lodestone.LodestoneHttpClient;
+import com.ffxivcensus.gatherer.player.CharacterStatusMap;
+import com.ffxivcensus.gatherer.player.PlayerBeanRepository;
 
 /**
  * Runnable task managing the distribution and setup of {@see Gatherer} tasks into the {@see ExecutorService}.
  * This job will cease when the {@see ExecutorService} stops accepting new jobs, as indicated by the
- * service throwing a new {@see RejectedExecutionException}.
+ * service throwing a new {@see RejectedExecutionException}, or once the finish ID has been reached.
+ * <p>
+ * Rather than topping up the executor's queue on a timer, the task runs for the whole of the gathering, and holds a permit for each
+ * character dispatched until its gatherer finishes. The next ID is only checked out once a permit is free, so that a gatherer finishing
+ * is immediately replaced and the executor's queue never holds more than the dispatch limit.
+ * <p>
+ * Where a repository has been provided, the statuses of each upcoming block of IDs are loaded with a single query before they are
+ * dispatched, so that characters previously marked as deleted are skipped without a task being created for them. Where a
+ * {@link CharacterStatusMap} has been provided, the statuses are read from it instead, and each task records its result in it.
  * 
  * @author matthew.hillier
  */
 public class LevemeteTask implements Runnable {
 
     private static final Logger LOG = LoggerFactory.getLogger(LevemeteTask.class);
-    private final ThreadPoolExecutor gathererExecutor;
+    private static final Logger RESULT_LOG = LoggerFactory.getLogger(GathererTask.class.getName() + ".result");
+    /** Number of IDs to load the statuses of at once. */
+    private static final int BLOCK_SIZE = 1000;
+    /** Time to wait before checking again whether dispatch can continue. */
+    private static final long PAUSE_MILLIS = 250;
+    /** Number of IDs between each report of the characters in flight. */
+    private static final int REPORT_EVERY = 1000;
+    /** Default maximum number of characters dispatched but not yet gathered. */
+    public static final int DEFAULT_DISPATCH_LIMIT = 1000;
+    private final ExecutorService gathererExecutor;
     private final TaskFactory gathererFactory;
     private final GatheringStatus gatheringStatus;
+    private final int dispatchLimit;
+    private final Semaphore dispatchPermits;
+    private InFlightLimiter inFlightLimiter;
+    private LodestoneHttpClient httpClient;
+    private PlayerBeanRepository playerRepository;
+    private CharacterStatusBlock block;
+    private CharacterStatusMap statusMap;
+    private TopEndCleanupTask topEndCleanup;
 
-    public LevemeteTask(final ThreadPoolExecutor gathererExecutor,
+    public LevemeteTask(final ExecutorService gathererExecutor,
                         final TaskFactory gathererFactory,
                         final GatheringStatus gatheringStatus) {
+        this(gathererExecutor, gathererFactory, gatheringStatus, DEFAULT_DISPATCH_LIMIT);
+    }
+
+    /**
+     * Creates a new dispatcher.
+     *
+     * @param gathererExecutor Executor to run the gatherers on.
+     * @param gathererFactory Factory creating each gatherer.
+     * @param gatheringStatus Status of the gathering, holding the next & finish IDs.
+     * @param dispatchLimit Maximum number of characters dispatched to the executor but not yet gathered, whether running or queued.
+     */
+    public LevemeteTask(final ExecutorService gathererExecutor,
+                        final TaskFactory gathererFactory,
+                        final GatheringStatus gatheringStatus,
+                        final int dispatchLimit) {
         this.gathererExecutor = gathererExecutor;
         this.gathererFactory = gathererFactory;
         this.gatheringStatus = gatheringStatus;
+        this.dispatchLimit = Math.max(1, dispatchLimit);
+        this.dispatchPermits = new Semaphore(this.dispatchLimit);
     }
 
     @Override
     public void run() {
-        LOG.debug("Loading new jobs into the gatherer");
-
-        // Check if the executor in shutdown, and if so don't do anything.
-        if(gathererExecutor.isTerminated() || gathererExecutor.isTerminating()) {
+        LOG.debug("LEVEMETE: Dispatching up to {} characters at once", dispatchLimit);
+        try {
+            while(!gathererExecutor.isShutdown()) {
+                // If gathering has reached the finish ID, initiate shutdown of all new tasks
+                if(gatheringStatus.getCurrentId() >= gatheringStatus.getFinishId()) {
+                    LOG.info("LEVEMETE: STOPPING - Initiating graceful shutdown as gatherer has reached user-specified limits.");
+                    gathererExecutor.shutdown();
+                    return;
+                }
+                // Hold off dispatching while the Lodestone is unavailable, so that we don't burn through IDs that would only fail
+                if(httpClient != null && httpClient.isAnyCircuitOpen()) {
+                    LOG.debug("LEVEMETE: PAUSED - Waiting for the Lodestone to recover");
+                    Thread.sleep(PAUSE_MILLIS);
+                    continue;
+                }
+                // Hold off on IDs the top-end cleanup has yet to reach, so that it does not delete them once gathered
+                if(topEndCleanup != null && !topEndCleanup.isCleared(gatheringStatus.getCurrentId() + 1)) {
+                    LOG.debug("LEVEMETE: WAITING - Top-end cleanup has only cleared up to Character #{}", topEndCleanup.getClearedUpTo());
+                    Thread.sleep(PAUSE_MILLIS);
+                    continue;
+                }
+                // Wait for a gatherer to finish with a character before checking out the next ID
+                if(!dispatchPermits.tryAcquire(PAUSE_MILLIS, TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
+                if(!dispatch(gatheringStatus.getNextId())) {
+                    dispatchPermits.release();
+                }
+            }
             LOG.debug("LEVEMETE: SKIP - Gatherer is shutting down");
-            return;
+        } catch(RejectedExecutionException ree) {
+            // Catch RejectedExecution error and stop due to executor shutdown
+            LOG.info("LEVEMETE: STOPPING - Gatherer stopped accepting new jobs.");
+        } catch(InterruptedException ie) {
+            LOG.info("LEVEMETE: STOPPING - Interrupted");
+            Thread.currentThread().interrupt();
         }
+    }
 
-        // Check number of jobs present in the executor
-        // if < 100
-        if(gathererExecutor.getQueue().size() < 100) {
-            // then
-            // - while executor pool is not at 1000
-            while(gathererExecutor.getQueue().size() < 1000 && gatheringStatus.getCurrentId() < gatheringStatus.getFinishId()) {
-                // -- check out next ID
-                // -- create new gatherer
-                GathererTask task = gathererFactory.createGatherer();
-                task.setPlayerId(gatheringStatus.getNextId());
+    /**
+     * Creates & executes the gatherer for the given ID, unless it has previously been marked as deleted.
+     *
+     * @return whether a gatherer was executed, holding a dispatch permit until it finishes.
+     */
+    private boolean dispatch(final int id) {
+        if(statusMap != null) {
+            if(statusMap.isDeleted(id)) {
+                RESULT_LOG.info("{} - SKIPPED as they have been previously marked as DELETED", id);
+                return false;
+            }
+        } else if(playerRepository != null) {
+            if(block == null || !block.contains(id)) {
+                block = loadBlock(id);
+            }
+            if(block.isDeleted(id)) {
+                RESULT_LOG.info("{} - SKIPPED as they have been previously marked as DELETED", id);
+                return false;
+            }
+        }
+        GathererTask task = gathererFactory.createGatherer();
+        task.setPlayerId(id);
+        if(statusMap != null) {
+            task.setKnown(statusMap.isKnown(id));
+            task.setStatusMap(statusMap);
+        } else if(block != null) {
+            task.setKnown(block.isKnown(id));
+        }
+        if(inFlightLimiter != null && id % REPORT_EVERY == 0) {
+            LOG.debug("LEVEMETE: Dispatching character #{}, {} characters in flight, limit currently {}", id, inFlightLimiter.getInFlight(),
+                      inFlightLimiter.getLimit());
+        }
+        LOG.trace("LEVEMETE: Requesting gathering of character #{}", id);
+        try {
+            gathererExecutor.execute(() -> {
                 try {
-                    LOG.trace("LEVEMETE: Requesting gathering of character #{}", task.getPlayerId());
-                    gathererExecutor.execute(task);
-                } catch(RejectedExecutionException ree) {
-                    // -- catch RejectedExecution error and stop due to executor shutdown
-                    LOG.info("LEVEMETE: STOPPING - Gatherer stopped accepting new jobs.");
-                    break;
+                    task.run();
+                } finally {
+                    dispatchPermits.release();
                 }
-            }
+            });
+        } catch(RejectedExecutionException ree) {
+            dispatchPermits.release();
+            throw ree;
         }
+        return true;
+    }
 
-        // If gathering has reached the finish ID, initiate shutdown of all new tasks
-        if(gatheringStatus.getCurrentId() >= gatheringStatus.getFinishId()) {
-            LOG.info("LEVEMETE: STOPPING - Initiating graceful shutdown as gatherer has reached user-specified limits.");
-            gathererExecutor.shutdown();
+    /**
+     * Loads the statuses of the block of IDs starting from the given ID, up to the finish ID.
+     */
+    private CharacterStatusBlock loadBlock(final int firstId) {
+        long lastId = Math.min((long) firstId + BLOCK_SIZE - 1, gatheringStatus.getFinishId());
+        if(topEndCleanup != null) {
+            // Characters still awaiting cleanup would otherwise be loaded as they were before the cleanup
+            lastId = Math.min(lastId, topEndCleanup.getClearedUpTo());
         }
+        CharacterStatusBlock loaded = CharacterStatusBlock.load(playerRepository, firstId, (int) lastId);
+        LOG.debug("LEVEMETE: Loaded characters #{} to #{}, of which {} have been deleted", firstId, lastId, loaded.getDeletedCount());
+        return loaded;
+    }
+
+    /**
+     * Sets the limiter governing how many of the dispatched characters may be gathered at once, so that its current limit can be
+     * reported.
+     *
+     * @param inFlightLimiter
+     */
+    public void setInFlightLimiter(final InFlightLimiter inFlightLimiter) {
+        this.inFlightLimiter = inFlightLimiter;
+    }
+
+    /**
+     * Sets the HTTP client whose circuit breakers decide whether the Lodestone is available, pausing dispatch while it is not.
+     *
+     * @param httpClient
+     */
+    public void setLodestoneHttpClient(final LodestoneHttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * Sets the repository to load the statuses of upcoming characters from, so that deleted characters are not dispatched.
+     *
+     * @param playerRepository
+     */
+    public void setPlayerRepository(final PlayerBeanRepository playerRepository) {
+        this.playerRepository = playerRepository;
+    }
+
+    /**
+     * Sets the top-end cleanup running in the background, so that IDs are only dispatched once it has cleared them.
+     *
+     * @param topEndCleanup
+     */
+    public void setTopEndCleanup(final TopEndCleanupTask topEndCleanup) {
+        this.topEndCleanup = topEndCleanup;
+    }
+
+    /**
+     * Sets the map to read the statuses of upcoming characters from, in place of the repository, and to record each result in.
+     *
+     * @param statusMap
+     */
+    public void setStatusMap(final CharacterStatusMap statusMap) {
+        this.statusMap = statusMap;
     }
 
 }
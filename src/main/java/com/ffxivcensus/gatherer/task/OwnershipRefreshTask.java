@@ -0,0 +1,107 @@
+package com.ffxivcensus.gatherer.task;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ffxivcensus.gatherer.edb.EorzeaDatabaseCache;
+import com.ffxivcensus.gatherer.player.PlayerBean;
+import com.ffxivcensus.gatherer.player.PlayerBeanRepository;
+import com.ffxivcensus.gatherer.player.PlayerBuilder;
+
+/**
+ * Runnable task re-deriving the flags of every character built while the names of some of their mounts & minions were still being
+ * looked up in the background.
+ * <p>
+ * Once the lookups under way have finished, their names are recorded in the collectible dictionary, and each character affected is
+ * reloaded from their saved sets of mounts & minions, has their flags re-derived and is saved again. Characters are reloaded in bounded
+ * blocks of IDs, so that the task does not grow with the number of characters affected. The task is intended to run once the gathering
+ * has finished and every character has been written.
+ *
+ * @author matthew.hillier
+ */
+public class OwnershipRefreshTask implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OwnershipRefreshTask.class);
+
+    private final PlayerBuilder playerBuilder;
+    private final EorzeaDatabaseCache edbCache;
+    private final PlayerBeanRepository playerRepository;
+    private final int blockSize;
+    private final long lookupTimeoutMillis;
+
+    /**
+     * Creates a new refresh task.
+     *
+     * @param playerBuilder Builder holding the characters awaiting names, and the rules their flags are derived by.
+     * @param edbCache Cache the names are being looked up by.
+     * @param playerRepository Repository to reload and save the characters through.
+     * @param blockSize Number of characters to reload at once.
+     * @param lookupTimeoutMillis Longest time to wait for the lookups under way to finish.
+     */
+    public OwnershipRefreshTask(final PlayerBuilder playerBuilder, final EorzeaDatabaseCache edbCache,
+                                final PlayerBeanRepository playerRepository, final int blockSize, final long lookupTimeoutMillis) {
+        this.playerBuilder = playerBuilder;
+        this.edbCache = edbCache;
+        this.playerRepository = playerRepository;
+        this.blockSize = blockSize;
+        this.lookupTimeoutMillis = lookupTimeoutMillis;
+    }
+
+    @Override
+    public void run() {
+        BitSet playerIds = playerBuilder.takePlayersAwaitingNames();
+        if(playerIds.isEmpty()) {
+            LOG.debug("OWNERSHIP REFRESH: No characters awaiting names");
+            return;
+        }
+        try {
+            if(!edbCache.awaitBackgroundLookups(lookupTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                LOG.warn("OWNERSHIP REFRESH: Timed out waiting for names to be looked up, refreshing from those already known");
+            }
+        } catch(InterruptedException ie) {
+            LOG.warn("OWNERSHIP REFRESH: Interrupted, leaving the flags of {} characters as gathered", playerIds.cardinality());
+            Thread.currentThread().interrupt();
+            return;
+        }
+        LOG.info("OWNERSHIP REFRESH: Named {} collectibles, refreshing {} characters", playerBuilder.nameLookedUpCollectibles(),
+                 playerIds.cardinality());
+
+        int refreshed = 0;
+        List<Integer> block = new ArrayList<>(blockSize);
+        try {
+            for(int id = playerIds.nextSetBit(0); id >= 0 && !Thread.currentThread().isInterrupted(); id = playerIds.nextSetBit(id + 1)) {
+                block.add(id);
+                if(block.size() == blockSize || playerIds.nextSetBit(id + 1) < 0) {
+                    refreshed += refresh(block);
+                    block = new ArrayList<>(blockSize);
+                }
+            }
+        } catch(RuntimeException re) {
+            // The characters already gathered are no worse off for being left with the flags they were gathered with
+            LOG.error("OWNERSHIP REFRESH: Failed after refreshing " + refreshed + " characters", re);
+            return;
+        }
+        LOG.info("OWNERSHIP REFRESH: Refreshed the flags of {} characters", refreshed);
+    }
+
+    /**
+     * Re-derives and saves the flags of a block of characters.
+     *
+     * @return the number of characters saved.
+     */
+    private int refresh(final List<Integer> block) {
+        List<PlayerBean> players = new ArrayList<>(block.size());
+        for(PlayerBean player : playerRepository.findAll(block)) {
+            playerBuilder.refreshOwnership(player);
+            players.add(player);
+        }
+        playerRepository.save(players);
+        return players.size();
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.ffxivcensus.gatherer.task;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runnable task reporting on how busy each stage of the {@link GatheringPipeline} is.
+ * A stage with all of its threads active and its queue full, holding back the stage before it, is the one limiting the pipeline and is
+ * worth giving more threads, while a stage with threads idle can safely be given fewer. The last stage to have held back the stage
+ * before it since the previous report is named as the bottleneck.
+ *
+ * @author matthew.hillier
+ */
+public class PipelineMonitorTask implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PipelineMonitorTask.class);
+
+    private final GatheringPipeline pipeline;
+    private final Map<String, Long> lastCompleted = new HashMap<>();
+    private final Map<String, Long> lastBlocked = new HashMap<>();
+
+    public PipelineMonitorTask(final GatheringPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    @Override
+    public void run() {
+        PipelineStage bottleneck = null;
+        for(PipelineStage stage : pipeline.getStages()) {
+            long completed = stage.getCompleted();
+            long blocked = stage.getBlockedCount();
+            long newlyCompleted = completed - lastCompleted.getOrDefault(stage.getName(), 0L);
+            long newlyBlocked = blocked - lastBlocked.getOrDefault(stage.getName(), 0L);
+            lastCompleted.put(stage.getName(), completed);
+            lastBlocked.put(stage.getName(), blocked);
+            LOG.info("PIPELINE: {} - {}/{} threads active, {}/{} queued, {} completed, held back {} times ({} waiting)",
+                     stage.getName(), stage.getActive(), stage.getThreads(), stage.getQueued(), stage.getQueueSize(), newlyCompleted,
+                     newlyBlocked, stage.getBlocked());
+            // A full stage backs up every stage before it, so the last to have held back its submitters is the one to scale
+            if(newlyBlocked > 0) {
+                bottleneck = stage;
+            }
+        }
+        if(bottleneck != null) {
+            LOG.info("PIPELINE: {} stage is holding back the pipeline", bottleneck.getName());
+        }
+    }
+
+}
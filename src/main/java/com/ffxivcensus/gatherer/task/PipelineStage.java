@@ -0,0 +1,158 @@
+package com.ffxivcensus.gatherer.task;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One stage of the {@link GatheringPipeline}, running its work on a fixed number of threads behind a bounded queue.
+ * <p>
+ * Submitting to a stage whose queue is full blocks the submitter until the stage catches up, so that a slow stage holds back those
+ * before it rather than letting work pile up in memory. How often that happens is reported alongside how busy the stage is, so that the
+ * stage holding back the pipeline can be found and given more threads.
+ *
+ * @author matthew.hillier
+ */
+public class PipelineStage {
+
+    private final String name;
+    private final int threads;
+    private final int queueSize;
+    private final ThreadPoolExecutor executor;
+    /** One permit per thread and queue slot, so that submitters wait rather than being rejected. */
+    private final Semaphore capacity;
+    private final AtomicInteger blocked = new AtomicInteger();
+    private final AtomicLong blockedCount = new AtomicLong();
+
+    /**
+     * Creates a new stage.
+     *
+     * @param name Name of the stage, used for its threads and when reporting on it.
+     * @param threads Number of threads to run the stage's work on.
+     * @param queueSize Number of items of work that may wait for a thread before submitters are blocked.
+     */
+    public PipelineStage(final String name, final int threads, final int queueSize) {
+        this.name = name;
+        this.threads = Math.max(1, threads);
+        this.queueSize = Math.max(1, queueSize);
+        this.capacity = new Semaphore(this.threads + this.queueSize);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "pipeline-" + name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // A permit is released just before its thread takes the next item from the queue, so the queue must hold every permit's worth
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 60, TimeUnit.SECONDS,
+                                               new ArrayBlockingQueue<>(this.threads + this.queueSize), threadFactory);
+    }
+
+    /**
+     * Submits work to the stage, waiting while the stage is full.
+     *
+     * @param work Work to run on one of the stage's threads.
+     * @throws InterruptedException If interrupted while waiting for the stage.
+     * @throws java.util.concurrent.RejectedExecutionException If the stage has been shut down.
+     */
+    public void submit(final Runnable work) throws InterruptedException {
+        if(!capacity.tryAcquire()) {
+            blocked.incrementAndGet();
+            blockedCount.incrementAndGet();
+            try {
+                capacity.acquire();
+            } finally {
+                blocked.decrementAndGet();
+            }
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    work.run();
+                } finally {
+                    capacity.release();
+                }
+            });
+        } catch(RuntimeException re) {
+            capacity.release();
+            throw re;
+        }
+    }
+
+    /**
+     * Stops the stage accepting work, and waits for the work already submitted to finish.
+     *
+     * @param timeout Maximum time to wait.
+     * @param unit Unit of the timeout.
+     * @return whether the work finished within the timeout.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public boolean shutdown(final long timeout, final TimeUnit unit) throws InterruptedException {
+        executor.shutdown();
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Stops the stage, abandoning any work yet to start.
+     */
+    public void shutdownNow() {
+        executor.shutdownNow();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of threads the stage runs its work on.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return the number of threads currently running work.
+     */
+    public int getActive() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return the number of items of work waiting for a thread.
+     */
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return the number of items of work that may wait for a thread.
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * @return the number of items of work completed so far.
+     */
+    public long getCompleted() {
+        return executor.getCompletedTaskCount();
+    }
+
+    /**
+     * @return the number of submitters currently waiting for the stage to catch up.
+     */
+    public int getBlocked() {
+        return blocked.get();
+    }
+
+    /**
+     * @return the number of times a submitter has had to wait for the stage to catch up.
+     */
+    public long getBlockedCount() {
+        return blockedCount.get();
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.ffxivcensus.gatherer.task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ffxivcensus.gatherer.player.CharacterStatusMap;
+import com.ffxivcensus.gatherer.player.PlayerBeanRepository;
+
+/**
+ * Runnable task trimming every character above the last known good character from the database, so that the top-end can be re-gathered.
+ * <p>
+ * Characters are deleted with bulk statements over bounded ranges of IDs, working upwards from the last known good character with a
+ * pause between each range, so that no single transaction grows with the size of the overshoot and the deletes do not crowd out the
+ * gatherers' writes. The task is intended to run in the background while gathering starts; IDs are only {@link #isCleared(int) cleared}
+ * for gathering once the range holding them has been deleted, and are only forgotten by any {@link CharacterStatusMap} once their
+ * deletion has been committed, so that the map never disagrees with the database.
+ *
+ * @author matthew.hillier
+ */
+public class TopEndCleanupTask implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TopEndCleanupTask.class);
+    /** Number of ranges between each progress report. */
+    private static final int REPORT_EVERY = 10;
+
+    private final PlayerBeanRepository playerRepository;
+    private final CharacterStatusMap statusMap;
+    private final int lastValidId;
+    private final int highestId;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private volatile int clearedUpTo;
+    private volatile boolean complete;
+
+    /**
+     * Creates a new cleanup task.
+     *
+     * @param playerRepository Repository to delete the characters from.
+     * @param lastValidId ID of the last known good character, above which every character is deleted.
+     * @param highestId ID of the highest character in the database.
+     * @param chunkSize Number of IDs to delete at once.
+     * @param pauseMillis Time to pause between deleting each range of IDs.
+     */
+    public TopEndCleanupTask(final PlayerBeanRepository playerRepository, final int lastValidId, final int highestId, final int chunkSize,
+                             final long pauseMillis) {
+        this(playerRepository, null, lastValidId, highestId, chunkSize, pauseMillis);
+    }
+
+    /**
+     * Creates a new cleanup task, forgetting the characters deleted from the given status map.
+     *
+     * @param playerRepository Repository to delete the characters from.
+     * @param statusMap Map of the status of each character, or null if none is kept.
+     * @param lastValidId ID of the last known good character, above which every character is deleted.
+     * @param highestId ID of the highest character in the database.
+     * @param chunkSize Number of IDs to delete at once.
+     * @param pauseMillis Time to pause between deleting each range of IDs.
+     */
+    public TopEndCleanupTask(final PlayerBeanRepository playerRepository, final CharacterStatusMap statusMap, final int lastValidId,
+                             final int highestId, final int chunkSize, final long pauseMillis) {
+        this.playerRepository = playerRepository;
+        this.statusMap = statusMap;
+        this.lastValidId = lastValidId;
+        this.highestId = highestId;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+        this.clearedUpTo = lastValidId;
+        this.complete = highestId <= lastValidId;
+    }
+
+    @Override
+    public void run() {
+        if(complete) {
+            LOG.debug("TOP-END CLEANUP: Nothing above Character #{} to delete", lastValidId);
+            return;
+        }
+        LOG.info("TOP-END CLEANUP: Deleting Characters #{} to #{}", lastValidId + 1, highestId);
+        long deleted = 0;
+        int ranges = 0;
+        try {
+            for(long from = lastValidId; from < highestId && !Thread.currentThread().isInterrupted(); from += chunkSize) {
+                int to = (int) Math.min(from + chunkSize, highestId);
+                deleted += playerRepository.deleteByIdRange((int) from, to);
+                if(statusMap != null) {
+                    statusMap.clearRange((int) from, to);
+                }
+                clearedUpTo = to;
+                if(++ranges % REPORT_EVERY == 0 || to == highestId) {
+                    LOG.info("TOP-END CLEANUP: Deleted {} characters, cleared up to Character #{} ({}%)", deleted, to,
+                             (to - (long) lastValidId) * 100 / (highestId - (long) lastValidId));
+                }
+                if(to < highestId && pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+        } catch(InterruptedException ie) {
+            LOG.warn("TOP-END CLEANUP: Interrupted, leaving Characters #{} to #{}", clearedUpTo + 1, highestId);
+            Thread.currentThread().interrupt();
+        } catch(RuntimeException re) {
+            // Gathering over the remaining characters is no worse than blocking it indefinitely
+            LOG.error("TOP-END CLEANUP: Failed, leaving Characters #" + (clearedUpTo + 1) + " to #" + highestId, re);
+            complete = true;
+        }
+        if(clearedUpTo >= highestId) {
+            complete = true;
+        }
+    }
+
+    /**
+     * @param id ID of the character.
+     * @return whether the character is clear of the cleanup, and so can be gathered.
+     */
+    public boolean isCleared(final int id) {
+        return complete || id <= clearedUpTo;
+    }
+
+    /**
+     * @return whether the cleanup has finished.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return the highest ID cleared of the cleanup so far.
+     */
+    public int getClearedUpTo() {
+        return complete ? Integer.MAX_VALUE : clearedUpTo;
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.ffxivcensus.gatherer.task;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates executors running each task on its own virtual thread, where the running JVM supports them (Java 21 onwards).
+ * <p>
+ * The gatherer is built for Java 8, so virtual threads are reached by reflection rather than linked against directly. Each gatherer
+ * keeps its blocking, one-character-at-a-time style, while thousands can be waiting on the Lodestone at once without a platform thread
+ * each; how many may run at once is left to whoever submits the tasks.
+ *
+ * @author matthew.hillier
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return whether the running JVM supports virtual threads.
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread for each task.
+     *
+     * @param namePrefix Prefix of the name of each thread, followed by a counter.
+     * @return the executor.
+     * @throws UnsupportedOperationException If the running JVM does not support virtual threads.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(final String namePrefix) {
+        if(!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by Java " + System.getProperty("java.version"));
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                                                    .invoke(null, threadFactory);
+        } catch(InvocationTargetException ite) {
+            throw new IllegalStateException("Unable to create virtual thread executor", ite.getCause());
+        } catch(ReflectiveOperationException roe) {
+            throw new IllegalStateException("Unable to create virtual thread executor", roe);
+        }
+    }
+
+    /**
+     * Finds the given method, provided it can also be called - virtual threads were a preview feature in Java 19 & 20, and refuse to be
+     * built unless previews have been enabled.
+     */
+    private static Method findMethod(final Class<?> type, final String name) {
+        try {
+            Method method = type.getMethod(name);
+            method.invoke(null);
+            return method;
+        } catch(ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.ffxivcensus.gatherer.util;
+
+import java.util.BitSet;
+
+import javax.persistence.AttributeConverter;
+
+/**
+ * Converter class for JPA 2.1 that converts a BitSet into its little-endian byte representation for the purposes of marshalling and
+ * unmarshalling from a single binary database column.
+ * 
+ * @author matthew.hillier
+ */
+public class BitSetConverter implements AttributeConverter<BitSet, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(final BitSet attribute) {
+        return attribute != null && !attribute.isEmpty() ? attribute.toByteArray() : null;
+    }
+
+    @Override
+    public BitSet convertToEntityAttribute(final byte[] dbData) {
+        return dbData != null ? BitSet.valueOf(dbData) : new BitSet();
+    }
+
+}
@@ -47,7 +47,28 @@ public class ConfigurationBuilderTest {
         assertEquals(Integer.MAX_VALUE, config.getEndId());
         assertEquals("mysql://testbox:3306", config.getDbUrl());
         assertEquals(32, config.getThreadLimit());
+        assertTrue(config.isVirtualThreads());
         assertEquals(10000000, config.getAutoStopLowerLimitId());
+        assertEquals(25, config.getRequestRate(), 0);
+        assertEquals(5, config.getRequestBurst());
+        assertEquals("6.0", config.getJobLayout());
+        assertEquals("rules.properties", config.getOwnershipRulesFile());
+        assertEquals(200, config.getWriteBatchSize());
+        assertEquals(250, config.getWriteBatchIntervalMillis());
+        assertTrue(config.isNativeUpsert());
+        assertEquals("status.map", config.getStatusMapFile());
+        assertEquals(5000, config.getCleanupChunkSize());
+        assertEquals(ApplicationConfig.DEFAULT_CLEANUP_PAUSE_MILLIS, config.getCleanupPauseMillis());
+        assertEquals(12, config.getDbPoolSize());
+        assertTrue(config.isStagedPipeline());
+        assertEquals(0, config.getFetchThreads());
+        assertEquals(4, config.getParseThreads());
+        assertEquals(ApplicationConfig.DEFAULT_RESOLVE_THREADS, config.getResolveThreads());
+        assertEquals(3, config.getPersistThreads());
+        assertEquals(50, config.getStageQueueSize());
+        assertEquals(96, config.getHttpMaxConnections());
+        assertEquals(48, config.getHttpMaxConnectionsPerRoute());
+        assertEquals(ApplicationConfig.DEFAULT_HTTP_KEEP_ALIVE_SECONDS, config.getHttpKeepAliveSeconds());
     }
 
     /**
@@ -150,6 +171,112 @@ public class ConfigurationBuilderTest {
         assertEquals(150, config.getAutoStopGap());
     }
 
+    /**
+     * Test configuration of the non-blocking page loader from the Command Line
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testValidCLIConfigAsync() throws Exception {
+        String[] args = {"-s", "0",
+                         "--async",
+                         "-L",
+                         "-m", "256",
+                         "-r", "12.5",
+                         "-b", "3",
+                         "-P",
+                         "-R",
+                         "-E", "streaming",
+                         "-C", "edb.tsv",
+                         "-N", "background",
+                         "-K", "catalog.tsv",
+                         "-F",
+                         "-w", "500",
+                         "-X",
+                         "-M", "ids.map",
+                         "-S",
+                         "-D", "24",
+                         "-V"};
+
+        ApplicationConfig config = ConfigurationBuilder.createBuilder()
+                                                       .loadCommandLineConfiguration(CLIConstants.setupOptions(), args)
+                                                       .getConfiguration();
+
+        assertTrue(config.isAsyncPageLoading());
+        assertTrue(config.isAdaptiveConcurrency());
+        assertEquals(256, config.getMaxInFlight());
+        assertEquals(12.5, config.getRequestRate(), 0);
+        assertEquals(3, config.getRequestBurst());
+        assertTrue(config.isParallelFetch());
+        assertTrue(config.isRefreshMode());
+        assertEquals(ApplicationConfig.PAGE_EXTRACTOR_STREAMING, config.getPageExtractor());
+        assertEquals("edb.tsv", config.getEdbStoreFile());
+        assertEquals(ApplicationConfig.NAME_LOOKUPS_BACKGROUND, config.getNameLookups());
+        assertEquals("catalog.tsv", config.getCatalogFile());
+        assertTrue(config.isRefreshCatalog());
+        assertEquals(500, config.getWriteBatchSize());
+        assertTrue(config.isNativeUpsert());
+        assertEquals("ids.map", config.getStatusMapFile());
+        assertTrue(config.isStagedPipeline());
+        assertEquals(24, config.getDbPoolSize());
+        assertTrue(config.isVirtualThreads());
+    }
+
+    @Test
+    public void testChoicesMatchedIgnoringCase() throws Exception {
+        String[] args = {"-s", "0", "-E", "Streaming", "-N", "BACKGROUND"};
+
+        ApplicationConfig config = ConfigurationBuilder.createBuilder()
+                                                       .loadCommandLineConfiguration(CLIConstants.setupOptions(), args)
+                                                       .getConfiguration();
+
+        assertEquals(ApplicationConfig.PAGE_EXTRACTOR_STREAMING, config.getPageExtractor());
+        assertEquals(ApplicationConfig.NAME_LOOKUPS_BACKGROUND, config.getNameLookups());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFailOnUnknownPageExtractor() throws Exception {
+        String[] args = {"-s", "0", "-E", "stream"};
+
+        ConfigurationBuilder.createBuilder()
+                            .loadCommandLineConfiguration(CLIConstants.setupOptions(), args)
+                            .getConfiguration();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFailOnUnknownNameLookups() throws Exception {
+        String[] args = {"-s", "0", "-N", "deferred"};
+
+        ConfigurationBuilder.createBuilder()
+                            .loadCommandLineConfiguration(CLIConstants.setupOptions(), args)
+                            .getConfiguration();
+    }
+
+    @Test
+    public void testVirtualThreadsInFlightCappedAtPools() {
+        ApplicationConfig config = new ApplicationConfig();
+        config.setVirtualThreads(true);
+
+        // Up to the thread limit, which sizes the database pool by default
+        assertEquals(ApplicationConfig.MAX_THREADS, config.getVirtualThreadsInFlight());
+        config.setDbPoolSize(200);
+        assertEquals(ApplicationConfig.DEFAULT_HTTP_MAX_CONNECTIONS_PER_ROUTE, config.getVirtualThreadsInFlight());
+        config.setHttpMaxConnectionsPerRoute(1000);
+        assertEquals(200, config.getVirtualThreadsInFlight());
+        config.setDbPoolSize(2000);
+        assertEquals(ApplicationConfig.DEFAULT_MAX_IN_FLIGHT, config.getVirtualThreadsInFlight());
+
+        // Batched writes go through the writer's own connection rather than each virtual thread's
+        config.setDbPoolSize(8);
+        config.setWriteBatchSize(100);
+        assertEquals(ApplicationConfig.DEFAULT_MAX_IN_FLIGHT, config.getVirtualThreadsInFlight());
+        config.setWriteBatchSize(0);
+
+        // Pages fetched without blocking hold no connection on the virtual thread
+        config.setAsyncPageLoading(true);
+        assertEquals(ApplicationConfig.DEFAULT_MAX_IN_FLIGHT, config.getVirtualThreadsInFlight());
+    }
+
     @Test(expected = MissingOptionException.class)
     public void testFailOnMissingMandatoryOption() throws Exception {
         // Test for a help dialog displayed upon failure
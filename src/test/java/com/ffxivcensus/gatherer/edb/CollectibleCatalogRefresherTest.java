@@ -0,0 +1,67 @@
+package com.ffxivcensus.gatherer.edb;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CollectibleCatalogRefresherTest {
+
+    private static final String MOUNT_HREF = "/lodestone/character/1/mount/tooltip/abc123";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private CollectibleDictionary dictionary;
+    private EorzeaDatabaseCache edbCache;
+    private CollectibleCatalogRefresher instance;
+
+    @Before
+    public void setUp() {
+        dictionary = new CollectibleDictionary();
+        edbCache = mock(EorzeaDatabaseCache.class);
+        instance = new CollectibleCatalogRefresher(dictionary, edbCache, "6.0");
+    }
+
+    @Test
+    public void testOnlyMissingCollectiblesAreLookedUp() throws Exception {
+        dictionary.setName(CollectibleType.MINION, "catalogued", "Wind-up Cursor");
+        dictionary.setName(CollectibleType.MINION, "named", "Beady Eye");
+        dictionary.getIndex(CollectibleType.MOUNT, "abc123", MOUNT_HREF);
+        dictionary.getIndex(CollectibleType.MOUNT, "no-tooltip");
+        when(edbCache.getNameFromTooltip(CollectibleType.MOUNT, MOUNT_HREF)).thenReturn("Fenrir");
+        CollectibleCatalog catalog = new CollectibleCatalog();
+        catalog.add(CollectibleType.MINION, "catalogued", "Wind-up Cursor", "5.0");
+
+        assertEquals(2, instance.refresh(catalog));
+
+        verify(edbCache, times(1)).getNameFromTooltip(any(CollectibleType.class), anyString());
+        assertEquals("5.0", catalog.getEntries(CollectibleType.MINION).get("catalogued").getPatch());
+        assertEquals("Beady Eye", catalog.getEntries(CollectibleType.MINION).get("named").getName());
+        assertEquals("Fenrir", catalog.getEntries(CollectibleType.MOUNT).get("abc123").getName());
+        assertEquals("6.0", catalog.getEntries(CollectibleType.MOUNT).get("abc123").getPatch());
+        assertFalse(catalog.contains(CollectibleType.MOUNT, "no-tooltip"));
+        // Names looked up are also learnt by the dictionary
+        assertEquals(0, dictionary.getIndexOfName(CollectibleType.MOUNT, "Fenrir"));
+    }
+
+    @Test
+    public void testRefreshFile() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("catalog.tsv");
+        dictionary.setName(CollectibleType.MOUNT, "abc123", "Fenrir");
+
+        assertEquals(1, instance.refresh(file));
+        assertEquals(0, instance.refresh(file));
+
+        EorzeaDatabaseCache cache = new EorzeaDatabaseCache();
+        cache.importCatalog(CollectibleCatalog.read(file));
+        assertEquals("Fenrir", cache.getMountNameFromTooltip(MOUNT_HREF));
+        verifyZeroInteractions(edbCache);
+    }
+
+}
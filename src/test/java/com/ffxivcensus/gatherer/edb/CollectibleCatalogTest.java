@@ -0,0 +1,53 @@
+package com.ffxivcensus.gatherer.edb;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CollectibleCatalogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("catalog.tsv");
+        CollectibleCatalog catalog = new CollectibleCatalog();
+        catalog.add(CollectibleType.MOUNT, "def", "Fenrir", "6.0");
+        catalog.add(CollectibleType.MOUNT, "abc", "Coeurl", null);
+        catalog.add(CollectibleType.MINION, "ghi", "Wind-up Cursor", "6.0");
+
+        catalog.write(file);
+        CollectibleCatalog read = CollectibleCatalog.read(file);
+
+        assertEquals(3, read.size());
+        assertTrue(read.contains(CollectibleType.MOUNT, "abc"));
+        assertFalse(read.contains(CollectibleType.MINION, "abc"));
+        assertEquals("Fenrir", read.getEntries(CollectibleType.MOUNT).get("def").getName());
+        assertEquals("6.0", read.getEntries(CollectibleType.MOUNT).get("def").getPatch());
+        assertNull(read.getEntries(CollectibleType.MOUNT).get("abc").getPatch());
+        // Written sorted by type and then name
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList("MINION\tghi\tWind-up Cursor\t6.0", "MOUNT\tabc\tCoeurl\t", "MOUNT\tdef\tFenrir\t6.0"),
+                     lines.subList(1, lines.size()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testMalformedLine() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("catalog.tsv");
+        Files.write(file, Arrays.asList("# type\ttooltip_id\tname\tpatch", "MOUNT\tabc\tCoeurl\t", "VEHICLE\tdef\tMagitek\t"),
+                    StandardCharsets.UTF_8);
+
+        CollectibleCatalog.read(file);
+    }
+
+}
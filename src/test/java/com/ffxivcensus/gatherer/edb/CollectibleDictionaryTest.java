@@ -0,0 +1,99 @@
+package com.ffxivcensus.gatherer.edb;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+public class CollectibleDictionaryTest {
+
+    private CollectibleDictionary instance;
+
+    @Before
+    public void setUp() {
+        instance = new CollectibleDictionary();
+    }
+
+    @Test
+    public void testIndexesAreDenseAndStable() {
+        assertEquals(0, instance.getIndex(CollectibleType.MOUNT, "abc"));
+        assertEquals(1, instance.getIndex(CollectibleType.MOUNT, "def"));
+        assertEquals(0, instance.getIndex(CollectibleType.MOUNT, "abc"));
+        // Each type has its own indexes
+        assertEquals(0, instance.getIndex(CollectibleType.MINION, "def"));
+        assertEquals(2, instance.size(CollectibleType.MOUNT));
+        assertEquals(1, instance.size(CollectibleType.MINION));
+    }
+
+    @Test
+    public void testIndexOfName() {
+        instance.getIndex(CollectibleType.MINION, "abc");
+        assertEquals(-1, instance.getIndexOfName(CollectibleType.MINION, "Wind-up Cursor"));
+
+        assertEquals(1, instance.setName(CollectibleType.MINION, "def", "Wind-up Cursor"));
+
+        assertEquals(1, instance.getIndexOfName(CollectibleType.MINION, "Wind-up Cursor"));
+        assertEquals(-1, instance.getIndexOfName(CollectibleType.MOUNT, "Wind-up Cursor"));
+    }
+
+    @Test
+    public void testHasUnnamed() {
+        BitSet minions = new BitSet();
+        minions.set(instance.getIndex(CollectibleType.MINION, "abc"));
+        assertTrue(instance.hasUnnamed(CollectibleType.MINION, minions));
+        assertFalse(instance.hasUnnamed(CollectibleType.MOUNT, minions));
+
+        instance.setName(CollectibleType.MINION, "abc", "Wind-up Cursor");
+        instance.getIndex(CollectibleType.MINION, "def");
+
+        assertFalse(instance.hasUnnamed(CollectibleType.MINION, minions));
+    }
+
+    @Test
+    public void testLoadsAndSavesToRepository() {
+        CollectibleBean stored = new CollectibleBean(CollectibleType.MOUNT, 4, "abc");
+        stored.setName("Fenrir");
+        CollectibleBeanRepository repository = mock(CollectibleBeanRepository.class);
+        when(repository.findAll()).thenReturn(Arrays.asList(stored));
+        List<CollectibleBean> saved = new ArrayList<>();
+        when(repository.save(any(CollectibleBean.class))).then(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+
+        instance.setRepository(repository);
+
+        assertEquals(4, instance.getIndexOfName(CollectibleType.MOUNT, "Fenrir"));
+        assertEquals(4, instance.setName(CollectibleType.MOUNT, "abc", "Fenrir"));
+        assertTrue(saved.isEmpty());
+        // New entries carry on from the highest index already assigned
+        assertEquals(5, instance.getIndex(CollectibleType.MOUNT, "def"));
+        assertEquals(1, saved.size());
+        assertEquals("def", saved.get(0).getTooltipId());
+        assertEquals(5, saved.get(0).getIndex());
+    }
+
+    @Test
+    public void testPicksUpIndexAssignedByAnotherGatherer() {
+        CollectibleBeanRepository repository = mock(CollectibleBeanRepository.class);
+        List<CollectibleBean> stored = new ArrayList<>();
+        when(repository.findAll()).thenReturn(stored);
+        when(repository.save(any(CollectibleBean.class))).then(invocation -> {
+            // Another gatherer assigns index 0 to a different collectible first
+            stored.add(new CollectibleBean(CollectibleType.MINION, 0, "other"));
+            throw new DataIntegrityViolationException("Duplicate entry");
+        }).then(invocation -> invocation.getArgument(0));
+        instance.setRepository(repository);
+
+        assertEquals(1, instance.getIndex(CollectibleType.MINION, "abc"));
+        assertEquals(0, instance.getIndex(CollectibleType.MINION, "other"));
+    }
+
+}
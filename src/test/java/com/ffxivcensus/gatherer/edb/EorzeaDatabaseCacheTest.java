@@ -0,0 +1,130 @@
+package com.ffxivcensus.gatherer.edb;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.Jsoup;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ffxivcensus.gatherer.lodestone.LodestonePageLoader;
+
+public class EorzeaDatabaseCacheTest {
+
+    private static final String MOUNT_HREF = "/lodestone/character/1/mount/tooltip/abc123";
+    private static final String MINION_HREF = "/lodestone/character/1/minion/tooltip/def456";
+
+    private LodestonePageLoader loader;
+    private EorzeaDatabaseCache instance;
+
+    @Before
+    public void setUp() {
+        loader = mock(LodestonePageLoader.class);
+        instance = new EorzeaDatabaseCache();
+        instance.setLodestonePageLoader(loader);
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneRequest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(loader.getTooltipPage(MOUNT_HREF)).then(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Jsoup.parse("<h1 class=\"mount__header__label\">Fenrir</h1>");
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        try {
+            List<Future<String>> names = new ArrayList<>();
+            for(int i = 0; i < 16; i++) {
+                names.add(executor.submit(() -> instance.getMountNameFromTooltip(MOUNT_HREF)));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for(Future<String> name : names) {
+                assertEquals("Fenrir", name.get(5, TimeUnit.SECONDS));
+            }
+            verify(loader, times(1)).getTooltipPage(MOUNT_HREF);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMissingNameCached() throws Exception {
+        when(loader.getTooltipPage(MINION_HREF)).thenReturn(Jsoup.parse("<p>No header here</p>"));
+
+        assertNull(instance.getMinionNameFromTooltip(MINION_HREF));
+        assertNull(instance.getMinionNameFromTooltip(MINION_HREF));
+
+        verify(loader, times(1)).getTooltipPage(MINION_HREF);
+    }
+
+    @Test
+    public void testNameIfKnownLooksUpInBackground() throws Exception {
+        when(loader.getTooltipPage(MOUNT_HREF)).thenReturn(Jsoup.parse("<h1 class=\"mount__header__label\">Fenrir</h1>"));
+
+        assertNull(instance.getMountNameIfKnown(MOUNT_HREF));
+        // Waits for the background lookup to complete
+        instance.close();
+
+        assertEquals("Fenrir", instance.getMountNameIfKnown(MOUNT_HREF));
+        assertEquals("Fenrir", instance.getMountNameFromTooltip(MOUNT_HREF));
+        verify(loader, times(1)).getTooltipPage(MOUNT_HREF);
+    }
+
+    @Test
+    public void testAwaitBackgroundLookups() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(loader.getTooltipPage(MOUNT_HREF)).then(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Jsoup.parse("<h1 class=\"mount__header__label\">Fenrir</h1>");
+        });
+
+        assertNull(instance.getMountNameIfKnown(MOUNT_HREF));
+        assertFalse(instance.awaitBackgroundLookups(50, TimeUnit.MILLISECONDS));
+        assertNull(instance.getKnownName(CollectibleType.MOUNT, "abc123"));
+        release.countDown();
+
+        assertTrue(instance.awaitBackgroundLookups(5, TimeUnit.SECONDS));
+        assertEquals("Fenrir", instance.getKnownName(CollectibleType.MOUNT, "abc123"));
+        // Still open for more lookups
+        assertNull(instance.getMinionNameIfKnown(MINION_HREF));
+    }
+
+    @Test
+    public void testKnownNameNeverLooksUp() throws Exception {
+        assertNull(instance.getKnownName(CollectibleType.MINION, "def456"));
+        verifyZeroInteractions(loader);
+    }
+
+    @Test
+    public void testTooltipId() {
+        assertEquals("abc123", EorzeaDatabaseCache.getTooltipId(MOUNT_HREF));
+    }
+
+    @Test
+    public void testFailedLookupRetried() throws Exception {
+        when(loader.getTooltipPage(MINION_HREF)).thenThrow(new IOException("Connection reset"))
+                                                .thenReturn(Jsoup.parse("<h1 class=\"minion__header__label\">Wind-up Cursor</h1>"));
+
+        try {
+            instance.getMinionNameFromTooltip(MINION_HREF);
+            fail("Expected the failure to be passed on");
+        } catch(IOException ioe) {
+            assertEquals("Connection reset", ioe.getMessage());
+        }
+        assertEquals("Wind-up Cursor", instance.getMinionNameFromTooltip(MINION_HREF));
+        verify(loader, times(2)).getTooltipPage(MINION_HREF);
+    }
+
+}
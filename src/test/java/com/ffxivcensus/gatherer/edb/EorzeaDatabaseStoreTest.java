@@ -0,0 +1,87 @@
+package com.ffxivcensus.gatherer.edb;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.jsoup.Jsoup;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.ffxivcensus.gatherer.lodestone.LodestonePageLoader;
+
+public class EorzeaDatabaseStoreTest {
+
+    private static final String MOUNT_ID = "baa170f2d3a0a35e27d35d90d4d7e518ee79ee42";
+    private static final String MOUNT_HREF = "/lodestone/character/2256025/mount/tooltip/" + MOUNT_ID;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testNamesSurviveReload() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("edb.tsv");
+        try(EorzeaDatabaseStore store = new EorzeaDatabaseStore(file, "6.0")) {
+            assertTrue(store.load().get(CollectibleType.MINION).isEmpty());
+            store.append(CollectibleType.MINION, "abc", "Wind-up Cursor");
+            store.append(CollectibleType.MOUNT, "def", "Company\tChocobo");
+        }
+
+        try(EorzeaDatabaseStore store = new EorzeaDatabaseStore(file, "6.0")) {
+            Map<CollectibleType, Map<String, String>> names = store.load();
+            assertEquals("Wind-up Cursor", names.get(CollectibleType.MINION).get("abc"));
+            assertEquals("Company Chocobo", names.get(CollectibleType.MOUNT).get("def"));
+        }
+    }
+
+    @Test
+    public void testOtherVersionsExpired() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("edb.tsv");
+        Files.write(file, Arrays.asList("MINION\t5.0\tabc\tOld Name",
+                                        "MINION\t6.0\tdef\tCurrent Name",
+                                        "MOUNT\t6.0\tpart"),
+                    StandardCharsets.UTF_8);
+
+        try(EorzeaDatabaseStore store = new EorzeaDatabaseStore(file, "6.0")) {
+            Map<CollectibleType, Map<String, String>> names = store.load();
+            assertFalse(names.get(CollectibleType.MINION).containsKey("abc"));
+            assertEquals("Current Name", names.get(CollectibleType.MINION).get("def"));
+        }
+
+        // Expired & part-written entries are compacted away
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList("MINION\t6.0\tdef\tCurrent Name"), lines);
+    }
+
+    @Test
+    public void testCacheWarmStartSkipsLookup() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("edb.tsv");
+        File tooltip = new File(getClass().getResource("/data/lodestone/tooltips/mounts/" + MOUNT_ID + ".html").toURI());
+        LodestonePageLoader loader = mock(LodestonePageLoader.class);
+        when(loader.getTooltipPage(MOUNT_HREF)).thenReturn(Jsoup.parse(tooltip, "UTF-8"));
+
+        try(EorzeaDatabaseCache cold = new EorzeaDatabaseCache()) {
+            cold.setLodestonePageLoader(loader);
+            cold.setStore(new EorzeaDatabaseStore(file, "6.0"));
+            assertEquals("Fenrir", cold.getMountNameFromTooltip(MOUNT_HREF));
+        }
+        verify(loader, times(1)).getTooltipPage(MOUNT_HREF);
+
+        LodestonePageLoader unused = mock(LodestonePageLoader.class);
+        try(EorzeaDatabaseCache warm = new EorzeaDatabaseCache()) {
+            warm.setLodestonePageLoader(unused);
+            warm.setStore(new EorzeaDatabaseStore(file, "6.0"));
+            assertEquals("Fenrir", warm.getMountNameFromTooltip(MOUNT_HREF));
+        }
+        verifyZeroInteractions(unused);
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.ffxivcensus.gatherer.lodestone;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+
+    private final Object probe = new Object();
+    private final Object other = new Object();
+    private AtomicLong clock;
+    private CircuitBreaker instance;
+
+    @Before
+    public void setUp() {
+        clock = new AtomicLong(1000000);
+        instance = new CircuitBreaker("eu.finalfantasyxiv.com", 3, clock::get);
+    }
+
+    @Test
+    public void testClosedAllowsRequests() {
+        assertEquals(CircuitBreaker.State.CLOSED, instance.getState());
+        assertEquals(0, instance.acquirePermission(other));
+        assertEquals(0, instance.acquirePermission(other));
+    }
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        instance.onFailure(0);
+        instance.onFailure(0);
+        assertFalse(instance.isOpen());
+
+        instance.onFailure(0);
+        assertEquals(CircuitBreaker.State.OPEN, instance.getState());
+        assertTrue(instance.acquirePermission(other) > 0);
+    }
+
+    @Test
+    public void testSuccessResetsFailures() {
+        instance.onFailure(0);
+        instance.onFailure(0);
+        instance.onSuccess();
+        instance.onFailure(0);
+
+        assertFalse(instance.isOpen());
+    }
+
+    @Test
+    public void testHonoursRetryAfter() {
+        instance.trip(30000, "maintenance");
+
+        assertEquals(30000, instance.acquirePermission(other));
+        clock.addAndGet(29000);
+        assertEquals(1000, instance.acquirePermission(other));
+    }
+
+    @Test
+    public void testRetryAfterOpensImmediately() {
+        instance.onFailure(10000);
+
+        assertTrue(instance.isOpen());
+    }
+
+    @Test
+    public void testSingleProbeOnceOpenPeriodPassed() {
+        instance.trip(1000, "maintenance");
+        clock.addAndGet(1000);
+
+        // The first caller is let through as the probe, everyone else waits on it
+        assertEquals(0, instance.acquirePermission(probe));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, instance.getState());
+        assertTrue(instance.acquirePermission(other) > 0);
+
+        instance.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, instance.getState());
+        assertEquals(0, instance.acquirePermission(other));
+    }
+
+    @Test
+    public void testFailedProbeReopens() {
+        instance.trip(1000, "maintenance");
+        clock.addAndGet(1000);
+        instance.acquirePermission(probe);
+
+        instance.onFailure(0);
+
+        assertEquals(CircuitBreaker.State.OPEN, instance.getState());
+        assertTrue(instance.acquirePermission(other) > 0);
+    }
+
+    @Test
+    public void testStaleFailuresDoNotExtendOpenPeriod() {
+        instance.trip(1000, "maintenance");
+        instance.onFailure(0);
+        instance.onFailure(0);
+
+        assertEquals(1000, instance.acquirePermission(other));
+    }
+
+    @Test
+    public void testProbeMayRetry() {
+        instance.trip(1000, "maintenance");
+        clock.addAndGet(1000);
+        instance.acquirePermission(probe);
+
+        // The probe is let through again for each of its own retries
+        assertEquals(0, instance.acquirePermission(probe));
+        assertTrue(instance.acquirePermission(other) > 0);
+    }
+
+    @Test
+    public void testReleasedProbeHandedOn() {
+        instance.trip(1000, "maintenance");
+        clock.addAndGet(1000);
+        instance.acquirePermission(probe);
+
+        // A probe timing out waiting on our own connection pool says nothing about the host, but must not hold everyone else back
+        instance.release(other);
+        assertTrue(instance.acquirePermission(other) > 0);
+        instance.release(probe);
+        assertEquals(0, instance.acquirePermission(other));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, instance.getState());
+        assertTrue(instance.acquirePermission(probe) > 0);
+    }
+
+    @Test
+    public void testStaleProbeHandedOn() {
+        instance.trip(1000, "maintenance");
+        clock.addAndGet(1000);
+        instance.acquirePermission(probe);
+
+        clock.addAndGet(CircuitBreaker.PROBE_TIMEOUT_MILLIS - 1);
+        assertTrue(instance.acquirePermission(other) > 0);
+        clock.addAndGet(1);
+        assertEquals(0, instance.acquirePermission(other));
+    }
+
+}
@@ -0,0 +1,227 @@
+package com.ffxivcensus.gatherer.lodestone;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class LodestoneHttpClientTest {
+
+    private static final String LAST_MODIFIED = "Sat, 24 Aug 2013 00:00:01 GMT";
+    private static final String MAINTENANCE_PAGE = "<html><head><title>The Lodestone is currently undergoing maintenance</title></head></html>";
+    private static final String MAINTENANCE_NAMED_PAGE = "<html><head><title>Maintenance Mode | FINAL FANTASY XIV, The Lodestone</title></head></html>";
+
+    private HttpServer server;
+    private String baseUrl;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger throttledRequests = new AtomicInteger();
+    private final AtomicInteger maintenanceRequests = new AtomicInteger();
+    private final AtomicInteger namedRequests = new AtomicInteger();
+    private LodestoneHttpClient instance;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/page", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "<html><body>Hello</body></html>".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+            if("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                exchange.sendResponseHeaders(200, body.length);
+                try(OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.createContext("/conditional", exchange -> {
+            exchange.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+            boolean modified = !LAST_MODIFIED.equals(exchange.getRequestHeaders().getFirst("If-Modified-Since"));
+            exchange.sendResponseHeaders(modified ? 200 : 304, -1);
+            exchange.close();
+        });
+        server.createContext("/throttled", exchange -> {
+            int status = throttledRequests.incrementAndGet() <= 2 ? 429 : 200;
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.createContext("/maintenance", exchange -> {
+            if(maintenanceRequests.incrementAndGet() == 1) {
+                byte[] body = MAINTENANCE_PAGE.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                exchange.sendResponseHeaders(503, body.length);
+                try(OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } else {
+                exchange.sendResponseHeaders(200, -1);
+            }
+            exchange.close();
+        });
+        server.createContext("/named", exchange -> {
+            namedRequests.incrementAndGet();
+            byte[] body = MAINTENANCE_NAMED_PAGE.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try(OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch(InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        instance = new LodestoneHttpClient(4, 2, 30000, 10000);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        instance.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testGetReusesConnection() throws Exception {
+        for(int i = 0; i < 5; i++) {
+            LodestoneResponse response = instance.get(baseUrl + "/page");
+            assertEquals(200, response.getStatusCode());
+            assertEquals("<html><body>Hello</body></html>", response.getBody());
+        }
+
+        // All five requests should have been served over a single kept-alive connection
+        assertEquals(1, clientPorts.size());
+        PoolStats stats = instance.getPoolStats();
+        assertEquals(0, stats.getLeased());
+        assertEquals(1, stats.getAvailable());
+        assertTrue(instance.getRouteStats().containsKey("localhost"));
+    }
+
+    @Test
+    public void testHead() throws Exception {
+        LodestoneResponse response = instance.head(baseUrl + "/page");
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(LAST_MODIFIED, response.getHeader("last-modified"));
+        assertNull(response.getBody());
+    }
+
+    @Test
+    public void testConditionalGet() throws Exception {
+        assertEquals(200, instance.get(baseUrl + "/conditional").getStatusCode());
+        assertEquals(304, instance.get(baseUrl + "/conditional", Collections.singletonMap("If-Modified-Since", LAST_MODIFIED))
+                                  .getStatusCode());
+        assertEquals(304, instance.head(baseUrl + "/conditional", Collections.singletonMap("If-Modified-Since", LAST_MODIFIED))
+                                  .getStatusCode());
+    }
+
+    @Test
+    public void testGetAsync() throws Exception {
+        LodestoneResponse response = instance.getAsync(baseUrl + "/page").get(5, TimeUnit.SECONDS);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals("<html><body>Hello</body></html>", response.getBody());
+    }
+
+    @Test
+    public void testNotFound() throws Exception {
+        assertEquals(404, instance.get(baseUrl + "/missing").getStatusCode());
+    }
+
+    @Test
+    public void testRetriesWhenRateLimited() throws Exception {
+        assertEquals(200, instance.get(baseUrl + "/throttled").getStatusCode());
+        assertEquals(3, throttledRequests.get());
+    }
+
+    @Test
+    public void testRetriesAsyncWhenRateLimited() throws Exception {
+        assertEquals(200, instance.getAsync(baseUrl + "/throttled").get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(3, throttledRequests.get());
+    }
+
+    @Test
+    public void testHeldDuringMaintenance() throws Exception {
+        long start = System.currentTimeMillis();
+
+        assertEquals(200, instance.get(baseUrl + "/maintenance").getStatusCode());
+
+        // The request is held for the Retry-After period, then let through as the probe
+        assertTrue(System.currentTimeMillis() - start >= 900);
+        assertEquals(2, maintenanceRequests.get());
+        assertFalse(instance.isAnyCircuitOpen());
+    }
+
+    @Test
+    public void testHeldDuringMaintenanceAsync() throws Exception {
+        assertEquals(200, instance.getAsync(baseUrl + "/maintenance").get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(2, maintenanceRequests.get());
+    }
+
+    @Test
+    public void testCancelledProbeReleased() throws Exception {
+        CircuitBreaker breaker = instance.getCircuitBreaker("localhost");
+        breaker.trip(1, "maintenance");
+        Thread.sleep(10);
+
+        CompletableFuture<LodestoneResponse> probe = instance.getAsync(baseUrl + "/slow");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.acquirePermission(new Object()) > 0);
+        probe.cancel(false);
+
+        // The probe never reported on the host, so the next request is let through to probe instead
+        assertEquals(0, breaker.acquirePermission(new Object()));
+    }
+
+    @Test
+    public void testCharacterNamedMaintenance() throws Exception {
+        assertEquals(200, instance.get(baseUrl + "/named").getStatusCode());
+
+        // A character's own name is not the maintenance page, so is handed straight back
+        assertEquals(1, namedRequests.get());
+        assertFalse(instance.isAnyCircuitOpen());
+    }
+
+    @Test
+    public void testRequestsTakeTokens() throws Exception {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(1, 2);
+        instance.setRateLimiter(rateLimiter);
+
+        instance.get(baseUrl + "/page");
+        instance.head(baseUrl + "/page");
+
+        assertTrue(rateLimiter.getAvailableTokens() < 1);
+    }
+
+    @Test
+    public void testPerRouteLimitCappedByTotal() {
+        LodestoneHttpClient client = new LodestoneHttpClient(8, 16, 1000, 1000);
+
+        assertEquals(8, client.getMaxConnections());
+        assertEquals(8, client.getMaxConnectionsPerRoute());
+    }
+
+}
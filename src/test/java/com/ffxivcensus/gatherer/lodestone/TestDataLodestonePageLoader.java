@@ -5,6 +5,9 @@ import org.jsoup.nodes.Document;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 public class TestDataLodestonePageLoader implements LodestonePageLoader {
 
@@ -78,4 +81,33 @@ public class TestDataLodestonePageLoader implements LodestonePageLoader {
         return null;
     }
 
+    @Override
+    public String getCharacterPageSource(int characterId) throws IOException, InterruptedException, FetchYieldedPageNotFoundException {
+        return readSource("/data/lodestone/Character-%d.html", characterId);
+    }
+
+    @Override
+    public String getClassJobPageSource(int characterId) throws IOException, InterruptedException, FetchYieldedPageNotFoundException {
+        return readSource("/data/lodestone/Character-%d-Class-Jobs.html", characterId);
+    }
+
+    @Override
+    public String getMinionPageSource(int characterId) throws IOException, InterruptedException, FetchYieldedPageNotFoundException {
+        return readSource("/data/lodestone/Character-%d-Minions.html", characterId);
+    }
+
+    @Override
+    public String getMountPageSource(int characterId) throws IOException, InterruptedException, FetchYieldedPageNotFoundException {
+        return readSource("/data/lodestone/Character-%d-Mounts.html", characterId);
+    }
+
+    private String readSource(String path, int characterId) {
+        try {
+            return new String(Files.readAllBytes(Paths.get(this.getClass().getResource(String.format(path, characterId)).toURI())),
+                              StandardCharsets.UTF_8);
+        } catch(Exception e) {
+            throw new RuntimeException();
+        }
+    }
+
 }
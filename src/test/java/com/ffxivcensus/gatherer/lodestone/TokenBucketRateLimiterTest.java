@@ -0,0 +1,66 @@
+package com.ffxivcensus.gatherer.lodestone;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TokenBucketRateLimiterTest {
+
+    private AtomicLong clock;
+    private TokenBucketRateLimiter instance;
+
+    @Before
+    public void setUp() {
+        clock = new AtomicLong();
+        instance = new TokenBucketRateLimiter(10, 3, clock::get);
+    }
+
+    @Test
+    public void testBurstAvailableImmediately() {
+        assertEquals(0, instance.reserve());
+        assertEquals(0, instance.reserve());
+        assertEquals(0, instance.reserve());
+    }
+
+    @Test
+    public void testWaitOnceBurstSpent() {
+        for(int i = 0; i < 3; i++) {
+            instance.reserve();
+        }
+
+        // At 10 requests per second, each further token is 100ms apart
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), instance.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), instance.reserve());
+    }
+
+    @Test
+    public void testRefillCappedAtBurst() {
+        for(int i = 0; i < 3; i++) {
+            instance.reserve();
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals(3, instance.getAvailableTokens(), 0.0001);
+    }
+
+    @Test
+    public void testRefillOverTime() {
+        for(int i = 0; i < 4; i++) {
+            instance.reserve();
+        }
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(150));
+
+        assertEquals(0.5, instance.getAvailableTokens(), 0.0001);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), instance.reserve());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNonPositiveRate() {
+        new TokenBucketRateLimiter(0, 1);
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.ffxivcensus.gatherer.parser;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class CharacterProfileBuilderTest {
+
+    private CharacterProfileBuilder newBuilder() {
+        CharacterProfileBuilder builder = new CharacterProfileBuilder();
+        builder.setTitle("Aelia Sokoto | FINAL FANTASY XIV, The Lodestone");
+        builder.setWorld("Cerberus [Chaos]");
+        builder.setRaceAndGender("Miqo'te", "Miqo'te Seeker of the Sun / ♀");
+        builder.setImageUrl("https://img.finalfantasyxiv.com/body.jpg");
+        return builder;
+    }
+
+    @Test
+    public void testBuildsProfile() {
+        CharacterProfileBuilder builder = newBuilder();
+        CharacterProfileBuilder.Box race = builder.addBox();
+        race.setTitle("Race/Clan/Gender");
+        CharacterProfileBuilder.Box nameday = builder.addBox();
+        nameday.setTitle("Nameday");
+        CharacterProfileBuilder.Box grandCompany = builder.addBox();
+        grandCompany.setTitle("Grand Company");
+        grandCompany.addName("Immortal Flames / Flame Captain");
+        CharacterProfileBuilder.Box freeCompany = builder.addBox();
+        freeCompany.startFreeCompany();
+        freeCompany.addFreeCompany("Monarchy");
+        freeCompany.addFreeCompany("of Cerberus");
+        builder.addDisabledTab("Minions");
+
+        CharacterProfile profile = builder.build();
+
+        assertEquals("Aelia Sokoto", profile.getName());
+        assertEquals("Cerberus", profile.getRealm());
+        assertEquals("Miqo'te", profile.getRace());
+        assertEquals("female", profile.getGender());
+        assertEquals("Immortal Flames", profile.getGrandCompany());
+        assertEquals("Captain", profile.getGrandCompanyRank());
+        assertEquals("Monarchy of Cerberus", profile.getFreeCompany());
+        assertFalse(profile.isMountsTabDisabled());
+        assertTrue(profile.isMinionsTabDisabled());
+    }
+
+    @Test
+    public void testNoGrandOrFreeCompany() {
+        CharacterProfileBuilder builder = newBuilder();
+        builder.addBox().setTitle("Race/Clan/Gender");
+        builder.addBox();
+        builder.addBox().setTitle("Grand Company");
+
+        CharacterProfile profile = builder.build();
+
+        // Grand Company boxes following a box without a title are not the character's
+        assertEquals("none", profile.getGrandCompany());
+        assertEquals("none", profile.getGrandCompanyRank());
+        assertEquals("none", profile.getFreeCompany());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWorldRequired() {
+        CharacterProfileBuilder builder = newBuilder();
+        builder.setWorld(null);
+
+        builder.build();
+    }
+
+}
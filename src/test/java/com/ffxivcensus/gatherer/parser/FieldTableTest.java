@@ -0,0 +1,53 @@
+package com.ffxivcensus.gatherer.parser;
+
+import static com.ffxivcensus.gatherer.parser.FieldTable.DOCUMENT;
+import static com.ffxivcensus.gatherer.parser.Selectors.childOf;
+import static com.ffxivcensus.gatherer.parser.Selectors.hasClass;
+import static com.ffxivcensus.gatherer.parser.Selectors.tag;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.Test;
+
+public class FieldTableTest {
+
+    private static final Document DOC = Jsoup.parse("<div class='box'><h3>One</h3><p>a</p><p>b</p></div>"
+                                                    + "<div class='Other BOX'><h3>Two</h3><p>c</p></div>"
+                                                    + "<ul class='tabs'><li>x</li><li><ul><li>nested</li></ul></li></ul><p>d</p>");
+
+    @Test
+    public void testScopedFieldsResetForEachMatch() {
+        FieldTable.Builder<List<String>> builder = FieldTable.builder();
+        int box = builder.each(DOCUMENT, hasClass("box"), (list, element) -> list.add("box"));
+        builder.first(box, tag("h3"), (list, element) -> list.add(element.text()));
+        builder.each(box, tag("p"), (list, element) -> list.add(element.text()));
+
+        assertEquals("[box, One, a, b, box, Two, c]", builder.build().extract(DOC, new ArrayList<>()).toString());
+    }
+
+    @Test
+    public void testFirstMatchOnly() {
+        FieldTable.Builder<List<String>> builder = FieldTable.builder();
+        builder.first(DOCUMENT, tag("p"), (list, element) -> list.add(element.text()));
+
+        assertEquals("[a]", builder.build().extract(DOC, new ArrayList<>()).toString());
+    }
+
+    @Test
+    public void testChildOf() {
+        FieldTable.Builder<List<String>> builder = FieldTable.builder();
+        builder.each(DOCUMENT, childOf(hasClass("tabs"), tag("li")), (list, element) -> list.add(element.ownText()));
+
+        assertEquals("[x, ]", builder.build().extract(DOC, new ArrayList<>()).toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFailOnUnknownScope() {
+        FieldTable.<List<String>> builder().first(0, tag("p"), null);
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.ffxivcensus.gatherer.parser;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+/**
+ * Checks that the streaming extractor picks the same details out of each of the test pages as the DOM extractor.
+ *
+ * @author matthew.hillier
+ */
+public class StreamingCharacterPageExtractorTest {
+
+    private static final Path TEST_DATA = Paths.get("src/test/resources/data/lodestone");
+    private static final int[] CHARACTER_IDS = {5313, 2256025, 22763008, 27821077, 33000046, 33000061, 33000075};
+
+    private final CharacterPageExtractor expected = new JsoupCharacterPageExtractor();
+    private final CharacterPageExtractor instance = new StreamingCharacterPageExtractor();
+
+    @Test
+    public void testProfileMatchesDom() throws Exception {
+        for(int id : CHARACTER_IDS) {
+            String source = read("Character-" + id + ".html");
+            CharacterProfile expectedProfile = expected.extractProfile(source);
+            CharacterProfile profile = instance.extractProfile(source);
+
+            assertEquals(expectedProfile.getName(), profile.getName());
+            assertEquals(expectedProfile.getRealm(), profile.getRealm());
+            assertEquals(expectedProfile.getRace(), profile.getRace());
+            assertEquals(expectedProfile.getGender(), profile.getGender());
+            assertEquals(expectedProfile.getGrandCompany(), profile.getGrandCompany());
+            assertEquals(expectedProfile.getGrandCompanyRank(), profile.getGrandCompanyRank());
+            assertEquals(expectedProfile.getFreeCompany(), profile.getFreeCompany());
+            assertEquals(expectedProfile.getImageUrl(), profile.getImageUrl());
+            assertEquals(expectedProfile.isMountsTabDisabled(), profile.isMountsTabDisabled());
+            assertEquals(expectedProfile.isMinionsTabDisabled(), profile.isMinionsTabDisabled());
+        }
+    }
+
+    @Test
+    public void testLevelsMatchDom() throws Exception {
+        for(int id : CHARACTER_IDS) {
+            String source = read("Character-" + id + "-Class-Jobs.html");
+            ClassJobLevels expectedLevels = expected.extractLevels(source);
+            ClassJobLevels levels = instance.extractLevels(source);
+            assertArrayEquals(expectedLevels.toArray(), levels.toArray());
+            for(int i = 0; i < levels.size(); i++) {
+                assertNotNull(levels.getName(i));
+                assertEquals(expectedLevels.getName(i), levels.getName(i));
+            }
+        }
+    }
+
+    @Test
+    public void testCollectionsMatchDom() throws Exception {
+        for(int id : CHARACTER_IDS) {
+            Path mounts = TEST_DATA.resolve("Character-" + id + "-Mounts.html");
+            if(Files.exists(mounts)) {
+                String source = read(mounts.getFileName().toString());
+                assertFalse(instance.extractMountTooltips(source).isEmpty());
+                assertEquals(expected.extractMountTooltips(source), instance.extractMountTooltips(source));
+            }
+            Path minions = TEST_DATA.resolve("Character-" + id + "-Minions.html");
+            if(Files.exists(minions)) {
+                String source = read(minions.getFileName().toString());
+                assertFalse(instance.extractMinionTooltips(source).isEmpty());
+                assertEquals(expected.extractMinionTooltips(source), instance.extractMinionTooltips(source));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFailOnNonCharacterPage() {
+        instance.extractProfile("<html><body><p>Not a character</p></body></html>");
+    }
+
+    private static String read(final String fileName) throws IOException {
+        return new String(Files.readAllBytes(TEST_DATA.resolve(fileName)), StandardCharsets.UTF_8);
+    }
+
+}
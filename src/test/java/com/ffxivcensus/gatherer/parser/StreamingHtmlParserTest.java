@@ -0,0 +1,76 @@
+package com.ffxivcensus.gatherer.parser;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.ffxivcensus.gatherer.parser.StreamingHtmlParser.Tag;
+
+public class StreamingHtmlParserTest {
+
+    @Test
+    public void testEventsAndDepth() {
+        List<String> events = parse("<!DOCTYPE html><!-- <p>comment</p> --><ul class=\"list\"><li>One<li>Two<br>Three</ul>"
+                                    + "<script>if(a<b){}</script>");
+
+        assertEquals("[+ul@1, +li@2, 'One'@2, -li@2, +li@2, 'Two'@2, +br@3, -br@3, 'Three'@2, -li@2, -ul@1, +script@1, -script@1]",
+                     events.toString());
+    }
+
+    @Test
+    public void testAttributes() {
+        List<String> values = new ArrayList<>();
+        StreamingHtmlParser.parse("<a class=\"Link  Tooltip\"href='/a?b=1&amp;c=2' data-x=y hidden>", new RecordingHandler(values) {
+            @Override
+            public void startElement(final Tag tag, final int depth) {
+                values.add(tag.getAttribute("href"));
+                values.add(tag.getAttribute("data-x"));
+                values.add(tag.getAttribute("hidden"));
+                values.add(tag.getAttribute("missing"));
+                values.add(String.valueOf(tag.hasClass("tooltip")));
+                values.add(String.valueOf(tag.hasClass("link--tooltip")));
+            }
+
+            @Override
+            public void endElement(final String name, final int depth) {
+                // Only the start tag is of interest
+            }
+        });
+
+        assertEquals("[/a?b=1&c=2, y, , null, true, false]", values.toString());
+    }
+
+    private static List<String> parse(final String html) {
+        List<String> events = new ArrayList<>();
+        StreamingHtmlParser.parse(html, new RecordingHandler(events));
+        return events;
+    }
+
+    private static class RecordingHandler implements StreamingHtmlParser.Handler {
+
+        private final List<String> events;
+
+        RecordingHandler(final List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void startElement(final Tag tag, final int depth) {
+            events.add("+" + tag.getName() + "@" + depth);
+        }
+
+        @Override
+        public void endElement(final String name, final int depth) {
+            events.add("-" + name + "@" + depth);
+        }
+
+        @Override
+        public void text(final String html, final int start, final int end, final int depth) {
+            events.add("'" + html.substring(start, end) + "'@" + depth);
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.ffxivcensus.gatherer.player;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CharacterStatusMapTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSetAndGet() throws Exception {
+        try(CharacterStatusMap instance = new CharacterStatusMap(folder.getRoot().toPath().resolve("status.map"))) {
+            assertTrue(instance.isCreated());
+            assertEquals(-1, instance.getHighestKnownId());
+
+            instance.set(5, CharacterStatus.ACTIVE);
+            instance.set(6, CharacterStatus.INACTIVE);
+            instance.set(7, CharacterStatus.DELETED);
+            instance.set(40000000, CharacterStatus.DELETED);
+
+            assertNull(instance.get(4));
+            assertEquals(CharacterStatus.ACTIVE, instance.get(5));
+            assertEquals(CharacterStatus.INACTIVE, instance.get(6));
+            assertTrue(instance.isDeleted(7));
+            assertTrue(instance.isKnown(40000000));
+            assertFalse(instance.isKnown(40000001));
+            assertEquals(40000000, instance.getHighestKnownId());
+            assertEquals(6, instance.getHighestValidId());
+        }
+    }
+
+    @Test
+    public void testReopen() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("status.map");
+        try(CharacterStatusMap instance = new CharacterStatusMap(file)) {
+            instance.set(17000000, CharacterStatus.ACTIVE);
+            instance.set(17000003, CharacterStatus.DELETED);
+        }
+
+        try(CharacterStatusMap instance = new CharacterStatusMap(file)) {
+            assertFalse(instance.isCreated());
+            assertEquals(CharacterStatus.ACTIVE, instance.get(17000000));
+            assertTrue(instance.isDeleted(17000003));
+            assertEquals(17000003, instance.getHighestKnownId());
+            assertEquals(17000000, instance.getHighestValidId());
+        }
+    }
+
+    @Test
+    public void testDeletingHighestValid() throws Exception {
+        try(CharacterStatusMap instance = new CharacterStatusMap(folder.getRoot().toPath().resolve("status.map"))) {
+            instance.set(10, CharacterStatus.ACTIVE);
+            instance.set(20, CharacterStatus.ACTIVE);
+
+            instance.set(20, CharacterStatus.DELETED);
+
+            assertEquals(20, instance.getHighestKnownId());
+            assertEquals(10, instance.getHighestValidId());
+        }
+    }
+
+    @Test
+    public void testClearAbove() throws Exception {
+        try(CharacterStatusMap instance = new CharacterStatusMap(folder.getRoot().toPath().resolve("status.map"))) {
+            instance.set(10, CharacterStatus.ACTIVE);
+            instance.set(11, CharacterStatus.DELETED);
+            instance.set(300, CharacterStatus.DELETED);
+
+            instance.clearAbove(10);
+
+            assertTrue(instance.isKnown(10));
+            assertFalse(instance.isKnown(11));
+            assertFalse(instance.isKnown(300));
+            assertEquals(10, instance.getHighestKnownId());
+        }
+    }
+
+    @Test
+    public void testClearRange() throws Exception {
+        try(CharacterStatusMap instance = new CharacterStatusMap(folder.getRoot().toPath().resolve("status.map"))) {
+            instance.set(10, CharacterStatus.ACTIVE);
+            instance.set(11, CharacterStatus.DELETED);
+            instance.set(300, CharacterStatus.DELETED);
+
+            instance.clearRange(10, 20);
+
+            assertTrue(instance.isKnown(10));
+            assertFalse(instance.isKnown(11));
+            assertTrue(instance.isKnown(300));
+            assertEquals(300, instance.getHighestKnownId());
+            assertEquals(10, instance.getHighestValidId());
+        }
+    }
+
+    @Test
+    public void testNeighboursSetConcurrently() throws Exception {
+        try(CharacterStatusMap instance = new CharacterStatusMap(folder.getRoot().toPath().resolve("status.map"))) {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            for(int id = 0; id < 100000; id++) {
+                final int characterId = id;
+                executor.execute(() -> instance.set(characterId, CharacterStatus.INACTIVE));
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+            for(int id = 0; id < 100000; id++) {
+                assertEquals(CharacterStatus.INACTIVE, instance.get(id));
+            }
+        }
+    }
+
+    @Test
+    public void testSeed() throws Exception {
+        PlayerBeanRepository repository = mock(PlayerBeanRepository.class);
+        PlayerBean highest = new PlayerBean();
+        highest.setId(150000);
+        when(repository.findTopByOrderByIdDesc()).thenReturn(highest);
+        when(repository.findStatusesByIdBetween(0, 99999)).thenReturn(Arrays.asList(new Object[] {3, CharacterStatus.ACTIVE},
+                                                                                     new Object[] {4, CharacterStatus.DELETED}));
+        when(repository.findStatusesByIdBetween(100000, 150000)).thenReturn(Arrays.<Object[]> asList(new Object[] {150000,
+                                                                                                                   CharacterStatus.DELETED}));
+
+        try(CharacterStatusMap instance = new CharacterStatusMap(folder.getRoot().toPath().resolve("status.map"))) {
+            instance.seed(repository);
+
+            assertEquals(CharacterStatus.ACTIVE, instance.get(3));
+            assertTrue(instance.isDeleted(4));
+            assertEquals(150000, instance.getHighestKnownId());
+            assertEquals(3, instance.getHighestValidId());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsOtherFiles() throws Exception {
+        Path file = folder.newFile("other.map").toPath();
+        Files.write(file, "This is not a character status map".getBytes());
+
+        new CharacterStatusMap(file).close();
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.ffxivcensus.gatherer.player;
+
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.ffxivcensus.gatherer.parser.ClassJobLevels;
+
+public class JobLayoutRegistryTest {
+
+    private final JobLayout layout = new JobLayoutRegistry().getDefaultLayout();
+
+    @Test
+    public void testJobsMatchedByName() {
+        assertEquals(Job.GLADIATOR, layout.getJob("Paladin / Gladiator"));
+        assertEquals(Job.GLADIATOR, layout.getJob("Gladiator"));
+        assertEquals(Job.ARCANIST, layout.getJob("Summoner / Arcanist"));
+        assertEquals(Job.BLUEMAGE, layout.getJob("Blue Mage (Limited Job)"));
+        assertEquals(Job.BOZJA, layout.getJob("Resistance Rank"));
+        assertNull(layout.getJob("Viper"));
+    }
+
+    @Test
+    public void testApplyByNameIgnoresPosition() {
+        ClassJobLevels levels = new ClassJobLevels();
+        levels.addLevel(90);
+        levels.nameLastLevel("Fisher");
+        // Resistance Rank without Elemental Level
+        levels.addLevel(25);
+        levels.nameLastLevel("Resistance Rank");
+        levels.addLevel(100);
+        levels.nameLastLevel("Viper");
+        PlayerBean player = new PlayerBean();
+
+        layout.apply(player, levels);
+
+        assertEquals(90, player.getLevelFisher());
+        assertEquals(25, player.getLevelBozja());
+        assertEquals(0, player.getLevelGladiator());
+        assertEquals(0, player.getLevelEureka());
+    }
+
+    @Test
+    public void testApplyByPositionWhereUnnamed() {
+        ClassJobLevels levels = new ClassJobLevels();
+        levels.addLevel(80);
+        levels.addLevel(70);
+        PlayerBean player = new PlayerBean();
+
+        layout.apply(player, levels);
+
+        assertEquals(80, player.getLevelGladiator());
+        assertEquals(70, player.getLevelMarauder());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFailOnTooManyUnnamedLevels() {
+        ClassJobLevels levels = new ClassJobLevels();
+        for(int i = 0; i <= Job.values().length; i++) {
+            levels.addLevel(1);
+        }
+
+        layout.apply(new PlayerBean(), levels);
+    }
+
+    @Test
+    public void testVersionedLayouts() {
+        Properties properties = new Properties();
+        properties.setProperty("job.GLADIATOR", "Gladiator,Paladin");
+        properties.setProperty("layout.1.0", "GLADIATOR,FISHER");
+        properties.setProperty("layout.2.0", "FISHER,GLADIATOR");
+        properties.setProperty("layout.default", "2.0");
+        JobLayoutRegistry registry = new JobLayoutRegistry(properties);
+        ClassJobLevels levels = new ClassJobLevels();
+        levels.addLevel(50);
+        PlayerBean player = new PlayerBean();
+
+        registry.getLayout("1.0").apply(player, levels);
+        assertEquals(50, player.getLevelGladiator());
+        assertEquals("2.0", registry.getLayout(null).getVersion());
+        assertEquals(Job.FISHER, registry.getDefaultLayout().getJob("fisher"));
+    }
+
+    @Test
+    public void testParseLevel() {
+        assertEquals(0, ClassJobLevels.parseLevel("-"));
+        assertEquals(87, ClassJobLevels.parseLevel(" 87\n"));
+        assertEquals(5, ClassJobLevels.parseLevel("<b>5</b>", 3, 4));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseLevelFailsOnText() {
+        ClassJobLevels.parseLevel("8x");
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.ffxivcensus.gatherer.player;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.util.BitSet;
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ffxivcensus.gatherer.edb.CollectibleDictionary;
+import com.ffxivcensus.gatherer.edb.CollectibleType;
+
+public class OwnershipRulesTest {
+
+    private CollectibleDictionary dictionary;
+    private OwnershipRules instance;
+
+    @Before
+    public void setUp() {
+        dictionary = new CollectibleDictionary();
+        instance = new OwnershipRules();
+    }
+
+    private BitSet collection(final CollectibleType type, final String... names) {
+        BitSet collection = new BitSet();
+        for(String name : names) {
+            collection.set(dictionary.setName(type, name.toLowerCase(), name));
+        }
+        return collection;
+    }
+
+    @Test
+    public void testDefaultRules() {
+        PlayerBean player = new PlayerBean();
+        player.setMinionSet(collection(CollectibleType.MINION, "Wind-up Cursor", "Wind-up Exdeath", "Midgardsormr"));
+        player.setMountSet(collection(CollectibleType.MOUNT, "Legacy Chocobo", "Fenrir"));
+
+        instance.apply(player, dictionary);
+
+        assertTrue(player.isHas30DaysSub());
+        assertFalse(player.isHas60DaysSub());
+        // Any one of the Level 70 dungeon minions counts as completing Stormblood
+        assertTrue(player.isHasCompletedSB());
+        // Minions and mounts of the same name are told apart
+        assertTrue(player.isHasCompleted2pt5());
+        assertFalse(player.isHasCompletedHW());
+        assertTrue(player.isLegacyPlayer());
+        assertFalse(player.isHasKobold());
+    }
+
+    @Test
+    public void testEveryFlagHasADefaultRule() throws Exception {
+        Properties properties = new Properties();
+        try(InputStream in = getClass().getResourceAsStream(OwnershipRules.DEFAULT_RESOURCE)) {
+            properties.load(in);
+        }
+        for(OwnershipFlag flag : OwnershipFlag.values()) {
+            assertTrue("No rule for " + flag, properties.containsKey("minion." + flag) || properties.containsKey("mount." + flag));
+        }
+    }
+
+    @Test
+    public void testRulesFollowNewNames() {
+        PlayerBean player = new PlayerBean();
+        instance.apply(player, dictionary);
+        assertFalse(player.isHasKobold());
+
+        // Named after the rules were first compiled against the dictionary
+        player.setMountSet(collection(CollectibleType.MOUNT, "Bomb Palanquin"));
+        instance.apply(player, dictionary);
+
+        assertTrue(player.isHasKobold());
+    }
+
+    @Test
+    public void testCustomRules() {
+        Properties properties = new Properties();
+        properties.setProperty("mount.HAS_KOBOLD", "Fenrir, Bomb Palanquin");
+        properties.setProperty("minion.HAS_KOBOLD", "Wind-up Kobold");
+        instance = new OwnershipRules(properties);
+        PlayerBean player = new PlayerBean();
+        player.setMinionSet(collection(CollectibleType.MINION, "Wind-up Kobold", "Wind-up Cursor"));
+
+        instance.apply(player, dictionary);
+
+        assertTrue(player.isHasKobold());
+        // Flags without a rule are left alone
+        assertFalse(player.isHas30DaysSub());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownFlag() {
+        Properties properties = new Properties();
+        properties.setProperty("minion.HAS_EVERYTHING", "Wind-up Cursor");
+        new OwnershipRules(properties);
+    }
+
+}
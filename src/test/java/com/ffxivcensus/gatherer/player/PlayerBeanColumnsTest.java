@@ -0,0 +1,62 @@
+package com.ffxivcensus.gatherer.player;
+
+import static org.junit.Assert.*;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PlayerBeanColumnsTest {
+
+    private final PlayerBeanColumns instance = new PlayerBeanColumns();
+
+    @Test
+    public void testPhysicalNames() {
+        assertEquals("id", PlayerBeanColumns.getPhysicalName("id"));
+        assertEquals("grand_company_rank", PlayerBeanColumns.getPhysicalName("grandCompanyRank"));
+        assertEquals("date_img_last_modified", PlayerBeanColumns.getPhysicalName("dateImgLastModified"));
+        assertEquals("level_darkknight", PlayerBeanColumns.getPhysicalName("levelDarkknight"));
+    }
+
+    @Test
+    public void testColumns() {
+        List<String> names = Arrays.asList(instance.getNames());
+        assertEquals("tblplayers", instance.getTable());
+        assertEquals("id", names.get(instance.getIdColumn()));
+        assertTrue(names.contains("grand_company"));
+        assertTrue(names.contains("p30days"));
+        assertTrue(names.contains("arr_25_complete"));
+        assertTrue(names.contains("minion_set"));
+        assertTrue(names.contains("character_status"));
+        assertFalse(names.contains("NOT_AVAILABLE"));
+        assertEquals(names.size(), names.stream().distinct().count());
+    }
+
+    @Test
+    public void testValues() {
+        PlayerBean player = new PlayerBean();
+        player.setId(42);
+        player.setGrandCompany("Maelstrom");
+        player.setCharacterStatus(CharacterStatus.DELETED);
+        player.setDateImgLastModified(new Date(1000));
+        BitSet mounts = new BitSet();
+        mounts.set(3);
+        player.setMountSet(mounts);
+
+        List<String> names = Arrays.asList(instance.getNames());
+        Object[] values = instance.getValues(player);
+
+        assertEquals(names.size(), values.length);
+        assertEquals(42, values[instance.getIdColumn()]);
+        assertEquals("Maelstrom", values[names.indexOf("grand_company")]);
+        assertEquals("DELETED", values[names.indexOf("character_status")]);
+        assertEquals(new Timestamp(1000), values[names.indexOf("date_active")]);
+        assertArrayEquals(mounts.toByteArray(), (byte[]) values[names.indexOf("mount_set")]);
+        assertNull(values[names.indexOf("minion_set")]);
+    }
+
+}
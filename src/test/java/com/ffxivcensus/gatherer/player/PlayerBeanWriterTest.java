@@ -0,0 +1,252 @@
+package com.ffxivcensus.gatherer.player;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PlayerBeanWriterTest {
+
+    private DataSource dataSource;
+    private Connection connection;
+    private PreparedStatement statement;
+    private PlayerBeanRepository repository;
+    private PlayerBeanWriter instance;
+
+    @Before
+    public void setUp() throws Exception {
+        dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        repository = mock(PlayerBeanRepository.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.supportsBatchUpdates()).thenReturn(true);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.getConnection()).thenReturn(connection);
+        when(statement.executeBatch()).thenAnswer(invocation -> new int[] {1});
+    }
+
+    @After
+    public void tearDown() {
+        if(instance != null) {
+            instance.close();
+        }
+    }
+
+    private static PlayerBean player(final int id) {
+        PlayerBean player = new PlayerBean();
+        player.setId(id);
+        return player;
+    }
+
+    @Test(timeout = 10000)
+    public void testWritesFullBatch() throws Exception {
+        instance = new PlayerBeanWriter(dataSource, repository, 3, TimeUnit.MINUTES.toMillis(1));
+
+        instance.write(player(1), false);
+        instance.write(player(2), false);
+        instance.write(player(3), false);
+        instance.flush();
+
+        verify(connection).prepareStatement(instance.getInsertSql());
+        verify(statement, times(3)).addBatch();
+        verify(statement).executeBatch();
+        verify(connection).commit();
+        verifyZeroInteractions(repository);
+    }
+
+    @Test(timeout = 10000)
+    public void testWritesPartialBatchAfterInterval() throws Exception {
+        instance = new PlayerBeanWriter(dataSource, repository, 100, 50);
+
+        instance.write(player(1), false);
+        instance.flush();
+
+        verify(statement).addBatch();
+        verify(statement).executeBatch();
+        verify(connection).commit();
+    }
+
+    @Test(timeout = 10000)
+    public void testUpdatesExistingPlayers() throws Exception {
+        instance = new PlayerBeanWriter(dataSource, repository, 2, TimeUnit.MINUTES.toMillis(1));
+
+        instance.write(player(1), true);
+        instance.write(player(2), false);
+        instance.flush();
+
+        assertTrue(instance.getUpdateSql().startsWith("UPDATE tblplayers SET "));
+        assertTrue(instance.getUpdateSql().endsWith(" WHERE id = ?"));
+        verify(connection).prepareStatement(instance.getInsertSql());
+        verify(connection).prepareStatement(instance.getUpdateSql());
+        verify(statement, times(2)).executeBatch();
+        verify(connection).commit();
+    }
+
+    @Test(timeout = 10000)
+    public void testInsertsPlayersMissingOnUpdate() throws Exception {
+        PreparedStatement updateStatement = mock(PreparedStatement.class);
+        when(updateStatement.getConnection()).thenReturn(connection);
+        when(updateStatement.executeBatch()).thenAnswer(invocation -> new int[] {1, 0});
+        instance = new PlayerBeanWriter(dataSource, repository, 2, TimeUnit.MINUTES.toMillis(1));
+        when(connection.prepareStatement(instance.getUpdateSql())).thenReturn(updateStatement);
+
+        instance.write(player(1), true);
+        instance.write(player(2), true);
+        instance.flush();
+
+        // The player whose row was missing is inserted in the same transaction
+        verify(updateStatement, times(2)).addBatch();
+        verify(connection).prepareStatement(instance.getInsertSql());
+        verify(statement).addBatch();
+        verify(statement).executeBatch();
+        verify(connection).commit();
+        verifyZeroInteractions(repository);
+    }
+
+    @Test(timeout = 10000)
+    public void testUpsertsAllPlayers() throws Exception {
+        instance = new PlayerBeanWriter(dataSource, repository, 2, TimeUnit.MINUTES.toMillis(1), UpsertDialect.MYSQL);
+
+        instance.write(player(1), true);
+        instance.write(player(2), false);
+        instance.flush();
+
+        assertTrue(instance.getUpsertSql().contains(" ON DUPLICATE KEY UPDATE "));
+        verify(connection).prepareStatement(instance.getUpsertSql());
+        verify(connection, never()).prepareStatement(instance.getUpdateSql());
+        verify(statement, times(2)).addBatch();
+        verify(statement).executeBatch();
+        verify(connection).commit();
+    }
+
+    @Test
+    public void testWritesOnCallingThreadWithoutBatching() throws Exception {
+        instance = new PlayerBeanWriter(dataSource, repository, 0, 0, UpsertDialect.POSTGRESQL);
+
+        instance.write(player(1), false);
+
+        // Written before returning, without waiting on a flush
+        verify(connection).prepareStatement(instance.getUpsertSql());
+        verify(statement).executeBatch();
+        verify(connection).commit();
+    }
+
+    @Test(timeout = 10000)
+    public void testFallsBackToRepository() throws Exception {
+        when(statement.executeBatch()).thenThrow(new SQLException("Duplicate entry"));
+        instance = new PlayerBeanWriter(dataSource, repository, 2, TimeUnit.MINUTES.toMillis(1));
+        PlayerBean first = player(1);
+        PlayerBean second = player(2);
+
+        instance.write(first, false);
+        instance.write(second, false);
+        instance.flush();
+
+        verify(connection).rollback();
+        verify(repository).save(first);
+        verify(repository).save(second);
+    }
+
+    @Test(timeout = 10000)
+    public void testCallsBackOnceCommitted() throws Exception {
+        AtomicBoolean committed = new AtomicBoolean();
+        doAnswer(invocation -> {
+            committed.set(true);
+            return null;
+        }).when(connection).commit();
+        instance = new PlayerBeanWriter(dataSource, repository, 1, TimeUnit.MINUTES.toMillis(1));
+        CountDownLatch written = new CountDownLatch(1);
+
+        instance.write(player(1), false, () -> {
+            assertTrue(committed.get());
+            written.countDown();
+        });
+        instance.flush();
+
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test(timeout = 10000)
+    public void testNoCallbackWhenUnsaved() throws Exception {
+        when(statement.executeBatch()).thenThrow(new SQLException("Connection lost"));
+        when(repository.save(any(PlayerBean.class))).thenThrow(new IllegalStateException("Connection lost"));
+        instance = new PlayerBeanWriter(dataSource, repository, 1, TimeUnit.MINUTES.toMillis(1));
+        AtomicBoolean written = new AtomicBoolean();
+
+        instance.write(player(1), true, () -> written.set(true));
+        instance.flush();
+
+        assertFalse(written.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testBlocksWhenFull() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(statement.executeBatch()).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return new int[] {1};
+        });
+        instance = new PlayerBeanWriter(dataSource, repository, 1, TimeUnit.MINUTES.toMillis(1));
+
+        // The first player is taken by the background thread, which then blocks writing it
+        instance.write(player(0), false);
+        writing.await();
+        // Which leaves room for four batches in the queue
+        for(int id = 1; id <= 4; id++) {
+            instance.write(player(id), false);
+        }
+        Thread blocked = new Thread(() -> {
+            try {
+                instance.write(player(5), false);
+            } catch(InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        blocked.start();
+        blocked.join(200);
+        assertTrue(blocked.isAlive());
+
+        release.countDown();
+        blocked.join();
+        instance.flush();
+        verify(statement, times(6)).executeBatch();
+    }
+
+    @Test(timeout = 10000)
+    public void testCloseWritesQueuedPlayers() throws Exception {
+        instance = new PlayerBeanWriter(dataSource, repository, 100, TimeUnit.MINUTES.toMillis(1));
+
+        instance.write(player(1), false);
+        instance.close();
+
+        verify(statement).executeBatch();
+        verify(connection).commit();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWriteAfterClose() throws Exception {
+        instance = new PlayerBeanWriter(dataSource, repository, 100, TimeUnit.MINUTES.toMillis(1));
+        instance.close();
+
+        instance.write(player(1), false);
+    }
+
+}
@@ -161,19 +161,19 @@ public class PlayerBuilderIT {
 
         // Test minions string
         // Test for data near start
-        assertTrue(playerOne.getMinions().contains("Wayward Hatchling"));
+        assertTrue(instance.doesPlayerHaveMinion(playerOne, "Wayward Hatchling"));
         // Test for data in middle
-        assertTrue(playerOne.getMinions().contains("Morbol Seedling"));
+        assertTrue(instance.doesPlayerHaveMinion(playerOne, "Morbol Seedling"));
         // Test for data from end
-        assertTrue(playerOne.getMinions().contains("Wind-up Sun"));
+        assertTrue(instance.doesPlayerHaveMinion(playerOne, "Wind-up Sun"));
 
         // Test mounts string
         // Test for data from (near) start
-        assertTrue(playerOne.getMounts().contains("Company Chocobo"));
+        assertTrue(instance.doesPlayerHaveMount(playerOne, "Company Chocobo"));
         // Test for data from middle
-        assertTrue(playerOne.getMounts().contains("Cavalry Drake"));
+        assertTrue(instance.doesPlayerHaveMount(playerOne, "Cavalry Drake"));
         // Test for data from very end
-        assertTrue(playerOne.getMounts().contains("Midgardsormr"));
+        assertTrue(instance.doesPlayerHaveMount(playerOne, "Midgardsormr"));
 
         // Is active
         // assertTrue(playerOne.isActive());
@@ -247,8 +247,8 @@ public class PlayerBuilderIT {
         assertTrue(player.getDateImgLastModified() != new Date());
 
         // Test get minions method
-        assertTrue(player.getMinions().size() == 0);
-        assertTrue(player.getMounts().size() <= 1);
+        assertTrue(player.getMinionSet().isEmpty());
+        assertTrue(player.getMountSet().cardinality() <= 1);
     }
 
     /**
@@ -329,8 +329,8 @@ public class PlayerBuilderIT {
 			// Try to get a character that doesn't exist
 			PlayerBean player = instance.getPlayer(33000008);
 			assertNotEquals("Character should NOT be marked as DELETED", CharacterStatus.DELETED, player.getCharacterStatus());
-			assertEquals("Character should have mount array of length 0", 0, player.getMounts().size());
-			assertEquals("Character should have minion array of length 0", 0, player.getMinions().size());
+			assertEquals("Character should have mount set of size 0", 0, player.getMountSet().cardinality());
+			assertEquals("Character should have minion set of size 0", 0, player.getMinionSet().cardinality());
 		} catch(Exception e) {
 
 		}
@@ -345,8 +345,8 @@ public class PlayerBuilderIT {
 			// Try to get a character that doesn't exist
 			PlayerBean player = instance.getPlayer(33000046);
 			assertNotEquals("Character should NOT be marked as deleted", CharacterStatus.DELETED, player.getCharacterStatus());
-			assertTrue("Character should have minion array of length > 0", player.getMinions().size() > 0);
-			assertEquals("Character should have mount array of length 0", 0, player.getMounts().size());
+			assertTrue("Character should have minion set of size > 0", player.getMinionSet().cardinality() > 0);
+			assertEquals("Character should have mount set of size 0", 0, player.getMountSet().cardinality());
 		} catch(Exception e) {
 
 		}
@@ -1,11 +1,27 @@
 package com.ffxivcensus.gatherer.player;
 
+import com.ffxivcensus.gatherer.edb.CollectibleDictionary;
+import com.ffxivcensus.gatherer.edb.CollectibleType;
 import com.ffxivcensus.gatherer.edb.EorzeaDatabaseCache;
+import com.ffxivcensus.gatherer.lodestone.ExecutorAsyncLodestonePageLoader;
+import com.ffxivcensus.gatherer.lodestone.FetchYieldedPageNotModifiedException;
+import com.ffxivcensus.gatherer.lodestone.LodestoneHttpClient;
+import com.ffxivcensus.gatherer.lodestone.LodestoneResponse;
+import com.ffxivcensus.gatherer.lodestone.PageValidators;
 import com.ffxivcensus.gatherer.lodestone.TestDataLodestonePageLoader;
+import com.ffxivcensus.gatherer.parser.StreamingCharacterPageExtractor;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.BitSet;
+import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
 
 public class PlayerBuilderTest {
 
@@ -19,6 +35,16 @@ public class PlayerBuilderTest {
         instance.setEorzeaDatabaseCache(EDB_CACHE);
     }
 
+    /**
+     * Creates a cache resolving collectible names from the tooltip ID, so that tests can run without access to the Lodestone.
+     */
+    private static EorzeaDatabaseCache mockNameCache() throws Exception {
+        EorzeaDatabaseCache mockCache = Mockito.mock(EorzeaDatabaseCache.class);
+        when(mockCache.getMinionNameFromTooltip(Mockito.anyString())).then(invocation -> invocation.getArgument(0));
+        when(mockCache.getMountNameFromTooltip(Mockito.anyString())).then(invocation -> invocation.getArgument(0));
+        return mockCache;
+    }
+
     @Test
     public void testLoadFrom2256025() throws Exception {
         instance.setPageLoader(new TestDataLodestonePageLoader());
@@ -132,21 +158,21 @@ public class PlayerBuilderTest {
         assertTrue(player.isHasCompleted3pt1());
         assertFalse(player.isLegacyPlayer());
 
-        // Test minions string
+        // Test minions
         // Test for data near start
-        assertTrue(player.getMinions().contains("Wayward Hatchling"));
+        assertTrue(instance.doesPlayerHaveMinion(player, "Wayward Hatchling"));
         // Test for data in middle
-        assertTrue(player.getMinions().contains("Morbol Seedling"));
+        assertTrue(instance.doesPlayerHaveMinion(player, "Morbol Seedling"));
         // Test for data from end
-        assertTrue(player.getMinions().contains("Wind-up Sun"));
+        assertTrue(instance.doesPlayerHaveMinion(player, "Wind-up Sun"));
 
-        // Test mounts string
+        // Test mounts
         // Test for data from (near) start
-        assertTrue(player.getMounts().contains("Company Chocobo"));
+        assertTrue(instance.doesPlayerHaveMount(player, "Company Chocobo"));
         // Test for data from middle
-        assertFalse(player.getMounts().contains("Cavalry Drake"));
+        assertFalse(instance.doesPlayerHaveMount(player, "Cavalry Drake"));
         // Test for data from very end
-        assertTrue(player.getMounts().contains("Midgardsormr"));
+        assertTrue(instance.doesPlayerHaveMount(player, "Midgardsormr"));
     }
 
 
@@ -156,8 +182,8 @@ public class PlayerBuilderTest {
 		PlayerBean player = instance.getPlayer(33000061);
 
 		assertEquals(33000061, player.getId());
-		assertTrue(player.getMinions().size() == 0);
-		assertTrue(player.getMounts().size() > 0);
+		assertTrue(player.getMinionSet().isEmpty());
+		assertFalse(player.getMountSet().isEmpty());
 
 	}
 
@@ -202,8 +228,8 @@ public class PlayerBuilderTest {
 		PlayerBean player = instance.getPlayer(33000046);
 
 		assertEquals(33000046, player.getId());
-		assertTrue(player.getMinions().size() > 0);
-		assertTrue(player.getMounts().size() == 0);
+		assertFalse(player.getMinionSet().isEmpty());
+		assertTrue(player.getMountSet().isEmpty());
 
 	}
 
@@ -315,21 +341,285 @@ public class PlayerBuilderTest {
         assertFalse(player.isHasCompleted3pt1());
         assertFalse(player.isLegacyPlayer());
 
-        // Test minions string
+        // Test minions
         // Test for data near start
-        assertFalse(player.getMinions().contains("Wayward Hatchling"));
+        assertFalse(instance.doesPlayerHaveMinion(player, "Wayward Hatchling"));
         // Test for data in middle
-        assertFalse(player.getMinions().contains("Morbol Seedling"));
+        assertFalse(instance.doesPlayerHaveMinion(player, "Morbol Seedling"));
         // Test for data from end
-        assertFalse(player.getMinions().contains("Wind-up Sun"));
+        assertFalse(instance.doesPlayerHaveMinion(player, "Wind-up Sun"));
 
-        // Test mounts string
+        // Test mounts
         // Test for data from (near) start
-        assertTrue(player.getMounts().contains("Company Chocobo"));
+        assertTrue(instance.doesPlayerHaveMount(player, "Company Chocobo"));
         // Test for data from middle
-        assertFalse(player.getMounts().contains("Cavalry Drake"));
+        assertFalse(instance.doesPlayerHaveMount(player, "Cavalry Drake"));
         // Test for data from very end
-        assertFalse(player.getMounts().contains("Midgardsormr"));
+        assertFalse(instance.doesPlayerHaveMount(player, "Midgardsormr"));
+    }
+
+    @Test
+    public void testLoadAsyncMatchesBlocking() throws Exception {
+        instance.setEorzeaDatabaseCache(mockNameCache());
+        instance.setPageLoader(new TestDataLodestonePageLoader());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        instance.setAsyncPageLoader(new ExecutorAsyncLodestonePageLoader(new TestDataLodestonePageLoader(), executor));
+
+        try {
+            for(int id : new int[] {2256025, 33000046, 33000061}) {
+                PlayerBean expected = instance.getPlayer(id);
+                PlayerBean player = instance.getPlayerAsync(id).get();
+
+                assertEquals(id, player.getId());
+                assertEquals(expected.getPlayerName(), player.getPlayerName());
+                assertEquals(expected.getRealm(), player.getRealm());
+                assertEquals(expected.getGrandCompanyRank(), player.getGrandCompanyRank());
+                assertEquals(expected.getLevelFisher(), player.getLevelFisher());
+                assertEquals(expected.getLevelEureka(), player.getLevelEureka());
+                assertEquals(expected.getMinionSet(), player.getMinionSet());
+                assertEquals(expected.getMountSet(), player.getMountSet());
+                assertEquals(expected.getCharacterStatus(), player.getCharacterStatus());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLoadAsyncOnlyTakesKnownNames() throws Exception {
+        EorzeaDatabaseCache mockCache = Mockito.mock(EorzeaDatabaseCache.class);
+        instance.setEorzeaDatabaseCache(mockCache);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        instance.setAsyncPageLoader(new ExecutorAsyncLodestonePageLoader(new TestDataLodestonePageLoader(), executor));
+
+        try {
+            PlayerBean player = instance.getPlayerAsync(2256025).get();
+
+            // Names are never waited on while loading asynchronously, so the character's flags are re-derived once they are known
+            Mockito.verify(mockCache, Mockito.never()).getMountNameFromTooltip(Mockito.anyString());
+            Mockito.verify(mockCache, Mockito.never()).getMinionNameFromTooltip(Mockito.anyString());
+            assertFalse(player.getMountSet().isEmpty());
+            assertTrue(instance.takePlayersAwaitingNames().get(2256025));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLoadStagedMatchesBlocking() throws Exception {
+        instance.setEorzeaDatabaseCache(mockNameCache());
+        instance.setPageLoader(new TestDataLodestonePageLoader());
+
+        // 33000046 has mounts hidden, and 33000061 minions hidden
+        for(int id : new int[] {2256025, 33000046, 33000061}) {
+            PlayerBean expected = instance.getPlayer(id);
+            CharacterPages pages = instance.fetchPages(id);
+            instance.parsePages(pages);
+            PlayerBean player = instance.resolveCollectibles(pages);
+
+            assertEquals(id, player.getId());
+            assertEquals(expected.getPlayerName(), player.getPlayerName());
+            assertEquals(expected.getRealm(), player.getRealm());
+            assertEquals(expected.getLevelGladiator(), player.getLevelGladiator());
+            assertEquals(expected.getLevelFisher(), player.getLevelFisher());
+            assertEquals(expected.getMinionSet(), player.getMinionSet());
+            assertEquals(expected.getMountSet(), player.getMountSet());
+            assertEquals(expected.getCharacterStatus(), player.getCharacterStatus());
+        }
+    }
+
+    @Test
+    public void testLoadParallelMatchesSequential() throws Exception {
+        instance.setEorzeaDatabaseCache(mockNameCache());
+        instance.setPageLoader(new TestDataLodestonePageLoader());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        instance.setAsyncPageLoader(new ExecutorAsyncLodestonePageLoader(new TestDataLodestonePageLoader(), executor));
+
+        try {
+            // 33000046 has mounts hidden, and 33000061 minions hidden, so those pages must not be requested
+            for(int id : new int[] {2256025, 33000046, 33000061}) {
+                instance.setParallelFetch(false);
+                PlayerBean expected = instance.getPlayer(id);
+                instance.setParallelFetch(true);
+                PlayerBean player = instance.getPlayer(id);
+
+                assertEquals(id, player.getId());
+                assertEquals(expected.getPlayerName(), player.getPlayerName());
+                assertEquals(expected.getLevelGladiator(), player.getLevelGladiator());
+                assertEquals(expected.getLevelFisher(), player.getLevelFisher());
+                assertEquals(expected.getMinionSet(), player.getMinionSet());
+                assertEquals(expected.getMountSet(), player.getMountSet());
+                assertEquals(expected.getDateImgLastModified(), player.getDateImgLastModified());
+                assertEquals(expected.getCharacterStatus(), player.getCharacterStatus());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLoadStreamingMatchesDom() throws Exception {
+        EorzeaDatabaseCache mockCache = mockNameCache();
+        instance.setEorzeaDatabaseCache(mockCache);
+        instance.setPageLoader(new TestDataLodestonePageLoader());
+        PlayerBuilder streaming = new PlayerBuilder();
+        streaming.setEorzeaDatabaseCache(mockCache);
+        streaming.setPageLoader(new TestDataLodestonePageLoader());
+        streaming.setPageExtractor(new StreamingCharacterPageExtractor());
+
+        for(int id : new int[] {2256025, 33000046, 33000061}) {
+            PlayerBean expected = instance.getPlayer(id);
+            PlayerBean player = streaming.getPlayer(id);
+
+            assertEquals(expected.getPlayerName(), player.getPlayerName());
+            assertEquals(expected.getRealm(), player.getRealm());
+            assertEquals(expected.getRace(), player.getRace());
+            assertEquals(expected.getGender(), player.getGender());
+            assertEquals(expected.getGrandCompany(), player.getGrandCompany());
+            assertEquals(expected.getGrandCompanyRank(), player.getGrandCompanyRank());
+            assertEquals(expected.getFreeCompany(), player.getFreeCompany());
+            assertEquals(expected.getLevelGladiator(), player.getLevelGladiator());
+            assertEquals(expected.getLevelFisher(), player.getLevelFisher());
+            assertEquals(expected.getLevelEureka(), player.getLevelEureka());
+            assertEquals(expected.getMinionSet(), player.getMinionSet());
+            assertEquals(expected.getMountSet(), player.getMountSet());
+        }
+    }
+
+    @Test
+    public void testBackgroundNameLookupsRecordIds() throws Exception {
+        EorzeaDatabaseCache mockCache = Mockito.mock(EorzeaDatabaseCache.class);
+        when(mockCache.getMountNameIfKnown(Mockito.endsWith("/9045c5c5d5d181ee495f0e76af07d6d93c9f0f13"))).thenReturn("Known Mount");
+        instance.setEorzeaDatabaseCache(mockCache);
+        instance.setPageLoader(new TestDataLodestonePageLoader());
+        instance.setBackgroundNameLookups(true);
+        CollectibleDictionary dictionary = new CollectibleDictionary();
+        instance.setCollectibleDictionary(dictionary);
+
+        PlayerBean player = instance.getPlayer(2256025);
+
+        // Names are not waited on, but every collectible is still recorded by ID
+        Mockito.verify(mockCache, Mockito.never()).getMountNameFromTooltip(Mockito.anyString());
+        Mockito.verify(mockCache, Mockito.never()).getMinionNameFromTooltip(Mockito.anyString());
+        assertEquals(0, dictionary.getIndex(CollectibleType.MOUNT, "9045c5c5d5d181ee495f0e76af07d6d93c9f0f13"));
+        assertTrue(player.getMountSet().get(0));
+        assertTrue(player.getMountSet().cardinality() > 1);
+        assertFalse(player.getMinionSet().isEmpty());
+        assertTrue(instance.doesPlayerHaveMount(player, "Known Mount"));
+        assertFalse(instance.doesPlayerHaveMount(player, "Unknown Mount"));
+    }
+
+    @Test
+    public void testBackgroundNameLookupsRefreshOwnership() throws Exception {
+        EorzeaDatabaseCache mockCache = Mockito.mock(EorzeaDatabaseCache.class);
+        instance.setEorzeaDatabaseCache(mockCache);
+        instance.setPageLoader(new TestDataLodestonePageLoader());
+        instance.setBackgroundNameLookups(true);
+        CollectibleDictionary dictionary = new CollectibleDictionary();
+        instance.setCollectibleDictionary(dictionary);
+        Properties rules = new Properties();
+        rules.setProperty("mount.HAS_30_DAYS_SUB", "Late Mount");
+        instance.setOwnershipRules(new OwnershipRules(rules));
+
+        PlayerBean player = instance.getPlayer(2256025);
+
+        // None of the names were known, so the player's flags wait on them
+        assertFalse(player.isHas30DaysSub());
+        BitSet awaiting = instance.takePlayersAwaitingNames();
+        assertTrue(awaiting.get(2256025));
+        assertEquals(1, awaiting.cardinality());
+        assertTrue(instance.takePlayersAwaitingNames().isEmpty());
+
+        when(mockCache.getKnownName(CollectibleType.MOUNT, "9045c5c5d5d181ee495f0e76af07d6d93c9f0f13")).thenReturn("Late Mount");
+        assertEquals(1, instance.nameLookedUpCollectibles());
+        instance.refreshOwnership(player);
+
+        assertTrue(player.isHas30DaysSub());
+    }
+
+    @Test
+    public void testInlineNameLookupsNeverAwaitNames() throws Exception {
+        instance.setPageLoader(new TestDataLodestonePageLoader());
+        EorzeaDatabaseCache mockCache = Mockito.mock(EorzeaDatabaseCache.class);
+        instance.setEorzeaDatabaseCache(mockCache);
+
+        instance.getPlayer(2256025);
+
+        assertTrue(instance.takePlayersAwaitingNames().isEmpty());
+    }
+
+    @Test
+    public void testRefreshUnmodifiedSkipsSubPages() throws Exception {
+        instance.setPageLoader(new TestDataLodestonePageLoader() {
+            @Override
+            public String getCharacterPageSource(final int characterId, final PageValidators validators)
+                    throws FetchYieldedPageNotModifiedException {
+                throw new FetchYieldedPageNotModifiedException();
+            }
+
+            @Override
+            public String getClassJobPageSource(final int characterId) {
+                throw new AssertionError("Class/job page should not be loaded for an unmodified character");
+            }
+        });
+        PlayerBean existing = new PlayerBean();
+        existing.setId(2256025);
+        existing.setLevelFisher(80);
+        existing.setCharacterStatus(CharacterStatus.ACTIVE);
+        existing.setDateImgLastModified(new Date(System.currentTimeMillis() - 60L * 86400000));
+
+        PlayerBean player = instance.refreshPlayer(existing);
+
+        assertSame(existing, player);
+        assertEquals(80, player.getLevelFisher());
+        // No longer active, as the image has not been modified in over 30 days
+        assertFalse(player.isActive());
+        assertEquals(CharacterStatus.INACTIVE, player.getCharacterStatus());
+    }
+
+    @Test
+    public void testRefreshUnchangedImageUpdatesProfile() throws Exception {
+        instance.setPageLoader(new TestDataLodestonePageLoader() {
+            @Override
+            public String getClassJobPageSource(final int characterId) {
+                throw new AssertionError("Class/job page should not be loaded for a character whose image has not changed");
+            }
+        });
+        LodestoneHttpClient mockClient = Mockito.mock(LodestoneHttpClient.class);
+        LodestoneResponse notModified = Mockito.mock(LodestoneResponse.class);
+        when(notModified.getStatusCode()).thenReturn(304);
+        when(mockClient.head(Mockito.anyString(), Mockito.anyMap())).thenReturn(notModified);
+        instance.setHttpClient(mockClient);
+        PlayerBean existing = new PlayerBean();
+        existing.setId(2256025);
+        existing.setPlayerName("Former Name");
+        existing.setLevelFisher(80);
+        existing.setDateImgLastModified(new Date());
+
+        PlayerBean player = instance.refreshPlayer(existing);
+
+        // The profile page changed, so its details are taken even though the sub-pages are not re-loaded
+        assertSame(existing, player);
+        assertEquals("Russell Tyler", player.getPlayerName());
+        assertEquals(80, player.getLevelFisher());
+        assertTrue(player.isActive());
+    }
+
+    @Test
+    public void testRefreshModifiedMatchesFullLoad() throws Exception {
+        instance.setEorzeaDatabaseCache(mockNameCache());
+        instance.setPageLoader(new TestDataLodestonePageLoader());
+        PlayerBean expected = instance.getPlayer(2256025);
+        PlayerBean existing = new PlayerBean();
+        existing.setId(2256025);
+
+        PlayerBean player = instance.refreshPlayer(existing);
+
+        assertNotSame(existing, player);
+        assertEquals(expected.getPlayerName(), player.getPlayerName());
+        assertEquals(expected.getLevelFisher(), player.getLevelFisher());
+        assertEquals(expected.getMinionSet(), player.getMinionSet());
+        assertEquals(expected.getMountSet(), player.getMountSet());
     }
 
 }
@@ -0,0 +1,37 @@
+package com.ffxivcensus.gatherer.player;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class UpsertDialectTest {
+
+    private static final String[] NAMES = {"id", "realm", "name"};
+
+    @Test
+    public void testForUrl() {
+        assertEquals(UpsertDialect.MYSQL, UpsertDialect.forUrl("mysql://localhost:3306"));
+        assertEquals(UpsertDialect.MYSQL, UpsertDialect.forUrl("mariadb://localhost:3306"));
+        assertEquals(UpsertDialect.POSTGRESQL, UpsertDialect.forUrl("postgresql://localhost:5432"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testForUnsupportedUrl() {
+        UpsertDialect.forUrl("h2:mem");
+    }
+
+    @Test
+    public void testMySql() {
+        assertEquals("INSERT INTO tblplayers (id, realm, name) VALUES (?, ?, ?)"
+                     + " ON DUPLICATE KEY UPDATE realm = VALUES(realm), name = VALUES(name)",
+                     UpsertDialect.MYSQL.getSql("tblplayers", NAMES, 0));
+    }
+
+    @Test
+    public void testPostgreSql() {
+        assertEquals("INSERT INTO tblplayers (realm, id, name) VALUES (?, ?, ?)"
+                     + " ON CONFLICT (id) DO UPDATE SET realm = EXCLUDED.realm, name = EXCLUDED.name",
+                     UpsertDialect.POSTGRESQL.getSql("tblplayers", new String[] {"realm", "id", "name"}, 1));
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.ffxivcensus.gatherer.task;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdaptiveConcurrencyControllerTest {
+
+    private static final String HOST = "eu.finalfantasyxiv.com";
+    private static final long HEALTHY_LATENCY = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private InFlightLimiter limiter;
+    private AdaptiveConcurrencyController instance;
+
+    @Before
+    public void setUp() {
+        limiter = new InFlightLimiter(16);
+        instance = new AdaptiveConcurrencyController(limiter, 4, 20);
+    }
+
+    @Test
+    public void testIncreasesWhileHealthy() {
+        // One full window of healthy responses raises the limit by one
+        respond(16, 200, HEALTHY_LATENCY);
+        assertEquals(17, instance.getLimit());
+
+        respond(17, 200, HEALTHY_LATENCY);
+        assertEquals(18, instance.getLimit());
+    }
+
+    @Test
+    public void testIncreaseCappedAtMax() {
+        for(int i = 0; i < 10; i++) {
+            respond(20, 200, HEALTHY_LATENCY);
+        }
+
+        assertEquals(20, instance.getLimit());
+    }
+
+    @Test
+    public void testDecreasesOnThrottling() {
+        instance.onResponse(HOST, 429, HEALTHY_LATENCY);
+
+        assertEquals(12, instance.getLimit());
+    }
+
+    @Test
+    public void testDecreasesOnTimeout() {
+        instance.onFailure(HOST, new SocketTimeoutException(), HEALTHY_LATENCY);
+
+        assertEquals(12, instance.getLimit());
+    }
+
+    @Test
+    public void testIgnoresOtherFailures() {
+        instance.onFailure(HOST, new IOException("Connection reset"), HEALTHY_LATENCY);
+
+        assertEquals(16, instance.getLimit());
+    }
+
+    @Test
+    public void testIgnoresPoolTimeouts() {
+        instance.onFailure(HOST, new ConnectionPoolTimeoutException("Timeout waiting for connection from pool"), HEALTHY_LATENCY);
+
+        assertEquals(16, instance.getLimit());
+    }
+
+    @Test
+    public void testSingleCutPerCongestionEvent() throws Exception {
+        for(int i = 0; i < 8; i++) {
+            limiter.acquire();
+        }
+
+        // The burst of throttled responses from requests already in flight only results in one cut
+        instance.onResponse(HOST, 429, HEALTHY_LATENCY);
+        for(int i = 0; i < 8; i++) {
+            instance.onResponse(HOST, 429, HEALTHY_LATENCY);
+        }
+        assertEquals(12, instance.getLimit());
+
+        // Once those have been heard back from, further throttling cuts again
+        instance.onResponse(HOST, 429, HEALTHY_LATENCY);
+        assertEquals(9, instance.getLimit());
+    }
+
+    @Test
+    public void testDecreaseFloorsAtMin() {
+        for(int i = 0; i < 10; i++) {
+            instance.onResponse(HOST, 503, HEALTHY_LATENCY);
+        }
+
+        assertEquals(4, instance.getLimit());
+    }
+
+    @Test
+    public void testHoldsWhenLatencyDegrades() {
+        respond(16, 200, HEALTHY_LATENCY);
+        assertEquals(17, instance.getLimit());
+
+        respond(17, 200, HEALTHY_LATENCY * 5);
+        assertEquals(17, instance.getLimit());
+    }
+
+    private void respond(final int count, final int statusCode, final long latency) {
+        for(int i = 0; i < count; i++) {
+            instance.onResponse(HOST, statusCode, latency);
+        }
+    }
+
+}
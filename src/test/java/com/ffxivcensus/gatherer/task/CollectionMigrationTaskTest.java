@@ -0,0 +1,92 @@
+package com.ffxivcensus.gatherer.task;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ffxivcensus.gatherer.edb.CollectibleDictionary;
+import com.ffxivcensus.gatherer.edb.CollectibleType;
+import com.ffxivcensus.gatherer.edb.EorzeaDatabaseCache;
+
+public class CollectionMigrationTaskTest {
+
+    private JdbcTemplate mockTemplate;
+    private EorzeaDatabaseCache mockCache;
+    private CollectibleDictionary dictionary;
+    private CollectionMigrationTask instance;
+
+    @Before
+    public void setUp() {
+        mockTemplate = mock(JdbcTemplate.class);
+        mockCache = mock(EorzeaDatabaseCache.class);
+        dictionary = new CollectibleDictionary();
+        dictionary.setName(CollectibleType.MOUNT, "chocobo", "Company Chocobo");
+        when(mockCache.getKnownTooltipIds(CollectibleType.MINION)).thenReturn(Collections.singletonMap("Wind-up Cursor", "cursor"));
+        when(mockCache.getKnownTooltipIds(CollectibleType.MOUNT)).thenReturn(Collections.emptyMap());
+        instance = new CollectionMigrationTask(mockTemplate, dictionary, mockCache, 2);
+    }
+
+    private static Map<String, Object> row(final int id, final String minions, final String mounts, final byte[] minionSet) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("minions", minions);
+        row.put("mounts", mounts);
+        row.put("minion_set", minionSet);
+        row.put("mount_set", null);
+        return row;
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testConvertsNamesInBlocks() {
+        byte[] gathered = {4};
+        List<Map<String, Object>> firstBlock = Arrays.asList(row(10, "Wind-up Cursor", "Company Chocobo", null),
+                                                             row(20, "Wind-up Cursor", "Unknown Mount", null));
+        when(mockTemplate.queryForList(anyString(), eq(-1), eq(2))).thenReturn(firstBlock);
+        when(mockTemplate.queryForList(anyString(), eq(20), eq(2))).thenReturn(Arrays.asList(row(30, "Wind-up Cursor", null, gathered)));
+
+        instance.run();
+
+        ArgumentCaptor<List> batches = ArgumentCaptor.forClass(List.class);
+        verify(mockTemplate, times(2)).batchUpdate(anyString(), batches.capture());
+        // The character owning a mount not yet known is left to a later run
+        List<Object[]> converted = batches.getAllValues().get(0);
+        assertEquals(1, converted.size());
+        BitSet minions = new BitSet();
+        minions.set(dictionary.getIndexOfName(CollectibleType.MINION, "Wind-up Cursor"));
+        BitSet mounts = new BitSet();
+        mounts.set(dictionary.getIndexOfName(CollectibleType.MOUNT, "Company Chocobo"));
+        assertArrayEquals(minions.toByteArray(), (byte[]) converted.get(0)[0]);
+        assertArrayEquals(mounts.toByteArray(), (byte[]) converted.get(0)[1]);
+        assertEquals(10, converted.get(0)[2]);
+        // A character already re-gathered keeps the set they were gathered with
+        List<Object[]> regathered = batches.getAllValues().get(1);
+        assertSame(gathered, regathered.get(0)[0]);
+        assertNull(regathered.get(0)[1]);
+    }
+
+    @Test
+    public void testOldColumnsAlreadyDropped() {
+        when(mockTemplate.queryForList(anyString(), anyInt(), anyInt())).thenThrow(new BadSqlGrammarException("migrate", "SELECT",
+                                                                                                            new SQLException()));
+
+        instance.run();
+
+        verify(mockTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+}
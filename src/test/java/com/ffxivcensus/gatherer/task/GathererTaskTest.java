@@ -2,6 +2,7 @@ package com.ffxivcensus.gatherer.task;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -13,10 +14,13 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import com.ffxivcensus.gatherer.GatheringStatus;
 import com.ffxivcensus.gatherer.edb.EorzeaDatabaseCache;
 import com.ffxivcensus.gatherer.player.CharacterStatus;
+import com.ffxivcensus.gatherer.player.CharacterStatusMap;
 import com.ffxivcensus.gatherer.player.PlayerBean;
 import com.ffxivcensus.gatherer.player.PlayerBeanRepository;
+import com.ffxivcensus.gatherer.player.PlayerBeanWriter;
 import com.ffxivcensus.gatherer.player.PlayerBuilder;
 
 public class GathererTaskTest {
@@ -60,4 +64,49 @@ public class GathererTaskTest {
         instance.run();
     }
 
+    @Test
+    public void runPrefetchedWithoutLookup() throws Exception {
+        PlayerBuilder mockBuilder = Mockito.mock(PlayerBuilder.class);
+        PlayerBean player = new PlayerBean();
+        player.setId(5);
+        when(mockBuilder.getPlayer(5)).thenReturn(player);
+        instance.setPlayerBuilder(mockBuilder);
+        GatheringStatus status = new GatheringStatus();
+        instance.setGatheringStatus(status);
+
+        instance.setPlayerId(5);
+        instance.setKnown(true);
+        instance.run();
+
+        verify(mockRepo, never()).findOne(Mockito.anyInt());
+        verify(mockRepo).save(player);
+        assertEquals(5, status.getHighestGatheredId());
+        assertEquals(5, status.getHighestValidId());
+    }
+
+    @Test
+    public void runRecordsStatusOnceWritten() throws Exception {
+        PlayerBuilder mockBuilder = Mockito.mock(PlayerBuilder.class);
+        PlayerBeanWriter mockWriter = Mockito.mock(PlayerBeanWriter.class);
+        CharacterStatusMap mockStatusMap = Mockito.mock(CharacterStatusMap.class);
+        PlayerBean player = new PlayerBean();
+        player.setId(5);
+        player.setCharacterStatus(CharacterStatus.ACTIVE);
+        when(mockBuilder.getPlayer(5)).thenReturn(player);
+        instance.setPlayerBuilder(mockBuilder);
+        instance.setPlayerWriter(mockWriter);
+        instance.setStatusMap(mockStatusMap);
+
+        instance.setPlayerId(5);
+        instance.setKnown(false);
+        instance.run();
+
+        // Nothing is recorded until the writer reports the character as written
+        ArgumentCaptor<Runnable> onWritten = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockWriter).write(Mockito.same(player), Mockito.eq(false), onWritten.capture());
+        verify(mockStatusMap, never()).set(Mockito.anyInt(), Mockito.any());
+        onWritten.getValue().run();
+        verify(mockStatusMap).set(5, CharacterStatus.ACTIVE);
+    }
+
 }
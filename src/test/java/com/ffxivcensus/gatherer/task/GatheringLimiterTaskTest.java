@@ -2,7 +2,6 @@ package com.ffxivcensus.gatherer.task;
 
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
 
 import java.util.concurrent.ThreadPoolExecutor;
 
@@ -10,20 +9,17 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
-import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import com.ffxivcensus.gatherer.GatheringStatus;
 import com.ffxivcensus.gatherer.config.ApplicationConfig;
 import com.ffxivcensus.gatherer.player.CharacterStatus;
-import com.ffxivcensus.gatherer.player.PlayerBean;
-import com.ffxivcensus.gatherer.player.PlayerBeanRepository;
 
 public class GatheringLimiterTaskTest {
 
     @Mock
     private ThreadPoolExecutor mockExecutor;
-    @Mock
-    private PlayerBeanRepository mockRepository;
+    private GatheringStatus status;
     private ApplicationConfig config;
     private GatheringLimiterTask instance;
 
@@ -31,7 +27,8 @@ public class GatheringLimiterTaskTest {
     public void setUp() {
         MockitoAnnotations.initMocks(this);
         config = new ApplicationConfig();
-        instance = new GatheringLimiterTask(config, mockExecutor, mockRepository);
+        status = new GatheringStatus();
+        instance = new GatheringLimiterTask(config, mockExecutor, status);
     }
     
     @After
@@ -39,11 +36,16 @@ public class GatheringLimiterTaskTest {
         instance = null;
     }
 
+    /**
+     * Records the highest valid character, and the highest character gathered above it as deleted.
+     */
+    private void gathered(final int topValid, final int topId) {
+        status.recordGathered(topValid, CharacterStatus.ACTIVE);
+        status.recordGathered(topId, CharacterStatus.DELETED);
+    }
+
     @Test
     public void testNothingGathered() {
-        when(mockRepository.findTopByOrderByIdDesc()).thenReturn(null);
-        when(mockRepository.findTopByCharacterStatusNotOrderByIdDesc(Mockito.any(CharacterStatus.class))).thenReturn(null);
-        
         instance.run();
         
         verify(mockExecutor).shutdownNow();
@@ -51,13 +53,7 @@ public class GatheringLimiterTaskTest {
     
     @Test
     public void testContinueCondition() {
-        PlayerBean topId = new PlayerBean();
-        topId.setId(150);
-        PlayerBean topValid = new PlayerBean();
-        topValid.setId(100);
-        
-        when(mockRepository.findTopByOrderByIdDesc()).thenReturn(topId);
-        when(mockRepository.findTopByCharacterStatusNotOrderByIdDesc(Mockito.any(CharacterStatus.class))).thenReturn(topValid);
+        gathered(100, 150);
         
         instance.run();
         
@@ -66,13 +62,7 @@ public class GatheringLimiterTaskTest {
     
     @Test
     public void testContinueAtMarginCondition() {
-        PlayerBean topId = new PlayerBean();
-        topId.setId(50100);
-        PlayerBean topValid = new PlayerBean();
-        topValid.setId(100);
-        
-        when(mockRepository.findTopByOrderByIdDesc()).thenReturn(topId);
-        when(mockRepository.findTopByCharacterStatusNotOrderByIdDesc(Mockito.any(CharacterStatus.class))).thenReturn(topValid);
+        gathered(100, 50100);
         
         instance.run();
         
@@ -81,16 +71,10 @@ public class GatheringLimiterTaskTest {
     
     @Test
     public void testContinueWithUnbreachedAutostopLimit() {
-        PlayerBean topId = new PlayerBean();
-        topId.setId(60000);
-        PlayerBean topValid = new PlayerBean();
-        topValid.setId(100);
+        gathered(100, 60000);
         
         config.setAutoStopLowerLimitId(61000);
         
-        when(mockRepository.findTopByOrderByIdDesc()).thenReturn(topId);
-        when(mockRepository.findTopByCharacterStatusNotOrderByIdDesc(Mockito.any(CharacterStatus.class))).thenReturn(topValid);
-        
         instance.run();
         
         verify(mockExecutor, never()).shutdownNow();
@@ -98,17 +82,30 @@ public class GatheringLimiterTaskTest {
     
     @Test
     public void testStopCondition() {
-        PlayerBean topId = new PlayerBean();
-        topId.setId(50101);
-        PlayerBean topValid = new PlayerBean();
-        topValid.setId(100);
-        
-        when(mockRepository.findTopByOrderByIdDesc()).thenReturn(topId);
-        when(mockRepository.findTopByCharacterStatusNotOrderByIdDesc(Mockito.any(CharacterStatus.class))).thenReturn(topValid);
+        gathered(100, 50101);
         
         instance.run();
         
         verify(mockExecutor).shutdownNow();
     }
 
+    @Test
+    public void testStopConditionFromSeed() {
+        status.seedWatermarks(50101, 100);
+
+        instance.run();
+
+        verify(mockExecutor).shutdownNow();
+    }
+
+    @Test
+    public void testContinueAfterNewValidCharacter() {
+        status.seedWatermarks(50101, 100);
+        status.recordGathered(50050, CharacterStatus.INACTIVE);
+
+        instance.run();
+
+        verify(mockExecutor, never()).shutdownNow();
+    }
+
 }
@@ -0,0 +1,105 @@
+package com.ffxivcensus.gatherer.task;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import com.ffxivcensus.gatherer.player.CharacterPages;
+import com.ffxivcensus.gatherer.player.PlayerBean;
+import com.ffxivcensus.gatherer.player.PlayerBuilder;
+
+public class GatheringPipelineTest {
+
+    private PlayerBuilder mockBuilder;
+    private CharacterPages mockPages;
+    private PlayerBean player;
+    private GatheringPipeline instance;
+
+    @Before
+    public void setUp() throws Exception {
+        mockBuilder = mock(PlayerBuilder.class);
+        mockPages = mock(CharacterPages.class);
+        player = new PlayerBean();
+        player.setId(1);
+        when(mockBuilder.fetchPages(1)).thenReturn(mockPages);
+        when(mockPages.getPlayer()).thenReturn(player);
+        when(mockBuilder.resolveCollectibles(mockPages)).thenReturn(player);
+        instance = new GatheringPipeline(mockBuilder, 2, 1, 1, 1, 10);
+    }
+
+    @After
+    public void tearDown() {
+        instance.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testPassesThroughEachStage() throws Exception {
+        AtomicReference<PlayerBean> persisted = new AtomicReference<>();
+        AtomicReference<String> persistedOn = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        instance.submit(1, saved -> {
+            persisted.set(saved);
+            persistedOn.set(Thread.currentThread().getName());
+        }, done::countDown);
+        done.await();
+
+        assertSame(player, persisted.get());
+        assertTrue(persistedOn.get().startsWith("pipeline-persist-"));
+        InOrder inOrder = inOrder(mockBuilder);
+        inOrder.verify(mockBuilder).fetchPages(1);
+        inOrder.verify(mockBuilder).parsePages(mockPages);
+        inOrder.verify(mockBuilder).resolveCollectibles(mockPages);
+        for(PipelineStage stage : instance.getStages()) {
+            assertEquals(stage.getName(), 1, stage.getCompleted());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testDeletedSkipsToPersist() throws Exception {
+        when(mockPages.isDeleted()).thenReturn(true);
+        AtomicReference<PlayerBean> persisted = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        instance.submit(1, persisted::set, done::countDown);
+        done.await();
+
+        assertSame(player, persisted.get());
+        verify(mockBuilder, never()).parsePages(any());
+        verify(mockBuilder, never()).resolveCollectibles(any());
+    }
+
+    @Test(timeout = 10000)
+    public void testFailureLeavesPipeline() throws Exception {
+        when(mockBuilder.fetchPages(1)).thenThrow(new IOException("Connection reset"));
+        AtomicReference<PlayerBean> persisted = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        instance.submit(1, persisted::set, done::countDown);
+        done.await();
+
+        assertNull(persisted.get());
+        verify(mockBuilder, never()).parsePages(any());
+    }
+
+    @Test(timeout = 10000)
+    public void testCloseWaitsForCharactersInPipeline() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+
+        instance.submit(1, saved -> {
+        }, done::countDown);
+        instance.close();
+
+        assertEquals(0, done.getCount());
+    }
+
+}
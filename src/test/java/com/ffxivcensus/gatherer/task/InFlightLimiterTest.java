@@ -0,0 +1,96 @@
+package com.ffxivcensus.gatherer.task;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InFlightLimiterTest {
+
+    private InFlightLimiter instance;
+
+    @Before
+    public void setUp() {
+        instance = new InFlightLimiter(2);
+    }
+
+    @After
+    public void tearDown() {
+        instance = null;
+    }
+
+    @Test
+    public void testAcquireAndRelease() throws Exception {
+        instance.acquire();
+        instance.acquire();
+        assertEquals(2, instance.getInFlight());
+
+        instance.release();
+        instance.release();
+        assertEquals(0, instance.getInFlight());
+        assertTrue(instance.awaitIdle(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testAcquireBlocksAtLimit() throws Exception {
+        instance.acquire();
+        instance.acquire();
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            try {
+                instance.acquire();
+                acquired.countDown();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        instance.release();
+        assertTrue(acquired.await(1, TimeUnit.SECONDS));
+        assertEquals(2, instance.getInFlight());
+    }
+
+    @Test
+    public void testRaisingLimitReleasesWaiters() throws Exception {
+        instance.acquire();
+        instance.acquire();
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            try {
+                instance.acquire();
+                acquired.countDown();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        instance.setLimit(3);
+        assertTrue(acquired.await(1, TimeUnit.SECONDS));
+        assertEquals(3, instance.getInFlight());
+    }
+
+    @Test
+    public void testLimitNeverBelowOne() {
+        instance.setLimit(0);
+
+        assertEquals(1, instance.getLimit());
+    }
+
+    @Test
+    public void testAwaitIdleTimesOut() throws Exception {
+        instance.acquire();
+
+        assertFalse(instance.awaitIdle(10, TimeUnit.MILLISECONDS));
+    }
+
+}
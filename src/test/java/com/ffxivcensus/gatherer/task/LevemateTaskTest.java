@@ -1,14 +1,18 @@
 package com.ffxivcensus.gatherer.task;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Before;
@@ -17,14 +21,15 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import com.ffxivcensus.gatherer.GatheringStatus;
+import com.ffxivcensus.gatherer.lodestone.LodestoneHttpClient;
+import com.ffxivcensus.gatherer.player.CharacterStatus;
+import com.ffxivcensus.gatherer.player.PlayerBeanRepository;
 
 public class LevemateTaskTest {
 
     @Mock
     private ThreadPoolExecutor mockExecutor;
     @Mock
-    private BlockingQueue<Runnable> mockQueue;
-    @Mock
     private TaskFactory mockFactry;
     @Mock
     private GathererTask mockTask;
@@ -46,38 +51,59 @@ public class LevemateTaskTest {
 
     @Test
     public void testPoolTerminated() {
-        when(mockExecutor.isTerminated()).thenReturn(true);
+        when(mockExecutor.isShutdown()).thenReturn(true);
 
         instance.run();
 
-        verify(mockExecutor, never()).getQueue();
+        verify(mockExecutor, never()).execute(Mockito.any());
+        verify(mockFactry, never()).createGatherer();
     }
 
     @Test
-    public void testPoolTerminating() {
-        when(mockExecutor.isTerminating()).thenReturn(true);
+    public void testPausedWhileLodestoneUnavailable() {
+        LodestoneHttpClient mockClient = Mockito.mock(LodestoneHttpClient.class);
+        when(mockClient.isAnyCircuitOpen()).thenReturn(true, false);
+        instance.setLodestoneHttpClient(mockClient);
+        when(mockFactry.createGatherer()).thenReturn(mockTask);
+        status.setFinishId(1);
 
         instance.run();
 
-        verify(mockExecutor, never()).getQueue();
+        // Dispatch resumes once the Lodestone recovers, rather than on the next tick
+        verify(mockClient, Mockito.times(2)).isAnyCircuitOpen();
+        verify(mockExecutor).execute(Mockito.any());
+        assertEquals(1, status.getCurrentId());
     }
 
     @Test
-    public void testPoolHealthy() {
-        when(mockExecutor.isTerminated()).thenReturn(false);
-        when(mockExecutor.getQueue()).thenReturn(mockQueue);
-        when(mockQueue.size()).thenReturn(101);
+    public void testDispatchUpToFinish() {
+        when(mockFactry.createGatherer()).thenReturn(mockTask);
+        status.setFinishId(3);
 
         instance.run();
 
-        verify(mockExecutor).getQueue();
+        verify(mockExecutor, Mockito.times(3)).execute(Mockito.any());
+        verify(mockTask).setPlayerId(1);
+        verify(mockTask).setPlayerId(3);
+        verify(mockExecutor).shutdown();
+        assertEquals(3, status.getCurrentId());
     }
 
     @Test
-    public void testPoolRefill() {
-        when(mockExecutor.isTerminated()).thenReturn(false);
-        when(mockExecutor.getQueue()).thenReturn(mockQueue);
-        when(mockQueue.size()).thenReturn(0, 0, 1000);
+    public void testDispatchReachLimit() {
+        when(mockFactry.createGatherer()).thenReturn(mockTask);
+        status.setFinishId(0);
+
+        instance.run();
+
+        verify(mockExecutor, never()).execute(Mockito.any());
+        verify(mockExecutor).shutdown();
+        assertEquals(0, status.getCurrentId());
+    }
+
+    @Test
+    public void testDispatchTerminatedDuringDispatch() {
+        doThrow(RejectedExecutionException.class).when(mockExecutor).execute(Mockito.any());
         when(mockFactry.createGatherer()).thenReturn(mockTask);
 
         instance.run();
@@ -87,31 +113,63 @@ public class LevemateTaskTest {
     }
 
     @Test
-    public void testPoolRefillReachLimit() {
-        when(mockExecutor.isTerminated()).thenReturn(false);
-        when(mockExecutor.getQueue()).thenReturn(mockQueue);
-        when(mockQueue.size()).thenReturn(0, 0, 1000);
+    public void testDispatchSkipsDeletedCharacters() {
+        PlayerBeanRepository mockRepo = Mockito.mock(PlayerBeanRepository.class);
+        when(mockRepo.findStatusesByIdBetween(1, 2)).thenReturn(Arrays.asList(new Object[] {1, CharacterStatus.DELETED},
+                                                                              new Object[] {2, CharacterStatus.ACTIVE}));
+        instance.setPlayerRepository(mockRepo);
         when(mockFactry.createGatherer()).thenReturn(mockTask);
-        status.setFinishId(0);
+        status.setFinishId(2);
 
         instance.run();
 
-        verify(mockExecutor, never()).execute(Mockito.any());
-        assertEquals(0, status.getCurrentId());
+        // Only the active character is dispatched, and both are found with a single query
+        verify(mockExecutor).execute(Mockito.any());
+        verify(mockTask).setPlayerId(2);
+        verify(mockTask).setKnown(true);
+        verify(mockRepo).findStatusesByIdBetween(1, 2);
+        assertEquals(2, status.getCurrentId());
     }
 
     @Test
-    public void testPoolRefillTerminatedDuringRefill() {
-        when(mockExecutor.isTerminated()).thenReturn(false);
-        when(mockExecutor.getQueue()).thenReturn(mockQueue);
-        when(mockQueue.size()).thenReturn(0, 0, 1, 2, 3, 1000);
-        doThrow(RejectedExecutionException.class).when(mockExecutor).execute(Mockito.any());
+    public void testDispatchWaitsForTopEndCleanup() {
+        TopEndCleanupTask mockCleanup = Mockito.mock(TopEndCleanupTask.class);
+        when(mockCleanup.isCleared(1)).thenReturn(true);
+        when(mockCleanup.isCleared(2)).thenReturn(false, true);
+        instance.setTopEndCleanup(mockCleanup);
         when(mockFactry.createGatherer()).thenReturn(mockTask);
+        status.setFinishId(2);
 
         instance.run();
 
-        verify(mockExecutor).execute(Mockito.any());
-        assertEquals(1, status.getCurrentId());
+        verify(mockCleanup, Mockito.times(2)).isCleared(2);
+        verify(mockExecutor, Mockito.times(2)).execute(Mockito.any());
+        assertEquals(2, status.getCurrentId());
+    }
+
+    @Test(timeout = 10000)
+    public void testDispatchBoundedUntilGatherersFinish() throws Exception {
+        BlockingQueue<Runnable> dispatched = new LinkedBlockingQueue<>();
+        doAnswer(invocation -> dispatched.add(invocation.getArgument(0))).when(mockExecutor).execute(Mockito.any());
+        when(mockFactry.createGatherer()).thenReturn(mockTask);
+        status.setFinishId(3);
+        instance = new LevemeteTask(mockExecutor, mockFactry, status, 2);
+
+        Thread dispatcher = new Thread(instance);
+        dispatcher.start();
+        Runnable first = dispatched.take();
+        dispatched.take();
+        // Both permits are held until a gatherer finishes
+        assertNull(dispatched.poll(500, TimeUnit.MILLISECONDS));
+        assertEquals(2, status.getCurrentId());
+
+        first.run();
+        dispatched.take();
+        dispatcher.join();
+
+        verify(mockTask).run();
+        verify(mockExecutor).shutdown();
+        assertEquals(3, status.getCurrentId());
     }
 
 }
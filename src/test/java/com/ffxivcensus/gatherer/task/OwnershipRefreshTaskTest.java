@@ -0,0 +1,93 @@
+package com.ffxivcensus.gatherer.task;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import com.ffxivcensus.gatherer.edb.EorzeaDatabaseCache;
+import com.ffxivcensus.gatherer.player.PlayerBean;
+import com.ffxivcensus.gatherer.player.PlayerBeanRepository;
+import com.ffxivcensus.gatherer.player.PlayerBuilder;
+
+public class OwnershipRefreshTaskTest {
+
+    private PlayerBuilder mockBuilder;
+    private EorzeaDatabaseCache mockCache;
+    private PlayerBeanRepository mockRepository;
+    private OwnershipRefreshTask instance;
+
+    @Before
+    public void setUp() throws Exception {
+        mockBuilder = mock(PlayerBuilder.class);
+        mockCache = mock(EorzeaDatabaseCache.class);
+        mockRepository = mock(PlayerBeanRepository.class);
+        when(mockCache.awaitBackgroundLookups(anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(mockRepository.findAll(anyIterable())).then(invocation -> {
+            List<PlayerBean> players = new ArrayList<>();
+            for(Integer id : invocation.<Iterable<Integer>> getArgument(0)) {
+                PlayerBean player = new PlayerBean();
+                player.setId(id);
+                players.add(player);
+            }
+            return players;
+        });
+        instance = new OwnershipRefreshTask(mockBuilder, mockCache, mockRepository, 2, 1000);
+    }
+
+    @Test
+    public void testRefreshesInBlocksOnceNamed() throws Exception {
+        BitSet awaiting = new BitSet();
+        awaiting.set(10);
+        awaiting.set(20);
+        awaiting.set(30);
+        when(mockBuilder.takePlayersAwaitingNames()).thenReturn(awaiting);
+
+        instance.run();
+
+        InOrder inOrder = inOrder(mockCache, mockBuilder, mockRepository);
+        inOrder.verify(mockCache).awaitBackgroundLookups(1000, TimeUnit.MILLISECONDS);
+        inOrder.verify(mockBuilder).nameLookedUpCollectibles();
+        inOrder.verify(mockRepository).findAll(Arrays.asList(10, 20));
+        inOrder.verify(mockRepository).save(anyIterable());
+        inOrder.verify(mockRepository).findAll(Arrays.asList(30));
+        inOrder.verify(mockRepository).save(anyIterable());
+        verify(mockBuilder, times(3)).refreshOwnership(any(PlayerBean.class));
+    }
+
+    @Test
+    public void testNothingAwaitingNames() throws Exception {
+        when(mockBuilder.takePlayersAwaitingNames()).thenReturn(new BitSet());
+
+        instance.run();
+
+        verifyZeroInteractions(mockCache, mockRepository);
+    }
+
+    @Test
+    public void testInterruptedWaitingForNames() throws Exception {
+        BitSet awaiting = new BitSet();
+        awaiting.set(10);
+        when(mockBuilder.takePlayersAwaitingNames()).thenReturn(awaiting);
+        when(mockCache.awaitBackgroundLookups(anyLong(), any(TimeUnit.class))).thenThrow(new InterruptedException());
+
+        try {
+            instance.run();
+
+            assertTrue(Thread.currentThread().isInterrupted());
+            verifyZeroInteractions(mockRepository);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.ffxivcensus.gatherer.task;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class PipelineStageTest {
+
+    private PipelineStage instance;
+
+    @After
+    public void tearDown() {
+        if(instance != null) {
+            instance.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testRunsSubmittedWork() throws Exception {
+        instance = new PipelineStage("test", 2, 4);
+        CountDownLatch ran = new CountDownLatch(3);
+
+        for(int i = 0; i < 3; i++) {
+            instance.submit(ran::countDown);
+        }
+
+        ran.await();
+        assertTrue(instance.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(3, instance.getCompleted());
+        assertEquals(0, instance.getBlockedCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testBlocksSubmitterWhenFull() throws Exception {
+        instance = new PipelineStage("test", 1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocking = () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch(InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        // One on the thread, one in the queue
+        instance.submit(blocking);
+        running.await();
+        instance.submit(blocking);
+        assertEquals(1, instance.getActive());
+        assertEquals(1, instance.getQueued());
+
+        Thread submitter = new Thread(() -> {
+            try {
+                instance.submit(blocking);
+            } catch(InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        submitter.start();
+        while(instance.getBlocked() == 0) {
+            Thread.sleep(10);
+        }
+        assertTrue(submitter.isAlive());
+        assertEquals(1, instance.getBlockedCount());
+
+        release.countDown();
+        submitter.join();
+        assertTrue(instance.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(3, instance.getCompleted());
+        assertEquals(0, instance.getBlocked());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testRejectsAfterShutdown() throws Exception {
+        instance = new PipelineStage("test", 1, 1);
+        instance.shutdown(1, TimeUnit.SECONDS);
+
+        instance.submit(() -> {
+        });
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.ffxivcensus.gatherer.task;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import com.ffxivcensus.gatherer.player.CharacterStatusMap;
+import com.ffxivcensus.gatherer.player.PlayerBeanRepository;
+
+public class TopEndCleanupTaskTest {
+
+    private PlayerBeanRepository mockRepository;
+
+    @Before
+    public void setUp() {
+        mockRepository = mock(PlayerBeanRepository.class);
+    }
+
+    @Test
+    public void testDeletesInRanges() {
+        when(mockRepository.deleteByIdRange(anyInt(), anyInt())).thenReturn(10);
+        TopEndCleanupTask instance = new TopEndCleanupTask(mockRepository, 100, 125, 10, 0);
+        assertTrue(instance.isCleared(100));
+        assertFalse(instance.isCleared(101));
+
+        instance.run();
+
+        InOrder inOrder = inOrder(mockRepository);
+        inOrder.verify(mockRepository).deleteByIdRange(100, 110);
+        inOrder.verify(mockRepository).deleteByIdRange(110, 120);
+        inOrder.verify(mockRepository).deleteByIdRange(120, 125);
+        verifyNoMoreInteractions(mockRepository);
+        assertTrue(instance.isComplete());
+        assertTrue(instance.isCleared(126));
+    }
+
+    @Test
+    public void testClearsAsEachRangeIsDeleted() {
+        TopEndCleanupTask instance = new TopEndCleanupTask(mockRepository, 100, 125, 10, 0);
+        when(mockRepository.deleteByIdRange(anyInt(), anyInt())).thenAnswer(invocation -> {
+            int afterId = invocation.getArgument(0);
+            // Nothing above the range being deleted is cleared yet
+            assertTrue(instance.isCleared(afterId));
+            assertFalse(instance.isCleared(afterId + 1));
+            return 0;
+        });
+
+        instance.run();
+
+        verify(mockRepository, times(3)).deleteByIdRange(anyInt(), anyInt());
+    }
+
+    @Test
+    public void testForgetsStatusesOnceDeleted() {
+        CharacterStatusMap mockStatusMap = mock(CharacterStatusMap.class);
+        TopEndCleanupTask instance = new TopEndCleanupTask(mockRepository, mockStatusMap, 100, 125, 10, 0);
+
+        instance.run();
+
+        InOrder inOrder = inOrder(mockRepository, mockStatusMap);
+        inOrder.verify(mockRepository).deleteByIdRange(100, 110);
+        inOrder.verify(mockStatusMap).clearRange(100, 110);
+        inOrder.verify(mockRepository).deleteByIdRange(110, 120);
+        inOrder.verify(mockStatusMap).clearRange(110, 120);
+        inOrder.verify(mockRepository).deleteByIdRange(120, 125);
+        inOrder.verify(mockStatusMap).clearRange(120, 125);
+    }
+
+    @Test
+    public void testNothingToDelete() {
+        TopEndCleanupTask instance = new TopEndCleanupTask(mockRepository, 100, 100, 10, 0);
+        assertTrue(instance.isComplete());
+
+        instance.run();
+
+        verifyZeroInteractions(mockRepository);
+    }
+
+    @Test
+    public void testFailureDoesNotBlockGathering() {
+        when(mockRepository.deleteByIdRange(anyInt(), anyInt())).thenReturn(10).thenThrow(new IllegalStateException("Lock wait timeout"));
+        TopEndCleanupTask instance = new TopEndCleanupTask(mockRepository, 100, 125, 10, 0);
+
+        instance.run();
+
+        verify(mockRepository, times(2)).deleteByIdRange(anyInt(), anyInt());
+        assertTrue(instance.isCleared(125));
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.ffxivcensus.gatherer.task;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class VirtualThreadsTest {
+
+    @Test
+    public void testSupportedByJavaVersion() {
+        String version = System.getProperty("java.specification.version");
+        int major = Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+
+        if(major >= 21) {
+            assertTrue(VirtualThreads.isSupported());
+        } else if(major < 19) {
+            assertFalse(VirtualThreads.isSupported());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testRunsEachTaskOnVirtualThread() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+        try {
+            Future<Thread> first = executor.submit(Thread::currentThread);
+            Future<Thread> second = executor.submit(Thread::currentThread);
+
+            assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(first.get()));
+            assertNotSame(first.get(), second.get());
+            assertTrue(first.get().getName().startsWith("test-"));
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testUnsupportedBeforeJava21() {
+        assumeFalse(VirtualThreads.isSupported());
+
+        VirtualThreads.newThreadPerTaskExecutor("test-");
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.ffxivcensus.gatherer.util;
+
+import static org.junit.Assert.*;
+
+import java.util.BitSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BitSetConverterTest {
+
+    private BitSetConverter converter;
+
+    @Before
+    public void setUp() {
+        converter = new BitSetConverter();
+    }
+
+    @Test
+    public void testRoundTrip() {
+        BitSet set = new BitSet();
+        set.set(0);
+        set.set(9);
+        set.set(300);
+
+        byte[] output = converter.convertToDatabaseColumn(set);
+
+        assertEquals(38, output.length);
+        assertEquals(set, converter.convertToEntityAttribute(output));
+    }
+
+    @Test
+    public void testConvertToDatabaseColumnEmpty() {
+        assertNull(converter.convertToDatabaseColumn(new BitSet()));
+        assertNull(converter.convertToDatabaseColumn(null));
+    }
+
+    @Test
+    public void testConvertToEntityAttributeNull() {
+        assertTrue(converter.convertToEntityAttribute(null).isEmpty());
+    }
+
+}